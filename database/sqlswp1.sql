@@ -223,6 +223,7 @@ CREATE INDEX idx_invoices_store_createdat ON invoices(store_id, created_at);
 CREATE INDEX idx_invoice_details_invoice ON invoice_details(invoice_id);
 CREATE INDEX idx_invoice_details_product ON invoice_details(product_id);
 CREATE INDEX idx_debtrecords_customer_createon ON debt_records(customer_id, create_on);
+CREATE INDEX idx_products_createdby_name ON products(created_by, name);
 UPDATE STATISTICS invoices;
 UPDATE STATISTICS invoice_details;
 UPDATE STATISTICS debt_records;
@@ -230,3 +231,108 @@ UPDATE STATISTICS debt_records;
 	
 
 
+
+-- Outbox cho audit khách hàng: ghi cùng transaction cập nhật khách hàng, writer nền chuyển sang customer_change_histories
+CREATE TABLE customer_change_outbox (
+    event_id NVARCHAR(36) PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    changed_field NVARCHAR(255) NOT NULL,
+    old_value NVARCHAR(255),
+    new_value NVARCHAR(255),
+    additional_info NVARCHAR(255),
+    owner_id BIGINT NULL,
+    changed_by BIGINT NOT NULL,
+    changed_at DATETIME2 NOT NULL
+);
+CREATE INDEX idx_customer_change_outbox_changedat ON customer_change_outbox(changed_at);
+
+-- Tìm kiếm lịch sử khách hàng theo owner + thời gian, thay cho LIKE trên additional_info
+ALTER TABLE customer_change_histories ADD owner_id BIGINT NULL, event_id NVARCHAR(36) NULL;
+GO
+UPDATE h SET h.owner_id = u.id
+FROM customer_change_histories h
+JOIN users u ON u.username = h.additional_info
+WHERE h.owner_id IS NULL;
+CREATE INDEX idx_customer_change_histories_owner_changedat ON customer_change_histories(owner_id, changed_at DESC);
+CREATE UNIQUE INDEX idx_customer_change_histories_event ON customer_change_histories(event_id) WHERE event_id IS NOT NULL;
+
+-- Chỉ mục đảo cho old_value/new_value (token không phân biệt hoa thường và dấu)
+CREATE TABLE customer_change_history_tokens (
+    owner_id BIGINT NOT NULL,
+    token NVARCHAR(64) COLLATE Latin1_General_100_CI_AI NOT NULL,
+    history_id BIGINT NOT NULL,
+    CONSTRAINT PK_customer_change_history_tokens PRIMARY KEY (owner_id, token, history_id),
+    CONSTRAINT FK_CustomerChangeHistoryToken_History
+        FOREIGN KEY (history_id) REFERENCES customer_change_histories(id)
+);
+-- Token cho lịch sử cũ được nạp bằng ứng dụng (cùng hàm tách từ với writer nền):
+--   --spring.profiles.active=backfill-history-tokens
+
+-- Bộ đếm sản phẩm bán chạy theo cửa hàng / ngày, cập nhật khi tạo hoặc xóa hóa đơn bán
+CREATE TABLE product_sales_daily (
+    store_id BIGINT NOT NULL,
+    sale_date DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(18,2) NOT NULL DEFAULT 0,
+    CONSTRAINT PK_product_sales_daily PRIMARY KEY (store_id, sale_date, product_id),
+    CONSTRAINT FK_product_sales_daily_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+INSERT INTO product_sales_daily (store_id, sale_date, product_id, quantity, revenue)
+SELECT i.store_id, CAST(i.created_at AS DATE), d.product_id, SUM(d.quantity), SUM(d.total_price)
+FROM invoice_details d
+JOIN invoices i ON i.id = d.invoice_id
+WHERE i.type = 'Sale' AND i.is_deleted = 0
+GROUP BY i.store_id, CAST(i.created_at AS DATE), d.product_id;
+
+-- Báo cáo tổng hợp của owner: doanh thu theo kỳ và công nợ chưa thu theo cửa hàng
+CREATE INDEX idx_invoices_store_type_createdat ON invoices(store_id, type, created_at)
+    INCLUDE (final_amount, payment_status, is_deleted);
+CREATE INDEX idx_zones_store ON zones(store_id) INCLUDE (product_id, quantity, is_deleted);
+CREATE INDEX idx_stores_createdby ON stores(created_by);
+
+-- Tổng nợ theo tháng của từng khách hàng, cập nhật cùng transaction khi thêm / xóa phiếu nợ
+CREATE TABLE debt_monthly_summary (
+    customer_id BIGINT NOT NULL,
+    [year] INT NOT NULL,
+    [month] INT NOT NULL,
+    total_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    record_count INT NOT NULL DEFAULT 0,
+    CONSTRAINT PK_debt_monthly_summary PRIMARY KEY (customer_id, [year], [month]),
+    CONSTRAINT FK_debt_monthly_summary_customer FOREIGN KEY (customer_id) REFERENCES customers(id)
+);
+INSERT INTO debt_monthly_summary (customer_id, [year], [month], total_amount, record_count)
+SELECT customer_id, YEAR(create_on), MONTH(create_on), SUM(amount), COUNT(*)
+FROM debt_records
+WHERE is_deleted = 0 AND create_on IS NOT NULL
+GROUP BY customer_id, YEAR(create_on), MONTH(create_on);
+
+-- Hàng đợi email gửi nền (EmailDispatcher); next_attempt_at là hạn thuê khi status = SENDING
+CREATE TABLE email_outbox (
+    id BIGINT IDENTITY(1,1) PRIMARY KEY,
+    recipient NVARCHAR(255) NOT NULL,
+    subject NVARCHAR(255) NULL,
+    body NVARCHAR(MAX) NULL,
+    status NVARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME2 NOT NULL,
+    last_error NVARCHAR(1000) NULL,
+    created_at DATETIME2 NOT NULL,
+    sent_at DATETIME2 NULL
+);
+CREATE INDEX idx_email_outbox_status_next ON email_outbox(status, next_attempt_at);
+
+-- OTP quên mật khẩu: mỗi user tối đa một dòng, lượt dọn định kỳ xóa theo expiration_time
+DELETE FROM forgotPassword WHERE expiration_time < GETDATE();
+CREATE INDEX idx_forgotPassword_user ON forgotPassword([user_id]);
+CREATE INDEX idx_forgotPassword_expiration ON forgotPassword(expiration_time);
+
+-- Lịch tuần theo cửa hàng: work_shifts.created_by lưu id cửa hàng
+CREATE INDEX idx_work_shifts_store_date ON work_shifts(created_by, work_date)
+    INCLUDE (shift_id, employee_id);
+
+-- Nhịp tim cho replica báo cáo: primary ghi thời điểm hiện tại (epoch ms), ReplicaLagGuard đọc lại trên replica để đo độ trễ
+CREATE TABLE replica_heartbeat (
+    id INT PRIMARY KEY,
+    beat_at_ms BIGINT NOT NULL
+);
@@ -0,0 +1,63 @@
+package swp.se1889.g1.rice_store.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swp.se1889.g1.rice_store.entity.DebtRecords;
+import swp.se1889.g1.rice_store.service.DebtRecordService;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Phần CPU của DebtRecordService.updateDebtBalances: sắp xếp theo createdAt rồi cộng dồn BigDecimal
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class DebtBalanceBenchmark {
+
+    // Số phiếu nợ của một khách hàng
+    @Param({"10", "500", "5000"})
+    private int records;
+
+    private List<DebtRecords> debtRecords;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        DebtRecords.DebtType[] types = DebtRecords.DebtType.values();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        debtRecords = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            DebtRecords r = new DebtRecords();
+            r.setId((long) i + 1);
+            r.setType(types[random.nextInt(types.length)]);
+            r.setAmount(BigDecimal.valueOf(random.nextInt(10_000_000), 2));
+            // vài bản ghi trùng thời gian để nhánh thenComparing(id) cũng được đo
+            r.setCreatedAt(start.plusMinutes(random.nextInt(Math.max(1, records * 10))));
+            debtRecords.add(r);
+        }
+        // repository trả về không theo thứ tự
+        Collections.shuffle(debtRecords, random);
+    }
+
+    @Benchmark
+    public BigDecimal replayBalance() {
+        return DebtRecordService.replayBalance(debtRecords);
+    }
+}
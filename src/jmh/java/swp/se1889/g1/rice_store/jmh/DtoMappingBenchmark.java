@@ -0,0 +1,116 @@
+package swp.se1889.g1.rice_store.jmh;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import swp.se1889.g1.rice_store.dto.CustomerDTO;
+import swp.se1889.g1.rice_store.dto.ProductZoneDTO;
+import swp.se1889.g1.rice_store.dto.request.UpdateUserRequest;
+import swp.se1889.g1.rice_store.dto.request.UserRequest;
+import swp.se1889.g1.rice_store.entity.Customer;
+import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.mapper.UserMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Chi phí ánh xạ entity/dòng kết quả -> DTO cho một trang dữ liệu:
+ CustomerDTO(Customer), ProductZoneDTO (constructor projection của searchProductZoneDetails)
+ và hai phương thức MapStruct của UserMapper.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class DtoMappingBenchmark {
+
+    // Số dòng của một trang
+    @Param({"10", "1000"})
+    private int rows;
+
+    private List<Customer> customers;
+    private List<Object[]> productZoneRows;
+    private List<UserRequest> userRequests;
+    private UpdateUserRequest updateRequest;
+    private User target;
+    private UserMapper userMapper;
+
+    @Setup
+    public void setUp() {
+        userMapper = Mappers.getMapper(UserMapper.class);
+        User owner = new User();
+        owner.setId(1L);
+        owner.setUsername("owner01");
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+        customers = new ArrayList<>(rows);
+        productZoneRows = new ArrayList<>(rows);
+        userRequests = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Customer c = new Customer();
+            c.setId((long) i + 1);
+            c.setName("Khách hàng " + i);
+            c.setPhone(String.format("09%08d", i));
+            c.setAddress("Số " + i + " Hà Nội");
+            c.setEmail("kh" + i + "@example.com");
+            c.setDebtBalance(BigDecimal.valueOf(i * 1000L, 2));
+            c.setCreatedBy(owner);
+            c.setUpdatedBy("owner01");
+            c.setCreatedAt(now);
+            c.setUpdatedAt(now);
+            customers.add(c);
+
+            productZoneRows.add(new Object[]{(long) i + 1, "Gạo " + i, "Mô tả " + i, (long) (i % 20) + 1,
+                    "Khu " + (i % 20), BigDecimal.valueOf(15000 + i), i % 500});
+
+            userRequests.add(new UserRequest("user" + i, "user" + i + "@example.com", "secret", "ROLE_EMPLOYEE",
+                    "Nhân viên " + i, "Hà Nội", String.format("09%08d", i), null));
+        }
+        updateRequest = new UpdateUserRequest("Nhân viên mới", "Đà Nẵng", "0912345678", "ghi chú", false);
+        target = new User();
+    }
+
+    @Benchmark
+    public void customerDto(Blackhole bh) {
+        for (Customer c : customers) {
+            bh.consume(new CustomerDTO(c));
+        }
+    }
+
+    @Benchmark
+    public void productZoneDto(Blackhole bh) {
+        for (Object[] r : productZoneRows) {
+            bh.consume(new ProductZoneDTO((Long) r[0], (String) r[1], (String) r[2], (Long) r[3],
+                    (String) r[4], (BigDecimal) r[5], (Integer) r[6]));
+        }
+    }
+
+    @Benchmark
+    public void userMapperToUser(Blackhole bh) {
+        for (UserRequest request : userRequests) {
+            bh.consume(userMapper.toUser(request));
+        }
+    }
+
+    @Benchmark
+    public User userMapperUpdate() {
+        userMapper.updateUserFromRequest(updateRequest, target);
+        return target;
+    }
+}
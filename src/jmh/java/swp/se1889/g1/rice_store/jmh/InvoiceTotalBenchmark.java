@@ -0,0 +1,65 @@
+package swp.se1889.g1.rice_store.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swp.se1889.g1.rice_store.dto.InvoiceDetailDTO;
+import swp.se1889.g1.rice_store.service.InvoicesService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// InvoicesService.calculateTotalPrice (stream + BigDecimal) so với vòng for thường trên cùng dữ liệu
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class InvoiceTotalBenchmark {
+
+    // Số dòng chi tiết của một hóa đơn nhập
+    @Param({"5", "50", "500"})
+    private int lines;
+
+    private List<InvoiceDetailDTO> details;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        details = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            InvoiceDetailDTO d = new InvoiceDetailDTO();
+            d.setProductId((long) i + 1);
+            d.setZoneId((long) random.nextInt(20) + 1);
+            d.setQuantity(random.nextInt(100) + 1);
+            d.setUnitPrice(BigDecimal.valueOf(random.nextInt(5_000_000) + 1000, 2));
+            details.add(d);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal stream() {
+        return InvoicesService.calculateTotalPrice(details);
+    }
+
+    @Benchmark
+    public BigDecimal loop() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (InvoiceDetailDTO d : details) {
+            total = total.add(d.getUnitPrice().multiply(BigDecimal.valueOf(d.getQuantity())));
+        }
+        return total;
+    }
+}
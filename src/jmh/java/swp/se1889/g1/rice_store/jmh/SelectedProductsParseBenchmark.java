@@ -0,0 +1,76 @@
+package swp.se1889.g1.rice_store.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import swp.se1889.g1.rice_store.dto.InvoiceSaleDetailDTO;
+
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Parse tham số selectedProducts của InvoiceSaleController.createOrder.
+ perRequestMapper: đúng như controller hiện tại (new ObjectMapper() mỗi request);
+ sharedMapper / sharedReader: dùng lại một instance đã warm-up.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class SelectedProductsParseBenchmark {
+
+    private static final TypeReference<List<InvoiceSaleDetailDTO>> TYPE = new TypeReference<>() {
+    };
+
+    // Số sản phẩm trong giỏ hàng
+    @Param({"1", "20", "200"})
+    private int products;
+
+    private String json;
+    private ObjectMapper sharedMapper;
+    private ObjectReader sharedReader;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringJoiner items = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < products; i++) {
+            items.add("{\"productId\":" + (i + 1) + ",\"quantity\":" + (random.nextInt(50) + 1)
+                    + ",\"zoneId\":" + (random.nextInt(20) + 1) + "}");
+        }
+        json = items.toString();
+        sharedMapper = new ObjectMapper();
+        sharedReader = sharedMapper.readerFor(TYPE);
+    }
+
+    @Benchmark
+    public List<InvoiceSaleDetailDTO> perRequestMapper() throws JsonProcessingException {
+        return new ObjectMapper().readValue(json, TYPE);
+    }
+
+    @Benchmark
+    public List<InvoiceSaleDetailDTO> sharedMapper() throws JsonProcessingException {
+        return sharedMapper.readValue(json, TYPE);
+    }
+
+    @Benchmark
+    public List<InvoiceSaleDetailDTO> sharedReader() throws JsonProcessingException {
+        return sharedReader.readValue(json);
+    }
+}
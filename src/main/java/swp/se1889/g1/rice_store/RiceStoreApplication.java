@@ -2,8 +2,10 @@ package swp.se1889.g1.rice_store;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class RiceStoreApplication {
 
 	public static void main(String[] args) {
@@ -56,6 +56,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/owner/**").permitAll()
                         .requestMatchers("owner/**").hasRole("OWNER")
                         .requestMatchers("admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .formLogin(form -> form
                         .loginPage("/login")
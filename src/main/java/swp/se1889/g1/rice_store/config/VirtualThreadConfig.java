@@ -0,0 +1,42 @@
+package swp.se1889.g1.rice_store.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import swp.se1889.g1.rice_store.config.monitoring.VirtualThreadPinningMonitor;
+
+import java.time.Duration;
+
+/*
+ Chế độ virtual thread (profile virtual-threads, spring.threads.virtual.enabled=true):
+ Spring Boot tự chuyển thread xử lý request của Tomcat, applicationTaskExecutor (@Async) và @Scheduled sang virtual thread,
+ nhưng chỉ khi JVM là Java 21+; trên Java 17 cờ này bị bỏ qua nên ở đây cảnh báo rõ.
+ Kèm theo bộ theo dõi pinning qua JFR (virtual-threads.pinning.*).
+*/
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    public VirtualThreadConfig() {
+        if (!VirtualThreads.isSupported()) {
+            log.warn("spring.threads.virtual.enabled=true but Java {} has no virtual threads, requests stay on platform threads",
+                    System.getProperty("java.version"));
+        }
+    }
+
+    @Bean
+    @ConditionalOnJava(JavaVersion.TWENTY_ONE)
+    @ConditionalOnProperty(name = "virtual-threads.pinning.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                                                   @Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMillis) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(thresholdMillis));
+    }
+}
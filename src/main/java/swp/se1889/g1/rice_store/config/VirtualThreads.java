@@ -0,0 +1,62 @@
+package swp.se1889.g1.rice_store.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Virtual thread qua reflection: dự án build với Java 17 (Thread.ofVirtual, Executors.newVirtualThreadPerTaskExecutor
+ chỉ có từ Java 21) nhưng khi chạy trên JVM 21+ vẫn dùng được. Không hỗ trợ thì quay về platform thread.
+*/
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = method(Thread.class, "ofVirtual");
+    private static final Method PER_TASK_EXECUTOR = method(Executors.class, "newVirtualThreadPerTaskExecutor");
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null && PER_TASK_EXECUTOR != null;
+    }
+
+    // Thread tên prefix0, prefix1, ...: virtual nếu virtual = true và JVM hỗ trợ, ngược lại platform daemon thread
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        if (virtual && isSupported()) {
+            try {
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = OF_VIRTUAL.invoke(null);
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Không tạo được virtual thread factory", e);
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // Mỗi task một virtual thread; null nếu JVM không hỗ trợ
+    public static ExecutorService newPerTaskExecutor() {
+        if (!isSupported()) return null;
+        try {
+            return (ExecutorService) PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Không tạo được virtual thread executor", e);
+        }
+    }
+
+    private static Method method(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package swp.se1889.g1.rice_store.config.embedded;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ Profile "embedded": spring.sql.init chạy thẳng database/sqlswp1.sql (được maven profile embedded-db chép vào
+ classpath:db/mssql/), mỗi script được dịch sang cú pháp H2 bằng EmbeddedSchemaScript trước khi thực thi.
+ Sửa schema chỉ cần sửa database/sqlswp1.sql. Bean cùng kiểu với auto-configuration nên Boot dùng bean này thay thế,
+ và các bean @DependsOnDatabaseInitialization (EmbeddedDataSeeder) vẫn chờ schema tạo xong.
+*/
+@Configuration
+@Profile("embedded")
+public class EmbeddedSchemaConfig {
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource,
+                                                                                     SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+            @Override
+            protected void runScripts(Scripts scripts) {
+                Charset encoding = scripts.getEncoding() != null ? scripts.getEncoding() : StandardCharsets.UTF_8;
+                List<Resource> translated = new ArrayList<>();
+                for (Resource script : scripts) {
+                    try {
+                        String h2 = EmbeddedSchemaScript.toH2(script.getContentAsString(encoding));
+                        translated.add(new ByteArrayResource(h2.getBytes(StandardCharsets.UTF_8), script.getDescription()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Không đọc được " + script.getDescription(), e);
+                    }
+                }
+                super.runScripts(new Scripts(translated)
+                        .continueOnError(scripts.isContinueOnError())
+                        .separator(";")
+                        .encoding(StandardCharsets.UTF_8));
+            }
+        };
+    }
+}
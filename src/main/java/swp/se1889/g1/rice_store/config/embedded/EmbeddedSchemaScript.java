@@ -0,0 +1,90 @@
+package swp.se1889.g1.rice_store.config.embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ Dịch database/sqlswp1.sql (script SQL Server, nguồn schema duy nhất) sang câu lệnh chạy được trên H2 chế độ MSSQLServer.
+ - Bỏ: CREATE DATABASE / USE, UPDATE STATISTICS và các bước migrate dữ liệu (UPDATE, DELETE, INSERT ... SELECT);
+   DB nhúng luôn tạo mới nên các bước đó không có dòng nào để xử lý. INSERT ... VALUES (dữ liệu gốc) được giữ.
+ - Viết lại: IDENTITY(1,1), DATETIME/DATETIME2, GETDATE(), NVARCHAR(MAX), TEXT, "NOT NULL DEFAULT x",
+   dấu phẩy thừa trước ")" và ALTER TABLE ... ADD nhiều cột.
+ - Bỏ phần chỉ SQL Server có: COLLATE, INCLUDE (...) và điều kiện WHERE của filtered index
+   (UNIQUE index trên H2 vốn cho phép nhiều NULL).
+ Script không có chuỗi chứa ';' hay '--' nên tách câu lệnh / bỏ comment theo ký tự là đủ.
+*/
+public final class EmbeddedSchemaScript {
+
+    private static final Pattern GO_LINE = Pattern.compile("^\\s*GO\\s*$", Pattern.MULTILINE | Pattern.CASE_INSENSITIVE);
+    private static final Pattern SKIPPED = Pattern.compile(
+            "^(CREATE\\s+DATABASE|USE|UPDATE|DELETE|INSERT\\s+INTO\\s+\\S+\\s*\\([^)]*\\)\\s*SELECT)\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CREATE_INDEX = Pattern.compile("^CREATE\\s+(UNIQUE\\s+)?INDEX\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern INDEX_FILTER = Pattern.compile("\\s+WHERE\\s+.*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern ALTER_ADD = Pattern.compile(
+            "^ALTER\\s+TABLE\\s+(\\S+)\\s+ADD\\s+(?!\\(|CONSTRAINT\\b)(.*)$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final String[][] REWRITES = {
+            {"IDENTITY\\s*\\(\\s*1\\s*,\\s*1\\s*\\)", "GENERATED BY DEFAULT AS IDENTITY"},
+            {"\\bGETDATE\\s*\\(\\s*\\)", "CURRENT_TIMESTAMP"},
+            {"\\bDATETIME2?\\b", "TIMESTAMP"},
+            {"\\bNVARCHAR\\s*\\(\\s*MAX\\s*\\)", "NVARCHAR(1000000)"},
+            {"\\bTEXT\\b", "NVARCHAR(4000)"},
+            {"\\s+COLLATE\\s+\\w+", ""},
+            {"\\s+INCLUDE\\s*\\([^)]*\\)", ""},
+            {"\\bNOT\\s+NULL\\s+DEFAULT\\s+([\\w.]+)", "DEFAULT $1 NOT NULL"},
+            {",\\s*\\)\\s*$", "\n)"}
+    };
+
+    private EmbeddedSchemaScript() {
+    }
+
+    public static String toH2(String sqlServerScript) {
+        StringBuilder out = new StringBuilder();
+        for (String statement : translate(sqlServerScript)) {
+            out.append(statement).append(";\n\n");
+        }
+        return out.toString();
+    }
+
+    public static List<String> translate(String sqlServerScript) {
+        String script = stripComments(sqlServerScript.replace("\r\n", "\n"));
+        script = GO_LINE.matcher(script).replaceAll(";");
+
+        List<String> statements = new ArrayList<>();
+        for (String raw : script.split(";")) {
+            String statement = raw.trim();
+            if (statement.isEmpty() || SKIPPED.matcher(statement).find()) {
+                continue;
+            }
+            statements.add(rewrite(statement));
+        }
+        return statements;
+    }
+
+    private static String rewrite(String statement) {
+        String result = statement;
+        if (CREATE_INDEX.matcher(result).find()) {
+            result = INDEX_FILTER.matcher(result).replaceFirst("");
+        }
+        for (String[] rewrite : REWRITES) {
+            result = Pattern.compile(rewrite[0], Pattern.CASE_INSENSITIVE).matcher(result).replaceAll(rewrite[1]);
+        }
+        Matcher alterAdd = ALTER_ADD.matcher(result);
+        if (alterAdd.matches()) {
+            result = "ALTER TABLE " + alterAdd.group(1) + " ADD (" + alterAdd.group(2).trim() + ")";
+        }
+        return result;
+    }
+
+    private static String stripComments(String script) {
+        StringBuilder out = new StringBuilder(script.length());
+        for (String line : script.split("\n", -1)) {
+            int comment = line.indexOf("--");
+            out.append(comment >= 0 ? line.substring(0, comment) : line).append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ Số liệu Hibernate Statistics cho production: Micrometer (HibernateStatisticsMetrics) và /actuator/hibernate.
+ Chỉ bật khi spring.jpa.properties.hibernate.generate_statistics=true.
+*/
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.generate_statistics", havingValue = "true")
+public class HibernateStatisticsConfig {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsConfig(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Bean
+    public HibernateStatisticsMetrics hibernateStatisticsMetrics() {
+        return new HibernateStatisticsMetrics(statistics);
+    }
+
+    @Bean
+    public HibernateStatisticsEndpoint hibernateStatisticsEndpoint(MeterRegistry meterRegistry) {
+        return new HibernateStatisticsEndpoint(statistics, meterRegistry);
+    }
+}
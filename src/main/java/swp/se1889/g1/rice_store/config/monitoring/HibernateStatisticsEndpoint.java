@@ -0,0 +1,162 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ GET    /actuator/hibernate?limit=10  tổng quan Statistics, load/fetch theo entity, các query chậm nhất (theo max time),
+                                      region cache cấp 2 và thời gian lấy connection từ pool (timer hikaricp.connections.acquire)
+ DELETE /actuator/hibernate           Statistics.clear() (ví dụ trước một đợt đo)
+*/
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private final Statistics statistics;
+    private final MeterRegistry meterRegistry;
+
+    public HibernateStatisticsEndpoint(Statistics statistics, MeterRegistry meterRegistry) {
+        this.statistics = statistics;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics(@Nullable Integer limit) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", statistics.isStatisticsEnabled());
+        m.put("since", statistics.getStart().toString());
+        m.put("summary", summary());
+        m.put("entities", entities());
+        m.put("slowestQueries", slowestQueries(limit != null ? limit : 10));
+        m.put("secondLevelCache", secondLevelCache());
+        m.put("connectionPool", connectionPool());
+        return m;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.clear();
+    }
+
+    private Map<String, Object> summary() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("sessionsOpened", statistics.getSessionOpenCount());
+        m.put("sessionsClosed", statistics.getSessionCloseCount());
+        m.put("transactions", statistics.getTransactionCount());
+        m.put("connectionsObtained", statistics.getConnectCount());
+        m.put("statementsPrepared", statistics.getPrepareStatementCount());
+        m.put("flushes", statistics.getFlushCount());
+        m.put("entityLoads", statistics.getEntityLoadCount());
+        m.put("entityFetches", statistics.getEntityFetchCount());
+        m.put("collectionLoads", statistics.getCollectionLoadCount());
+        m.put("collectionFetches", statistics.getCollectionFetchCount());
+        m.put("queryExecutions", statistics.getQueryExecutionCount());
+        m.put("queryExecutionMaxMs", statistics.getQueryExecutionMaxTime());
+        m.put("queryExecutionMaxSql", statistics.getQueryExecutionMaxTimeQueryString());
+        m.put("queryPlanCacheHits", statistics.getQueryPlanCacheHitCount());
+        m.put("queryPlanCacheMisses", statistics.getQueryPlanCacheMissCount());
+        m.put("optimisticFailures", statistics.getOptimisticFailureCount());
+        return m;
+    }
+
+    // fetch cao so với load thường là dấu hiệu lazy loading từng dòng (N+1)
+    private List<Map<String, Object>> entities() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String entity : statistics.getEntityNames()) {
+            EntityStatistics s = statistics.getEntityStatistics(entity);
+            if (s.getLoadCount() + s.getFetchCount() + s.getInsertCount() + s.getUpdateCount() + s.getDeleteCount() == 0) continue;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("entity", entity.substring(entity.lastIndexOf('.') + 1));
+            m.put("loads", s.getLoadCount());
+            m.put("fetches", s.getFetchCount());
+            m.put("inserts", s.getInsertCount());
+            m.put("updates", s.getUpdateCount());
+            m.put("deletes", s.getDeleteCount());
+            m.put("cacheHits", s.getCacheHitCount());
+            m.put("cacheMisses", s.getCacheMissCount());
+            rows.add(m);
+        }
+        rows.sort(Comparator.comparingLong((Map<String, Object> m) -> (Long) m.get("loads") + (Long) m.get("fetches")).reversed());
+        return rows;
+    }
+
+    private List<Map<String, Object>> slowestQueries(int limit) {
+        return Arrays.stream(statistics.getQueries())
+                .map(query -> Map.entry(query, statistics.getQueryStatistics(query)))
+                .filter(e -> e.getValue().getExecutionCount() > 0)
+                .sorted(Comparator.comparingLong((Map.Entry<String, QueryStatistics> e) -> e.getValue().getExecutionMaxTime()).reversed())
+                .limit(limit)
+                .map(e -> {
+                    QueryStatistics q = e.getValue();
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("query", e.getKey());
+                    m.put("executions", q.getExecutionCount());
+                    m.put("maxMs", q.getExecutionMaxTime());
+                    m.put("avgMs", q.getExecutionAvgTimeAsDouble());
+                    m.put("minMs", q.getExecutionMinTime());
+                    m.put("totalMs", q.getExecutionTotalTime());
+                    m.put("rows", q.getExecutionRowCount());
+                    return m;
+                })
+                .toList();
+    }
+
+    private List<Map<String, Object>> secondLevelCache() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics s = statistics.getCacheRegionStatistics(region);
+            if (s == null) continue;
+            long lookups = s.getHitCount() + s.getMissCount();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("region", region);
+            m.put("hits", s.getHitCount());
+            m.put("misses", s.getMissCount());
+            m.put("puts", s.getPutCount());
+            m.put("hitRatio", lookups == 0 ? null : (double) s.getHitCount() / lookups);
+            m.put("elementsInMemory", s.getElementCountInMemory());
+            m.put("sizeInMemory", s.getSizeInMemory());
+            rows.add(m);
+        }
+        return rows;
+    }
+
+    // Số liệu của HikariCP do Spring Boot đăng ký vào Micrometer (một dòng cho mỗi pool)
+    private List<Map<String, Object>> connectionPool() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Timer acquire : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            String pool = acquire.getId().getTag("pool");
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("pool", pool);
+            m.put("acquisitions", acquire.count());
+            m.put("acquireMeanMs", acquire.mean(TimeUnit.MILLISECONDS));
+            m.put("acquireMaxMs", acquire.max(TimeUnit.MILLISECONDS));
+            m.put("active", gauge("hikaricp.connections.active", pool));
+            m.put("idle", gauge("hikaricp.connections.idle", pool));
+            m.put("pending", gauge("hikaricp.connections.pending", pool));
+            m.put("max", gauge("hikaricp.connections.max", pool));
+            rows.add(m);
+        }
+        return rows;
+    }
+
+    private Double gauge(String name, String pool) {
+        Gauge gauge = pool != null ? meterRegistry.find(name).tag("pool", pool).gauge() : meterRegistry.find(name).gauge();
+        return gauge != null ? gauge.value() : null;
+    }
+}
@@ -0,0 +1,86 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/*
+ Đưa SessionFactory.getStatistics() lên Micrometer (thay cho hibernate-micrometer, không có trong dự án):
+ - tổng: hibernate.sessions.open, hibernate.transactions, hibernate.connections.obtained, hibernate.statements.prepared,
+   hibernate.flushes, hibernate.query.executions, hibernate.query.executions.max, hibernate.query.plan.cache.*
+ - theo entity (tag entity): hibernate.entities.loads / fetches / inserts / updates / deletes
+ - theo region cache cấp 2 (tag region): hibernate.second.level.cache.hits / misses / puts / elements
+ Các counter đọc thẳng từ Statistics nên sẽ quay về 0 khi bị clear() (reset của endpoint "hibernate").
+*/
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsMetrics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hibernate.sessions.open", "Sessions opened", Statistics::getSessionOpenCount);
+        counter(registry, "hibernate.sessions.closed", "Sessions closed", Statistics::getSessionCloseCount);
+        counter(registry, "hibernate.transactions", "Transactions", Statistics::getTransactionCount);
+        counter(registry, "hibernate.connections.obtained", "JDBC connections obtained by sessions", Statistics::getConnectCount);
+        counter(registry, "hibernate.statements.prepared", "JDBC statements prepared", Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.flushes", "Session flushes", Statistics::getFlushCount);
+        counter(registry, "hibernate.optimistic.failures", "Optimistic lock failures", Statistics::getOptimisticFailureCount);
+        counter(registry, "hibernate.query.executions", "HQL/SQL query executions", Statistics::getQueryExecutionCount);
+        counter(registry, "hibernate.query.plan.cache.hits", "Query plan cache hits", Statistics::getQueryPlanCacheHitCount);
+        counter(registry, "hibernate.query.plan.cache.misses", "Query plan cache misses", Statistics::getQueryPlanCacheMissCount);
+        counter(registry, "hibernate.collections.fetches", "Collections fetched lazily", Statistics::getCollectionFetchCount);
+        TimeGauge.builder("hibernate.query.executions.max", statistics, TimeUnit.MILLISECONDS, Statistics::getQueryExecutionMaxTime)
+                .description("Slowest query execution since last reset").register(registry);
+
+        for (String entity : statistics.getEntityNames()) {
+            entityCounter(registry, entity, "hibernate.entities.loads", "Entities loaded", EntityStatistics::getLoadCount);
+            entityCounter(registry, entity, "hibernate.entities.fetches", "Entities fetched by a separate select", EntityStatistics::getFetchCount);
+            entityCounter(registry, entity, "hibernate.entities.inserts", "Entities inserted", EntityStatistics::getInsertCount);
+            entityCounter(registry, entity, "hibernate.entities.updates", "Entities updated", EntityStatistics::getUpdateCount);
+            entityCounter(registry, entity, "hibernate.entities.deletes", "Entities deleted", EntityStatistics::getDeleteCount);
+        }
+
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regionMeter(registry, region, "hibernate.second.level.cache.hits", "Cache hits", CacheRegionStatistics::getHitCount);
+            regionMeter(registry, region, "hibernate.second.level.cache.misses", "Cache misses", CacheRegionStatistics::getMissCount);
+            regionMeter(registry, region, "hibernate.second.level.cache.puts", "Cache puts", CacheRegionStatistics::getPutCount);
+            Gauge.builder("hibernate.second.level.cache.elements", statistics,
+                            s -> regionValue(s, region, CacheRegionStatistics::getElementCountInMemory))
+                    .description("Elements held in memory").tag("region", region).register(registry);
+        }
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> f) {
+        FunctionCounter.builder(name, statistics, f).description(description).register(registry);
+    }
+
+    private void entityCounter(MeterRegistry registry, String entity, String name, String description,
+                               ToDoubleFunction<EntityStatistics> f) {
+        FunctionCounter.builder(name, statistics, s -> f.applyAsDouble(s.getEntityStatistics(entity)))
+                .description(description).tag("entity", entity).register(registry);
+    }
+
+    private void regionMeter(MeterRegistry registry, String region, String name, String description,
+                             ToDoubleFunction<CacheRegionStatistics> f) {
+        FunctionCounter.builder(name, statistics, s -> regionValue(s, region, f))
+                .description(description).tag("region", region).register(registry);
+    }
+
+    // region có thể không phải domain-data region (ví dụ query cache) nên đọc qua getCacheRegionStatistics
+    private static double regionValue(Statistics s, String region, ToDoubleFunction<CacheRegionStatistics> f) {
+        CacheRegionStatistics stats = s.getCacheRegionStatistics(region);
+        return stats != null ? f.applyAsDouble(stats) : Double.NaN;
+    }
+}
@@ -0,0 +1,55 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+
+/*
+ Mở ngữ cảnh RequestSqlStats khi request vào một @Controller và ghi kết quả khi request hoàn tất
+ (afterCompletion: sau cả phần render view, nơi lazy loading của open-in-view còn chạy SQL).
+ Cảnh báo N+1 khi cùng một câu SQL của Hibernate lặp >= nPlusOneThreshold lần trong một request.
+*/
+public class RequestSqlInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestSqlInterceptor.class);
+    private static final int MAX_LOGGED_SQL = 300;
+
+    private final SqlHotspotRegistry registry;
+    private final int nPlusOneThreshold;
+    private final boolean warnNPlusOne;
+
+    public RequestSqlInterceptor(SqlHotspotRegistry registry, int nPlusOneThreshold, boolean warnNPlusOne) {
+        this.registry = registry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.warnNPlusOne = warnNPlusOne;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            RequestSqlStats.begin(method.getBeanType().getSimpleName() + "#" + method.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestSqlStats stats = RequestSqlStats.end();
+        if (stats == null) return;
+        Map.Entry<String, Integer> mostRepeated = stats.mostRepeated();
+        boolean nPlusOne = mostRepeated != null && mostRepeated.getValue() >= nPlusOneThreshold;
+        registry.record(stats, mostRepeated, nPlusOne);
+        if (nPlusOne && warnNPlusOne) {
+            String sql = mostRepeated.getKey().replaceAll("\\s+", " ");
+            log.warn("Possible N+1 in {} ({} {}): same statement ran {} times, {} statements / {} rows / {} ms DB in total: {}",
+                    stats.getHandler(), request.getMethod(), request.getRequestURI(), mostRepeated.getValue(),
+                    stats.getStatements(), stats.getRows(), stats.getDbNanos() / 1_000_000,
+                    sql.length() > MAX_LOGGED_SQL ? sql.substring(0, MAX_LOGGED_SQL) + "..." : sql);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ Số liệu SQL của request HTTP đang chạy trên thread hiện tại.
+ RequestSqlInterceptor mở/đóng ngữ cảnh; TimingDataSource và SqlCountingStatementInspector ghi vào.
+ Request giao truy vấn cho pool riêng (OwnerReportService) thì chạy qua propagating(executor) để SQL trên thread của pool
+ vẫn tính cho request; vì vậy các bộ đếm an toàn khi nhiều thread cùng ghi.
+*/
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private final String handler;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final LongAdder dbNanos = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    // SQL do Hibernate sinh (đã có dấu ?), cùng câu lặp lại nhiều lần trong một request là dấu hiệu N+1
+    private final Map<String, AtomicInteger> hibernateSql = new ConcurrentHashMap<>();
+
+    private RequestSqlStats(String handler) {
+        this.handler = handler;
+    }
+
+    static RequestSqlStats begin(String handler) {
+        RequestSqlStats stats = new RequestSqlStats(handler);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static RequestSqlStats end() {
+        RequestSqlStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    // Executor chuyển ngữ cảnh của thread gọi execute (thread request) sang thread chạy task; task phải xong trước khi request kết thúc
+    public static Executor propagating(Executor executor) {
+        return task -> {
+            RequestSqlStats stats = CURRENT.get();
+            if (stats == null) {
+                executor.execute(task);
+                return;
+            }
+            executor.execute(() -> {
+                RequestSqlStats previous = CURRENT.get();
+                CURRENT.set(stats);
+                try {
+                    task.run();
+                } finally {
+                    if (previous != null) CURRENT.set(previous);
+                    else CURRENT.remove();
+                }
+            });
+        };
+    }
+
+    void recordStatement(long nanos) {
+        statements.incrementAndGet();
+        dbNanos.add(nanos);
+    }
+
+    void recordFetch(long nanos, boolean row) {
+        dbNanos.add(nanos);
+        if (row) rows.increment();
+    }
+
+    void recordHibernateSql(String sql) {
+        hibernateSql.computeIfAbsent(sql, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    // Câu SQL lặp nhiều nhất và số lần lặp; null nếu request không chạy câu nào qua Hibernate
+    Map.Entry<String, Integer> mostRepeated() {
+        Map.Entry<String, Integer> worst = null;
+        for (Map.Entry<String, AtomicInteger> e : hibernateSql.entrySet()) {
+            if (worst == null || e.getValue().get() > worst.getValue()) {
+                worst = Map.entry(e.getKey(), e.getValue().get());
+            }
+        }
+        return worst;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    // Cộng dồn mọi thread: khi truy vấn chạy song song có thể lớn hơn thời gian của request
+    public long getDbNanos() {
+        return dbNanos.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -0,0 +1,16 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Ghi lại từng câu SQL Hibernate chuẩn bị chạy cho request hiện tại (không sửa câu lệnh)
+public class SqlCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.recordHibernateSql(sql);
+        }
+        return sql;
+    }
+}
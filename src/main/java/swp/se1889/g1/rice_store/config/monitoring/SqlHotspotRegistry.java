@@ -0,0 +1,133 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ Tổng hợp số liệu SQL theo handler (Controller#method):
+ - Micrometer: http.server.sql.statements / http.server.sql.rows (DistributionSummary), http.server.sql.time (Timer),
+   http.server.sql.n-plus-one (Counter), tag handler
+ - Bộ đếm trong bộ nhớ cho actuator endpoint "sqlhotspots" (xếp hạng handler tệ nhất, reset được)
+*/
+public class SqlHotspotRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HandlerStats> handlers = new ConcurrentHashMap<>();
+
+    public SqlHotspotRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void record(RequestSqlStats stats, Map.Entry<String, Integer> mostRepeated, boolean nPlusOne) {
+        HandlerStats h = handlers.computeIfAbsent(stats.getHandler(), this::newHandlerStats);
+        h.requests.increment();
+        h.statements.add(stats.getStatements());
+        h.maxStatements.accumulate(stats.getStatements());
+        h.dbNanos.add(stats.getDbNanos());
+        h.maxDbNanos.accumulate(stats.getDbNanos());
+        h.rows.add(stats.getRows());
+        h.maxRows.accumulate(stats.getRows());
+        h.statementsSummary.record(stats.getStatements());
+        h.rowsSummary.record(stats.getRows());
+        h.dbTimer.record(stats.getDbNanos(), TimeUnit.NANOSECONDS);
+        if (nPlusOne) {
+            h.nPlusOne.increment();
+            h.nPlusOneCounter.increment();
+        }
+        if (mostRepeated != null) {
+            synchronized (h) {
+                if (mostRepeated.getValue() > h.worstRepeatCount) {
+                    h.worstRepeatCount = mostRepeated.getValue();
+                    h.worstRepeatedSql = mostRepeated.getKey();
+                }
+            }
+        }
+    }
+
+    // sort = statements (trung bình câu lệnh / request) | time (tổng DB time) | rows (trung bình dòng / request)
+    public List<Map<String, Object>> top(String sort, int limit) {
+        Comparator<Map<String, Object>> order = switch (sort == null ? "statements" : sort) {
+            case "time" -> Comparator.comparingDouble(m -> (Double) m.get("totalDbMs"));
+            case "rows" -> Comparator.comparingDouble(m -> (Double) m.get("avgRows"));
+            default -> Comparator.comparingDouble(m -> (Double) m.get("avgStatements"));
+        };
+        List<Map<String, Object>> rows = new ArrayList<>();
+        handlers.forEach((handler, h) -> rows.add(h.snapshot(handler)));
+        rows.sort(order.reversed());
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    // Chỉ xóa bộ đếm của endpoint; meter Micrometer là cộng dồn nên giữ nguyên
+    public void reset() {
+        handlers.clear();
+    }
+
+    private HandlerStats newHandlerStats(String handler) {
+        return new HandlerStats(
+                DistributionSummary.builder("http.server.sql.statements").description("SQL statements per request")
+                        .tag("handler", handler).register(meterRegistry),
+                DistributionSummary.builder("http.server.sql.rows").description("Rows fetched per request")
+                        .tag("handler", handler).register(meterRegistry),
+                Timer.builder("http.server.sql.time").description("Database time per request")
+                        .tag("handler", handler).register(meterRegistry),
+                Counter.builder("http.server.sql.n-plus-one").description("Requests over the N+1 threshold")
+                        .tag("handler", handler).register(meterRegistry));
+    }
+
+    private static final class HandlerStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        final LongAdder dbNanos = new LongAdder();
+        final LongAccumulator maxDbNanos = new LongAccumulator(Math::max, 0);
+        final LongAdder rows = new LongAdder();
+        final LongAccumulator maxRows = new LongAccumulator(Math::max, 0);
+        final LongAdder nPlusOne = new LongAdder();
+        int worstRepeatCount;
+        String worstRepeatedSql;
+
+        final DistributionSummary statementsSummary;
+        final DistributionSummary rowsSummary;
+        final Timer dbTimer;
+        final Counter nPlusOneCounter;
+
+        HandlerStats(DistributionSummary statementsSummary, DistributionSummary rowsSummary, Timer dbTimer, Counter nPlusOneCounter) {
+            this.statementsSummary = statementsSummary;
+            this.rowsSummary = rowsSummary;
+            this.dbTimer = dbTimer;
+            this.nPlusOneCounter = nPlusOneCounter;
+        }
+
+        Map<String, Object> snapshot(String handler) {
+            long n = Math.max(1, requests.sum());
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("handler", handler);
+            m.put("requests", requests.sum());
+            m.put("avgStatements", (double) statements.sum() / n);
+            m.put("maxStatements", maxStatements.get());
+            m.put("totalDbMs", dbNanos.sum() / 1_000_000.0);
+            m.put("avgDbMs", dbNanos.sum() / 1_000_000.0 / n);
+            m.put("maxDbMs", maxDbNanos.get() / 1_000_000.0);
+            m.put("avgRows", (double) rows.sum() / n);
+            m.put("maxRows", maxRows.get());
+            m.put("nPlusOneRequests", nPlusOne.sum());
+            synchronized (this) {
+                m.put("worstRepeatCount", worstRepeatCount);
+                m.put("worstRepeatedSql", worstRepeatedSql);
+            }
+            return m;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ GET    /actuator/sqlhotspots?sort=statements|time|rows&limit=20  handler chạy nhiều SQL / tốn DB time nhất
+ DELETE /actuator/sqlhotspots                                      xóa bộ đếm (ví dụ trước một đợt đo)
+*/
+@Endpoint(id = "sqlhotspots")
+public class SqlHotspotsEndpoint {
+
+    private final SqlHotspotRegistry registry;
+
+    public SqlHotspotsEndpoint(SqlHotspotRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> hotspots(@Nullable String sort, @Nullable Integer limit) {
+        return registry.top(sort, limit != null ? limit : 20);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        registry.reset();
+    }
+}
@@ -0,0 +1,73 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/*
+ Đo SQL theo từng request HTTP (sql.instrumentation.enabled, mặc định bật):
+ DataSource được bọc bởi TimingDataSource, Hibernate dùng SqlCountingStatementInspector,
+ RequestSqlInterceptor gom số liệu theo handler vào SqlHotspotRegistry (Micrometer + /actuator/sqlhotspots).
+*/
+@Configuration
+@ConditionalOnProperty(name = "sql.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig implements WebMvcConfigurer {
+
+    @Value("${sql.instrumentation.n-plus-one-threshold:20}")
+    private int nPlusOneThreshold;
+
+    @Value("${sql.instrumentation.n-plus-one-warn:true}")
+    private boolean warnNPlusOne;
+
+    private final SqlHotspotRegistry registry;
+
+    public SqlInstrumentationConfig(MeterRegistry meterRegistry) {
+        this.registry = new SqlHotspotRegistry(meterRegistry);
+    }
+
+    // static: BeanPostProcessor phải được tạo trước các bean khác, không kéo theo cả cấu hình này.
+    // Chỉ bọc DataSource ngoài cùng mà ứng dụng dùng (bean "dataSource" của Boot / ReadReplicaConfig):
+    // nếu bọc cả DataSource nằm bên trong nó thì mỗi câu SQL bị đếm hai lần.
+    @Bean
+    public static BeanPostProcessor timingDataSourcePostProcessor(Environment environment) {
+        boolean countRows = environment.getProperty("sql.instrumentation.count-rows", Boolean.class, true);
+        String target = environment.getProperty("sql.instrumentation.data-source-bean", "dataSource");
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return target.equals(beanName) && bean instanceof DataSource ds && !(bean instanceof TimingDataSource)
+                        ? new TimingDataSource(ds, countRows) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlCountingStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlCountingStatementInspector());
+    }
+
+    @Bean
+    public SqlHotspotRegistry sqlHotspotRegistry() {
+        return registry;
+    }
+
+    @Bean
+    public SqlHotspotsEndpoint sqlHotspotsEndpoint() {
+        return new SqlHotspotsEndpoint(registry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new RequestSqlInterceptor(registry, nPlusOneThreshold, warnNPlusOne));
+    }
+}
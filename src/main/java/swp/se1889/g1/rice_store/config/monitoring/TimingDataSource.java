@@ -0,0 +1,111 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+ Bọc DataSource để đo thời gian DB cho request hiện tại: mỗi lần execute* tính một câu lệnh,
+ thời gian execute và ResultSet.next() cộng vào DB time, mỗi next() = true tính một dòng đọc về.
+ Áp dụng cho mọi đường truy cập (JPA, JdbcTemplate). Ngoài request HTTP (thread nền) proxy chỉ chuyển tiếp.
+ unwrap / isWrapperFor đi xuyên qua tới HikariDataSource nên metrics / health của pool vẫn hoạt động.
+*/
+public class TimingDataSource extends DelegatingDataSource {
+
+    private final boolean countRows;
+
+    public TimingDataSource(DataSource target, boolean countRows) {
+        super(target);
+        this.countRows = countRows;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, obtainTargetDataSource().getConnection(), this::onConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, obtainTargetDataSource().getConnection(username, password), this::onConnection);
+    }
+
+    private Object onConnection(Object target, Method method, Object[] args) throws Throwable {
+        Object result = invoke(target, method, args);
+        return switch (method.getName()) {
+            case "createStatement" -> proxy(Statement.class, result, this::onStatement);
+            case "prepareStatement" -> proxy(PreparedStatement.class, result, this::onStatement);
+            case "prepareCall" -> proxy(CallableStatement.class, result, this::onStatement);
+            default -> result;
+        };
+    }
+
+    private Object onStatement(Object target, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null && name.startsWith("execute")) {
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invoke(target, method, args);
+            } finally {
+                stats.recordStatement(System.nanoTime() - start);
+            }
+            return result instanceof ResultSet rs ? wrapResultSet(rs) : result;
+        }
+        Object result = invoke(target, method, args);
+        return stats != null && "getResultSet".equals(name) && result instanceof ResultSet rs ? wrapResultSet(rs) : result;
+    }
+
+    private Object wrapResultSet(ResultSet rs) {
+        if (!countRows) return rs;
+        return proxy(ResultSet.class, rs, (target, method, args) -> {
+            if (!"next".equals(method.getName())) {
+                return invoke(target, method, args);
+            }
+            RequestSqlStats stats = RequestSqlStats.current();
+            long start = System.nanoTime();
+            Object hasRow = invoke(target, method, args);
+            if (stats != null) {
+                stats.recordFetch(System.nanoTime() - start, Boolean.TRUE.equals(hasRow));
+            }
+            return hasRow;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    // unwrap tới lớp của driver (ví dụ SQLServerConnection cho bulk copy) đi xuyên qua proxy tới đối tượng JDBC gốc
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        if (target == null) return null;
+        InvocationHandler ih = (p, method, args) -> switch (method.getName()) {
+            case "unwrap" -> ((Class<?>) args[0]).isInstance(p) ? p : invoke(target, method, args);
+            case "equals" -> p == args[0];
+            case "hashCode" -> System.identityHashCode(p);
+            case "toString" -> "Timing[" + target + "]";
+            default -> handler.handle(target, method, args);
+        };
+        return (T) Proxy.newProxyInstance(TimingDataSource.class.getClassLoader(), new Class<?>[]{type}, ih);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
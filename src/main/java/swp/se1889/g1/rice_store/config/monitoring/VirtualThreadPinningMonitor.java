@@ -0,0 +1,86 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/*
+ Theo dõi sự kiện JFR jdk.VirtualThreadPinned (Java 21+): virtual thread bị "ghim" vào carrier thread quá threshold,
+ thường do chờ I/O hoặc lock bên trong khối synchronized (driver JDBC, pool kết nối, SMTP).
+ Mỗi sự kiện ghi vào Timer jvm.threads.virtual.pinned (tag source = jdbc-driver | connection-pool | hibernate | smtp | other);
+ mỗi vị trí ghim (frame đầu tiên của ứng dụng / thư viện) chỉ log stack một lần để không làm ngập log.
+*/
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+    private static final int MAX_LOGGED_SITES = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Watching virtual thread pinning over {} ms via JFR", threshold.toMillis());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String source = source(frames);
+        Timer.builder("jvm.threads.virtual.pinned").description("Virtual thread pinned to its carrier")
+                .tag("source", source).register(meterRegistry)
+                .record(event.getDuration());
+
+        String site = frames.stream().map(VirtualThreadPinningMonitor::frame)
+                .filter(f -> !f.startsWith("java.") && !f.startsWith("jdk.") && !f.startsWith("sun."))
+                .findFirst().orElse("unknown");
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms ({}) at {}:\n\t{}", event.getDuration().toMillis(), source, site,
+                    frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::frame).collect(Collectors.joining("\n\t")));
+        }
+    }
+
+    private static String source(List<RecordedFrame> frames) {
+        for (RecordedFrame f : frames) {
+            String type = f.getMethod().getType().getName();
+            if (type.startsWith("com.microsoft.sqlserver") || type.startsWith("org.h2")) return "jdbc-driver";
+            if (type.startsWith("com.zaxxer.hikari")) return "connection-pool";
+            if (type.startsWith("org.hibernate")) return "hibernate";
+            if (type.startsWith("jakarta.mail") || type.startsWith("org.eclipse.angus.mail")) return "smtp";
+        }
+        return "other";
+    }
+
+    private static String frame(RecordedFrame f) {
+        return f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+    }
+}
@@ -0,0 +1,91 @@
+package swp.se1889.g1.rice_store.config.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+
+/*
+ Replica báo cáo (reporting.replica.enabled=true): hai pool HikariCP riêng, primary (spring.datasource.*, spring.datasource.hikari.*)
+ và replica (reporting.replica.*, reporting.replica.hikari.*, pool "reporting"), gộp lại thành một DataSource duy nhất
+ LazyConnectionDataSourceProxy -> ReplicaRoutingDataSource. Chỉ bean này là DataSource của ứng dụng nên JPA, JdbcTemplate
+ và TimingDataSource (sql.instrumentation) đều đi qua nó, mỗi câu SQL chỉ được đo một lần.
+ Hibernate dùng chung một dialect cho cả hai nên primary và replica phải cùng loại DB.
+ Với open-in-view, Session sống suốt request; Spring mặc định giữ connection vật lý tới hết Session
+ (DELAYED_ACQUISITION_AND_HOLD) nên connection đầu tiên quyết định DB cho cả request. Khi bật replica,
+ Session trả connection sau mỗi transaction (và sau mỗi thao tác ngoài transaction) để mỗi transaction được định tuyến riêng.
+*/
+@Configuration
+@ConditionalOnProperty(name = "reporting.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final DatabaseDriver driver;
+
+    public ReadReplicaConfig(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(environment.getRequiredProperty("reporting.replica.url"))
+                .username(environment.getProperty("reporting.replica.username", properties.determineUsername()))
+                .password(environment.getProperty("reporting.replica.password", properties.determinePassword()))
+                .driverClassName(properties.determineDriverClassName())
+                .build();
+        binder.bind("reporting.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("reporting");
+        replica.setReadOnly(true);
+        // pool primary được Spring Boot gắn metrics qua bean DataSource, pool replica không phải bean nên gắn tay
+        replica.setMetricRegistry(meterRegistry);
+
+        driver = DatabaseDriver.fromJdbcUrl(primary.getJdbcUrl());
+        DatabaseDriver replicaDriver = DatabaseDriver.fromJdbcUrl(replica.getJdbcUrl());
+        if (driver != replicaDriver) {
+            throw new IllegalStateException("Replica báo cáo (" + replicaDriver + ") phải cùng loại DB với primary (" + driver + ")");
+        }
+    }
+
+    @Bean
+    public ReplicaLagGuard replicaLagGuard(MeterRegistry meterRegistry,
+                                           @Value("${reporting.replica.lag-check:heartbeat}") String lagCheck,
+                                           @Value("${reporting.replica.max-lag-seconds:30}") long maxLagSeconds) {
+        ReplicaLagGuard.LagCheck mode = ReplicaLagGuard.LagCheck.valueOf(lagCheck.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        return new ReplicaLagGuard(primary, replica, driver, mode, maxLagSeconds, meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaLagGuard replicaLagGuard) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, replicaLagGuard));
+    }
+
+    @PreDestroy
+    void close() {
+        replica.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,129 @@
+package swp.se1889.g1.rice_store.config.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/*
+ Kiểm tra định kỳ (reporting.replica.check-interval-ms) xem replica còn dùng được không:
+ - heartbeat: ghi thời điểm hiện tại vào replica_heartbeat trên primary, đọc lại trên replica; độ trễ = bây giờ - giá trị đọc được.
+   Dùng được với mọi kiểu sao chép (Always On, transactional replication, log shipping) và mọi DB,
+   độ phân giải bằng chu kỳ kiểm tra nên max-lag phải lớn hơn check-interval.
+ - availability-group: chỉ SQL Server, đọc secondary_lag_seconds từ sys.dm_hadr_database_replica_states trên primary.
+ - none: chỉ kiểm tra kết nối (DB thứ hai chạy local làm replica giả khi test, không có sao chép).
+ Trễ quá reporting.replica.max-lag-seconds, lỗi kết nối hoặc chưa đo được -> transaction readOnly quay về primary tới lần kiểm tra sau.
+*/
+public class ReplicaLagGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagGuard.class);
+
+    private static final String UPDATE_HEARTBEAT = "UPDATE replica_heartbeat SET beat_at_ms = ? WHERE id = 1";
+    private static final String INSERT_HEARTBEAT = "INSERT INTO replica_heartbeat (id, beat_at_ms) VALUES (1, ?)";
+    private static final String SELECT_HEARTBEAT = "SELECT beat_at_ms FROM replica_heartbeat WHERE id = 1";
+    private static final String AG_LAG = """
+            SELECT MAX(secondary_lag_seconds)
+            FROM sys.dm_hadr_database_replica_states
+            WHERE database_id = DB_ID() AND is_local = 0
+            """;
+
+    public enum LagCheck { HEARTBEAT, AVAILABILITY_GROUP, NONE }
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final LagCheck lagCheck;
+    private final long maxLagMillis;
+
+    private volatile boolean available;
+    private volatile long lagMillis = -1;
+    private volatile String reason = "not checked yet";
+
+    public ReplicaLagGuard(DataSource primary, DataSource replica, DatabaseDriver driver, LagCheck lagCheck,
+                           long maxLagSeconds, MeterRegistry meterRegistry) {
+        if (lagCheck == LagCheck.AVAILABILITY_GROUP && driver != DatabaseDriver.SQLSERVER) {
+            throw new IllegalStateException("reporting.replica.lag-check=availability-group chỉ dùng được với SQL Server, DB hiện tại: " + driver);
+        }
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.lagCheck = lagCheck;
+        this.maxLagMillis = maxLagSeconds * 1000;
+        Gauge.builder("reporting.replica.available", this, g -> g.available ? 1 : 0)
+                .description("1 when read-only transactions are routed to the reporting replica").register(meterRegistry);
+        Gauge.builder("reporting.replica.lag", this, g -> g.lagMillis)
+                .description("Last measured replica lag (ms, -1 = unknown)").baseUnit("milliseconds").register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Scheduled(fixedDelayString = "${reporting.replica.check-interval-ms:5000}")
+    public void check() {
+        try {
+            long lag = measureLag();
+            lagMillis = lag;
+            if (lag < 0) {
+                update(false, "lag unknown (" + lagCheck + ")");
+            } else if (lag > maxLagMillis) {
+                update(false, "lag " + lag + " ms > " + maxLagMillis + " ms");
+            } else {
+                update(true, "lag " + lag + " ms");
+            }
+        } catch (RuntimeException e) {
+            lagMillis = -1;
+            update(false, "check failed: " + e.getMessage());
+        }
+    }
+
+    // Gọi từ ReplicaRoutingDataSource khi không lấy được connection; lần check() sau sẽ mở lại nếu replica hồi phục
+    void markUnavailable(String why) {
+        update(false, why);
+    }
+
+    private long measureLag() {
+        switch (lagCheck) {
+            case HEARTBEAT -> {
+                long now = System.currentTimeMillis();
+                if (primary.update(UPDATE_HEARTBEAT, now) == 0) {
+                    primary.update(INSERT_HEARTBEAT, now);
+                }
+                Long seen = replica.query(SELECT_HEARTBEAT, rs -> rs.next() ? rs.getLong(1) : null);
+                return seen == null ? -1 : Math.max(0, System.currentTimeMillis() - seen);
+            }
+            case AVAILABILITY_GROUP -> {
+                replica.queryForObject("SELECT 1", Integer.class);
+                Long seconds = primary.queryForObject(AG_LAG, Long.class);
+                return seconds == null ? -1 : seconds * 1000;
+            }
+            default -> {
+                replica.queryForObject("SELECT 1", Integer.class);
+                return 0;
+            }
+        }
+    }
+
+    private synchronized void update(boolean nowAvailable, String why) {
+        if (nowAvailable != available) {
+            if (nowAvailable) {
+                log.info("Reporting replica available again ({}), read-only transactions go to the replica", why);
+            } else {
+                log.warn("Reporting replica unavailable ({}), read-only transactions fall back to the primary", why);
+            }
+        }
+        available = nowAvailable;
+        reason = why;
+    }
+}
@@ -0,0 +1,67 @@
+package swp.se1889.g1.rice_store.config.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/*
+ Chọn DB cho từng connection: transaction @Transactional(readOnly = true) do ứng dụng khai báo -> replica báo cáo,
+ mọi thứ khác (ghi, không có transaction, open-in-view) -> primary.
+ Phải được bọc bởi LazyConnectionDataSourceProxy: connection thật chỉ được lấy ở câu SQL đầu tiên,
+ lúc cờ readOnly và tên transaction đã có trong TransactionSynchronizationManager.
+ Việc định tuyến theo từng transaction chỉ đúng khi Session không giữ connection qua nhiều transaction
+ (ReadReplicaConfig đặt hibernate.connection.handling_mode = DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION).
+ Transaction readOnly mặc định của Spring Data (SimpleJpaRepository.findById... gọi ngoài service) vẫn đi primary
+ để luồng ghi-rồi-đọc (bán hàng, thanh toán) không đọc phải dữ liệu cũ trên replica.
+ Replica trễ quá ngưỡng hoặc không lấy được connection -> quay về primary (ReplicaLagGuard).
+*/
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+    private static final String SPRING_DATA_DEFAULTS = "org.springframework.data.";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagGuard guard;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard guard) {
+        this.primary = primary;
+        this.replica = replica;
+        this.guard = guard;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return routeToReplica() ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!routeToReplica()) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            guard.markUnavailable("connection failed: " + e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    private boolean routeToReplica() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        return (name == null || !name.startsWith(SPRING_DATA_DEFAULTS)) && guard.isAvailable();
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import swp.se1889.g1.rice_store.dto.CustomerChangeHistoryDTO;
+import swp.se1889.g1.rice_store.entity.CustomerChangeHistory;
 import swp.se1889.g1.rice_store.entity.Store;
 import swp.se1889.g1.rice_store.entity.User;
 import swp.se1889.g1.rice_store.repository.StoreRepository;
@@ -99,6 +100,7 @@ public class CustomerChangeHistoryController {
         model.addAttribute("totalItems", changeHistories.getTotalElements());
         model.addAttribute("user", userDetails);
         model.addAttribute("changedField", changedField);
+        model.addAttribute("changedFieldOptions", CustomerChangeHistory.FIELDS);
 
         return "CustomerChangeHistory";
     }
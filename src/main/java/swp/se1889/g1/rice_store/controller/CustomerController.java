@@ -8,16 +8,20 @@
     import org.springframework.ui.Model;
     import org.springframework.validation.BindingResult;
     import org.springframework.web.bind.annotation.*;
+    import org.springframework.web.multipart.MultipartFile;
     import swp.se1889.g1.rice_store.dto.CustomerChangeHistoryDTO;
     import swp.se1889.g1.rice_store.dto.CustomerDTO;
+    import swp.se1889.g1.rice_store.dto.CustomerImportReportDTO;
     import swp.se1889.g1.rice_store.entity.Store;
     import swp.se1889.g1.rice_store.entity.User;
     import swp.se1889.g1.rice_store.service.CustomerChangeHistoryService;
+    import swp.se1889.g1.rice_store.service.CustomerImportService;
     import swp.se1889.g1.rice_store.service.CustomerService;
 
     import jakarta.validation.Valid;
     import swp.se1889.g1.rice_store.service.UserServiceIpml;
 
+    import java.io.IOException;
     import java.util.Collections;
     import java.util.HashMap;
     import java.util.List;
@@ -32,6 +36,9 @@
         @Autowired
         private UserServiceIpml userService;
 
+        @Autowired
+        private CustomerImportService customerImportService;
+
         @GetMapping("/customers")
         public String getCustomers(
                 @RequestParam(defaultValue = "0") int page,
@@ -91,6 +98,22 @@
             }
         }
 
+        @PostMapping("/customers/import")
+        @ResponseBody
+        public ResponseEntity<?> importCustomers(@RequestParam("file") MultipartFile file) {
+            if (file.isEmpty()) {
+                return ResponseEntity.badRequest().body(Collections.singletonMap("errorMessage", "File nhập không được để trống"));
+            }
+            try {
+                CustomerImportReportDTO report = customerImportService.importCustomers(file);
+                return ResponseEntity.ok(report);
+            } catch (IOException e) {
+                return ResponseEntity.badRequest().body(Collections.singletonMap("errorMessage", "Không đọc được file: " + e.getMessage()));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(Collections.singletonMap("errorMessage", e.getMessage()));
+            }
+        }
+
         @GetMapping("/edit-customer/{id}")
         @ResponseBody
         public ResponseEntity<?> getCustomerForEdit(@PathVariable Long id) {
@@ -2,11 +2,16 @@ package swp.se1889.g1.rice_store.controller;
 
 //import swp.se1889.g1.rice_store.entity.DebtsRecord;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -14,19 +19,28 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import swp.se1889.g1.rice_store.dto.CustomerDTO;
+import swp.se1889.g1.rice_store.dto.DebtAgingDTO;
 import swp.se1889.g1.rice_store.entity.DebtRecords;
 import swp.se1889.g1.rice_store.entity.Store;
 import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.service.DebtAgingService;
 import swp.se1889.g1.rice_store.service.DebtRecordService;
+import swp.se1889.g1.rice_store.service.ExportService;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/debt")
@@ -38,6 +52,10 @@ public class DebtRecordController {
     private swp.se1889.g1.rice_store.service.CustomerService customerService;
     @Autowired
     private swp.se1889.g1.rice_store.service.UserServiceIpml userService;
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private DebtAgingService debtAgingService;
 
     // Hiển thị trang form thêm phiếu nợ cho customer cụ thể
     @GetMapping("/add")
@@ -148,6 +166,95 @@ public class DebtRecordController {
         return "debtDetail";
     }
 
+    // Xuất lịch sử nợ của khách theo bộ lọc hiện tại
+    @GetMapping("/export")
+    public void exportDebtRecords(
+            @RequestParam("customerId") Long customerId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String idMin,
+            @RequestParam(required = false) String idMax,
+            @RequestParam(required = false) String note,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String amountMin,
+            @RequestParam(required = false) String amountMax,
+            @RequestParam(required = false) String dateMin,
+            @RequestParam(required = false) String dateMax,
+            @RequestParam(required = false) String dateMin2,
+            @RequestParam(required = false) String dateMax2,
+            HttpServletResponse response) throws IOException {
+        if (!customerService.isCustomerOfCurrentOwner(customerId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found");
+        }
+        Specification<DebtRecords> spec = debtRecordService.buildFilterSpec(customerId, parseLong(idMin), parseLong(idMax),
+                note, type, parseBigDecimal(amountMin), parseBigDecimal(amountMax),
+                parseDate(dateMin), parseDate(dateMax), parseDate(dateMin2), parseDate(dateMax2));
+
+        String exportFormat = ExportService.normalizeFormat(format);
+        response.setContentType(ExportService.contentType(exportFormat));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + ExportService.fileName("lich-su-no-" + customerId, exportFormat) + "\"");
+        exportService.exportDebtRecords(spec, exportFormat, response.getOutputStream());
+    }
+
+    // Tổng nợ theo tháng của khách (đọc từ debt_monthly_summary)
+    @GetMapping("/monthly")
+    @ResponseBody
+    public List<Map<String, Object>> getMonthlyDebt(@RequestParam("customerId") Long customerId) {
+        if (!customerService.isCustomerOfCurrentOwner(customerId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found");
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Object[] row : debtRecordService.getMonthlyDebt(customerId)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("year", row[0]);
+            item.put("month", row[1]);
+            item.put("totalDebt", row[2]);
+            result.add(item);
+        }
+        return result;
+    }
+
+    // Báo cáo tuổi nợ của toàn bộ khách hàng thuộc owner hiện tại
+    @GetMapping("/aging")
+    public String showDebtAging(@RequestParam(defaultValue = "0") int page,
+                                @RequestParam(defaultValue = "20") int size,
+                                @RequestParam(defaultValue = "total") String sort,
+                                @RequestParam(defaultValue = "desc") String dir,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+                                Model model, HttpSession session) {
+        LocalDate reportDate = asOf != null ? asOf : LocalDate.now();
+        String sortProperty = Arrays.asList(DebtAgingService.SORT_PROPERTIES).contains(sort) ? sort : "total";
+        Sort.Direction direction = "asc".equalsIgnoreCase(dir) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 200), Sort.by(direction, sortProperty));
+
+        Page<DebtAgingDTO> aging = debtAgingService.getAgingPage(debtAgingService.currentOwnerId(), reportDate, pageable);
+
+        model.addAttribute("agingRows", aging.getContent());
+        model.addAttribute("currentPage", pageable.getPageNumber());
+        model.addAttribute("totalPages", aging.getTotalPages());
+        model.addAttribute("totalItems", aging.getTotalElements());
+        model.addAttribute("recordsPerPage", pageable.getPageSize());
+        model.addAttribute("sort", sortProperty);
+        model.addAttribute("dir", direction == Sort.Direction.ASC ? "asc" : "desc");
+        model.addAttribute("asOf", reportDate);
+        model.addAttribute("store", session.getAttribute("store"));
+        model.addAttribute("user", userService.getCurrentUser());
+        return "debtAging";
+    }
+
+    @GetMapping("/aging/export")
+    public void exportDebtAging(@RequestParam(defaultValue = "csv") String format,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+                                HttpServletResponse response) throws IOException {
+        LocalDate reportDate = asOf != null ? asOf : LocalDate.now();
+        Long ownerId = debtAgingService.currentOwnerId();
+        String exportFormat = ExportService.normalizeFormat(format);
+        response.setContentType(ExportService.contentType(exportFormat));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + ExportService.fileName("tuoi-no", exportFormat) + "\"");
+        exportService.exportDebtAging(ownerId, reportDate, exportFormat, response.getOutputStream());
+    }
+
     // Helper methods to parse parameters
     private Long parseLong(String value) {
         if (value != null && !value.isEmpty()) {
@@ -6,30 +6,25 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import swp.se1889.g1.rice_store.dto.MailBodyDTO;
-import swp.se1889.g1.rice_store.entity.ForgotPassword;
 import swp.se1889.g1.rice_store.entity.User;
-import swp.se1889.g1.rice_store.repository.ForgotPasswordRepository;
 import swp.se1889.g1.rice_store.repository.UserRepository;
 import swp.se1889.g1.rice_store.service.EmailService;
+import swp.se1889.g1.rice_store.service.OtpService;
 
-import java.time.Instant;
-import java.util.Date;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Random;
 
 @Controller
 @RequestMapping("/forgotPassword")
 public class ForgotPasswordController {
     private final UserRepository userRepository;
     private final EmailService emailService;
-    private final ForgotPasswordRepository forgotPasswordRepository;
+    private final OtpService otpService;
     private final PasswordEncoder passwordEncoder;
 
-    public ForgotPasswordController(UserRepository userRepository, EmailService emailService, ForgotPasswordRepository forgotPasswordRepository, PasswordEncoder passwordEncoder) {
+    public ForgotPasswordController(UserRepository userRepository, EmailService emailService, OtpService otpService, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.emailService = emailService;
-        this.forgotPasswordRepository = forgotPasswordRepository;
+        this.otpService = otpService;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -49,12 +44,15 @@ public class ForgotPasswordController {
             return "redirect:/forgotPassword";
         }
 
-        int otp = otpGenerator();
+        int otp;
+        try {
+            otp = otpService.issue(user.getId(), email);
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/forgotPassword";
+        }
         MailBodyDTO mailBodyDTO = new MailBodyDTO(email, "OTP cho yêu cầu Quên mật khẩu", "OTP tồn tại trong vòng 1 phút! Đây là OTP cho yêu cầu Quên mật khẩu của bạn: " + otp );
-
-        ForgotPassword fp = new ForgotPassword(otp, new Date(System.currentTimeMillis() + 60 * 1000), user.getId());
         emailService.sendSimpleMessage(mailBodyDTO);
-        forgotPasswordRepository.save(fp);
 
         return "redirect:/forgotPassword/verify?email=" + email;
     }
@@ -76,16 +74,14 @@ public class ForgotPasswordController {
             return "redirect:/forgotPassword/verify?email=" + email;
         }
 
-        Optional<ForgotPassword> fpOptional = forgotPasswordRepository.findByOtpAndUser(otp, user.getId());
+        OtpService.VerifyResult result = otpService.verify(user.getId(), otp);
 
-        if (fpOptional.isEmpty()) {
+        if (result == OtpService.VerifyResult.INVALID) {
             redirectAttributes.addFlashAttribute("error", "OTP không hợp lệ");
             return "redirect:/forgotPassword/verify?email=" + email;
         }
 
-        ForgotPassword fp = fpOptional.get();
-        if (fp.getExpirationTime().before(Date.from(Instant.now()))) {
-            forgotPasswordRepository.deleteById(fp.getFpid());
+        if (result == OtpService.VerifyResult.EXPIRED) {
             redirectAttributes.addFlashAttribute("error", "OTP đã hết hạn");
             return "redirect:/forgotPassword/verify?email=" + email;
         }
@@ -116,7 +112,7 @@ public class ForgotPasswordController {
         }
 
         userRepository.updatePassword(email, passwordEncoder.encode(password));
-        forgotPasswordRepository.deleteByUserId(user.getId());
+        otpService.invalidate(user.getId());
 
         redirectAttributes.addFlashAttribute("success", "Mật khẩu đã được thay đổi thành công");
         return "redirect:/login";
@@ -127,9 +123,4 @@ public class ForgotPasswordController {
     public String resendOtp(@RequestParam String email, RedirectAttributes redirectAttributes) {
         return sendOtp(email, redirectAttributes);
     }
-
-    private Integer otpGenerator() {
-        Random random = new Random();
-        return random.nextInt(100_000, 1_000_000);
-    }
 }
@@ -2,17 +2,23 @@ package swp.se1889.g1.rice_store.controller;
 
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import swp.se1889.g1.rice_store.dto.TopProductDTO;
 import swp.se1889.g1.rice_store.entity.Store;
 import swp.se1889.g1.rice_store.entity.User;
 import swp.se1889.g1.rice_store.service.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +32,8 @@ public class HomeController {
     private UserServiceIpml userService;
     @Autowired
     private InvoicesService invoiceService;
+    @Autowired
+    private InvoiceDetailService invoiceDetailService;
 
     @PostMapping("/home")
     public String storeSelection(@RequestParam("storeName") String name,
@@ -54,6 +62,9 @@ public class HomeController {
         model.addAttribute("revenueMonthLabels", revenueByMonth.keySet());
         model.addAttribute("revenueMonthValues", revenueByMonth.values());
 
+        // --- E. Top sản phẩm bán chạy trong tháng ---
+        model.addAttribute("topProducts", invoiceDetailService.getTopProductsSold(storeId, "month", null, null, 5));
+
 
 
 
@@ -84,10 +95,33 @@ public class HomeController {
         model.addAttribute("revenueMonthLabels", revenueByMonth.keySet());
         model.addAttribute("revenueMonthValues", revenueByMonth.values());
 
+        // --- E. Top sản phẩm bán chạy trong tháng ---
+        model.addAttribute("topProducts", invoiceDetailService.getTopProductsSold(storeId, "month", null, null, 5));
+
         return "home";
     }
 
 
+    // Top sản phẩm bán chạy của cửa hàng đang chọn; window = today | week | month | custom
+    @GetMapping("/home/top-products")
+    @ResponseBody
+    public ResponseEntity<?> getTopProducts(HttpSession session,
+                                            @RequestParam(defaultValue = "today") String window,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "5") int limit) {
+        Store store = (Store) session.getAttribute("store");
+        if (store == null) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("errorMessage", "Chưa chọn cửa hàng"));
+        }
+        try {
+            List<TopProductDTO> top = invoiceDetailService.getTopProductsSold(store.getId(), window, from, to, limit);
+            return ResponseEntity.ok(top);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("errorMessage", e.getMessage()));
+        }
+    }
+
     @GetMapping("/employee/home")
     public String getHomeEmployee(HttpSession session, Model model) {
         Long createdBy = userService.getCurrentCreatedBy();
@@ -1,11 +1,14 @@
 package swp.se1889.g1.rice_store.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -19,6 +22,7 @@ import swp.se1889.g1.rice_store.repository.*;
 import swp.se1889.g1.rice_store.service.*;
 import swp.se1889.g1.rice_store.service.Iservice.UserService;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -39,12 +43,14 @@ public class InvoiceController {
     private final UserServiceIpml userService;
     private final InvoicesRepository invoicesRepository;
     private final CustomerService customerService;
+    private final ExportService exportService;
 
 
     @Autowired
     public InvoiceController(ProductRepository productRepository, CustomerRepository customerRepository, InvoicesService invoiceService, ZoneRepository zoneRepository, InvoiceDetailRepository invoiceDetailRepository
             , UserServiceIpml userService, InvoicesRepository invoicesRepository,
-                             ProductService productService, ZoneService zoneService, CustomerService customerService) {
+                             ProductService productService, ZoneService zoneService, CustomerService customerService,
+                             ExportService exportService) {
         this.productRepository = productRepository;
         this.customerRepository = customerRepository;
         this.invoiceService = invoiceService;
@@ -55,6 +61,7 @@ public class InvoiceController {
         this.productService = productService;
         this.zoneService = zoneService;
         this.customerService = customerService;
+        this.exportService = exportService;
     }
 
     @GetMapping
@@ -117,6 +124,45 @@ public class InvoiceController {
         return "invoice";
     }
 
+    // Xuất toàn bộ hóa đơn khớp bộ lọc hiện tại (không phân trang), ghi thẳng ra response
+    @GetMapping("/export")
+    public void exportInvoices(HttpSession session, HttpServletResponse response,
+                               @RequestParam(defaultValue = "csv") String format,
+                               @RequestParam(required = false) String idMin,
+                               @RequestParam(required = false) String idMax,
+                               @RequestParam(required = false) String note,
+                               @RequestParam(required = false) String status,
+                               @RequestParam(required = false) String amountMin,
+                               @RequestParam(required = false) String amountMax,
+                               @RequestParam(required = false) String dateMin,
+                               @RequestParam(required = false) String dateMax,
+                               @RequestParam(required = false) String dateMin1,
+                               @RequestParam(required = false) String dateMax1,
+                               @RequestParam(required = false) String type) throws IOException {
+        Store store = (Store) session.getAttribute("store");
+        if (store == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Chưa chọn cửa hàng");
+            return;
+        }
+        Invoices.InvoiceType invoiceType = Invoices.InvoiceType.Purchase;
+        if (type != null && !type.isEmpty()) {
+            try {
+                invoiceType = Invoices.InvoiceType.valueOf(type.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                invoiceType = Invoices.InvoiceType.Purchase;
+            }
+        }
+        Specification<Invoices> spec = invoiceService.buildFilterSpec(store, parseLong(idMin), parseLong(idMax), note, status,
+                parseDate(dateMin), parseDate(dateMax), parseDate(dateMin1), parseDate(dateMax1),
+                parseBigDecimal(amountMin), parseBigDecimal(amountMax), invoiceType);
+
+        String exportFormat = ExportService.normalizeFormat(format);
+        response.setContentType(ExportService.contentType(exportFormat));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + ExportService.fileName("hoa-don", exportFormat) + "\"");
+        exportService.exportInvoices(spec, exportFormat, response.getOutputStream());
+    }
+
     private Long parseLong(String value) {
         if (value != null && !value.isEmpty()) {
             try {
@@ -36,6 +36,8 @@ public class InvoiceSaleController {
 
     private final InvoiceSaleDetailService invoiceSaleDetailService;
 
+    private final InvoiceDetailService invoiceDetailService;
+
     private final InvoiceSaleRepository invoiceSaleRepository;
 
     private final InvoiceSaleService invoiceSaleService;
@@ -55,7 +57,7 @@ public class InvoiceSaleController {
     private final ZoneService zoneService;
     private final ZoneRepository zoneRepository;
 
-    public InvoiceSaleController(InvoiceSaleRepository invoiceSaleRepository, InvoiceSaleService invoiceSaleService, UserServiceIpml userService, CustomerService customerService, DebtRecordRepository debtRecordRepository, ProductService productService, InvoiceSaleDetailRepository invoiceSaleDetailRepository, InvoiceSaleDetailService invoiceSaleDetailService, ZoneService zoneService, ZoneRepository zoneRepository, DebtRecordService debtRecordService) {
+    public InvoiceSaleController(InvoiceSaleRepository invoiceSaleRepository, InvoiceSaleService invoiceSaleService, UserServiceIpml userService, CustomerService customerService, DebtRecordRepository debtRecordRepository, ProductService productService, InvoiceSaleDetailRepository invoiceSaleDetailRepository, InvoiceSaleDetailService invoiceSaleDetailService, ZoneService zoneService, ZoneRepository zoneRepository, DebtRecordService debtRecordService, InvoiceDetailService invoiceDetailService) {
         this.invoiceSaleRepository = invoiceSaleRepository;
         this.invoiceSaleService = invoiceSaleService;
         this.userService = userService;
@@ -67,6 +69,7 @@ public class InvoiceSaleController {
         this.zoneService = zoneService;
         this.zoneRepository = zoneRepository;
         this.debtRecordService = debtRecordService;
+        this.invoiceDetailService = invoiceDetailService;
     }
 
     @GetMapping("invoiceSale")
@@ -117,52 +120,12 @@ public class InvoiceSaleController {
         Store store = (Store) session.getAttribute("store");
         User user = userService.getCurrentUser();
 
-        Invoice invoice = new Invoice();
-        invoice.setStoreId(store.getId());
-        invoice.setCustomerId(customerId);
-        invoice.setFinalAmount(totalAmount);
-
-        invoice.setPaymentStatus(paymentOption);
-        Customer customer = customerService.findCustomerById(invoice.getCustomerId());
-        if (paymentOption.equals("In_debt")) {
-            DebtRecords debtRecords = new DebtRecords();
-            debtRecords.setCustomerId(customer.getId());
-            debtRecords.setType(DebtRecords.DebtType.valueOf("Customer_debt_shop"));
-            debtRecords.setAmount(totalAmount);
-            debtRecords.setCreatedBy(user);
-            debtRecordRepository.save(debtRecords);
-            debtRecordService.updateDebtBalances(customer, user);
-        }
-
-        invoice.setType("Sale");
-        invoice.setCreatedBy(user.getId());
-        invoiceSaleRepository.save(invoice);
-
         ObjectMapper objectMapper = new ObjectMapper();
         List<InvoiceSaleDetailDTO> productOrders = objectMapper.readValue(
                 selectedProducts, new TypeReference<List<InvoiceSaleDetailDTO>>() {
                 });
 
-        for (InvoiceSaleDetailDTO product : productOrders) {
-            InvoiceDetail invoiceDetail = new InvoiceDetail();
-            invoiceDetail.setInvoiceId(invoice.getId());
-            invoiceDetail.setProductId(product.getProductId());
-            invoiceDetail.setQuantity(product.getQuantity());
-
-            Zone zone = zoneService.getZoneById(product.getZoneId());
-            zone.setQuantity(zone.getQuantity() - product.getQuantity());
-            zoneRepository.save(zone);
-
-            Product selectProduct = productService.findProductById(product.getProductId());
-            invoiceDetail.setUnitPrice(selectProduct.getPrice());
-            BigDecimal totalPrice = selectProduct.getPrice().multiply(BigDecimal.valueOf(product.getQuantity()));
-            invoiceDetail.setTotalPrice(totalPrice);
-
-            invoiceDetail.setZoneId(product.getZoneId());
-            invoiceDetail.setCustomerId(customerId);
-
-            invoiceSaleDetailRepository.save(invoiceDetail);
-        }
+        invoiceSaleService.createOrder(store.getId(), user, customerId, totalAmount, paymentOption, productOrders);
 
         return "redirect:/invoiceSale";
     }
@@ -222,7 +185,7 @@ public class InvoiceSaleController {
                     debtRecords.setType(DebtRecords.DebtType.valueOf("GHI_NO"));
                     debtRecords.setAmount(totalAmount);
                     debtRecords.setCreatedBy(user);
-                    debtRecordRepository.save(debtRecords);
+                    debtRecordService.saveRecord(debtRecords);
 
                 }
             } else if (currentStatus.equals("In_debt")) {
@@ -232,7 +195,7 @@ public class InvoiceSaleController {
                     debtRecords.setType(DebtRecords.DebtType.valueOf("TRA_NO"));
                     debtRecords.setAmount(totalAmount);
                     debtRecords.setCreatedBy(user);
-                    debtRecordRepository.save(debtRecords);
+                    debtRecordService.saveRecord(debtRecords);
                 }
             }
 
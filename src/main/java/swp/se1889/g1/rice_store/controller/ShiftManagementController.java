@@ -3,12 +3,14 @@ package swp.se1889.g1.rice_store.controller;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import swp.se1889.g1.rice_store.dto.ShiftDTO;
+import swp.se1889.g1.rice_store.dto.WorkShiftAssignmentDTO;
 import swp.se1889.g1.rice_store.entity.*;
 import swp.se1889.g1.rice_store.service.EmployeeService;
 import swp.se1889.g1.rice_store.service.ShiftService;
@@ -69,9 +71,7 @@ public class ShiftManagementController {
         List<Shift> allShifts = shiftService.getStoreByCreatedBy(store.getId());
         List<User> allUsers = employeeService.getEmployees(store.getId(), "ROLE_EMPLOYEE");
 
-        List<WorkShift> weekWorkShifts = workShiftService.getWorkShiftsByDateRange(weekStart, weekEnd);
-
-        Map<String, Map<String, List<User>>> scheduleData = prepareScheduleData(weekWorkShifts, allShifts, allUsers, weekStart);
+        Map<String, Map<String, List<User>>> scheduleData = workShiftService.getWeekScheduleGrid(store.getId(), weekStart, allShifts, allUsers);
 
         // Add empty ShiftDTO for the create form
         model.addAttribute("newShift", new ShiftDTO());
@@ -148,7 +148,8 @@ public class ShiftManagementController {
             workShiftService.removeEmployeeFromShift(
                     workShiftForm.getUserId(),
                     workShiftForm.getShiftId(),
-                    workShiftForm.getWorkDate()
+                    workShiftForm.getWorkDate(),
+                    store.getId()
             );
             redirectAttributes.addFlashAttribute("success", "Đã xóa phân công thành công");
         } catch (Exception e) {
@@ -158,6 +159,23 @@ public class ShiftManagementController {
         return "redirect:/shifts/schedule?weekNumber=" + workShiftForm.getWeekNumber() + "&year=" + workShiftForm.getYear();
     }
 
+    // Phân công hàng loạt (JSON): [{userId, shiftId, workDate}, ...]; trả về báo cáo các dòng bị loại
+    @PostMapping("/roster")
+    @ResponseBody
+    public ResponseEntity<?> assignRoster(@RequestBody List<WorkShiftAssignmentDTO> plan,
+                                          @RequestParam(defaultValue = "false") boolean dryRun,
+                                          HttpSession session) {
+        Store store = (Store) session.getAttribute("store");
+        if (store == null) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("errorMessage", "Chưa chọn cửa hàng"));
+        }
+        try {
+            return ResponseEntity.ok(workShiftService.assignRoster(store.getId(), plan, dryRun));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("errorMessage", e.getMessage()));
+        }
+    }
+
     @GetMapping("/add")
     public String showAddShiftForm(Model model, HttpSession session) {
         Store store = (Store) session.getAttribute("store");
@@ -223,48 +241,4 @@ public class ShiftManagementController {
 
         return "redirect:/shifts/schedule";
     }
-
-    private Map<String, Map<String, List<User>>> prepareScheduleData(
-            List<WorkShift> workShifts,
-            List<Shift> shifts,
-            List<User> users,
-            LocalDate weekStart) {
-
-        Map<String, Map<String, List<User>>> scheduleData = new HashMap<>();
-
-        // Initialize the structure
-        for (Shift shift : shifts) {
-            Map<String, List<User>> shiftData = new HashMap<>();
-
-            // For each day of the week
-            for (int i = 0; i < 7; i++) {
-                LocalDate date = weekStart.plusDays(i);
-                shiftData.put(date.toString(), new ArrayList<>());
-            }
-
-            scheduleData.put(shift.getShiftCode(), shiftData);
-        }
-
-        // Fill in the data
-        for (WorkShift workShift : workShifts) {
-            Shift shift = shifts.stream()
-                    .filter(s -> s.getId().equals(workShift.getShift()))
-                    .findFirst()
-                    .orElse(null);
-
-            if (shift != null) {
-                User employee = users.stream()
-                        .filter(u -> u.getId() == workShift.getEmployee())
-                        .findFirst()
-                        .orElse(null);
-
-                if (employee != null) {
-                    String dateKey = workShift.getWorkDate().toString();
-                    scheduleData.get(shift.getShiftCode()).get(dateKey).add(employee);
-                }
-            }
-        }
-
-        return scheduleData;
-    }
-}
\ No newline at end of file
+}
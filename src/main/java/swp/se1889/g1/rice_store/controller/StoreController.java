@@ -5,6 +5,7 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -13,14 +14,19 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import swp.se1889.g1.rice_store.dto.OwnerReportDTO;
 import swp.se1889.g1.rice_store.dto.StoreDTO;
 import swp.se1889.g1.rice_store.entity.Store;
 import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.service.OwnerReportService;
 import swp.se1889.g1.rice_store.service.StoreService;
 import swp.se1889.g1.rice_store.service.UserServiceIpml;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 
 @Controller
 public class StoreController {
@@ -30,6 +36,9 @@ public class StoreController {
     @Autowired
     private UserServiceIpml userService;
 
+    @Autowired
+    private OwnerReportService ownerReportService;
+
     @GetMapping("owner/store")
     public String getStores(@RequestParam(defaultValue = "0") int page,
                             @RequestParam(defaultValue = "5") int size,
@@ -45,6 +54,34 @@ public class StoreController {
         return "store";
     }
 
+    // Báo cáo tổng hợp tất cả cửa hàng của owner trong kỳ [from, to] (mặc định: từ đầu tháng đến hôm nay)
+    @GetMapping("owner/report")
+    public String getOwnerReport(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                 Model model) {
+        String username = userService.getCurrentUsername();
+        try {
+            model.addAttribute("report", ownerReportService.getReport(username, from, to));
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("error", e.getMessage());
+            model.addAttribute("report", ownerReportService.getReport(username, null, null));
+        }
+        model.addAttribute("user", userService.getCurrentUser());
+        return "ownerReport";
+    }
+
+    @GetMapping("owner/report/data")
+    @ResponseBody
+    public ResponseEntity<?> getOwnerReportData(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            OwnerReportDTO report = ownerReportService.getReport(userService.getCurrentUsername(), from, to);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("errorMessage", e.getMessage()));
+        }
+    }
+
     @GetMapping("owner/createStore")
     public String createStoreForm(Model model) {
         model.addAttribute("page", "createStore");
@@ -100,6 +137,7 @@ public class StoreController {
                 return "redirect:/owner/createStore";
             }
             model.addAttribute("store", store);
+            ownerReportService.evict(store.getCreatedBy());
             redirectAttributes.addFlashAttribute("success", "Tạo cửa hàng thành công!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Có lỗi xảy ra, vui lòng thử lại!");
@@ -111,6 +149,7 @@ public class StoreController {
     public String deleteStore(@PathVariable Long storeId, RedirectAttributes redirectAttributes) {
         try {
             storeService.deleteStore(storeId);
+            ownerReportService.evict(userService.getCurrentUsername());
             redirectAttributes.addFlashAttribute("success", "Cửa hàng đã được xóa!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Có lỗi xảy ra khi xóa cửa hàng!");
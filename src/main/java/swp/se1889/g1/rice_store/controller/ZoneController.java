@@ -5,11 +5,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import swp.se1889.g1.rice_store.dto.ProductDTO;
+import swp.se1889.g1.rice_store.dto.ProductOptionDTO;
 import swp.se1889.g1.rice_store.dto.ZoneDTO;
 import swp.se1889.g1.rice_store.entity.Product;
 import swp.se1889.g1.rice_store.entity.Store;
@@ -24,6 +28,7 @@ import javax.swing.text.html.Option;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Controller
@@ -224,11 +229,9 @@ public class ZoneController {
         if (store == null) return "redirect:/login";
         // Fetch all zones for the store
         List<Zone> zones = zoneService.getZone(store);
-        // Fetch all products (assuming ProductService has a getAllProducts method)
-        List<Product> products = productRepository.findAll(); // Adjust based on your ProductService
+        // Sản phẩm được nạp theo trang qua /owner/zone/api/products/search, không render sẵn vào trang
         model.addAttribute("store", store);
         model.addAttribute("zones", zones);
-        model.addAttribute("products", products);
         User user = userService.getCurrentUser();
         model.addAttribute("user", user);
         return "addInventory";
@@ -291,5 +294,20 @@ public class ZoneController {
                 .collect(Collectors.toList());
     }
 
-    // Tìm kiếm sản phẩm theo tên
+    // Tìm kiếm sản phẩm theo tên (tiền tố), chỉ sản phẩm của chủ cửa hàng hiện tại, có phân trang cho select2
+    @GetMapping("/api/products/search")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> searchProducts(@RequestParam(name = "query", defaultValue = "") String query,
+                                                              @RequestParam(defaultValue = "1") int page,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        // select2 đánh số trang từ 1
+        Slice<ProductOptionDTO> options = productService.searchProductOptions(query, page - 1, size);
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("results", options.getContent());
+        body.put("pagination", Collections.singletonMap("more", options.hasNext()));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePrivate())
+                .body(body);
+    }
 }
\ No newline at end of file
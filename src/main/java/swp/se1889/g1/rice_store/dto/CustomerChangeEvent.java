@@ -0,0 +1,16 @@
+package swp.se1889.g1.rice_store.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Một thay đổi của khách hàng đã được chụp lại, không phụ thuộc vào persistence context
+public record CustomerChangeEvent(UUID eventId,
+                                  Long customerId,
+                                  String changedField,
+                                  String oldValue,
+                                  String newValue,
+                                  String additionalInfo,
+                                  Long ownerId,
+                                  Long changedById,
+                                  LocalDateTime changedAt) {
+}
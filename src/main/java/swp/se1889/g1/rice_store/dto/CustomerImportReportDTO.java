@@ -0,0 +1,71 @@
+package swp.se1889.g1.rice_store.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CustomerImportReportDTO {
+    private int totalRows;
+    private int importedRows;
+    private List<RowError> errors = new ArrayList<>();
+    private List<CommittedChunk> committedChunks = new ArrayList<>();
+    private String abortedMessage;
+
+    public void addError(int rowNumber, String message) {
+        errors.add(new RowError(rowNumber, message));
+    }
+
+    public void addCommittedChunk(int firstRow, int lastRow, int insertedRows) {
+        committedChunks.add(new CommittedChunk(committedChunks.size() + 1, firstRow, lastRow, insertedRows));
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(int importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public int getFailedRows() {
+        return errors.size();
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    public List<CommittedChunk> getCommittedChunks() {
+        return committedChunks;
+    }
+
+    public void setCommittedChunks(List<CommittedChunk> committedChunks) {
+        this.committedChunks = committedChunks;
+    }
+
+    // Lỗi làm dừng import giữa chừng; các chunk trong committedChunks vẫn đã được lưu
+    public String getAbortedMessage() {
+        return abortedMessage;
+    }
+
+    public void setAbortedMessage(String abortedMessage) {
+        this.abortedMessage = abortedMessage;
+    }
+
+    public record RowError(int row, String message) {
+    }
+
+    public record CommittedChunk(int chunk, int firstRow, int lastRow, int insertedRows) {
+    }
+}
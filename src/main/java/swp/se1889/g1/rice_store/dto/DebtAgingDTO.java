@@ -0,0 +1,69 @@
+package swp.se1889.g1.rice_store.dto;
+
+import java.math.BigDecimal;
+
+// Tuổi nợ của một khách hàng: phần dư nợ còn mở sau khi khớp FIFO, chia theo tuổi của bản ghi nợ gốc.
+// balance cùng quy ước dấu với customers.debt_balance (âm: khách nợ cửa hàng, dương: cửa hàng nợ khách);
+// các nhóm tuổi luôn là số dương
+public class DebtAgingDTO {
+    private Long customerId;
+    private String customerName;
+    private String customerPhone;
+    private BigDecimal balance;
+    private BigDecimal current;
+    private BigDecimal days31To60;
+    private BigDecimal days61To90;
+    private BigDecimal over90;
+
+    public DebtAgingDTO(Long customerId, String customerName, String customerPhone, BigDecimal balance,
+                        BigDecimal current, BigDecimal days31To60, BigDecimal days61To90, BigDecimal over90) {
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.customerPhone = customerPhone;
+        this.balance = balance;
+        this.current = current;
+        this.days31To60 = days31To60;
+        this.days61To90 = days61To90;
+        this.over90 = over90;
+    }
+
+    public boolean isCustomerOwesShop() {
+        return balance.signum() < 0;
+    }
+
+    public BigDecimal getTotal() {
+        return balance.abs();
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public BigDecimal getCurrent() {
+        return current;
+    }
+
+    public BigDecimal getDays31To60() {
+        return days31To60;
+    }
+
+    public BigDecimal getDays61To90() {
+        return days61To90;
+    }
+
+    public BigDecimal getOver90() {
+        return over90;
+    }
+}
@@ -0,0 +1,41 @@
+package swp.se1889.g1.rice_store.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OwnerReportDTO {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final List<StoreReportDTO> stores;
+    private final StoreReportDTO total;
+    private final LocalDateTime generatedAt;
+
+    public OwnerReportDTO(LocalDate from, LocalDate to, List<StoreReportDTO> stores, StoreReportDTO total, LocalDateTime generatedAt) {
+        this.from = from;
+        this.to = to;
+        this.stores = stores;
+        this.total = total;
+        this.generatedAt = generatedAt;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public List<StoreReportDTO> getStores() {
+        return stores;
+    }
+
+    public StoreReportDTO getTotal() {
+        return total;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+}
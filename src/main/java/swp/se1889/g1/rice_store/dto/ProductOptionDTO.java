@@ -0,0 +1,28 @@
+package swp.se1889.g1.rice_store.dto;
+
+// Payload tối giản cho ô chọn sản phẩm (select2 cần đúng hai trường id/text)
+public class ProductOptionDTO {
+    private Long id;
+    private String text;
+
+    public ProductOptionDTO(Long id, String text) {
+        this.id = id;
+        this.text = text;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
@@ -0,0 +1,56 @@
+package swp.se1889.g1.rice_store.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RosterReportDTO {
+    private int requested;
+    private int assigned;
+    private boolean dryRun;
+    private List<Conflict> conflicts = new ArrayList<>();
+
+    public void addConflict(int index, WorkShiftAssignmentDTO item, String reason) {
+        conflicts.add(new Conflict(index, item.getUserId(), item.getShiftId(), item.getWorkDate(), reason));
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getAssigned() {
+        return assigned;
+    }
+
+    public void setAssigned(int assigned) {
+        this.assigned = assigned;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public int getRejected() {
+        return conflicts.size();
+    }
+
+    public List<Conflict> getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(List<Conflict> conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    // index: vị trí của dòng trong danh sách gửi lên (bắt đầu từ 0)
+    public record Conflict(int index, Long userId, Long shiftId, LocalDate workDate, String reason) {
+    }
+}
@@ -0,0 +1,65 @@
+package swp.se1889.g1.rice_store.dto;
+
+import java.math.BigDecimal;
+
+// Một dòng của báo cáo tổng hợp: số liệu của một cửa hàng (hoặc dòng tổng khi storeId = null)
+public class StoreReportDTO {
+    private Long storeId;
+    private String storeName;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private long invoiceCount;
+    private BigDecimal debtOutstanding = BigDecimal.ZERO;
+    private BigDecimal stockValue = BigDecimal.ZERO;
+
+    public StoreReportDTO(Long storeId, String storeName) {
+        this.storeId = storeId;
+        this.storeName = storeName;
+    }
+
+    public void add(StoreReportDTO other) {
+        revenue = revenue.add(other.revenue);
+        invoiceCount += other.invoiceCount;
+        debtOutstanding = debtOutstanding.add(other.debtOutstanding);
+        stockValue = stockValue.add(other.stockValue);
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public String getStoreName() {
+        return storeName;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getInvoiceCount() {
+        return invoiceCount;
+    }
+
+    public void setInvoiceCount(long invoiceCount) {
+        this.invoiceCount = invoiceCount;
+    }
+
+    public BigDecimal getDebtOutstanding() {
+        return debtOutstanding;
+    }
+
+    public void setDebtOutstanding(BigDecimal debtOutstanding) {
+        this.debtOutstanding = debtOutstanding;
+    }
+
+    public BigDecimal getStockValue() {
+        return stockValue;
+    }
+
+    public void setStockValue(BigDecimal stockValue) {
+        this.stockValue = stockValue;
+    }
+}
@@ -0,0 +1,49 @@
+package swp.se1889.g1.rice_store.dto;
+
+import java.math.BigDecimal;
+
+public class TopProductDTO {
+    private Long productId;
+    private String productName;
+    private long quantitySold;
+    private BigDecimal revenue;
+
+    public TopProductDTO(Long productId, String productName, long quantitySold, BigDecimal revenue) {
+        this.productId = productId;
+        this.productName = productName;
+        this.quantitySold = quantitySold;
+        this.revenue = revenue;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public long getQuantitySold() {
+        return quantitySold;
+    }
+
+    public void setQuantitySold(long quantitySold) {
+        this.quantitySold = quantitySold;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -2,10 +2,19 @@ package swp.se1889.g1.rice_store.entity;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Entity
 @Table(name = "customer_change_histories")
 public class CustomerChangeHistory {
+
+    // Giá trị changed_field: dùng chung cho nơi ghi lịch sử và bộ lọc trên giao diện
+    public static final String FIELD_NAME = "Họ và Tên";
+    public static final String FIELD_PHONE = "Số điện thoại";
+    public static final String FIELD_ADDRESS = "Địa chỉ";
+    public static final String FIELD_EMAIL = "Email";
+    public static final List<String> FIELDS = List.of(FIELD_NAME, FIELD_EMAIL, FIELD_ADDRESS, FIELD_PHONE);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -33,6 +42,9 @@ public class CustomerChangeHistory {
     @Column(name = "changed_at", nullable = false)
     private LocalDateTime changedAt;
 
+    @Column(name = "owner_id")
+    private Long ownerId;
+
     public CustomerChangeHistory() {
     }
 
@@ -110,4 +122,12 @@ public class CustomerChangeHistory {
     public void setAdditionalInfo(String additionalInfo) {
         this.additionalInfo = additionalInfo;
     }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package swp.se1889.g1.rice_store.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Chỉ mục đảo (token -> lịch sử) cho old_value/new_value, khoá chính (owner_id, token, history_id)
+@Entity
+@Table(name = "customer_change_history_tokens")
+@IdClass(CustomerChangeHistoryToken.TokenId.class)
+public class CustomerChangeHistoryToken {
+
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Id
+    @Column(name = "token")
+    private String token;
+
+    @Id
+    @Column(name = "history_id")
+    private Long historyId;
+
+    public CustomerChangeHistoryToken() {
+    }
+
+    public CustomerChangeHistoryToken(Long ownerId, String token, Long historyId) {
+        this.ownerId = ownerId;
+        this.token = token;
+        this.historyId = historyId;
+    }
+
+    // Tách theo khoảng trắng, bỏ dấu câu ở hai đầu, chữ thường; cột token dùng collation không phân biệt dấu
+    public static Set<String> tokenize(String... values) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null) continue;
+            for (String part : value.trim().split("\\s+")) {
+                String token = stripPunctuation(part).toLowerCase(Locale.ROOT);
+                if (token.isEmpty()) continue;
+                tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String stripPunctuation(String part) {
+        int start = 0;
+        int end = part.length();
+        while (start < end && !Character.isLetterOrDigit(part.charAt(start))) start++;
+        while (end > start && !Character.isLetterOrDigit(part.charAt(end - 1))) end--;
+        return part.substring(start, end);
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public Long getHistoryId() {
+        return historyId;
+    }
+
+    public void setHistoryId(Long historyId) {
+        this.historyId = historyId;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TokenId implements Serializable {
+        private Long ownerId;
+        private String token;
+        private Long historyId;
+    }
+}
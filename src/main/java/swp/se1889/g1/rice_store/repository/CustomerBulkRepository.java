@@ -0,0 +1,34 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import swp.se1889.g1.rice_store.dto.CustomerDTO;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Customer dùng IDENTITY nên Hibernate không gom batch INSERT được; nhập hàng loạt đi thẳng qua JDBC batch
+@Repository
+public class CustomerBulkRepository {
+
+    private static final String INSERT_CUSTOMER = "INSERT INTO customers " +
+            "(name, phone, address, email, debt_balance, created_at, updated_at, created_by, is_deleted) " +
+            "VALUES (?,?,?,?,?,?,?,?,0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<CustomerDTO> customers, Long createdBy) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(customers.size());
+        for (CustomerDTO c : customers) {
+            BigDecimal debt = c.getDebtBalance() != null ? c.getDebtBalance() : BigDecimal.ZERO;
+            args.add(new Object[]{c.getName(), c.getPhone(), c.getAddress(), c.getEmail(), debt, now, now, createdBy});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CUSTOMER, args);
+    }
+}
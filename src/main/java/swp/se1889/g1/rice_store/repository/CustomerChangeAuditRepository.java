@@ -0,0 +1,149 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import swp.se1889.g1.rice_store.dto.CustomerChangeEvent;
+import swp.se1889.g1.rice_store.entity.CustomerChangeHistoryToken;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Ghi audit khách hàng bằng JDBC batch: outbox trong transaction của request, lịch sử do writer nền chuyển sang
+@Repository
+public class CustomerChangeAuditRepository {
+
+    private static final String INSERT_OUTBOX = "INSERT INTO customer_change_outbox " +
+            "(event_id, customer_id, changed_field, old_value, new_value, additional_info, owner_id, changed_by, changed_at) " +
+            "VALUES (?,?,?,?,?,?,?,?,?)";
+
+    private static final String DELETE_OUTBOX = "DELETE FROM customer_change_outbox WHERE event_id = ?";
+
+    private static final String INSERT_HISTORY = "INSERT INTO customer_change_histories " +
+            "(event_id, customer_id, changed_field, old_value, new_value, additional_info, owner_id, changed_by, changed_at) " +
+            "VALUES (?,?,?,?,?,?,?,?,?)";
+
+    private static final String INSERT_TOKEN = "INSERT INTO customer_change_history_tokens (owner_id, token, history_id) " +
+            "VALUES (?,?,?)";
+
+    private static final String SELECT_PENDING = "SELECT TOP (?) event_id, customer_id, changed_field, old_value, " +
+            "new_value, additional_info, owner_id, changed_by, changed_at " +
+            "FROM customer_change_outbox WHERE changed_at < ? ORDER BY changed_at";
+
+    // Lịch sử có owner nhưng chưa có token nào (dữ liệu trước khi có chỉ mục đảo), duyệt theo id tăng dần
+    private static final String SELECT_UNTOKENIZED = "SELECT TOP (?) h.id, h.owner_id, h.old_value, h.new_value " +
+            "FROM customer_change_histories h WHERE h.id > ? AND h.owner_id IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM customer_change_history_tokens t " +
+            "WHERE t.owner_id = h.owner_id AND t.history_id = h.id) ORDER BY h.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertOutbox(List<CustomerChangeEvent> events) {
+        List<Object[]> args = new ArrayList<>(events.size());
+        for (CustomerChangeEvent e : events) {
+            args.add(new Object[]{e.eventId().toString(), e.customerId(), e.changedField(), e.oldValue(),
+                    e.newValue(), e.additionalInfo(), e.ownerId(), e.changedById(), Timestamp.valueOf(e.changedAt())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_OUTBOX, args);
+    }
+
+    // Xoá khỏi outbox trước, chỉ những event thực sự xoá được mới được ghi vào lịch sử,
+    // nên writer nền và lượt quét lại không thể ghi trùng cùng một event
+    public int moveToHistory(List<CustomerChangeEvent> events) {
+        List<Object[]> deleteArgs = new ArrayList<>(events.size());
+        for (CustomerChangeEvent e : events) {
+            deleteArgs.add(new Object[]{e.eventId().toString()});
+        }
+        int[] deleted = jdbcTemplate.batchUpdate(DELETE_OUTBOX, deleteArgs);
+
+        List<CustomerChangeEvent> moved = new ArrayList<>(events.size());
+        List<Object[]> historyArgs = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            if (deleted[i] > 0 || deleted[i] == Statement.SUCCESS_NO_INFO) {
+                CustomerChangeEvent e = events.get(i);
+                moved.add(e);
+                historyArgs.add(new Object[]{e.eventId().toString(), e.customerId(), e.changedField(), e.oldValue(),
+                        e.newValue(), e.additionalInfo(), e.ownerId(), e.changedById(), Timestamp.valueOf(e.changedAt())});
+            }
+        }
+        if (historyArgs.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, historyArgs);
+        insertTokens(moved);
+        return moved.size();
+    }
+
+    // SQL Server không trả generated key cho batch, nên đọc lại id theo event_id bằng một truy vấn IN
+    private void insertTokens(List<CustomerChangeEvent> events) {
+        Map<String, Long> historyIds = new HashMap<>();
+        String placeholders = String.join(",", Collections.nCopies(events.size(), "?"));
+        jdbcTemplate.query("SELECT id, event_id FROM customer_change_histories WHERE event_id IN (" + placeholders + ")",
+                rs -> {
+                    historyIds.put(rs.getString("event_id"), rs.getLong("id"));
+                },
+                events.stream().map(e -> e.eventId().toString()).toArray());
+
+        List<Object[]> tokenArgs = new ArrayList<>();
+        for (CustomerChangeEvent e : events) {
+            Long historyId = historyIds.get(e.eventId().toString());
+            if (historyId == null || e.ownerId() == null) continue;
+            for (String token : CustomerChangeHistoryToken.tokenize(e.oldValue(), e.newValue())) {
+                tokenArgs.add(new Object[]{e.ownerId(), token, historyId});
+            }
+        }
+        if (!tokenArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TOKEN, tokenArgs);
+        }
+    }
+
+    // Bổ sung token cho lịch sử cũ bằng đúng CustomerChangeHistoryToken.tokenize mà writer nền dùng; chạy lại nhiều lần vẫn an toàn
+    public int backfillTokens(int batchSize) {
+        long lastId = 0;
+        int histories = 0;
+        while (true) {
+            List<Object[]> tokenArgs = new ArrayList<>();
+            long[] maxId = {lastId};
+            int[] rows = {0};
+            jdbcTemplate.query(SELECT_UNTOKENIZED, rs -> {
+                long historyId = rs.getLong("id");
+                long ownerId = rs.getLong("owner_id");
+                for (String token : CustomerChangeHistoryToken.tokenize(rs.getString("old_value"), rs.getString("new_value"))) {
+                    tokenArgs.add(new Object[]{ownerId, token, historyId});
+                }
+                maxId[0] = Math.max(maxId[0], historyId);
+                rows[0]++;
+            }, batchSize, lastId);
+            if (rows[0] == 0) {
+                return histories;
+            }
+            if (!tokenArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_TOKEN, tokenArgs);
+            }
+            histories += rows[0];
+            lastId = maxId[0];
+        }
+    }
+
+    public List<CustomerChangeEvent> findPending(LocalDateTime olderThan, int limit) {
+        return jdbcTemplate.query(SELECT_PENDING, (rs, rowNum) -> new CustomerChangeEvent(
+                UUID.fromString(rs.getString("event_id")),
+                rs.getLong("customer_id"),
+                rs.getString("changed_field"),
+                rs.getString("old_value"),
+                rs.getString("new_value"),
+                rs.getString("additional_info"),
+                rs.getObject("owner_id", Long.class),
+                rs.getLong("changed_by"),
+                rs.getTimestamp("changed_at").toLocalDateTime()
+        ), limit, Timestamp.valueOf(olderThan));
+    }
+}
@@ -0,0 +1,13 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import swp.se1889.g1.rice_store.dto.CustomerChangeHistoryDTO;
+import swp.se1889.g1.rice_store.entity.CustomerChangeHistory;
+
+public interface CustomerChangeHistoryRepositoryCustom {
+
+    // Trả thẳng CustomerChangeHistoryDTO, mới nhất trước (khớp index owner_id, changed_at)
+    Page<CustomerChangeHistoryDTO> searchHistories(Specification<CustomerChangeHistory> spec, Pageable pageable);
+}
@@ -0,0 +1,75 @@
+package swp.se1889.g1.rice_store.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import swp.se1889.g1.rice_store.dto.CustomerChangeHistoryDTO;
+import swp.se1889.g1.rice_store.entity.Customer;
+import swp.se1889.g1.rice_store.entity.CustomerChangeHistory;
+import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.specification.CustomerChangeHistorySpecifications;
+
+import java.util.List;
+
+public class CustomerChangeHistoryRepositoryCustomImpl implements CustomerChangeHistoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<CustomerChangeHistoryDTO> searchHistories(Specification<CustomerChangeHistory> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<CustomerChangeHistoryDTO> query = cb.createQuery(CustomerChangeHistoryDTO.class);
+        Root<CustomerChangeHistory> root = query.from(CustomerChangeHistory.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        Join<CustomerChangeHistory, Customer> customer = CustomerChangeHistorySpecifications.joinOnce(root, "customer");
+        Join<CustomerChangeHistory, User> changedBy = CustomerChangeHistorySpecifications.joinOnce(root, "changedBy");
+
+        query.select(cb.construct(CustomerChangeHistoryDTO.class,
+                root.get("id"),
+                customer.get("id"),
+                customer.get("name"),
+                root.get("changedField"),
+                root.get("oldValue"),
+                root.get("newValue"),
+                changedBy.get("username"),
+                root.get("changedAt")));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.desc(root.get("changedAt")), cb.desc(root.get("id")));
+
+        TypedQuery<CustomerChangeHistoryDTO> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<CustomerChangeHistoryDTO> content = typedQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    // COUNT chỉ JOIN khi có điều kiện theo tên khách hàng / người thay đổi
+    private long count(Specification<CustomerChangeHistory> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<CustomerChangeHistory> root = query.from(CustomerChangeHistory.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+
+        query.select(cb.count(root));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
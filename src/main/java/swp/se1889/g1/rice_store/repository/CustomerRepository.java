@@ -14,6 +14,7 @@ import swp.se1889.g1.rice_store.entity.User;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,5 +33,12 @@ public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSp
     @Query("SELECT new swp.se1889.g1.rice_store.dto.CustomerDTO(c.id, c.name, c.phone, c.address, c.email) FROM Customer c WHERE c.isDeleted = false AND c.name LIKE %:query%")
     List<CustomerDTO> searchCustomerDetails(@Param("query") String query);
 
+    // Kiểm tra trùng theo lô: một truy vấn IN cho cả chunk thay vì findByPhone/findByemail từng dòng
+    @Query("SELECT c.phone FROM Customer c WHERE c.phone IN :phones")
+    List<String> findExistingPhones(@Param("phones") Collection<String> phones);
+
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
 
 }
@@ -0,0 +1,34 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+// Đọc debt_records theo thứ tự (customer_id, create_on) bằng con trỏ forward-only,
+// đi đúng idx_debtrecords_customer_createon; mỗi dòng được đẩy vào handler, không gom vào List
+@Repository
+public class DebtAgingRepository {
+
+    private static final String OPEN_DEBT_RECORDS = """
+            SELECT d.customer_id, c.name, c.phone, d.type, d.amount, d.create_on
+            FROM debt_records d
+            JOIN customers c ON c.id = d.customer_id
+            WHERE d.is_deleted = 0 AND c.is_deleted = 0
+              AND c.created_by IN (SELECT u.id FROM users u WHERE u.id = ? OR u.created_by = ?)
+            ORDER BY d.customer_id, d.create_on, d.id
+            """;
+
+    private final JdbcTemplate streamingTemplate;
+
+    public DebtAgingRepository(DataSource dataSource, @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    public void forEachDebtRecord(Long ownerId, RowCallbackHandler handler) {
+        streamingTemplate.query(OPEN_DEBT_RECORDS, handler, ownerId, ownerId);
+    }
+}
@@ -0,0 +1,73 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+// Tổng nợ theo (khách hàng, năm, tháng), cùng ý nghĩa với getMonthlyDebtNative nhưng được cộng dồn khi ghi
+// thay vì GROUP BY toàn bộ lịch sử mỗi lần đọc
+@Repository
+public class DebtMonthlySummaryRepository {
+
+    private static final String APPLY_DELTA = """
+            MERGE INTO %s AS t
+            USING (SELECT ? AS customer_id, ? AS [year], ? AS [month], ? AS total_amount, ? AS record_count) AS s
+               ON t.customer_id = s.customer_id AND t.[year] = s.[year] AND t.[month] = s.[month]
+            WHEN MATCHED THEN
+                UPDATE SET t.total_amount = t.total_amount + s.total_amount,
+                           t.record_count = t.record_count + s.record_count
+            WHEN NOT MATCHED THEN
+                INSERT (customer_id, [year], [month], total_amount, record_count)
+                VALUES (s.customer_id, s.[year], s.[month], s.total_amount, s.record_count);
+            """;
+
+    private static final String FIND_BY_CUSTOMER = """
+            SELECT [year], [month], total_amount
+            FROM debt_monthly_summary
+            WHERE customer_id = ? AND record_count > 0
+            ORDER BY [year], [month]
+            """;
+
+    private static final String DELETE_ALL = "DELETE FROM debt_monthly_summary";
+    private static final String DELETE_CUSTOMER = "DELETE FROM debt_monthly_summary WHERE customer_id = ?";
+
+    private static final String REBUILD = """
+            INSERT INTO debt_monthly_summary (customer_id, [year], [month], total_amount, record_count)
+            SELECT d.customer_id, YEAR(d.create_on), MONTH(d.create_on), SUM(d.amount), COUNT(*)
+            FROM debt_records d
+            WHERE d.is_deleted = 0 AND d.create_on IS NOT NULL %s
+            GROUP BY d.customer_id, YEAR(d.create_on), MONTH(d.create_on)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlDialect sqlDialect;
+
+    // Gọi từ DebtRecordService.saveRecord trong cùng transaction với lệnh INSERT debt_records (chỉ có thêm mới, count = 1);
+    // bản ghi bị sửa / xóa ngoài luồng đó thì dựng lại bằng rebuildCustomer / rebuildAll
+    public void applyDelta(Long customerId, YearMonth month, BigDecimal amount, int count) {
+        jdbcTemplate.update(APPLY_DELTA.formatted(sqlDialect.mergeTarget("debt_monthly_summary")), customerId, month.getYear(), month.getMonthValue(), amount, count);
+    }
+
+    // Mỗi phần tử: {year, month, total_debt} giống getMonthlyDebtNative
+    public List<Object[]> findByCustomer(Long customerId) {
+        return jdbcTemplate.query(FIND_BY_CUSTOMER,
+                (rs, i) -> new Object[]{rs.getInt(1), rs.getInt(2), rs.getBigDecimal(3)}, customerId);
+    }
+
+    public int rebuildAll() {
+        jdbcTemplate.update(DELETE_ALL);
+        return jdbcTemplate.update(REBUILD.formatted(""));
+    }
+
+    public int rebuildCustomer(Long customerId) {
+        jdbcTemplate.update(DELETE_CUSTOMER, customerId);
+        return jdbcTemplate.update(REBUILD.formatted("AND d.customer_id = ?"), customerId);
+    }
+}
@@ -13,7 +13,7 @@ import swp.se1889.g1.rice_store.dto.DebtRecordDTO;
 import java.util.List;
 import java.util.Optional;
 
-public interface DebtRecordRepository extends JpaRepository<DebtRecords, Long>, JpaSpecificationExecutor<DebtRecords> {
+public interface DebtRecordRepository extends JpaRepository<DebtRecords, Long>, JpaSpecificationExecutor<DebtRecords>, DebtRecordRepositoryCustom {
     //List<DebtRecords> findByUserId(User createdBy);
 
 
@@ -0,0 +1,13 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import swp.se1889.g1.rice_store.entity.DebtRecords;
+
+import java.util.stream.Stream;
+
+public interface DebtRecordRepositoryCustom {
+
+    // Mỗi phần tử: id, loại, số tiền, ghi chú, ngày ghi nợ, ngày tạo, người tạo.
+    // Phải đóng Stream và gọi trong transaction.
+    Stream<Object[]> streamExportRows(Specification<DebtRecords> spec);
+}
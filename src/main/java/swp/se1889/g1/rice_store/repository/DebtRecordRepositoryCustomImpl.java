@@ -0,0 +1,52 @@
+package swp.se1889.g1.rice_store.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import swp.se1889.g1.rice_store.entity.DebtRecords;
+import swp.se1889.g1.rice_store.entity.User;
+
+import java.util.stream.Stream;
+
+public class DebtRecordRepositoryCustomImpl implements DebtRecordRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public Stream<Object[]> streamExportRows(Specification<DebtRecords> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<DebtRecords> root = query.from(DebtRecords.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        Join<DebtRecords, User> createdBy = root.join("createdBy");
+
+        query.multiselect(
+                root.get("id"),
+                root.get("type"),
+                root.get("amount"),
+                root.get("note"),
+                root.get("createOn"),
+                root.get("createdAt"),
+                createdBy.get("name"));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("createOn")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,116 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import swp.se1889.g1.rice_store.dto.MailBodyDTO;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Hàng đợi email bền vững: request chỉ INSERT, dispatcher nền nhận từng lô và cập nhật trạng thái
+@Repository
+public class EmailOutboxRepository {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final String INSERT = "INSERT INTO email_outbox " +
+            "(recipient, subject, body, status, attempts, next_attempt_at, created_at) VALUES (?,?,?,?,0,?,?)";
+
+    // Nhận lô: READPAST bỏ qua dòng worker khác đang giữ, next_attempt_at của dòng SENDING là hạn thuê
+    // (worker chết giữa chừng thì dòng tự quay lại hàng đợi khi hết hạn)
+    private static final String CLAIM = """
+            UPDATE TOP (?) email_outbox WITH (ROWLOCK, READPAST)
+            SET status = 'SENDING', attempts = attempts + 1, next_attempt_at = ?
+            OUTPUT inserted.id, inserted.recipient, inserted.subject, inserted.body, inserted.attempts
+            WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= ?
+            """;
+
+    // Bản không dùng hint/OUTPUT cho DB nhúng: chọn ứng viên rồi nhận từng dòng bằng UPDATE có điều kiện,
+    // dòng nào UPDATE được (count = 1) mới thuộc về worker này
+    private static final String SELECT_CANDIDATES = "SELECT TOP (?) id FROM email_outbox " +
+            "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= ? ORDER BY next_attempt_at, id";
+
+    private static final String CLAIM_ONE = "UPDATE email_outbox SET status = 'SENDING', attempts = attempts + 1, " +
+            "next_attempt_at = ? WHERE id = ? AND status IN ('PENDING', 'SENDING') AND next_attempt_at <= ?";
+
+    private static final String SELECT_CLAIMED = "SELECT id, recipient, subject, body, attempts FROM email_outbox " +
+            "WHERE id IN (%s) ORDER BY id";
+
+    private static final String MARK_SENT = "UPDATE email_outbox SET status = 'SENT', sent_at = ?, last_error = NULL " +
+            "WHERE id = ?";
+
+    private static final String MARK_RETRY = "UPDATE email_outbox SET status = ?, next_attempt_at = ?, last_error = ? " +
+            "WHERE id = ?";
+
+    private static final String PURGE_SENT = "DELETE TOP (?) FROM email_outbox WHERE status = 'SENT' AND sent_at < ?";
+
+    private static final String PURGE_SENT_PORTABLE = "DELETE FROM email_outbox WHERE id IN " +
+            "(SELECT TOP (?) id FROM email_outbox WHERE status = 'SENT' AND sent_at < ?)";
+
+    private static final RowMapper<OutboxEmail> OUTBOX_EMAIL = (rs, i) ->
+            new OutboxEmail(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlDialect sqlDialect;
+
+    public void insert(MailBodyDTO mail, LocalDateTime now) {
+        Timestamp ts = Timestamp.valueOf(now);
+        jdbcTemplate.update(INSERT, mail.getTo(), mail.getSubject(), mail.getText(), STATUS_PENDING, ts, ts);
+    }
+
+    public List<OutboxEmail> claimBatch(int limit, LocalDateTime now, LocalDateTime leaseUntil) {
+        if (!sqlDialect.isSqlServer()) {
+            return claimBatchPortable(limit, now, leaseUntil);
+        }
+        return jdbcTemplate.query(CLAIM, OUTBOX_EMAIL, limit, Timestamp.valueOf(leaseUntil), Timestamp.valueOf(now));
+    }
+
+    private List<OutboxEmail> claimBatchPortable(int limit, LocalDateTime now, LocalDateTime leaseUntil) {
+        Timestamp nowTs = Timestamp.valueOf(now);
+        Timestamp leaseTs = Timestamp.valueOf(leaseUntil);
+        List<Long> candidates = jdbcTemplate.queryForList(SELECT_CANDIDATES, Long.class, limit, nowTs);
+        List<Long> claimed = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            if (jdbcTemplate.update(CLAIM_ONE, leaseTs, id, nowTs) == 1) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(claimed.size(), "?"));
+        return jdbcTemplate.query(SELECT_CLAIMED.formatted(placeholders), OUTBOX_EMAIL, claimed.toArray());
+    }
+
+    public void markSent(List<Long> ids, LocalDateTime sentAt) {
+        if (ids.isEmpty()) return;
+        Timestamp ts = Timestamp.valueOf(sentAt);
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{ts, id});
+        }
+        jdbcTemplate.batchUpdate(MARK_SENT, args);
+    }
+
+    // status = PENDING (thử lại lúc nextAttemptAt) hoặc FAILED (hết số lần thử)
+    public void markRetry(long id, String status, LocalDateTime nextAttemptAt, String error) {
+        String message = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        jdbcTemplate.update(MARK_RETRY, status, Timestamp.valueOf(nextAttemptAt), message, id);
+    }
+
+    public int purgeSent(LocalDateTime olderThan, int limit) {
+        return jdbcTemplate.update(sqlDialect.isSqlServer() ? PURGE_SENT : PURGE_SENT_PORTABLE, limit, Timestamp.valueOf(olderThan));
+    }
+
+    public record OutboxEmail(long id, String to, String subject, String body, int attempts) {
+    }
+}
@@ -1,10 +1,13 @@
 package swp.se1889.g1.rice_store.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 import swp.se1889.g1.rice_store.entity.ForgotPassword;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface ForgotPasswordRepository extends JpaRepository<ForgotPassword, Integer> {
@@ -12,5 +15,14 @@ public interface ForgotPasswordRepository extends JpaRepository<ForgotPassword,
     Optional<ForgotPassword> findByOtpAndUser(Integer otp,Long userId);
 
     @Transactional
+    @Modifying
+    @Query("delete from ForgotPassword fp where fp.userId = ?1")
     void deleteByUserId(Long userId);
+
+    List<ForgotPassword> findByExpirationTimeAfter(Date now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ForgotPassword fp where fp.expirationTime < ?1")
+    int deleteExpired(Date now);
 }
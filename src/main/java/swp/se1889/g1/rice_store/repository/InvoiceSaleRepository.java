@@ -3,6 +3,7 @@ package swp.se1889.g1.rice_store.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,5 +19,10 @@ public interface InvoiceSaleRepository extends JpaRepository<Invoice, Long> {
     Page<Invoice> findByStoreIdAndTypeAndIsDeletedFalse(Long storeId, String type, Pageable pageable);
 
     Optional<Invoice> findById(Long id);
-    
+
+    // Xóa mềm có điều kiện: trả về 1 nếu lần gọi này thực sự chuyển hóa đơn sang trạng thái đã xóa
+    @Modifying
+    @Query("update Invoice i set i.isDeleted = true where i.id = :id and i.isDeleted = false")
+    int markDeleted(@Param("id") Long id);
+
 }
@@ -20,7 +20,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InvoicesRepository extends JpaRepository<Invoices, Long>, JpaSpecificationExecutor<Invoices> {
+public interface InvoicesRepository extends JpaRepository<Invoices, Long>, JpaSpecificationExecutor<Invoices>, InvoicesRepositoryCustom {
     List<Invoices> findByType(Invoices.InvoiceType type);
 
     Page<Invoices> findByStoreAndType(Store store, Invoices.InvoiceType type, Pageable pageable);
@@ -44,7 +44,8 @@ public interface InvoicesRepository extends JpaRepository<Invoices, Long>, JpaSp
                                @Param("end") LocalDateTime end);
 
 
-    @Query(value = "SELECT DATEPART(WEEKDAY, i.created_at) AS weekday, SUM(i.final_amount) AS revenue FROM invoices i WHERE i.store_id = :storeId AND i.type = 'Sale' AND i.is_deleted = 0 AND i.created_at BETWEEN :start AND :end GROUP BY DATEPART(WEEKDAY, i.created_at) ORDER BY weekday", nativeQuery = true)
+    // extract(day of week) của Hibernate trả 1 = Chủ nhật trên mọi dialect (SQL Server: DATEPART(WEEKDAY) với DATEFIRST 7)
+    @Query("SELECT EXTRACT(DAY OF WEEK FROM i.createdAt) AS weekday, SUM(i.finalAmount) AS revenue FROM Invoices i WHERE i.store.id = :storeId AND i.type = 'Sale' AND i.isDeleted = false AND i.createdAt BETWEEN :start AND :end GROUP BY EXTRACT(DAY OF WEEK FROM i.createdAt) ORDER BY weekday")
     List<Object[]> getRevenueByWeekday(@Param("storeId") Long storeId,
                                        @Param("start") LocalDateTime start,
                                        @Param("end") LocalDateTime end);
@@ -0,0 +1,13 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import swp.se1889.g1.rice_store.entity.Invoices;
+
+import java.util.stream.Stream;
+
+public interface InvoicesRepositoryCustom {
+
+    // Mỗi phần tử: id, tên KH, SĐT KH, tổng tiền, thành tiền, trạng thái, ghi chú, ngày tạo, ngày cập nhật, loại.
+    // Phải đóng Stream và gọi trong transaction.
+    Stream<Object[]> streamExportRows(Specification<Invoices> spec);
+}
@@ -0,0 +1,56 @@
+package swp.se1889.g1.rice_store.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import swp.se1889.g1.rice_store.entity.Customer;
+import swp.se1889.g1.rice_store.entity.Invoices;
+
+import java.util.stream.Stream;
+
+public class InvoicesRepositoryCustomImpl implements InvoicesRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public Stream<Object[]> streamExportRows(Specification<Invoices> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Invoices> root = query.from(Invoices.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        Join<Invoices, Customer> customer = root.join("customer");
+
+        // Chỉ lấy cột cần xuất, không dựng entity nên persistence context không phình ra theo số dòng
+        query.multiselect(
+                root.get("id"),
+                customer.get("name"),
+                customer.get("phone"),
+                root.get("totalPrice"),
+                root.get("finalAmount"),
+                root.get("status"),
+                root.get("note"),
+                root.get("createdAt"),
+                root.get("updatedAt"),
+                root.get("type"));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
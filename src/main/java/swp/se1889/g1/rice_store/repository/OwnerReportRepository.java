@@ -0,0 +1,72 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Các truy vấn GROUP BY store_id cho báo cáo tổng hợp của chủ cửa hàng: mỗi chỉ số một câu cho mọi cửa hàng,
+// không phải một câu cho mỗi cửa hàng
+@Repository
+public class OwnerReportRepository {
+
+    private static final String OWNER_STORES = "SELECT s.id FROM stores s WHERE s.created_by = ? AND s.is_deleted = 0";
+
+    private static final String SALES_BY_STORE = """
+            SELECT i.store_id, COUNT(*), COALESCE(SUM(i.final_amount), 0)
+            FROM invoices i
+            WHERE i.store_id IN (%s) AND i.type = 'Sale' AND i.is_deleted = 0
+              AND i.created_at >= ? AND i.created_at < ?
+            GROUP BY i.store_id
+            """.formatted(OWNER_STORES);
+
+    // Công nợ chưa thu: hóa đơn bán chưa thanh toán / ghi nợ, không giới hạn theo kỳ
+    private static final String OUTSTANDING_BY_STORE = """
+            SELECT i.store_id, COALESCE(SUM(i.final_amount), 0)
+            FROM invoices i
+            WHERE i.store_id IN (%s) AND i.type = 'Sale' AND i.is_deleted = 0
+              AND i.payment_status IN ('Unpaid', 'In_debt')
+            GROUP BY i.store_id
+            """.formatted(OWNER_STORES);
+
+    private static final String STOCK_BY_STORE = """
+            SELECT z.store_id, COALESCE(SUM(CAST(z.quantity AS DECIMAL(18,2)) * p.price), 0)
+            FROM zones z
+            JOIN products p ON p.id = z.product_id
+            WHERE z.store_id IN (%s) AND z.is_deleted = 0 AND p.is_deleted = 0
+            GROUP BY z.store_id
+            """.formatted(OWNER_STORES);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // storeId -> {số hóa đơn, doanh thu}
+    public Map<Long, Object[]> salesByStore(String owner, LocalDateTime start, LocalDateTime end) {
+        Map<Long, Object[]> result = new HashMap<>();
+        jdbcTemplate.query(SALES_BY_STORE, rs -> {
+            result.put(rs.getLong(1), new Object[]{rs.getLong(2), rs.getBigDecimal(3)});
+        }, owner, Timestamp.valueOf(start), Timestamp.valueOf(end));
+        return result;
+    }
+
+    public Map<Long, BigDecimal> outstandingByStore(String owner) {
+        return sumByStore(OUTSTANDING_BY_STORE, owner);
+    }
+
+    public Map<Long, BigDecimal> stockValueByStore(String owner) {
+        return sumByStore(STOCK_BY_STORE, owner);
+    }
+
+    private Map<Long, BigDecimal> sumByStore(String sql, String owner) {
+        Map<Long, BigDecimal> result = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            result.put(rs.getLong(1), rs.getBigDecimal(2));
+        }, owner);
+        return result;
+    }
+}
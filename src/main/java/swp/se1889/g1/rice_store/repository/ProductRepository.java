@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import swp.se1889.g1.rice_store.dto.ProductOptionDTO;
 import swp.se1889.g1.rice_store.dto.ProductZoneDTO;
 import swp.se1889.g1.rice_store.entity.Product;
 import swp.se1889.g1.rice_store.entity.Store;
@@ -18,6 +19,7 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import swp.se1889.g1.rice_store.entity.Zone;
 
 @Repository
@@ -37,6 +39,14 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     @Query("SELECT p FROM Product p WHERE p.isDeleted = false AND LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> searchProducts(@Param("keyword") String keyword);
 
+    // Tìm theo tiền tố để dùng được index (created_by, name), chỉ lấy id + tên
+    @Query("SELECT new swp.se1889.g1.rice_store.dto.ProductOptionDTO(p.id, p.name) FROM Product p " +
+            "WHERE p.createdBy.id = :ownerId AND p.isDeleted = false AND p.name LIKE :prefix% " +
+            "ORDER BY p.name")
+    Slice<ProductOptionDTO> searchOptionsByOwner(@Param("ownerId") Long ownerId,
+                                                 @Param("prefix") String prefix,
+                                                 Pageable pageable);
+
 }
 
 
@@ -0,0 +1,71 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import swp.se1889.g1.rice_store.dto.TopProductDTO;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Bộ đếm bán hàng theo (cửa hàng, ngày, sản phẩm); cộng dồn khi bán, trừ lại khi xóa hóa đơn bán
+@Repository
+public class ProductSalesCounterRepository {
+
+    private static final String UPSERT_COUNTER = """
+            MERGE INTO %s AS t
+            USING (SELECT ? AS store_id, ? AS sale_date, ? AS product_id, ? AS quantity, ? AS revenue) AS s
+               ON t.store_id = s.store_id AND t.sale_date = s.sale_date AND t.product_id = s.product_id
+            WHEN MATCHED THEN
+                UPDATE SET t.quantity = t.quantity + s.quantity, t.revenue = t.revenue + s.revenue
+            WHEN NOT MATCHED THEN
+                INSERT (store_id, sale_date, product_id, quantity, revenue)
+                VALUES (s.store_id, s.sale_date, s.product_id, s.quantity, s.revenue);
+            """;
+
+    private static final String TOP_PRODUCTS = """
+            SELECT TOP (?) c.product_id, p.name, SUM(c.quantity) AS quantity, SUM(c.revenue) AS revenue
+            FROM product_sales_daily c
+            JOIN products p ON p.id = c.product_id
+            WHERE c.store_id = ? AND c.sale_date BETWEEN ? AND ?
+            GROUP BY c.product_id, p.name
+            HAVING SUM(c.quantity) > 0
+            ORDER BY SUM(c.quantity) DESC, c.product_id
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlDialect sqlDialect;
+
+    // deltas: productId -> {số lượng, doanh thu}, dấu âm khi hoàn tác
+    public void addAll(Long storeId, LocalDate saleDate, Map<Long, Delta> deltas) {
+        if (deltas.isEmpty()) return;
+        Date date = Date.valueOf(saleDate);
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) ->
+                args.add(new Object[]{storeId, date, productId, delta.quantity(), delta.revenue()}));
+        jdbcTemplate.batchUpdate(UPSERT_COUNTER.formatted(sqlDialect.mergeTarget("product_sales_daily")), args);
+    }
+
+    public List<TopProductDTO> findTop(Long storeId, LocalDate from, LocalDate to, int limit) {
+        return jdbcTemplate.query(TOP_PRODUCTS,
+                (rs, i) -> new TopProductDTO(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getBigDecimal(4)),
+                limit, storeId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public record Delta(long quantity, BigDecimal revenue) {
+        public Delta plus(Delta other) {
+            return new Delta(quantity + other.quantity, revenue.add(other.revenue));
+        }
+
+        public Delta negate() {
+            return new Delta(-quantity, revenue.negate());
+        }
+    }
+}
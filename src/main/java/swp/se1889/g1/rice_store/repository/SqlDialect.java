@@ -0,0 +1,29 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.stereotype.Component;
+
+/*
+ Những chỗ SQL thuần không viết chung được giữa SQL Server và DB nhúng (H2 chế độ MSSQLServer, profile "embedded").
+ SELECT TOP, YEAR/MONTH, CAST(... AS DATE) và định danh [year] chạy được trên cả hai nên giữ nguyên trong câu lệnh;
+ chỉ table hint (HOLDLOCK, READPAST) và mệnh đề OUTPUT mới cần rẽ nhánh theo DB.
+*/
+@Component
+public class SqlDialect {
+
+    private final DatabaseDriver driver;
+
+    public SqlDialect(@Value("${spring.datasource.url:}") String url) {
+        this.driver = DatabaseDriver.fromJdbcUrl(url);
+    }
+
+    public boolean isSqlServer() {
+        return driver == DatabaseDriver.SQLSERVER;
+    }
+
+    // Đích của MERGE: SQL Server cần HOLDLOCK để upsert đồng thời không chèn trùng khóa, H2 tự khóa dòng khi MERGE
+    public String mergeTarget(String table) {
+        return isSqlServer() ? table + " WITH (HOLDLOCK)" : table;
+    }
+}
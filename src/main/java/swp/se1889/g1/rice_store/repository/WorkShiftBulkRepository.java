@@ -0,0 +1,34 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import swp.se1889.g1.rice_store.entity.WorkShift;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+// WorkShift dùng IDENTITY nên Hibernate không gom batch INSERT; phân công hàng loạt đi thẳng qua JDBC batch
+@Repository
+public class WorkShiftBulkRepository {
+
+    private static final String INSERT_WORK_SHIFT = "INSERT INTO work_shifts " +
+            "(employee_id, shift_id, work_date, scheduled_start_time, scheduled_end_time, created_at, updated_at, created_by, updated_by) " +
+            "VALUES (?,?,?,?,?,?,?,?,?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<WorkShift> workShifts) {
+        List<Object[]> args = new ArrayList<>(workShifts.size());
+        for (WorkShift ws : workShifts) {
+            args.add(new Object[]{ws.getEmployee(), ws.getShift(), Date.valueOf(ws.getWorkDate()),
+                    Timestamp.valueOf(ws.getScheduledStartTime()), Timestamp.valueOf(ws.getScheduledEndTime()),
+                    Timestamp.valueOf(ws.getCreatedAt()), Timestamp.valueOf(ws.getUpdatedAt()),
+                    ws.getCreatedBy(), ws.getUpdatedBy()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_WORK_SHIFT, args);
+    }
+}
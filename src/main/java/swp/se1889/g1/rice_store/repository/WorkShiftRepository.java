@@ -5,6 +5,7 @@ import org.springframework.stereotype.Repository;
 import swp.se1889.g1.rice_store.entity.WorkShift;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,10 +13,15 @@ public interface WorkShiftRepository extends JpaRepository<WorkShift, Long> {
 
     List<WorkShift> findByWorkDateBetween(LocalDate startDate, LocalDate endDate);
 
+    // created_by của work_shifts lưu id cửa hàng (xem WorkShiftService.assignEmployeeToShift)
+    List<WorkShift> findByCreatedByAndWorkDateBetween(String storeId, LocalDate startDate, LocalDate endDate);
+
     List<WorkShift> findByWorkDate(LocalDate date);
 
     List<WorkShift> findByEmployee(Long employeeId);
 
+    List<WorkShift> findByEmployeeInAndWorkDateBetween(Collection<Long> employeeIds, LocalDate startDate, LocalDate endDate);
+
     WorkShift findByEmployeeAndShiftAndWorkDate(Long employeeId, Long shiftId, LocalDate workDate);
 
 }
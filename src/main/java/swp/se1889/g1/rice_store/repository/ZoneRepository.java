@@ -19,7 +19,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ZoneRepository extends JpaRepository<Zone, Long>, JpaSpecificationExecutor<Zone> {
+public interface ZoneRepository extends JpaRepository<Zone, Long>, JpaSpecificationExecutor<Zone>, ZoneRepositoryCustom {
 
     @Modifying
     @Transactional
@@ -0,0 +1,13 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import swp.se1889.g1.rice_store.dto.ProductZoneDTO;
+import swp.se1889.g1.rice_store.entity.Zone;
+
+public interface ZoneRepositoryCustom {
+
+    // Áp dụng Specification nhưng chỉ SELECT các cột của ProductZoneDTO (không nạp entity Zone/Product/Store/User)
+    Page<ProductZoneDTO> findProductZones(Specification<Zone> spec, Pageable pageable);
+}
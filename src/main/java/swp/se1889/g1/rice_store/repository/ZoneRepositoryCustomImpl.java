@@ -0,0 +1,76 @@
+package swp.se1889.g1.rice_store.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import swp.se1889.g1.rice_store.dto.ProductZoneDTO;
+import swp.se1889.g1.rice_store.entity.Product;
+import swp.se1889.g1.rice_store.entity.Zone;
+import swp.se1889.g1.rice_store.specification.ZoneSpecificationsForProduct;
+
+import java.util.List;
+
+public class ZoneRepositoryCustomImpl implements ZoneRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductZoneDTO> findProductZones(Specification<Zone> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductZoneDTO> query = cb.createQuery(ProductZoneDTO.class);
+        Root<Zone> root = query.from(Zone.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        // Các Specification đã JOIN product thì dùng lại đúng JOIN đó, nên cả câu chỉ có một JOIN
+        Join<Zone, Product> product = ZoneSpecificationsForProduct.productJoin(root);
+
+        query.select(cb.construct(ProductZoneDTO.class,
+                product.get("id"),
+                product.get("name"),
+                product.get("description"),
+                root.get("id"),
+                root.get("name"),
+                product.get("price"),
+                root.get("quantity")));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<ProductZoneDTO> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ProductZoneDTO> content = typedQuery.getResultList();
+
+        // Chỉ chạy COUNT khi không suy ra được tổng số từ trang hiện tại
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Zone> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Zone> root = query.from(Zone.class);
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+
+        query.select(cb.count(root));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
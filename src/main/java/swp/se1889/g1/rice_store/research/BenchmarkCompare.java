@@ -0,0 +1,79 @@
+package swp.se1889.g1.rice_store.research;
+
+import swp.se1889.g1.rice_store.research.bench.BenchmarkRunStore;
+import swp.se1889.g1.rice_store.research.bench.RunComparison;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ So sánh hai lần chạy benchmark đã lưu bởi BenchmarkRunStore (không cần Spring / DB), ví dụ:
+   --plan=debt                                   so sánh hai lần chạy gần nhất của plan "debt"
+   --plan=debt --baseline=20250101-101500-abc1234 --candidate=20250102-093000-def5678
+   --plan=invoice --threshold=0.05 --tail-threshold=0.10 --alpha=0.01 --out=report.html
+ baseline/candidate nhận runId (thư mục trong <dir>/<plan>) hoặc đường dẫn thư mục.
+ Mặc định ghi <dir>/<plan>/compare-<baseline>-vs-<candidate>.md; đuôi .html thì xuất HTML.
+ Exit code 1 khi có kịch bản REGRESSION, để CI chặn được.
+*/
+public class BenchmarkCompare {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Tham số không hợp lệ: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        Path resultsDir = Path.of(options.getOrDefault("dir", "benchmark-results"));
+        String plan = options.get("plan");
+        if (plan == null) {
+            throw new IllegalArgumentException("Thiếu --plan (ví dụ --plan=debt)");
+        }
+
+        List<Path> runs = BenchmarkRunStore.listRuns(resultsDir, plan);
+        Path candidateDir = resolve(resultsDir, plan, options.get("candidate"), runs, 1);
+        Path baselineDir = resolve(resultsDir, plan, options.get("baseline"), runs, 2);
+
+        RunComparison.Settings settings = new RunComparison.Settings(
+                Double.parseDouble(options.getOrDefault("alpha", "0.01")),
+                Double.parseDouble(options.getOrDefault("threshold", "0.05")),
+                Double.parseDouble(options.getOrDefault("tail-threshold", "0.10")),
+                Integer.parseInt(options.getOrDefault("bootstrap", "1000")));
+        RunComparison comparison = new RunComparison(BenchmarkRunStore.load(baselineDir), BenchmarkRunStore.load(candidateDir), settings);
+
+        Path out = options.containsKey("out") ? Path.of(options.get("out"))
+                : resultsDir.resolve(plan).resolve("compare-" + baselineDir.getFileName() + "-vs-" + candidateDir.getFileName() + ".md");
+        String report = out.toString().endsWith(".html") ? comparison.toHtml() : comparison.toMarkdown();
+        Files.writeString(out, report, StandardCharsets.UTF_8);
+
+        System.out.println("Baseline : " + baselineDir);
+        System.out.println("Candidate: " + candidateDir);
+        for (RunComparison.ScenarioComparison s : comparison.getScenarios()) {
+            if (s.verdict() != RunComparison.Verdict.UNCHANGED) {
+                System.out.printf("  %-11s %s%n", s.verdict(), s.key());
+            }
+        }
+        System.out.println("Report written to " + out);
+        if (comparison.count(RunComparison.Verdict.REGRESSION) > 0) {
+            System.exit(1);
+        }
+    }
+
+    // fromEnd = 1: lần chạy mới nhất, 2: lần trước đó
+    private static Path resolve(Path resultsDir, String plan, String value, List<Path> runs, int fromEnd) {
+        if (value != null) {
+            Path direct = Path.of(value);
+            return Files.isDirectory(direct) ? direct : resultsDir.resolve(plan).resolve(value);
+        }
+        if (runs.size() < fromEnd) {
+            throw new IllegalStateException("Plan " + plan + " chưa có đủ lần chạy trong " + resultsDir.resolve(plan)
+                    + " để so sánh");
+        }
+        return runs.get(runs.size() - fromEnd);
+    }
+}
@@ -0,0 +1,32 @@
+package swp.se1889.g1.rice_store.research;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import swp.se1889.g1.rice_store.repository.CustomerChangeAuditRepository;
+
+/*
+ Nạp customer_change_history_tokens cho lịch sử có trước chỉ mục đảo (sau migration owner_id).
+ Dùng CustomerChangeHistoryToken.tokenize nên token khớp hoàn toàn với những gì writer nền ghi.
+ Chạy: --spring.profiles.active=backfill-history-tokens
+*/
+@Component
+@Profile("backfill-history-tokens")
+public class CustomerChangeTokenBackfillRunner implements CommandLineRunner {
+
+    @Autowired
+    private CustomerChangeAuditRepository customerChangeAuditRepository;
+
+    @Value("${customer-history.token-backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        System.out.println(">>> BACKFILLING customer_change_history_tokens ...");
+        long start = System.nanoTime();
+        int histories = customerChangeAuditRepository.backfillTokens(batchSize);
+        System.out.printf(">>> Done: %d histories in %.1f ms%n", histories, (System.nanoTime() - start) / 1_000_000.0);
+    }
+}
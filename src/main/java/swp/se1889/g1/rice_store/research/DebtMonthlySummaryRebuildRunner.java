@@ -0,0 +1,27 @@
+package swp.se1889.g1.rice_store.research;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import swp.se1889.g1.rice_store.service.DebtRecordService;
+
+/*
+ Dựng lại toàn bộ debt_monthly_summary từ debt_records (sau khi nạp FakeData hoặc sửa tay dữ liệu).
+ Chạy: --spring.profiles.active=rebuild-debt-summary
+*/
+@Component
+@Profile("rebuild-debt-summary")
+public class DebtMonthlySummaryRebuildRunner implements CommandLineRunner {
+
+    @Autowired
+    private DebtRecordService debtRecordService;
+
+    @Override
+    public void run(String... args) {
+        System.out.println(">>> REBUILDING debt_monthly_summary ...");
+        long start = System.nanoTime();
+        int rows = debtRecordService.rebuildMonthlySummary(null);
+        System.out.printf(">>> Done: %d rows in %.1f ms%n", rows, (System.nanoTime() - start) / 1_000_000.0);
+    }
+}
@@ -0,0 +1,48 @@
+package swp.se1889.g1.rice_store.research;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import swp.se1889.g1.rice_store.research.fakedata.DatabaseOutput;
+import swp.se1889.g1.rice_store.research.fakedata.FakeDataConfig;
+
+import java.time.LocalDate;
+
+/*
+ Nạp dữ liệu FakeData thu nhỏ vào DB nhúng ngay sau khi schema (database/sqlswp1.sql, dịch bởi EmbeddedSchemaConfig) được tạo,
+ trước khi các CommandLineRunner (benchmark) chạy. Cùng seed, scale factor và ngày mốc (embedded.seed.as-of, mặc định cố định)
+ thì dữ liệu giống hệt nhau giữa các lần chạy.
+ Chạy: mvn -Pembedded-db spring-boot:run -Dspring-boot.run.profiles=embedded[,benchmark-load ...]
+*/
+@Component
+@Profile("embedded")
+@DependsOnDatabaseInitialization
+public class EmbeddedDataSeeder {
+
+    private final FakeDataConfig config;
+
+    public EmbeddedDataSeeder(@Value("${spring.datasource.url}") String url,
+                              @Value("${spring.datasource.username:}") String username,
+                              @Value("${spring.datasource.password:}") String password,
+                              @Value("${embedded.seed.scale-factor:0.01}") double scaleFactor,
+                              @Value("${embedded.seed.threads:4}") int threads,
+                              @Value("${embedded.seed.seed:12345}") long seed,
+                              @Value("${embedded.seed.as-of:2025-01-01}") String asOf,
+                              @Value("${embedded.seed.batch-size:1000}") int batchSize) {
+        this.config = new FakeDataConfig(url, username, password, scaleFactor, threads, FakeDataConfig.Mode.JDBC,
+                null, seed, LocalDate.parse(asOf), false, batchSize);
+    }
+
+    @PostConstruct
+    public void seed() throws Exception {
+        FakeData.Sizes sizes = FakeData.Sizes.of(config.scaleFactor());
+        System.out.println(">>> Seeding embedded database SF" + config.scaleFactor() + ": " + sizes);
+        long start = System.nanoTime();
+        try (DatabaseOutput out = new DatabaseOutput(config, false)) {
+            FakeData.generate(out, sizes, config);
+        }
+        System.out.printf(">>> Embedded database seeded in %.1f ms%n", (System.nanoTime() - start) / 1_000_000.0);
+    }
+}
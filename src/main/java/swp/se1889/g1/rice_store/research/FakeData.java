@@ -4,54 +4,63 @@ package swp.se1889.g1.rice_store.research;
  FakeData.java
  Creates synthetic data for rice_store schema, including debt_records aggregated by month.
 
- Usage:
- 1) Put Microsoft JDBC driver (mssql-jdbc-*.jar) in classpath.
- 2) javac -cp "path/to/mssql-jdbc.jar" FakeRiceStoreData.java
- 3) java -cp ".;path/to/mssql-jdbc.jar" FakeRiceStoreData
-
- Notes:
- - Seed is fixed for reproducibility.
- - Adjust DB_URL, DB_USER, DB_PASSWORD before running.
- - Batch inserts used for performance.
- /*
- Dataset configuration:
- - Users: 100
- - Stores: 50
- - Customers: 50,000
- - Products: 2,000
- - Invoices: 1,000,000
- - Time span: 12 months
- - Random seed: 12345
+ Usage (mssql-jdbc trên classpath, ví dụ chạy từ IDE hoặc java -cp target/classes:<mssql-jdbc.jar>):
+   java ... swp.se1889.g1.rice_store.research.FakeData --sf=1 --threads=8 --mode=bulk --truncate
+   java ... swp.se1889.g1.rice_store.research.FakeData --sf=0.1 --mode=csv --out=fakedata-csv
+
+ Tham số (xem FakeDataConfig):
+ - --sf        : scale factor, SF1 = cấu hình cũ (100 users, 50 stores, 2,000 products, 50,000 customers,
+                 500 zones, 1,000,000 invoices, 500,000 extra debt records); SF0.1 = 1/10, SF10 = gấp 10...
+ - --threads   : số partition chạy song song (mỗi partition một kết nối / một bộ file)
+ - --mode      : jdbc (INSERT batch) | bulk (SQLServerBulkCopy) | csv (file CSV + load.sql dùng BULK INSERT)
+ - --seed      : seed gốc; mỗi partition có seed riêng suy ra từ seed gốc và số thứ tự partition,
+                 kích thước partition cố định nên dữ liệu giống hệt nhau dù chạy bao nhiêu thread
+ - --as-of     : ngày "hôm nay" của dữ liệu (mặc định: ngày chạy), dữ liệu trải trong 12 tháng trước đó
+ - --truncate  : xóa dữ liệu cũ trước khi sinh (id được sinh từ 1 nên bảng đích phải trống)
+ - --url/--user/--password hoặc biến môi trường FAKEDATA_URL / FAKEDATA_USER / FAKEDATA_PASSWORD
+
+ Sau khi nạp, debt_monthly_summary và product_sales_daily được dựng lại từ dữ liệu vừa sinh.
 */
 
+import swp.se1889.g1.rice_store.research.fakedata.CsvOutput;
+import swp.se1889.g1.rice_store.research.fakedata.DataOutput;
+import swp.se1889.g1.rice_store.research.fakedata.DatabaseOutput;
+import swp.se1889.g1.rice_store.research.fakedata.FakeDataConfig;
+import swp.se1889.g1.rice_store.research.fakedata.TableSpec;
 
-import java.sql.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.*;
-import java.time.*;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FakeData {
-    // === CONFIG ===
-    private static final String DB_URL = "jdbc:sqlserver://localhost:1433;databaseName=rice_store;encrypt=false";
-    private static final String DB_USER = "sa";
-    private static final String DB_PASSWORD = "123";
-
-    // sizes (adjust as needed)
-    // sizes (Scaled up for Research Paper Benchmark)
-    private static final int NUM_USERS = 100;
-    private static final int NUM_STORES = 50;
-    private static final int NUM_PRODUCTS = 2000;      // Tăng để tránh query nào cũng hit cache
-    private static final int NUM_CUSTOMERS = 50000;    // Tăng khách hàng để phân tán dữ liệu
-    private static final int NUM_ZONES = 500;
-    private static final int NUM_INVOICES = 1000000;   // 1 triệu hóa đơn (Mục tiêu quan trọng nhất)
-    private static final int BATCH_SIZE = 2000;        // Tăng batch size lên để insert nhanh hơn
-    private static final int EXTRA_DEBT_RECORDS = 500000; // Tăng lượng record nợ để test query tính toán phức tạp
-
-    // reproducibility
-    private static final long SEED = 12345L;
-
-    private static final Random rnd = new Random(SEED);
+
+    // sizes at SF1 (Scaled up for Research Paper Benchmark)
+    private static final int BASE_USERS = 100;
+    private static final int BASE_STORES = 50;
+    private static final int BASE_PRODUCTS = 2000;      // Tăng để tránh query nào cũng hit cache
+    private static final int BASE_CUSTOMERS = 50000;    // Tăng khách hàng để phân tán dữ liệu
+    private static final int BASE_ZONES = 500;
+    private static final long BASE_INVOICES = 1000000;  // 1 triệu hóa đơn (Mục tiêu quan trọng nhất)
+    private static final long BASE_EXTRA_DEBT_RECORDS = 500000; // Tăng lượng record nợ để test query tính toán phức tạp
+
+    // Kích thước partition cố định (không phụ thuộc số thread) để kết quả sinh luôn giống nhau
+    private static final int INVOICES_PER_PARTITION = 50000;
+    private static final int DEBTS_PER_PARTITION = 100000;
+
+    // Luồng seed riêng cho từng loại partition
+    private static final int STREAM_DIMENSIONS = 0;
+    private static final int STREAM_INVOICES = 1;
+    private static final int STREAM_DEBTS = 2;
 
     // helper arrays for random attribute generation
     private static final String[] FIRST_NAMES = {
@@ -68,235 +77,165 @@ public class FakeData {
             "", "VIP customer", "Frequent buyer", "Late payment history", "Prefers 5kg bags", "Seasonal buyer"
     };
 
-    public static void main(String[] args) throws Exception {
-        Class.forName("com.microsoft.sqlserver.jdbc.SQLServerDriver");
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-            conn.setAutoCommit(false);
-            System.out.println("Connected to DB: " + DB_URL);
-
-            // Clear tables? (Optional) -- commented out: uncomment if you want to wipe before insert
-            // clearTables(conn);
-
-            Map<Integer, String> userIdToUsername = createUsers(conn);
-            Map<Integer, Long> productPrices = createProducts(conn);
-            createStores(conn, userIdToUsername);
-            createCustomers(conn);
-            createZones(conn, productPrices);
-            createInvoicesAndDetailsWithDebts(conn, userIdToUsername);
-            createExtraDebtRecords(conn);
-
-            System.out.println("All data generated.");
+    public record Sizes(int users, int stores, int products, int customers, int zones, long invoices, long extraDebts) {
+
+        public static Sizes of(double scaleFactor) {
+            return new Sizes(
+                    scale(BASE_USERS, scaleFactor, 5), // cần ít nhất một ROLE_OWNER (i % 5 == 0)
+                    scale(BASE_STORES, scaleFactor, 1),
+                    scale(BASE_PRODUCTS, scaleFactor, 1),
+                    scale(BASE_CUSTOMERS, scaleFactor, 1),
+                    scale(BASE_ZONES, scaleFactor, 1),
+                    Math.max(1, Math.round(BASE_INVOICES * scaleFactor)),
+                    Math.max(0, Math.round(BASE_EXTRA_DEBT_RECORDS * scaleFactor)));
         }
-    }
 
-    // ------------------ helpers ------------------
+        private static int scale(int base, double scaleFactor, int min) {
+            return (int) Math.max(min, Math.round(base * scaleFactor));
+        }
+    }
 
-    private static void clearTables(Connection conn) throws SQLException {
-        String[] tables = {"invoice_details", "invoices", "debt_records", "zones", "customers", "products", "stores", "users"};
-        try (Statement s = conn.createStatement()) {
-            for (String t : tables) {
-                s.executeUpdate("DELETE FROM " + t);
-            }
-            conn.commit();
+    public static void main(String[] args) throws Exception {
+        FakeDataConfig config = FakeDataConfig.parse(args);
+        Sizes sizes = Sizes.of(config.scaleFactor());
+        System.out.println("FakeData SF" + config.scaleFactor() + " mode=" + config.mode() + " threads=" + config.threads()
+                + " seed=" + config.seed() + " as-of=" + config.asOf());
+        System.out.println("Sizes: " + sizes);
+
+        long start = System.nanoTime();
+        try (DataOutput out = config.mode() == FakeDataConfig.Mode.CSV
+                ? new CsvOutput(config)
+                : new DatabaseOutput(config, config.mode() == FakeDataConfig.Mode.BULK)) {
+            generate(out, sizes, config);
         }
+        System.out.printf("All data generated in %.1fs%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    public static void generate(DataOutput out, Sizes sizes, FakeDataConfig config) throws Exception {
+        out.prepare();
+        createDimensions(out, sizes, config);
+        createFacts(out, sizes, config);
+        out.finish();
     }
 
-    // 1. users (id, username, password, email, role, name, address, phone, note, timestamps)
-    private static Map<Integer, String> createUsers(Connection conn) throws SQLException {
-        String sql = "INSERT INTO users (username, password, email, role, name, address, phone, note , created_at, updated_at,created_by,updated_by, is_deleted) VALUES (?,?,?,?,?,?,?,?,GETDATE(),GETDATE(),?,?,?)";
-        Map<Integer, String> idToUsername = new HashMap<>();
-        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            int count = 0;
-            for (int i = 1; i <= NUM_USERS; i++) {
+    // ------------------ dimension tables (nhỏ, sinh tuần tự) ------------------
+
+    private static void createDimensions(DataOutput out, Sizes sizes, FakeDataConfig config) throws Exception {
+        Random rnd = partitionRandom(config.seed(), STREAM_DIMENSIONS, 0);
+        LocalDateTime now = config.asOf().atTime(12, 0);
+
+        // Mỗi bảng một partition: SQL Server chỉ cho bật IDENTITY_INSERT một bảng mỗi session
+        try (DataOutput.Partition p = out.open("users")) {
+            for (int i = 1; i <= sizes.users(); i++) {
                 String username = "user" + i;
-                ps.setString(1, username);
-                ps.setString(2, "pass" + (1000 + i)); // hashed in real app; plain here for test
-                ps.setString(3, username + "@example.com");
                 String role = (i % 5 == 0) ? "ROLE_OWNER" : ((i % 2 == 0) ? "ROLE_EMPLOYEE" : "ROLE_ADMIN");
-                ps.setString(4, role);
-                ps.setString(5, randomFullName());
-                ps.setString(6, randomAddress(i));
-                ps.setString(7, randomPhone(i));
-                ps.setString(8, NOTES[rnd.nextInt(NOTES.length)]);
-                ps.setInt(9, 1);
-                ps.setInt(10, 1);
-                ps.setBoolean(11, false);
-                ps.addBatch();
-                count++;
-                if (count % BATCH_SIZE == 0) {
-                    ps.executeBatch();
-                    conn.commit();
-                }
-            }
-            ps.executeBatch();
-            conn.commit();
-
-            // read generated keys to map id->username
-            try (Statement s = conn.createStatement();
-                 ResultSet rs = s.executeQuery("SELECT id, username FROM users")) {
-                while (rs.next()) {
-                    idToUsername.put(rs.getInt("id"), rs.getString("username"));
-                }
+                p.add(TableSpec.USERS, (long) i, username, "pass" + (1000 + i), // hashed in real app; plain here for test
+                        username + "@example.com", role, randomFullName(rnd), randomAddress(rnd), randomPhone(rnd),
+                        NOTES[rnd.nextInt(NOTES.length)], now, now, 1L, 1L, false);
             }
         }
-        System.out.println("Inserted users: " + idToUsername.size());
-        return idToUsername;
-    }
+        System.out.println("Inserted users: " + sizes.users());
 
-    // 2. stores (created_by references users.username per your schema)
-    private static void createStores(Connection conn, Map<Integer, String> idToUsername) throws SQLException {
-        String sql = "INSERT INTO stores (name, address, phone, email, note, created_at, updated_at, created_by, is_deleted) VALUES (?,?,?,?,?,GETDATE(),GETDATE(),?,?)";
-        List<String> usernames = new ArrayList<>(idToUsername.values());
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            int count = 0;
-            for (int i = 1; i <= NUM_STORES; i++) {
-                ps.setString(1, "Store " + i);
-                ps.setString(2, randomAddress(i));
-                ps.setString(3, randomPhone(1000 + i));
-                ps.setString(4, "store" + i + "@example.com");
-                ps.setString(5, NOTES[rnd.nextInt(NOTES.length)]);
-                // assign random existing username as created_by
-                String createdBy = usernames.get(rnd.nextInt(usernames.size()));
-                ps.setString(6, createdBy);
-                ps.setBoolean(7, false);
-                ps.addBatch();
-                count++;
-                if (count % BATCH_SIZE == 0) {
-                    ps.executeBatch();
-                    conn.commit();
-                }
+        try (DataOutput.Partition p = out.open("products")) {
+            for (int i = 1; i <= sizes.products(); i++) {
+                p.add(TableSpec.PRODUCTS, (long) i, "RiceProduct_" + i, "High quality rice variant " + i,
+                        BigDecimal.valueOf(productPrice(i)), now, now, 1L + (i % sizes.users()), false);
             }
-            ps.executeBatch();
-            conn.commit();
         }
-        System.out.println("Inserted stores: " + NUM_STORES);
-    }
-
-    // 3. products
-    // returns map productId -> price (approx) after insert (we will query prices later)
-    // 3. products
-// corrected version: GETDATE() for created_at and updated_at, then placeholders for created_by and is_deleted
-    private static Map<Integer, Long> createProducts(Connection conn) throws SQLException {
-        String sql = "INSERT INTO products (name, description, price, created_at, updated_at, created_by, is_deleted) VALUES (?,?,?,GETDATE(),GETDATE(),?,?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            int count = 0;
-            for (int i = 1; i <= NUM_PRODUCTS; i++) {
-                ps.setString(1, "RiceProduct_" + i);
-                ps.setString(2, "High quality rice variant " + i);
-                long price = 10000 + (i % 50) * 500; // in local currency
-                ps.setBigDecimal(3, java.math.BigDecimal.valueOf(price));
-                // now placeholder 4 -> created_by (user id)
-                ps.setLong(4, 1 + (i % NUM_USERS)); // created_by user id (assume exists)
-                // placeholder 5 -> is_deleted
-                ps.setBoolean(5, false);
-                ps.addBatch();
-                count++;
-                if (count % BATCH_SIZE == 0) {
-                    ps.executeBatch();
-                    conn.commit();
-                }
+        System.out.println("Inserted products: " + sizes.products());
+
+        try (DataOutput.Partition p = out.open("stores")) {
+            for (int i = 1; i <= sizes.stores(); i++) {
+                // created_by references users.username per schema
+                String createdBy = "user" + (1 + rnd.nextInt(sizes.users()));
+                p.add(TableSpec.STORES, (long) i, "Store " + i, randomAddress(rnd), randomPhone(rnd),
+                        "store" + i + "@example.com", NOTES[rnd.nextInt(NOTES.length)], now, now, createdBy, false);
             }
-            ps.executeBatch();
-            conn.commit();
         }
-        // read product prices
-        Map<Integer, Long> productPrices = new HashMap<>();
-        try (Statement s = conn.createStatement();
-             ResultSet rs = s.executeQuery("SELECT id, price FROM products")) {
-            while (rs.next()) {
-                productPrices.put(rs.getInt("id"), rs.getLong("price"));
+        System.out.println("Inserted stores: " + sizes.stores());
+
+        try (DataOutput.Partition p = out.open("customers")) {
+            for (int i = 1; i <= sizes.customers(); i++) {
+                p.add(TableSpec.CUSTOMERS, (long) i, randomFullName(rnd), randomPhone(rnd), randomAddress(rnd),
+                        "customer" + i + "@example.com", BigDecimal.ZERO, now, now, 1L + (i % sizes.users()), false);
             }
         }
-        System.out.println("Inserted products: " + productPrices.size());
-        return productPrices;
-    }
+        System.out.println("Inserted customers: " + sizes.customers());
 
-    // 4. customers
-    private static void createCustomers(Connection conn) throws SQLException {
-        String sql = "INSERT INTO customers (name, phone, address, email, debt_balance, created_at, updated_at, created_by, is_deleted) VALUES (?,?,?,?,0,GETDATE(),GETDATE(),?,?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            int count = 0;
-            for (int i = 1; i <= NUM_CUSTOMERS; i++) {
-                ps.setString(1, randomFullName());
-                ps.setString(2, randomPhone(2000 + i));
-                ps.setString(3, randomAddress(i));
-                ps.setString(4, "customer" + i + "@example.com");
-                ps.setLong(5, 1 + (i % NUM_USERS));
-                ps.setBoolean(6, false);
-                ps.addBatch();
-                count++;
-                if (count % BATCH_SIZE == 0) {
-                    ps.executeBatch();
-                    conn.commit();
-                }
+        try (DataOutput.Partition p = out.open("zones")) {
+            for (int i = 1; i <= sizes.zones(); i++) {
+                p.add(TableSpec.ZONES, (long) i, "Zone " + i, 1L + (i % sizes.stores()), "Zone address " + i,
+                        1L + (i % sizes.products()), 50 + rnd.nextInt(200), now, now, 1L + (i % sizes.users()), false);
             }
-            ps.executeBatch();
-            conn.commit();
         }
-        System.out.println("Inserted customers: " + NUM_CUSTOMERS);
+        System.out.println("Inserted zones: " + sizes.zones());
     }
 
-    // 5. zones
-    private static void createZones(Connection conn, Map<Integer, Long> productPrices) throws SQLException {
-        String sql = "INSERT INTO zones (name, store_id, address, product_id, quantity, created_at, updated_at, created_by, is_deleted) VALUES (?,?,?,?,?,GETDATE(),GETDATE(),?,?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            int count = 0;
-            int productCount = productPrices.size();
-            for (int i = 1; i <= NUM_ZONES; i++) {
-                ps.setString(1, "Zone " + i);
-                ps.setLong(2, 1 + (i % NUM_STORES));
-                ps.setString(3, "Zone address " + i);
-                ps.setLong(4, 1 + (i % productCount));
-                ps.setInt(5, 50 + rnd.nextInt(200));
-                ps.setLong(6, 1 + (i % NUM_USERS));
-                ps.setBoolean(7, false);
-                ps.addBatch();
-                count++;
-                if (count % BATCH_SIZE == 0) {
-                    ps.executeBatch();
-                    conn.commit();
-                }
+    // ------------------ invoices + details + debts (song song theo partition) ------------------
+
+    private static void createFacts(DataOutput out, Sizes sizes, FakeDataConfig config) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        int invoicePartitions = (int) ((sizes.invoices() + INVOICES_PER_PARTITION - 1) / INVOICES_PER_PARTITION);
+        int debtPartitions = (int) ((sizes.extraDebts() + DEBTS_PER_PARTITION - 1) / DEBTS_PER_PARTITION);
+        AtomicInteger done = new AtomicInteger();
+        int total = invoicePartitions + debtPartitions;
+
+        for (int k = 0; k < invoicePartitions; k++) {
+            int partition = k;
+            tasks.add(() -> {
+                createInvoicePartition(out, sizes, config, partition);
+                System.out.println("Partition done: invoices-" + partition + " (" + done.incrementAndGet() + "/" + total + ")");
+                return null;
+            });
+        }
+        for (int k = 0; k < debtPartitions; k++) {
+            int partition = k;
+            tasks.add(() -> {
+                createDebtPartition(out, sizes, config, partition);
+                System.out.println("Partition done: debts-" + partition + " (" + done.incrementAndGet() + "/" + total + ")");
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.threads()));
+        try {
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get(); // ném lại lỗi của partition
             }
-            ps.executeBatch();
-            conn.commit();
+        } finally {
+            executor.shutdownNow();
         }
-        System.out.println("Inserted zones: " + NUM_ZONES);
+        System.out.println("Inserted invoices and details and debt records from invoices: " + sizes.invoices());
+        System.out.println("Inserted extra debt records: " + sizes.extraDebts());
     }
 
-    // 6. invoices + invoice_details + debt_records
-    private static void createInvoicesAndDetailsWithDebts(Connection conn, Map<Integer, String> userIdToUsername) throws SQLException {
-        String invoiceSql = "INSERT INTO invoices (store_id, customer_id, total_price, discount, quantity, final_amount, payment_status, note, type, created_at, updated_at, created_by, is_deleted) VALUES (?,?,?,?,?,?,?,?,?,GETDATE(),GETDATE(),?,?)";
-        String detailSql = "INSERT INTO invoice_details (invoice_id, product_id, quantity, unit_price, total_price, zone_id, customer_id, created_at, updated_at, created_by, updated_by, is_deleted) VALUES (?,?,?,?,?,?,?,?,?,?,?,?)";
-        String debtSql = "INSERT INTO debt_records (customer_id, type, amount, note, create_on, created_at, updated_at, created_by, is_deleted) VALUES (?,?,?,?,?,?,GETDATE(),?,?)";
-
-        try (PreparedStatement invoicePs = conn.prepareStatement(invoiceSql, Statement.RETURN_GENERATED_KEYS);
-             PreparedStatement detailPs = conn.prepareStatement(detailSql);
-             PreparedStatement debtPs = conn.prepareStatement(debtSql)) {
-
-            int invoiceCount = 0;
-            int detailBatch = 0;
-            int debtBatch = 0;
-
-            // date range: last 12 months
-            LocalDate now = LocalDate.now();
-            LocalDate startDate = now.minusMonths(11).withDayOfMonth(1);
-
-            for (int i = 1; i <= NUM_INVOICES; i++) {
-                int storeId = 1 + rnd.nextInt(NUM_STORES);
-                int customerId = 1 + rnd.nextInt(NUM_CUSTOMERS);
+    // 6. invoices + invoice_details + debt_records, id hóa đơn [first, last] của partition
+    private static void createInvoicePartition(DataOutput out, Sizes sizes, FakeDataConfig config, int partition) throws Exception {
+        Random rnd = partitionRandom(config.seed(), STREAM_INVOICES, partition);
+        long first = (long) partition * INVOICES_PER_PARTITION + 1;
+        long last = Math.min(sizes.invoices(), first + INVOICES_PER_PARTITION - 1);
+
+        // date range: last 12 months
+        LocalDate now = config.asOf();
+        LocalDate startDate = now.minusMonths(11).withDayOfMonth(1);
+        int spanDays = (int) ChronoUnit.DAYS.between(startDate, now) + 1;
+
+        try (DataOutput.Partition p = out.open(String.format("invoices-%05d", partition))) {
+            for (long invoiceId = first; invoiceId <= last; invoiceId++) {
+                long storeId = 1 + rnd.nextInt(sizes.stores());
+                long customerId = 1 + rnd.nextInt(sizes.customers());
                 int itemsCount = 1 + rnd.nextInt(3); // items per invoice
                 double invoiceTotal = 0.0;
                 int totalQty = 0;
 
                 // build items first to compute total
-                List<Item> items = new ArrayList<>();
+                int[] productIds = new int[itemsCount];
+                int[] quantities = new int[itemsCount];
                 for (int it = 0; it < itemsCount; it++) {
-                    int prodId = 1 + rnd.nextInt(NUM_PRODUCTS);
-                    double unitPrice = 10000 + (prodId % 50) * 500;
-                    int qty = 1 + rnd.nextInt(10);
-                    items.add(new Item(prodId, qty, unitPrice));
-                    invoiceTotal += unitPrice * qty;
-                    totalQty += qty;
+                    productIds[it] = 1 + rnd.nextInt(sizes.products());
+                    quantities[it] = 1 + rnd.nextInt(10);
+                    invoiceTotal += productPrice(productIds[it]) * quantities[it];
+                    totalQty += quantities[it];
                 }
 
                 // small discount sometimes
@@ -305,171 +244,98 @@ public class FakeData {
 
                 // payment status: mostly Paid, some Unpaid, some In_debt
                 String paymentStatus;
-                double p = rnd.nextDouble();
-                if (p < 0.80) paymentStatus = "Paid";
-                else if (p < 0.93) paymentStatus = "Unpaid";
+                double pr = rnd.nextDouble();
+                if (pr < 0.80) paymentStatus = "Paid";
+                else if (pr < 0.93) paymentStatus = "Unpaid";
                 else paymentStatus = "In_debt";
 
                 String note = (rnd.nextDouble() < 0.05) ? "promo applied" : "";
-
-                // created_by user id
-                int createdBy = 1 + rnd.nextInt(NUM_USERS);
-
-                // insert invoice
-                invoicePs.setInt(1, storeId);
-                invoicePs.setInt(2, customerId);
-                invoicePs.setDouble(3, invoiceTotal);
-                invoicePs.setDouble(4, discount);
-                invoicePs.setInt(5, totalQty);
-                invoicePs.setDouble(6, finalAmount);
-                invoicePs.setString(7, paymentStatus);
-                invoicePs.setString(8, note);
-                invoicePs.setString(9, "Sale");
-                invoicePs.setInt(10, createdBy);   // created_by
-                invoicePs.setBoolean(11, false);   // is_deleted
-                invoicePs.executeUpdate();
-
-                ResultSet rs = invoicePs.getGeneratedKeys();
-                long invoiceId = -1;
-                if (rs.next()) invoiceId = rs.getLong(1);
+                long createdBy = 1 + rnd.nextInt(sizes.users());
 
                 // random created_at for invoice (spread over last 12 months)
-                LocalDate randomDate = startDate.plusDays(rnd.nextInt((int) ChronoUnit.DAYS.between(startDate, now) + 1));
-                Timestamp createdAt = Timestamp.valueOf(randomDate.atTime(rnd.nextInt(23), rnd.nextInt(59), rnd.nextInt(59)));
-                // update invoice created_at & updated_at
-                try (PreparedStatement upd = conn.prepareStatement("UPDATE invoices SET created_at=?, updated_at=? WHERE id=?")) {
-                    upd.setTimestamp(1, createdAt);
-                    upd.setTimestamp(2, createdAt);
-                    upd.setLong(3, invoiceId);
-                    upd.executeUpdate();
-                }
+                LocalDate randomDate = startDate.plusDays(rnd.nextInt(spanDays));
+                LocalDateTime createdAt = randomDate.atTime(rnd.nextInt(23), rnd.nextInt(59), rnd.nextInt(59));
+
+                p.add(TableSpec.INVOICES, invoiceId, storeId, customerId, money(invoiceTotal), money(discount), totalQty,
+                        money(finalAmount), paymentStatus, note, "Sale", createdAt, createdAt, createdBy, false);
 
-                // insert details
-                for (Item it : items) {
-                    int zoneId = 1 + rnd.nextInt(NUM_ZONES);
-                    Timestamp nowTs = createdAt;
-                    detailPs.setLong(1, invoiceId);
-                    detailPs.setLong(2, it.productId);
-                    detailPs.setInt(3, it.quantity);
-                    detailPs.setDouble(4, it.unitPrice);
-                    detailPs.setDouble(5, it.unitPrice * it.quantity);
-                    detailPs.setLong(6, zoneId);
-                    detailPs.setLong(7, customerId);
-                    detailPs.setTimestamp(8, nowTs);
-                    detailPs.setTimestamp(9, nowTs);
-                    detailPs.setLong(10, createdBy);
-                    detailPs.setLong(11, createdBy);
-                    detailPs.setBoolean(12, false);
-                    detailPs.addBatch();
-                    detailBatch++;
-                    if (detailBatch % BATCH_SIZE == 0) {
-                        detailPs.executeBatch();
-                        conn.commit();
-                    }
+                for (int it = 0; it < itemsCount; it++) {
+                    long zoneId = 1 + rnd.nextInt(sizes.zones());
+                    long unitPrice = productPrice(productIds[it]);
+                    p.add(TableSpec.INVOICE_DETAILS, invoiceId, (long) productIds[it], quantities[it],
+                            BigDecimal.valueOf(unitPrice), BigDecimal.valueOf(unitPrice * quantities[it]),
+                            zoneId, customerId, createdAt, createdAt, createdBy, createdBy, false);
                 }
 
                 // if invoice is In_debt -> create debt_records for the unpaid amount (simulate partial payment)
                 if ("In_debt".equals(paymentStatus)) {
                     double unpaid = finalAmount * (0.3 + rnd.nextDouble() * 0.7); // 30% -100% unpaid
                     LocalDate debtDate = randomDate.plusDays(rnd.nextInt(30));
-                    Timestamp debtTs = Timestamp.valueOf(debtDate.atTime(rnd.nextInt(23), rnd.nextInt(59), rnd.nextInt(59)));
-
-                    debtPs.setLong(1, customerId);
-                    debtPs.setString(2, "Customer_debt_shop");
-                    debtPs.setBigDecimal(3, java.math.BigDecimal.valueOf(unpaid));
-                    debtPs.setString(4, "Debt from invoice " + invoiceId);
-                    debtPs.setTimestamp(5, debtTs);
-                    debtPs.setTimestamp(6, debtTs);
-                    debtPs.setLong(7, createdBy);
-                    debtPs.setBoolean(8, false);
-                    debtPs.addBatch();
-                    debtBatch++;
-
-                    if (debtBatch % BATCH_SIZE == 0) {
-                        debtPs.executeBatch();
-                        conn.commit();
-                    }
+                    LocalDateTime debtTs = debtDate.atTime(rnd.nextInt(23), rnd.nextInt(59), rnd.nextInt(59));
+                    p.add(TableSpec.DEBT_RECORDS, customerId, "Customer_debt_shop", money(unpaid),
+                            "Debt from invoice " + invoiceId, debtTs, debtTs, debtTs, createdBy, false);
                 }
-
-                invoiceCount++;
-//                if (invoiceCount % 1000 == 0) {
-//                    System.out.println("Invoices processed: " + invoiceCount);
-//                }
-            } // end invoices loop
-
-            // flush batches
-            detailPs.executeBatch();
-            debtPs.executeBatch();
-            conn.commit();
-            System.out.println("Inserted invoices and details and debt records from invoices.");
+            }
         }
     }
 
-
     // 7. extra independent debt records (random customers / months) to reach target
-    private static void createExtraDebtRecords(Connection conn) throws SQLException {
-        String sql = "INSERT INTO debt_records (customer_id, type, amount, note, create_on, created_at, updated_at, created_by, is_deleted) VALUES (?,?,?,?,?,?,GETDATE(),?,?)";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            int batch = 0;
-            LocalDate now = LocalDate.now();
-            LocalDate startDate = now.minusMonths(11).withDayOfMonth(1);
-            for (int i = 0; i < EXTRA_DEBT_RECORDS; i++) {
-                int customerId = 1 + rnd.nextInt(NUM_CUSTOMERS);
+    private static void createDebtPartition(DataOutput out, Sizes sizes, FakeDataConfig config, int partition) throws Exception {
+        Random rnd = partitionRandom(config.seed(), STREAM_DEBTS, partition);
+        long first = (long) partition * DEBTS_PER_PARTITION;
+        long last = Math.min(sizes.extraDebts(), first + DEBTS_PER_PARTITION);
+
+        LocalDate now = config.asOf();
+        LocalDate startDate = now.minusMonths(11).withDayOfMonth(1);
+        int spanDays = (int) ChronoUnit.DAYS.between(startDate, now) + 1;
+        LocalDateTime updatedAt = now.atTime(12, 0);
+
+        try (DataOutput.Partition p = out.open(String.format("debts-%05d", partition))) {
+            for (long i = first; i < last; i++) {
+                long customerId = 1 + rnd.nextInt(sizes.customers());
                 String type = rnd.nextDouble() < 0.9 ? "Customer_debt_shop" : "Customer_return_shop";
                 double amount = 500 + rnd.nextInt(50000);
                 String note = (rnd.nextDouble() < 0.1) ? "manual adjustment" : "";
 
-                LocalDate randomDate = startDate.plusDays(rnd.nextInt((int) ChronoUnit.DAYS.between(startDate, now) + 1));
-                Timestamp ts = Timestamp.valueOf(randomDate.atTime(rnd.nextInt(23), rnd.nextInt(59), rnd.nextInt(59)));
-
-                ps.setInt(1, customerId);
-                ps.setString(2, type);
-                ps.setBigDecimal(3, java.math.BigDecimal.valueOf(amount));
-                ps.setString(4, note);
-                ps.setTimestamp(5, ts);
-                ps.setTimestamp(6, ts);
-                ps.setLong(7, 1 + rnd.nextInt(NUM_USERS));
-                ps.setBoolean(8, false);
-                ps.addBatch();
-                batch++;
-                if (batch % BATCH_SIZE == 0) {
-                    ps.executeBatch();
-                    conn.commit();
-                }
+                LocalDate randomDate = startDate.plusDays(rnd.nextInt(spanDays));
+                LocalDateTime ts = randomDate.atTime(rnd.nextInt(23), rnd.nextInt(59), rnd.nextInt(59));
+                p.add(TableSpec.DEBT_RECORDS, customerId, type, money(amount), note, ts, ts, updatedAt,
+                        1L + rnd.nextInt(sizes.users()), false);
             }
-            ps.executeBatch();
-            conn.commit();
-            System.out.println("Inserted extra debt records: " + EXTRA_DEBT_RECORDS);
         }
     }
 
     // ------------------ small helpers ------------------
-    private static String randomFullName() {
+
+    // Seed riêng cho mỗi (luồng, partition), trộn kiểu SplitMix64 để các partition kề nhau không tương quan
+    static Random partitionRandom(long seed, int stream, int partition) {
+        long z = seed + 0x9E3779B97F4A7C15L * ((long) stream * 1_000_003L + partition + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new Random(z ^ (z >>> 31));
+    }
+
+    private static long productPrice(int productId) {
+        return 10000 + (productId % 50) * 500L; // in local currency
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static String randomFullName(Random rnd) {
         String fn = FIRST_NAMES[rnd.nextInt(FIRST_NAMES.length)];
         String ln = LAST_NAMES[rnd.nextInt(LAST_NAMES.length)];
         return fn + " " + ln;
     }
 
-    private static String randomAddress(int seed) {
+    private static String randomAddress(Random rnd) {
         String street = STREETS[rnd.nextInt(STREETS.length)];
         return (10 + rnd.nextInt(200)) + " " + street + " St., District " + (1 + rnd.nextInt(12));
     }
 
-    private static String randomPhone(int seed) {
+    private static String randomPhone(Random rnd) {
         int p = 10000000 + rnd.nextInt(89999999);
-        return "0" + (9 + rnd.nextInt(1)) + String.format("%08d", p % 100000000);
-    }
-
-    private static class Item {
-        int productId;
-        int quantity;
-        double unitPrice;
-
-        Item(int p, int q, double u) {
-            productId = p;
-            quantity = q;
-            unitPrice = u;
-        }
+        return "09" + String.format("%08d", p % 100000000);
     }
 }
-
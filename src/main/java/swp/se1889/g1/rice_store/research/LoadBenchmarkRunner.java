@@ -0,0 +1,126 @@
+package swp.se1889.g1.rice_store.research;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import swp.se1889.g1.rice_store.config.VirtualThreads;
+import swp.se1889.g1.rice_store.research.bench.BenchmarkReportWriter;
+import swp.se1889.g1.rice_store.research.bench.LoadGenerator;
+import swp.se1889.g1.rice_store.research.bench.LoadMix;
+import swp.se1889.g1.rice_store.research.bench.LoadStepResult;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ Benchmark tải đồng thời với tải hỗn hợp giống cửa hàng thật (xem application-benchmark-load.properties).
+ Mỗi bậc concurrency (closed loop) hoặc mỗi mức req/s (open loop) in ra throughput + p50/p90/p99/p99.9
+ và đỉnh active/waiting của HikariCP, để tìm điểm pool hoặc SQL Server bão hòa.
+ mode = threads: so sánh server dùng pool platform thread (benchmark.load.platform-pool-size, như Tomcat)
+ với virtual thread ở từng mức benchmark.load.sessions phiên đồng thời (cần Java 21+ cho phần virtual).
+*/
+@Component
+@Profile("benchmark-load")
+public class LoadBenchmarkRunner implements CommandLineRunner {
+
+    @Autowired
+    private LoadGenerator loadGenerator;
+    @Autowired
+    private StoreWorkload workload;
+
+    @Value("${benchmark.load.mode:closed}")
+    private String mode;
+    @Value("${benchmark.load.concurrency:1,2,4,8,16,32,64}")
+    private int[] concurrency;
+    @Value("${benchmark.load.rates:25,50,100,200,400}")
+    private double[] rates;
+    @Value("${benchmark.load.max-in-flight:256}")
+    private int maxInFlight;
+    @Value("${benchmark.load.virtual-threads:false}")
+    private boolean virtualThreads;
+    @Value("${benchmark.load.sessions:50,200,1000}")
+    private int[] sessions;
+    @Value("${benchmark.load.platform-pool-size:200}")
+    private int platformPoolSize;
+    @Value("${benchmark.load.warmup-seconds:10}")
+    private long warmupSeconds;
+    @Value("${benchmark.load.step-seconds:30}")
+    private long stepSeconds;
+    @Value("${benchmark.load.think-time-ms:0}")
+    private long thinkTimeMillis;
+
+    @Value("${benchmark.load.mix.dashboard:10}")
+    private int dashboardWeight;
+    @Value("${benchmark.load.mix.sale:35}")
+    private int saleWeight;
+    @Value("${benchmark.load.mix.import:5}")
+    private int importWeight;
+    @Value("${benchmark.load.mix.debt-add:10}")
+    private int debtAddWeight;
+    @Value("${benchmark.load.mix.list-sales:20}")
+    private int listSalesWeight;
+    @Value("${benchmark.load.mix.list-debts:10}")
+    private int listDebtsWeight;
+    @Value("${benchmark.load.mix.list-customers:10}")
+    private int listCustomersWeight;
+
+    @Override
+    public void run(String... args) throws IOException {
+        System.out.println(">>> STARTING LOAD BENCHMARK (" + mode + " loop) <<<");
+        workload.prepare();
+
+        LoadMix mix = LoadMix.create()
+                .add("dashboard", dashboardWeight, workload::dashboard)
+                .add("sale", saleWeight, () -> workload.sale(workload.newSale()))
+                .add("import", importWeight, () -> workload.importInvoice(workload.newImport()))
+                .add("debt_add", debtAddWeight, () -> workload.addDebt(workload.newDebt()))
+                .add("list_sales", listSalesWeight, workload::salesPage)
+                .add("list_debts", listDebtsWeight, workload::debtPage)
+                .add("list_customers", listCustomersWeight, workload::customerPage);
+        if (mix.isEmpty()) {
+            throw new IllegalStateException("Tất cả trọng số benchmark.load.mix.* đều bằng 0");
+        }
+
+        Duration warmup = Duration.ofSeconds(warmupSeconds);
+        Duration step = Duration.ofSeconds(stepSeconds);
+        Duration thinkTime = Duration.ofMillis(thinkTimeMillis);
+        List<LoadStepResult> results;
+        if ("threads".equalsIgnoreCase(mode)) {
+            results = compareThreadKinds(mix, warmup, step, thinkTime);
+        } else if ("open".equalsIgnoreCase(mode)) {
+            results = loadGenerator.openLoop(mix, rates, maxInFlight, virtualThreads, warmup, step);
+        } else {
+            results = loadGenerator.closedLoop(mix, concurrency, virtualThreads, warmup, step, thinkTime);
+        }
+
+        BenchmarkReportWriter.writeLoad("load-" + mode.toLowerCase(), results);
+        System.out.println(">>> LOAD BENCHMARK COMPLETE <<<");
+    }
+
+    private List<LoadStepResult> compareThreadKinds(LoadMix mix, Duration warmup, Duration step, Duration thinkTime) {
+        List<LoadStepResult> platform = loadGenerator.sessions(mix, sessions, false, platformPoolSize, warmup, step, thinkTime);
+        if (!VirtualThreads.isSupported()) {
+            System.out.println("Java " + System.getProperty("java.version") + " không có virtual thread: chỉ đo phần platform thread");
+            return platform;
+        }
+        List<LoadStepResult> virtual = loadGenerator.sessions(mix, sessions, true, platformPoolSize, warmup, step, thinkTime);
+
+        System.out.println("sessions | platform-" + platformPoolSize + " ops/s  p99 ms | virtual ops/s  p99 ms | throughput x");
+        for (int i = 0; i < platform.size(); i++) {
+            LoadStepResult p = platform.get(i);
+            LoadStepResult v = virtual.get(i);
+            System.out.printf(Locale.ROOT, "%8d | %12.1f %7.2f | %13.1f %7.2f | %5.2f%n", p.concurrency(),
+                    p.throughput(), LoadStepResult.percentileMs(p.total(), 99),
+                    v.throughput(), LoadStepResult.percentileMs(v.total(), 99),
+                    p.throughput() == 0 ? 0 : v.throughput() / p.throughput());
+        }
+        List<LoadStepResult> results = new ArrayList<>(platform);
+        results.addAll(virtual);
+        return results;
+    }
+}
@@ -0,0 +1,257 @@
+package swp.se1889.g1.rice_store.research;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import swp.se1889.g1.rice_store.dto.CustomerDTO;
+import swp.se1889.g1.rice_store.dto.InvoiceDetailDTO;
+import swp.se1889.g1.rice_store.dto.InvoiceSaleDetailDTO;
+import swp.se1889.g1.rice_store.dto.InvoicesDTO;
+import swp.se1889.g1.rice_store.entity.DebtRecords;
+import swp.se1889.g1.rice_store.entity.Invoice;
+import swp.se1889.g1.rice_store.entity.Invoices;
+import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.repository.UserRepository;
+import swp.se1889.g1.rice_store.service.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/*
+ Các thao tác người dùng thật để dựng tải hỗn hợp: dashboard, bán hàng, nhập hàng, ghi nợ và các trang danh sách.
+ Mỗi thao tác gọi đúng service mà controller gọi, chạy dưới SecurityContext giả của benchmark.username
+ (service đọc người dùng hiện tại từ SecurityContextHolder).
+ Dữ liệu mẫu (cửa hàng, khu vực có hàng, khách hàng có số điện thoại duy nhất) được nạp một lần trong prepare().
+ Phiếu nhập và bản ghi nợ tay có ghi chú BENCH_NOTE. Hóa đơn bán (createOrder không nhận ghi chú) và bản ghi nợ
+ sinh theo hóa đơn bán nợ không có: lọc / dọn chúng theo created_by của benchmark.username.
+*/
+@Component
+@Profile({"benchmark-load", "benchmark-write"})
+public class StoreWorkload {
+
+    public static final String BENCH_NOTE = "benchmark";
+
+    private static final int SAMPLE_CUSTOMERS = 5000;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserServiceIpml userService;
+    @Autowired
+    private InvoicesService invoicesService;
+    @Autowired
+    private InvoiceDetailService invoiceDetailService;
+    @Autowired
+    private InvoiceSaleService invoiceSaleService;
+    @Autowired
+    private DebtRecordService debtRecordService;
+    @Autowired
+    private CustomerService customerService;
+
+    @Value("${benchmark.username:user5}")
+    private String username;
+
+    private User user;
+    private SecurityContext securityContext;
+    private long[] storeIds;
+    private final Map<Long, List<ZoneStock>> zonesByStore = new HashMap<>();
+    private long[] customerIds;
+    private String[] customerPhones;
+
+    public void prepare() {
+        user = userRepository.findByUsername(username);
+        if (user == null) {
+            throw new IllegalStateException("Không tìm thấy user benchmark: " + username);
+        }
+        UserDetails details = userService.loadUserByUsername(username);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities());
+        securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(authentication);
+
+        zonesByStore.clear();
+        jdbcTemplate.query("""
+                SELECT z.id, z.store_id, z.product_id, p.price FROM zones z
+                JOIN products p ON p.id = z.product_id
+                WHERE z.is_deleted = 0 AND z.product_id IS NOT NULL
+                """, rs -> {
+            zonesByStore.computeIfAbsent(rs.getLong(2), k -> new ArrayList<>())
+                    .add(new ZoneStock(rs.getLong(1), rs.getLong(3), rs.getBigDecimal(4)));
+        });
+        storeIds = zonesByStore.keySet().stream().mapToLong(Long::longValue).toArray();
+
+        // createImportInvoice tìm khách theo số điện thoại: chỉ lấy số không bị trùng
+        List<Object[]> customers = jdbcTemplate.query("""
+                SELECT TOP (?) MIN(id), phone FROM customers
+                WHERE is_deleted = 0 AND phone IS NOT NULL
+                GROUP BY phone HAVING COUNT(*) = 1
+                """, (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)}, SAMPLE_CUSTOMERS);
+        customerIds = new long[customers.size()];
+        customerPhones = new String[customers.size()];
+        for (int i = 0; i < customers.size(); i++) {
+            customerIds[i] = (Long) customers.get(i)[0];
+            customerPhones[i] = (String) customers.get(i)[1];
+        }
+        if (storeIds.length == 0 || customerIds.length == 0) {
+            throw new IllegalStateException("Chưa có dữ liệu mẫu (zones / customers), hãy chạy FakeData trước");
+        }
+        System.out.println("Workload fixture: " + storeIds.length + " stores with stock, " + customerIds.length + " customers, user " + username);
+    }
+
+    // ------------------ đọc ------------------
+
+    // Cùng các truy vấn trang /home
+    public Object dashboard() {
+        long storeId = randomStore();
+        return asUser(() -> new Object[]{
+                invoicesService.getTodayInvoiceCount(storeId),
+                invoicesService.getTodayRevenue(storeId),
+                invoicesService.getWeeklyRevenue(storeId),
+                invoicesService.getMonthlyRevenue(storeId),
+                invoiceDetailService.getTopProductsSold(storeId, "month", null, null, 5)});
+    }
+
+    // Trang /invoiceSale: mỗi dòng tra khách hàng và người tạo như controller
+    public Object salesPage() {
+        long storeId = randomStore();
+        return asUser(() -> {
+            List<Invoice> invoices = invoiceSaleService.findInvoicesByStoreId(storeId, 0, PAGE_SIZE).getContent();
+            for (Invoice invoice : invoices) {
+                CustomerDTO customer = customerService.getCustomerById(invoice.getCustomerId());
+                invoice.setCustomer(customer);
+                invoice.setUser(userService.getUserById(invoice.getCreatedBy()));
+            }
+            return invoices;
+        });
+    }
+
+    public Object debtPage() {
+        long customerId = randomCustomer();
+        return asUser(() -> debtRecordService.getCustomerPage(customerId,
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createOn"))).getContent());
+    }
+
+    public Object customerPage() {
+        return asUser(() -> customerService.filterCustomersWithSpec(null, null, null, null, null, null, null,
+                ThreadLocalRandom.current().nextInt(10), PAGE_SIZE).getContent());
+    }
+
+    // ------------------ ghi ------------------
+
+    // Tham số được sinh riêng (newSale / newImport / newDebt) để benchmark đơn luồng sinh ngoài vùng bấm giờ
+
+    // Hóa đơn bán 1–3 dòng; khoảng 20% bán nợ
+    public SalePayload newSale() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long storeId = randomStore();
+        List<ZoneStock> zones = zonesByStore.get(storeId);
+        int items = 1 + random.nextInt(Math.min(3, zones.size()));
+        List<InvoiceSaleDetailDTO> orders = new ArrayList<>(items);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < items; i++) {
+            ZoneStock zone = zones.get(random.nextInt(zones.size()));
+            InvoiceSaleDetailDTO order = new InvoiceSaleDetailDTO();
+            order.setProductId(zone.productId());
+            order.setZoneId(zone.zoneId());
+            order.setQuantity(1 + random.nextInt(5));
+            orders.add(order);
+            total = total.add(zone.price().multiply(BigDecimal.valueOf(order.getQuantity())));
+        }
+        String payment = random.nextInt(5) == 0 ? "In_debt" : "Paid";
+        return new SalePayload(storeId, randomCustomer(), total, payment, orders);
+    }
+
+    public Invoice sale(SalePayload p) {
+        return asUser(() -> invoiceSaleService.createOrder(p.storeId(), user, p.customerId(), p.totalAmount(),
+                p.paymentOption(), p.orders()));
+    }
+
+    // Phiếu nhập 1–2 dòng, trả đủ tiền hàng (không sinh bản ghi nợ)
+    public InvoicesDTO newImport() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long storeId = randomStore();
+        List<ZoneStock> zones = zonesByStore.get(storeId);
+        List<InvoiceDetailDTO> details = new ArrayList<>();
+        for (int i = 0, n = 1 + random.nextInt(Math.min(2, zones.size())); i < n; i++) {
+            ZoneStock zone = zones.get(random.nextInt(zones.size()));
+            InvoiceDetailDTO detail = new InvoiceDetailDTO();
+            detail.setProductId(zone.productId());
+            detail.setZoneId(zone.zoneId());
+            detail.setQuantity(10 + random.nextInt(50));
+            detail.setUnitPrice(zone.price());
+            details.add(detail);
+        }
+        InvoicesDTO dto = new InvoicesDTO();
+        dto.setStoreId(storeId);
+        dto.setCustomerPhone(customerPhones[random.nextInt(customerPhones.length)]);
+        dto.setPaymentMethod("onlyProduct");
+        dto.setDetails(details);
+        dto.setPaidAmount(InvoicesService.calculateTotalPrice(details));
+        dto.setNote(BENCH_NOTE);
+        return dto;
+    }
+
+    public Invoices importInvoice(InvoicesDTO dto) {
+        return asUser(() -> invoicesService.createImportInvoice(dto, null));
+    }
+
+    // Ghi nợ tay rồi tính lại dư nợ của khách (skipUpdate = false như màn hình ghi nợ)
+    public DebtRecords newDebt() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        DebtRecords record = new DebtRecords();
+        record.setCustomerId(randomCustomer());
+        record.setType(random.nextInt(4) == 0 ? DebtRecords.DebtType.Customer_return_shop : DebtRecords.DebtType.Customer_debt_shop);
+        record.setAmount(BigDecimal.valueOf(1000L * (1 + random.nextInt(500))));
+        record.setNote(BENCH_NOTE);
+        record.setCreateOn(LocalDateTime.now());
+        return record;
+    }
+
+    public DebtRecords addDebt(DebtRecords record) {
+        return asUser(() -> debtRecordService.addDebt(record, false));
+    }
+
+    // ------------------ helpers ------------------
+
+    private <T> T asUser(Supplier<T> action) {
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContextHolder.setContext(securityContext);
+        try {
+            return action.get();
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+
+    private long randomStore() {
+        return storeIds[ThreadLocalRandom.current().nextInt(storeIds.length)];
+    }
+
+    private long randomCustomer() {
+        return customerIds[ThreadLocalRandom.current().nextInt(customerIds.length)];
+    }
+
+    private record ZoneStock(long zoneId, long productId, BigDecimal price) {
+    }
+
+    public record SalePayload(long storeId, long customerId, BigDecimal totalAmount, String paymentOption,
+                              List<InvoiceSaleDetailDTO> orders) {
+    }
+}
@@ -0,0 +1,62 @@
+package swp.se1889.g1.rice_store.research;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp.se1889.g1.rice_store.research.bench.BenchmarkEngine;
+import swp.se1889.g1.rice_store.research.bench.BenchmarkPlan;
+
+import java.util.function.Function;
+
+/*
+ Benchmark đường ghi: nhập hàng (InvoicesService.createImportInvoice), bán hàng (InvoiceSaleService.createOrder)
+ và ghi nợ (DebtRecordService.addDebt), chạy dưới SecurityContext giả của StoreWorkload.
+ Mỗi lần gọi nằm trong một transaction ngoài: service tham gia transaction đó, câu lệnh được flush xuống DB
+ (để UPDATE cũng được đo và đếm) rồi rollback, nên dữ liệu không đổi giữa các lần lặp và giữa các lần chạy.
+ Báo cáo có thêm số câu lệnh và số dòng ghi (entity Hibernate) trung bình mỗi thao tác.
+*/
+@Component
+@Profile("benchmark-write")
+public class WriteBenchmarkRunner implements CommandLineRunner {
+
+    private static final int WARMUP_CYCLES = 50;
+    private static final int MEASURE_CYCLES = 500;
+    private static final String CSV_FILE = "research_data_writes.csv";
+
+    @Autowired
+    private BenchmarkEngine benchmarkEngine;
+    @Autowired
+    private StoreWorkload workload;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void run(String... args) {
+        System.out.println(">>> STARTING WRITE-PATH BENCHMARK (rollback after each iteration) <<<");
+        workload.prepare();
+
+        benchmarkEngine.run(BenchmarkPlan.named("writes")
+                .warmup(WARMUP_CYCLES)
+                .iterations(MEASURE_CYCLES)
+                .scenario("W1_Import", "Service", workload::newImport, rollback(workload::importInvoice))
+                .scenario("W2_Sale", "Service", workload::newSale, rollback(workload::sale))
+                .scenario("W3_DebtAdd", "Service", workload::newDebt, rollback(workload::addDebt)), CSV_FILE);
+    }
+
+    private <T, R> Function<T, R> rollback(Function<T, R> action) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        return input -> template.execute(status -> {
+            R result = action.apply(input);
+            entityManager.flush();
+            status.setRollbackOnly();
+            return result;
+        });
+    }
+}
@@ -0,0 +1,141 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.Histogram;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ Chạy một BenchmarkPlan: với mỗi kịch bản warm-up rồi đo, ghi độ trễ vào HdrHistogram (3 chữ số có nghĩa)
+ và số câu query / prepared statement của Hibernate cho từng lần gọi.
+ Trong lúc đo không ghi file: mẫu nằm trong mảng long, báo cáo CSV/JSON được ghi một lần sau khi đo xong,
+ kèm một bản lưu theo lần chạy (BenchmarkRunStore) để so sánh giữa các commit.
+ Số query của mỗi lần gọi là hiệu hai lần chụp Statistics, không clear() bộ đếm dùng chung với actuator / metrics.
+*/
+@Component
+@Profile({"benchmark", "benchmark-invoice", "benchmark-write"})
+public class BenchmarkEngine {
+
+    // Giá trị trả về được "tiêu thụ" ở đây để JIT không thể bỏ qua thao tác cần đo
+    private volatile int sink;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BenchmarkRunStore runStore;
+
+    public List<ScenarioResult> run(BenchmarkPlan plan, String rawCsvFile) {
+        System.out.println(">>> BENCHMARK PLAN '" + plan.getName() + "': " + plan.getScenarios().size() + " scenarios <<<");
+        List<ScenarioResult> results = new ArrayList<>();
+        for (BenchmarkPlan.Scenario<?> scenario : plan.getScenarios()) {
+            pause(plan.getPauseMillis());
+            ScenarioResult result = runScenario(scenario);
+            results.add(result);
+            System.out.printf("  %-32s p50=%.3fms p99=%.3fms p99.9=%.3fms %.1f ops/s queries=%.1f%s%n",
+                    scenario.label(), result.percentileMs(50), result.percentileMs(99), result.percentileMs(99.9),
+                    result.throughput(), result.avgQueries(), result.errors() > 0 ? " errors=" + result.errors() : "");
+        }
+        try {
+            BenchmarkReportWriter.write(plan.getName(), results, rawCsvFile);
+            Path runDir = runStore.save(plan, results);
+            if (runDir != null) {
+                System.out.println(">>> Run saved to " + runDir + " (compare: BenchmarkCompare --plan=" + plan.getName() + ")");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Không ghi được báo cáo benchmark: " + e.getMessage(), e);
+        }
+        System.out.println(">>> BENCHMARK PLAN '" + plan.getName() + "' COMPLETE <<<");
+        return results;
+    }
+
+    private <T> ScenarioResult runScenario(BenchmarkPlan.Scenario<T> scenario) {
+        System.out.println("[" + scenario.label() + "] warm-up " + scenario.warmup() + ", measure " + scenario.iterations());
+        for (int i = 0; i < scenario.warmup(); i++) {
+            try {
+                consume(scenario.action().apply(scenario.input().get()));
+            } catch (RuntimeException ignored) {
+                // lỗi trong warm-up không tính
+            }
+        }
+
+        Statistics statistics = hibernateStatistics();
+        Histogram histogram = new Histogram(3);
+        int n = scenario.iterations();
+        long[] samples = new long[n];
+        long[] queries = new long[n];
+        long[] prepares = new long[n];
+        long[] rows = new long[n];
+        int recorded = 0;
+        int errors = 0;
+
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            T input = scenario.input().get();
+            long queriesBefore = statistics != null ? statistics.getQueryExecutionCount() : 0;
+            long preparesBefore = statistics != null ? statistics.getPrepareStatementCount() : 0;
+            long rowsBefore = statistics != null ? changedRows(statistics) : 0;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = scenario.action().apply(input);
+            } catch (RuntimeException e) {
+                if (errors++ == 0) {
+                    System.out.println("  [" + scenario.label() + "] first error: " + e);
+                }
+                continue;
+            }
+            long duration = System.nanoTime() - start;
+
+            consume(result);
+            histogram.recordValue(duration);
+            samples[recorded] = duration;
+            queries[recorded] = statistics != null ? statistics.getQueryExecutionCount() - queriesBefore : -1;
+            prepares[recorded] = statistics != null ? statistics.getPrepareStatementCount() - preparesBefore : -1;
+            rows[recorded] = statistics != null ? changedRows(statistics) - rowsBefore : -1;
+            recorded++;
+        }
+        long wallTime = System.nanoTime() - wallStart;
+
+        return new ScenarioResult(scenario.scenario(), scenario.type(), histogram,
+                Arrays.copyOf(samples, recorded), Arrays.copyOf(queries, recorded), Arrays.copyOf(prepares, recorded),
+                Arrays.copyOf(rows, recorded), wallTime, errors);
+    }
+
+    private static long changedRows(Statistics statistics) {
+        return statistics.getEntityInsertCount() + statistics.getEntityUpdateCount() + statistics.getEntityDeleteCount();
+    }
+
+    private void consume(Object value) {
+        sink += System.identityHashCode(value);
+    }
+
+    private void pause(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Statistics hibernateStatistics() {
+        try {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            if (!statistics.isStatisticsEnabled()) statistics.setStatisticsEnabled(true);
+            return statistics;
+        } catch (Exception e) {
+            return null; // an toàn nếu không unwrap được
+        }
+    }
+}
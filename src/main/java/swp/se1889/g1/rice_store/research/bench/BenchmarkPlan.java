@@ -0,0 +1,79 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ Khai báo một bộ benchmark: mỗi kịch bản = (scenario, type) + cách sinh tham số + thao tác cần đo.
+ Tham số được sinh ngoài vùng bấm giờ; chỉ thao tác (action) nằm trong vùng đo.
+
+   BenchmarkPlan.named("debt")
+       .warmup(100).iterations(1000)
+       .scenario("S1_SimpleRead", "Native", this::randomDebtId, debtRepo::findByIdNative)
+       .scenario("S3_LargeFetch", "JPQL", 10, this::randomCustomerId, id -> debtRepo.getHistoryJPQL(id, PAGE));
+*/
+public class BenchmarkPlan {
+
+    private final String name;
+    private int warmup = 100;
+    private int iterations = 1000;
+    private long pauseMillis = 1000;
+    private final List<Scenario<?>> scenarios = new ArrayList<>();
+
+    private BenchmarkPlan(String name) {
+        this.name = name;
+    }
+
+    public static BenchmarkPlan named(String name) {
+        return new BenchmarkPlan(name);
+    }
+
+    public BenchmarkPlan warmup(int warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    public BenchmarkPlan iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    // Nghỉ giữa hai kịch bản để GC / pool kết nối ổn định lại
+    public BenchmarkPlan pauseBetweenScenarios(long millis) {
+        this.pauseMillis = millis;
+        return this;
+    }
+
+    public <T> BenchmarkPlan scenario(String scenario, String type, Supplier<T> input, Function<T, ?> action) {
+        return scenario(scenario, type, warmup, input, action);
+    }
+
+    // warmup riêng cho kịch bản nặng (ví dụ fetch 5000 dòng)
+    public <T> BenchmarkPlan scenario(String scenario, String type, int warmup, Supplier<T> input, Function<T, ?> action) {
+        scenarios.add(new Scenario<>(scenario, type, warmup, iterations, input, action));
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getPauseMillis() {
+        return pauseMillis;
+    }
+
+    public List<Scenario<?>> getScenarios() {
+        return Collections.unmodifiableList(scenarios);
+    }
+
+    public record Scenario<T>(String scenario, String type, int warmup, int iterations,
+                              Supplier<T> input, Function<T, ?> action) {
+
+        public String label() {
+            return scenario + "/" + type;
+        }
+    }
+}
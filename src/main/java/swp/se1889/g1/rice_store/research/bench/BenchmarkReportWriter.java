@@ -0,0 +1,167 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ Ghi kết quả sau khi đo xong:
+ - rawCsvFile: từng mẫu, cùng cột với các file research_data_*.csv cũ (script phân tích dùng lại được)
+ - <plan>-summary.csv / <plan>-summary.json: p50/p90/p99/p99.9, max, mean, throughput, số query trung bình
+ - <plan>-load.csv / <plan>-load.json: mỗi bậc tải một dòng tổng (operation = ALL) và một dòng cho từng thao tác
+*/
+public final class BenchmarkReportWriter {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private BenchmarkReportWriter() {
+    }
+
+    public static void write(String planName, List<ScenarioResult> results, String rawCsvFile) throws IOException {
+        if (rawCsvFile != null) {
+            writeRaw(results, Path.of(rawCsvFile));
+        }
+        writeSummaryCsv(results, Path.of(planName + "-summary.csv"));
+        writeSummaryJson(planName, results, Path.of(planName + "-summary.json"));
+    }
+
+    private static void writeRaw(List<ScenarioResult> results, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file);
+             PrintWriter pw = new PrintWriter(out)) {
+            pw.println("iteration,scenario,type,duration_ns,duration_ms,sql_queries,prepared_statements");
+            for (ScenarioResult r : results) {
+                long[] samples = r.samplesNs();
+                for (int i = 0; i < samples.length; i++) {
+                    pw.printf(Locale.ROOT, "%d,%s,%s,%d,%.4f,%d,%d%n", i, r.scenario(), r.type(), samples[i],
+                            samples[i] / 1_000_000.0, r.queryCounts()[i], r.prepareCounts()[i]);
+                }
+            }
+        }
+    }
+
+    private static void writeSummaryCsv(List<ScenarioResult> results, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file);
+             PrintWriter pw = new PrintWriter(out)) {
+            pw.println("scenario,type,count,errors,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,throughput_ops,avg_queries,avg_prepared_statements,avg_rows_written");
+            for (ScenarioResult r : results) {
+                pw.printf(Locale.ROOT, "%s,%s,%d,%d,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.2f,%.2f,%.2f,%.2f%n",
+                        r.scenario(), r.type(), r.count(), r.errors(), r.meanMs(),
+                        r.percentileMs(50), r.percentileMs(90), r.percentileMs(99), r.percentileMs(99.9), r.maxMs(),
+                        r.throughput(), r.avgQueries(), r.avgPreparedStatements(), r.avgRowsWritten());
+            }
+        }
+    }
+
+    private static void writeSummaryJson(String planName, List<ScenarioResult> results, Path file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("plan", planName);
+        report.put("finishedAt", LocalDateTime.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("scenarios", summaries(results));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    // Tóm tắt từng kịch bản, dùng chung cho <plan>-summary.json và run.json của BenchmarkRunStore
+    static List<Map<String, Object>> summaries(List<ScenarioResult> results) {
+        List<Map<String, Object>> scenarios = new ArrayList<>();
+        for (ScenarioResult r : results) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("scenario", r.scenario());
+            row.put("type", r.type());
+            row.put("count", r.count());
+            row.put("errors", r.errors());
+            row.put("meanMs", r.meanMs());
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (double p : PERCENTILES) {
+                percentiles.put(percentileKey(p), r.percentileMs(p));
+            }
+            row.put("percentilesMs", percentiles);
+            row.put("maxMs", r.maxMs());
+            row.put("throughputOpsPerSec", r.throughput());
+            row.put("avgQueries", r.avgQueries());
+            row.put("avgPreparedStatements", r.avgPreparedStatements());
+            row.put("avgRowsWritten", r.avgRowsWritten());
+            scenarios.add(row);
+        }
+        return scenarios;
+    }
+
+    public static void writeLoad(String planName, List<LoadStepResult> steps) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(Path.of(planName + "-load.csv"));
+             PrintWriter pw = new PrintWriter(out)) {
+            pw.println("mode,threads,concurrency,target_rate,operation,count,errors,dropped,throughput_ops,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,pool_active_peak,pool_waiting_peak");
+            for (LoadStepResult step : steps) {
+                printLoadRow(pw, step, "ALL", step.total(), step.errors(), step.dropped());
+                for (Map.Entry<String, Histogram> e : step.byOperation().entrySet()) {
+                    printLoadRow(pw, step, e.getKey(), e.getValue(), step.errorsByOperation().get(e.getKey()), 0);
+                }
+            }
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (LoadStepResult step : steps) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("mode", step.mode());
+            row.put("threads", step.threadKind());
+            row.put("concurrency", step.concurrency());
+            row.put("targetRate", step.targetRate());
+            row.put("durationSec", step.durationNs() / 1_000_000_000.0);
+            row.put("throughputOpsPerSec", step.throughput());
+            row.put("dropped", step.dropped());
+            row.put("poolActivePeak", step.peakPoolActive());
+            row.put("poolWaitingPeak", step.peakPoolWaiting());
+            row.put("all", histogramSummary(step.total(), step.errors()));
+            Map<String, Object> operations = new LinkedHashMap<>();
+            step.byOperation().forEach((name, h) -> operations.put(name, histogramSummary(h, step.errorsByOperation().get(name))));
+            row.put("operations", operations);
+            rows.add(row);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("plan", planName);
+        report.put("finishedAt", LocalDateTime.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("steps", rows);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(Path.of(planName + "-load.json").toFile(), report);
+    }
+
+    private static void printLoadRow(PrintWriter pw, LoadStepResult step, String operation, Histogram h, long errors, long dropped) {
+        double seconds = step.durationNs() / 1_000_000_000.0;
+        pw.printf(Locale.ROOT, "%s,%s,%d,%.1f,%s,%d,%d,%d,%.2f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%d,%d%n",
+                step.mode(), step.threadKind(), step.concurrency(), step.targetRate(), operation,
+                h.getTotalCount(), errors, dropped, seconds == 0 ? 0 : h.getTotalCount() / seconds,
+                h.getTotalCount() == 0 ? 0 : h.getMean() / 1_000_000.0,
+                LoadStepResult.percentileMs(h, 50), LoadStepResult.percentileMs(h, 90),
+                LoadStepResult.percentileMs(h, 99), LoadStepResult.percentileMs(h, 99.9),
+                h.getMaxValue() / 1_000_000.0, step.peakPoolActive(), step.peakPoolWaiting());
+    }
+
+    private static Map<String, Object> histogramSummary(Histogram h, long errors) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", h.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("meanMs", h.getTotalCount() == 0 ? 0 : h.getMean() / 1_000_000.0);
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            percentiles.put(percentileKey(p), LoadStepResult.percentileMs(h, p));
+        }
+        summary.put("percentilesMs", percentiles);
+        summary.put("maxMs", h.getMaxValue() / 1_000_000.0);
+        return summary;
+    }
+
+    private static String percentileKey(double p) {
+        return "p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p));
+    }
+}
@@ -0,0 +1,212 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ Lưu mỗi lần chạy benchmark thành một thư mục riêng, không ghi đè lần trước:
+   <benchmark.results.dir>/<plan>/<yyyyMMdd-HHmmss>-<commit>/run.json     metadata + tóm tắt từng kịch bản
+                                                              samples.csv  từng mẫu (scenario,type,duration_ns)
+ Metadata gồm git commit, JVM, cấu hình heap/GC, DB, quy mô dữ liệu và thời điểm chạy,
+ để BenchmarkCompare biết hai lần chạy có so sánh được với nhau hay không.
+*/
+@Component
+@Profile({"benchmark", "benchmark-invoice", "benchmark-write"})
+public class BenchmarkRunStore {
+
+    static final String RUN_FILE = "run.json";
+    static final String SAMPLES_FILE = "samples.csv";
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT);
+    private static final String[] DATASET_TABLES = {"users", "stores", "products", "customers", "invoices", "invoice_details", "debt_records"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${benchmark.results.enabled:true}")
+    private boolean enabled;
+
+    @Value("${benchmark.results.dir:benchmark-results}")
+    private String resultsDir;
+
+    // Quy mô dữ liệu FakeData (--sf) nếu biết; với profile embedded lấy từ embedded.seed.scale-factor
+    @Value("${benchmark.dataset.scale-factor:${embedded.seed.scale-factor:}}")
+    private String datasetScaleFactor;
+
+    // Trả về thư mục của lần chạy, null nếu tắt lưu trữ
+    public Path save(BenchmarkPlan plan, List<ScenarioResult> results) throws IOException {
+        if (!enabled) return null;
+        String planName = plan.getName();
+        Map<String, Object> metadata = metadata(plan);
+        String runId = LocalDateTime.now().format(RUN_ID_FORMAT) + "-" + shortCommit((String) metadata.get("gitCommit"));
+        Path dir = Path.of(resultsDir, planName, runId);
+        Files.createDirectories(dir);
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("plan", planName);
+        run.put("runId", runId);
+        run.put("metadata", metadata);
+        run.put("scenarios", BenchmarkReportWriter.summaries(results));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(dir.resolve(RUN_FILE).toFile(), run);
+
+        try (BufferedWriter out = Files.newBufferedWriter(dir.resolve(SAMPLES_FILE));
+             PrintWriter pw = new PrintWriter(out)) {
+            pw.println("scenario,type,duration_ns");
+            for (ScenarioResult r : results) {
+                for (long sample : r.samplesNs()) {
+                    pw.print(r.scenario());
+                    pw.print(',');
+                    pw.print(r.type());
+                    pw.print(',');
+                    pw.println(sample);
+                }
+            }
+        }
+        return dir;
+    }
+
+    private Map<String, Object> metadata(BenchmarkPlan plan) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("timestamp", LocalDateTime.now().toString());
+        String commit = git("rev-parse", "HEAD");
+        m.put("gitCommit", commit != null ? commit : System.getenv("GIT_COMMIT"));
+        String status = git("status", "--porcelain", "--untracked-files=no");
+        m.put("gitDirty", status != null && !status.isBlank());
+        m.put("gitBranch", git("rev-parse", "--abbrev-ref", "HEAD"));
+
+        Runtime runtime = Runtime.getRuntime();
+        m.put("javaVersion", System.getProperty("java.version"));
+        m.put("javaVm", System.getProperty("java.vm.name") + " " + System.getProperty("java.vm.version"));
+        m.put("javaVendor", System.getProperty("java.vendor"));
+        m.put("heapMaxMb", runtime.maxMemory() / (1024 * 1024));
+        m.put("heapInitialMb", runtime.totalMemory() / (1024 * 1024));
+        m.put("jvmArgs", ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .filter(a -> a.startsWith("-X") || a.startsWith("-XX")).toList());
+        m.put("gc", ManagementFactory.getGarbageCollectorMXBeans().stream().map(GarbageCollectorMXBean::getName).toList());
+        m.put("availableProcessors", runtime.availableProcessors());
+        m.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch"));
+
+        m.put("activeProfiles", Arrays.asList(environment.getActiveProfiles()));
+        m.put("database", jdbcTemplate.execute((ConnectionCallback<String>) conn ->
+                conn.getMetaData().getDatabaseProductName() + " " + conn.getMetaData().getDatabaseProductVersion()));
+        m.put("datasetScaleFactor", datasetScaleFactor == null || datasetScaleFactor.isBlank() ? null : Double.valueOf(datasetScaleFactor));
+        m.put("datasetRows", datasetRows());
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (BenchmarkPlan.Scenario<?> scenario : plan.getScenarios()) {
+            settings.put(scenario.label(), "warmup=" + scenario.warmup() + " iterations=" + scenario.iterations());
+        }
+        m.put("scenarioSettings", settings);
+        return m;
+    }
+
+    private Map<String, Long> datasetRows() {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        for (String table : DATASET_TABLES) {
+            try {
+                rows.put(table, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+            } catch (RuntimeException e) {
+                rows.put(table, null);
+            }
+        }
+        return rows;
+    }
+
+    // null nếu không có git trên máy đo (chạy từ jar); commit khi đó lấy từ biến GIT_COMMIT của CI nếu có
+    private static String git(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                output = String.join("\n", reader.lines().toList()).trim();
+            }
+            if (process.waitFor(5, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                return output;
+            }
+        } catch (IOException e) {
+            // không có git
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static String shortCommit(String commit) {
+        return commit == null || commit.length() < 7 ? "nogit" : commit.substring(0, 7);
+    }
+
+    // ------------------ đọc lại (dùng cho BenchmarkCompare, không cần Spring) ------------------
+
+    public record StoredRun(Path dir, Map<String, Object> run, Map<String, long[]> samples) {
+
+        public String runId() {
+            return (String) run.get("runId");
+        }
+
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> metadata() {
+            return (Map<String, Object>) run.get("metadata");
+        }
+    }
+
+    // Khóa của samples: "scenario/type"
+    public static StoredRun load(Path dir) throws IOException {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> run = new ObjectMapper().readValue(dir.resolve(RUN_FILE).toFile(), Map.class);
+        Map<String, List<Long>> lists = new LinkedHashMap<>();
+        try (Stream<String> lines = Files.lines(dir.resolve(SAMPLES_FILE))) {
+            lines.skip(1).forEach(line -> {
+                int last = line.lastIndexOf(',');
+                lists.computeIfAbsent(line.substring(0, last).replace(',', '/'), k -> new ArrayList<>())
+                        .add(Long.parseLong(line.substring(last + 1)));
+            });
+        }
+        Map<String, long[]> samples = new LinkedHashMap<>();
+        lists.forEach((key, values) -> samples.put(key, values.stream().mapToLong(Long::longValue).toArray()));
+        return new StoredRun(dir, run, samples);
+    }
+
+    // Các lần chạy của một plan, cũ trước mới sau (runId bắt đầu bằng thời điểm chạy)
+    public static List<Path> listRuns(Path resultsDir, String planName) throws IOException {
+        Path planDir = resultsDir.resolve(planName);
+        if (!Files.isDirectory(planDir)) return List.of();
+        try (Stream<Path> dirs = Files.list(planDir)) {
+            return dirs.filter(d -> Files.isRegularFile(d.resolve(RUN_FILE)))
+                    .sorted(Comparator.comparing(d -> d.getFileName().toString()))
+                    .toList();
+        }
+    }
+}
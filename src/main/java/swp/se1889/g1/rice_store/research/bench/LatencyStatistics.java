@@ -0,0 +1,141 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/*
+ Kiểm định thống kê cho hai mẫu độ trễ (baseline vs candidate), không giả định phân phối chuẩn
+ vì độ trễ luôn lệch phải và có đuôi dài:
+ - Mann–Whitney U: candidate có xu hướng chậm / nhanh hơn baseline không (dịch chuyển vị trí)
+ - Kolmogorov–Smirnov hai mẫu: hình dạng phân phối có khác không (bắt được thay đổi ở đuôi mà trung vị không đổi)
+ - Bootstrap: khoảng tin cậy 95% cho mức thay đổi tương đối của trung vị
+*/
+public final class LatencyStatistics {
+
+    private LatencyStatistics() {
+    }
+
+    // superiority = P(candidate > baseline) + 0.5 P(bằng nhau); 0.5 = không khác, > 0.5 = candidate chậm hơn
+    public record MannWhitney(double u, double z, double pValue, double superiority) {
+    }
+
+    public record KolmogorovSmirnov(double d, double pValue) {
+    }
+
+    public static MannWhitney mannWhitney(long[] baseline, long[] candidate) {
+        int n1 = baseline.length;
+        int n2 = candidate.length;
+        int n = n1 + n2;
+        // Gộp hai mẫu, đánh dấu mẫu candidate bằng bit thấp để xếp hạng một lần
+        long[] merged = new long[n];
+        for (int i = 0; i < n1; i++) merged[i] = baseline[i] << 1;
+        for (int i = 0; i < n2; i++) merged[n1 + i] = (candidate[i] << 1) | 1;
+        Arrays.sort(merged);
+
+        double rankSumCandidate = 0;
+        double tieCorrection = 0;
+        int i = 0;
+        while (i < n) {
+            int j = i;
+            while (j + 1 < n && (merged[j + 1] >> 1) == (merged[i] >> 1)) j++;
+            double rank = (i + j) / 2.0 + 1; // hạng trung bình cho nhóm bằng nhau
+            for (int k = i; k <= j; k++) {
+                if ((merged[k] & 1) == 1) rankSumCandidate += rank;
+            }
+            double t = j - i + 1;
+            tieCorrection += t * t * t - t;
+            i = j + 1;
+        }
+
+        double u = rankSumCandidate - n2 * (n2 + 1) / 2.0;
+        double mean = (double) n1 * n2 / 2.0;
+        double variance = (double) n1 * n2 / 12.0 * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+        double z = variance <= 0 ? 0 : (u - mean - Math.signum(u - mean) * 0.5) / Math.sqrt(variance);
+        double p = Math.min(1.0, erfc(Math.abs(z) / Math.sqrt(2)));
+        return new MannWhitney(u, z, p, u / ((double) n1 * n2));
+    }
+
+    public static KolmogorovSmirnov kolmogorovSmirnov(long[] baseline, long[] candidate) {
+        long[] a = sorted(baseline);
+        long[] b = sorted(candidate);
+        int i = 0;
+        int j = 0;
+        double d = 0;
+        while (i < a.length && j < b.length) {
+            long v = Math.min(a[i], b[j]);
+            while (i < a.length && a[i] == v) i++;
+            while (j < b.length && b[j] == v) j++;
+            d = Math.max(d, Math.abs((double) i / a.length - (double) j / b.length));
+        }
+        double en = Math.sqrt((double) a.length * b.length / (a.length + b.length));
+        return new KolmogorovSmirnov(d, ksProbability((en + 0.12 + 0.11 / en) * d));
+    }
+
+    // Khoảng tin cậy [lo, hi] (theo phân vị bootstrap) của median(candidate) / median(baseline) - 1
+    public static double[] bootstrapMedianChange(long[] baseline, long[] candidate, int resamples, long seed) {
+        long[] a = sorted(baseline);
+        long[] b = sorted(candidate);
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] changes = new double[resamples];
+        int[] ia = new int[a.length];
+        int[] ib = new int[b.length];
+        for (int r = 0; r < resamples; r++) {
+            double base = resampledMedian(a, ia, random);
+            double cand = resampledMedian(b, ib, random);
+            changes[r] = base == 0 ? 0 : cand / base - 1;
+        }
+        Arrays.sort(changes);
+        return new double[]{changes[(int) (resamples * 0.025)], changes[Math.min(resamples - 1, (int) (resamples * 0.975))]};
+    }
+
+    // Lấy lại mẫu có hoàn lại từ mảng đã sắp xếp: sắp xếp chỉ số rút được là đủ để tìm trung vị
+    private static double resampledMedian(long[] sorted, int[] indices, SplittableRandom random) {
+        for (int i = 0; i < indices.length; i++) indices[i] = random.nextInt(sorted.length);
+        Arrays.sort(indices);
+        int mid = indices.length / 2;
+        return indices.length % 2 == 1 ? sorted[indices[mid]] : (sorted[indices[mid - 1]] + sorted[indices[mid]]) / 2.0;
+    }
+
+    public static long percentile(long[] sortedValues, double percentile) {
+        if (sortedValues.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sortedValues.length) - 1;
+        return sortedValues[Math.max(0, Math.min(sortedValues.length - 1, index))];
+    }
+
+    public static double mean(long[] values) {
+        if (values.length == 0) return 0;
+        double sum = 0;
+        for (long v : values) sum += v;
+        return sum / values.length;
+    }
+
+    public static long[] sorted(long[] values) {
+        long[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    // Phân phối Kolmogorov: Q(λ) = 2 Σ (-1)^(j-1) exp(-2 j² λ²)
+    private static double ksProbability(double lambda) {
+        if (lambda < 1e-3) return 1.0;
+        double sum = 0;
+        double sign = 1;
+        for (int j = 1; j <= 100; j++) {
+            double term = sign * 2 * Math.exp(-2 * j * j * lambda * lambda);
+            sum += term;
+            if (Math.abs(term) < 1e-10) break;
+            sign = -sign;
+        }
+        return Math.max(0, Math.min(1, sum));
+    }
+
+    // Hàm lỗi bù, xấp xỉ Chebyshev (sai số tương đối < 1.2e-7)
+    static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double ans = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? ans : 2 - ans;
+    }
+}
@@ -0,0 +1,317 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import swp.se1889.g1.rice_store.config.VirtualThreads;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ Sinh tải đồng thời cho các benchmark nghiên cứu.
+ - Closed loop: N worker, mỗi worker gửi request kế tiếp ngay khi request trước xong (+ think time).
+   Đo "hệ thống chịu được bao nhiêu người dùng đồng thời".
+ - Open loop: request đến theo tốc độ cố định (req/s) bất kể hệ thống trả lời nhanh hay chậm.
+   Độ trễ tính từ thời điểm lẽ ra phải gửi, nên hàng đợi dồn lại khi quá tải được thể hiện trong p99.
+ - Sessions: N phiên người dùng gửi request tới một "server executor" rồi chờ kết quả, giống request đi qua Tomcat.
+   Server là pool platform thread cố định (như server.tomcat.threads.max) hoặc mỗi request một virtual thread,
+   độ trễ tính cả thời gian xếp hàng chờ thread của server.
+ Worker có thể là platform thread hoặc virtual thread (chỉ khi JVM hỗ trợ, nếu không sẽ quay về platform thread).
+ Trong mỗi bậc tải, pool HikariCP được lấy mẫu để thấy lúc nào request bắt đầu phải chờ kết nối.
+*/
+@Component
+@Profile("benchmark-load")
+public class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final long POOL_SAMPLE_MILLIS = 100;
+
+    private volatile int sink;
+
+    @Autowired
+    private DataSource dataSource;
+
+    public List<LoadStepResult> closedLoop(LoadMix mix, int[] concurrencySteps, boolean virtualThreads,
+                                           Duration warmup, Duration stepDuration, Duration thinkTime) {
+        List<LoadStepResult> results = new ArrayList<>();
+        for (int threads : concurrencySteps) {
+            System.out.println("[closed] " + threads + " workers (" + threadKind(virtualThreads) + "), warm-up " + warmup.toSeconds() + "s");
+            runClosed(mix, threads, virtualThreads, warmup, thinkTime, null);
+            StepRecorder recorder = new StepRecorder(mix);
+            long start = System.nanoTime();
+            PoolSampler sampler = PoolSampler.start(dataSource);
+            runClosed(mix, threads, virtualThreads, stepDuration, thinkTime, recorder);
+            sampler.stop();
+            LoadStepResult result = recorder.result("closed", threadKind(virtualThreads), threads, 0,
+                    System.nanoTime() - start, 0, sampler);
+            print(result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    public List<LoadStepResult> openLoop(LoadMix mix, double[] targetRates, int maxInFlight, boolean virtualThreads,
+                                         Duration warmup, Duration stepDuration) {
+        List<LoadStepResult> results = new ArrayList<>();
+        for (double rate : targetRates) {
+            System.out.println("[open] " + rate + " req/s, max in-flight " + maxInFlight + " (" + threadKind(virtualThreads) + "), warm-up " + warmup.toSeconds() + "s");
+            runOpen(mix, rate, maxInFlight, virtualThreads, warmup, null);
+            StepRecorder recorder = new StepRecorder(mix);
+            long start = System.nanoTime();
+            PoolSampler sampler = PoolSampler.start(dataSource);
+            long dropped = runOpen(mix, rate, maxInFlight, virtualThreads, stepDuration, recorder);
+            sampler.stop();
+            LoadStepResult result = recorder.result("open", threadKind(virtualThreads), maxInFlight, rate,
+                    System.nanoTime() - start, dropped, sampler);
+            print(result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    // virtualServer = false: server là pool platformPoolSize platform thread; true: mỗi request một virtual thread
+    public List<LoadStepResult> sessions(LoadMix mix, int[] sessionSteps, boolean virtualServer, int platformPoolSize,
+                                         Duration warmup, Duration stepDuration, Duration thinkTime) {
+        String kind = virtualServer && VirtualThreads.isSupported() ? "virtual" : "platform-" + platformPoolSize;
+        List<LoadStepResult> results = new ArrayList<>();
+        for (int sessions : sessionSteps) {
+            System.out.println("[sessions] " + sessions + " sessions, server threads " + kind + ", warm-up " + warmup.toSeconds() + "s");
+            runSessions(mix, sessions, virtualServer, platformPoolSize, warmup, thinkTime, null);
+            StepRecorder recorder = new StepRecorder(mix);
+            long start = System.nanoTime();
+            PoolSampler sampler = PoolSampler.start(dataSource);
+            runSessions(mix, sessions, virtualServer, platformPoolSize, stepDuration, thinkTime, recorder);
+            sampler.stop();
+            LoadStepResult result = recorder.result("sessions", kind, sessions, 0, System.nanoTime() - start, 0, sampler);
+            print(result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    // recorder == null: pha warm-up, không ghi kết quả
+    private void runClosed(LoadMix mix, int threads, boolean virtualThreads, Duration duration, Duration thinkTime,
+                           StepRecorder recorder) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long thinkNanos = thinkTime.toNanos();
+        ExecutorService executor = newExecutor(virtualThreads, threads, "load-closed-");
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                        LoadMix.Operation op = mix.next();
+                        long start = System.nanoTime();
+                        execute(op, start, recorder);
+                        if (thinkNanos > 0) LockSupport.parkNanos(thinkNanos);
+                    }
+                });
+            }
+        } finally {
+            shutdown(executor, duration);
+        }
+    }
+
+    // Phiên người dùng chỉ chờ kết quả nên chạy trên virtual thread nếu có; phần việc thật do server executor làm
+    private void runSessions(LoadMix mix, int sessions, boolean virtualServer, int platformPoolSize, Duration duration,
+                             Duration thinkTime, StepRecorder recorder) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long thinkNanos = thinkTime.toNanos();
+        ExecutorService server = newExecutor(virtualServer, platformPoolSize, "load-server-");
+        ExecutorService clients = newExecutor(VirtualThreads.isSupported(), sessions, "load-session-");
+        try {
+            for (int i = 0; i < sessions; i++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                        LoadMix.Operation op = mix.next();
+                        long start = System.nanoTime();
+                        try {
+                            server.submit(() -> execute(op, start, recorder)).get();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } catch (ExecutionException e) {
+                            log.debug("Load operation {} failed: {}", op.name(), e.getCause().getMessage());
+                        }
+                        if (thinkNanos > 0) LockSupport.parkNanos(thinkNanos);
+                    }
+                });
+            }
+        } finally {
+            shutdown(clients, duration);
+            shutdown(server, duration);
+        }
+    }
+
+    // Trả về số request bị bỏ vì đã đủ maxInFlight
+    private long runOpen(LoadMix mix, double rate, int maxInFlight, boolean virtualThreads, Duration duration,
+                         StepRecorder recorder) {
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long dropped = 0;
+        ExecutorService executor = newExecutor(virtualThreads, maxInFlight, "load-open-");
+        try {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= deadline) break;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                if (!inFlight.tryAcquire()) {
+                    dropped++;
+                    continue;
+                }
+                LoadMix.Operation op = mix.next();
+                executor.execute(() -> {
+                    try {
+                        execute(op, intended, recorder);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            shutdown(executor, duration);
+        }
+        return dropped;
+    }
+
+    // startNanos: lúc bắt đầu bấm giờ (open loop: thời điểm lẽ ra phải gửi)
+    private void execute(LoadMix.Operation op, long startNanos, StepRecorder recorder) {
+        try {
+            Object result = op.action().get();
+            long duration = System.nanoTime() - startNanos;
+            sink += System.identityHashCode(result);
+            if (recorder != null) recorder.record(op.name(), duration);
+        } catch (RuntimeException e) {
+            if (recorder != null) recorder.error(op.name());
+            log.debug("Load operation {} failed: {}", op.name(), e.getMessage());
+        }
+    }
+
+    private static ExecutorService newExecutor(boolean virtualThreads, int threads, String prefix) {
+        if (virtualThreads) {
+            ExecutorService executor = VirtualThreads.newPerTaskExecutor();
+            if (executor != null) return executor;
+            log.warn("Virtual threads are not available on Java {}, falling back to platform threads",
+                    System.getProperty("java.version"));
+        }
+        return Executors.newFixedThreadPool(threads, VirtualThreads.factory(prefix, false));
+    }
+
+    private static String threadKind(boolean virtualThreads) {
+        return virtualThreads && VirtualThreads.isSupported() ? "virtual" : "platform";
+    }
+
+    private static void shutdown(ExecutorService executor, Duration duration) {
+        executor.shutdown();
+        try {
+            // Cho request đang chạy kết thúc; quá lâu thì ngắt để bậc sau không bị chồng lên
+            if (!executor.awaitTermination(Math.max(30, duration.toSeconds()), TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void print(LoadStepResult r) {
+        System.out.printf("  -> %.1f ops/s  p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms errors=%d dropped=%d pool(active/waiting)=%d/%d%n",
+                r.throughput(), LoadStepResult.percentileMs(r.total(), 50), LoadStepResult.percentileMs(r.total(), 90),
+                LoadStepResult.percentileMs(r.total(), 99), LoadStepResult.percentileMs(r.total(), 99.9),
+                r.errors(), r.dropped(), r.peakPoolActive(), r.peakPoolWaiting());
+    }
+
+    // Histogram dùng chung giữa các worker của một bậc tải
+    private static class StepRecorder {
+        private final ConcurrentHistogram total = new ConcurrentHistogram(3);
+        private final Map<String, ConcurrentHistogram> byOperation = new LinkedHashMap<>();
+        private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+
+        StepRecorder(LoadMix mix) {
+            for (LoadMix.Operation op : mix.getOperations()) {
+                byOperation.put(op.name(), new ConcurrentHistogram(3));
+                errors.put(op.name(), new LongAdder());
+            }
+        }
+
+        void record(String operation, long durationNanos) {
+            total.recordValue(durationNanos);
+            byOperation.get(operation).recordValue(durationNanos);
+        }
+
+        void error(String operation) {
+            errors.get(operation).increment();
+        }
+
+        LoadStepResult result(String mode, String threadKind, int concurrency, double rate, long durationNs,
+                              long dropped, PoolSampler sampler) {
+            Map<String, Histogram> histograms = new LinkedHashMap<>();
+            byOperation.forEach((name, h) -> histograms.put(name, h.copy()));
+            Map<String, Long> errorCounts = new LinkedHashMap<>();
+            errors.forEach((name, e) -> errorCounts.put(name, e.sum()));
+            return new LoadStepResult(mode, threadKind, concurrency, rate, durationNs, total.copy(), histograms,
+                    errorCounts, dropped, sampler.peakActive, sampler.peakWaiting);
+        }
+    }
+
+    // Lấy mẫu HikariPoolMXBean mỗi POOL_SAMPLE_MILLIS để biết pool đã bão hòa chưa
+    private static class PoolSampler {
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile int peakActive = -1;
+        private volatile int peakWaiting = -1;
+
+        private PoolSampler(HikariPoolMXBean pool) {
+            thread = new Thread(() -> {
+                while (running && pool != null) {
+                    peakActive = Math.max(peakActive, pool.getActiveConnections());
+                    peakWaiting = Math.max(peakWaiting, pool.getThreadsAwaitingConnection());
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(POOL_SAMPLE_MILLIS));
+                }
+            }, "load-pool-sampler");
+            thread.setDaemon(true);
+        }
+
+        static PoolSampler start(DataSource dataSource) {
+            HikariPoolMXBean pool = null;
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                }
+            } catch (Exception ignored) {
+                // không phải HikariCP: bỏ qua phần lấy mẫu pool
+            }
+            PoolSampler sampler = new PoolSampler(pool);
+            sampler.thread.start();
+            return sampler;
+        }
+
+        void stop() {
+            running = false;
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
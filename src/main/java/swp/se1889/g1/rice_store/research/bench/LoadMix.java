@@ -0,0 +1,56 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/*
+ Tỉ lệ các thao tác trong tải hỗn hợp, ví dụ:
+
+   LoadMix.create()
+       .add("dashboard", 20, workload::dashboard)
+       .add("sale", 30, workload::sale)
+       .add("list_invoices", 25, workload::invoicePage);
+
+ Mỗi lần gọi next() chọn một thao tác ngẫu nhiên theo trọng số.
+*/
+public class LoadMix {
+
+    private final List<Operation> operations = new ArrayList<>();
+    private int totalWeight;
+
+    private LoadMix() {
+    }
+
+    public static LoadMix create() {
+        return new LoadMix();
+    }
+
+    public LoadMix add(String name, int weight, Supplier<?> action) {
+        if (weight <= 0) return this; // trọng số 0: tắt thao tác này mà không cần sửa code
+        totalWeight += weight;
+        operations.add(new Operation(name, weight, totalWeight, action));
+        return this;
+    }
+
+    public Operation next() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation op : operations) {
+            if (pick < op.cumulativeWeight()) return op;
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    public List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    public record Operation(String name, int weight, int cumulativeWeight, Supplier<?> action) {
+    }
+}
@@ -0,0 +1,32 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/*
+ Kết quả một bậc tải (một mức concurrency hoặc một mức tốc độ mục tiêu).
+ Với open loop, độ trễ tính từ thời điểm request LẼ RA được gửi (tránh coordinated omission),
+ dropped = số request không gửi được vì đã đủ maxInFlight.
+ peakPoolWaiting = số thread chờ kết nối HikariCP lớn nhất quan sát được (-1 nếu không đọc được pool).
+*/
+public record LoadStepResult(String mode, String threadKind, int concurrency, double targetRate, long durationNs,
+                             Histogram total, Map<String, Histogram> byOperation, Map<String, Long> errorsByOperation,
+                             long dropped, int peakPoolActive, int peakPoolWaiting) {
+
+    public long count() {
+        return total.getTotalCount();
+    }
+
+    public long errors() {
+        return errorsByOperation.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public double throughput() {
+        return durationNs == 0 ? 0 : count() * 1_000_000_000.0 / durationNs;
+    }
+
+    public static double percentileMs(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,214 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import swp.se1889.g1.rice_store.research.bench.BenchmarkRunStore.StoredRun;
+import swp.se1889.g1.rice_store.research.bench.LatencyStatistics.KolmogorovSmirnov;
+import swp.se1889.g1.rice_store.research.bench.LatencyStatistics.MannWhitney;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/*
+ So sánh hai lần chạy đã lưu, theo từng kịch bản (scenario/type):
+ - REGRESSION : Mann–Whitney có ý nghĩa (p < alpha) và trung vị tăng quá threshold,
+                hoặc KS có ý nghĩa và p99 tăng quá tailThreshold (chậm ở đuôi)
+ - IMPROVEMENT: Mann–Whitney có ý nghĩa và trung vị giảm quá threshold
+ - UNCHANGED  : còn lại; MISSING: kịch bản chỉ có ở một lần chạy
+ Báo cáo xuất ra Markdown hoặc HTML, kèm bảng khác biệt metadata (commit, JVM, heap, dữ liệu...).
+*/
+public class RunComparison {
+
+    public enum Verdict {REGRESSION, IMPROVEMENT, UNCHANGED, MISSING}
+
+    public record Settings(double alpha, double threshold, double tailThreshold, int bootstrapResamples) {
+    }
+
+    public record ScenarioComparison(String key, int baselineCount, int candidateCount,
+                                     double baselineP50Ms, double candidateP50Ms, double baselineP99Ms, double candidateP99Ms,
+                                     double baselineMeanMs, double candidateMeanMs, double medianChange, double[] medianChangeCi,
+                                     double p99Change, MannWhitney mannWhitney, KolmogorovSmirnov ks, Verdict verdict) {
+    }
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final StoredRun baseline;
+    private final StoredRun candidate;
+    private final Settings settings;
+    private final List<ScenarioComparison> scenarios = new ArrayList<>();
+
+    public RunComparison(StoredRun baseline, StoredRun candidate, Settings settings) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+        this.settings = settings;
+        Set<String> keys = new LinkedHashSet<>(baseline.samples().keySet());
+        keys.addAll(candidate.samples().keySet());
+        for (String key : keys) {
+            scenarios.add(compare(key, baseline.samples().get(key), candidate.samples().get(key)));
+        }
+    }
+
+    public List<ScenarioComparison> getScenarios() {
+        return scenarios;
+    }
+
+    public long count(Verdict verdict) {
+        return scenarios.stream().filter(s -> s.verdict() == verdict).count();
+    }
+
+    private ScenarioComparison compare(String key, long[] base, long[] cand) {
+        if (base == null || cand == null || base.length < MIN_SAMPLES || cand.length < MIN_SAMPLES) {
+            return new ScenarioComparison(key, base == null ? 0 : base.length, cand == null ? 0 : cand.length,
+                    Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, null,
+                    Double.NaN, null, null, Verdict.MISSING);
+        }
+        long[] a = LatencyStatistics.sorted(base);
+        long[] b = LatencyStatistics.sorted(cand);
+        double baseP50 = LatencyStatistics.percentile(a, 50);
+        double candP50 = LatencyStatistics.percentile(b, 50);
+        double baseP99 = LatencyStatistics.percentile(a, 99);
+        double candP99 = LatencyStatistics.percentile(b, 99);
+        double medianChange = baseP50 == 0 ? 0 : candP50 / baseP50 - 1;
+        double p99Change = baseP99 == 0 ? 0 : candP99 / baseP99 - 1;
+        MannWhitney mw = LatencyStatistics.mannWhitney(a, b);
+        KolmogorovSmirnov ks = LatencyStatistics.kolmogorovSmirnov(a, b);
+        double[] ci = LatencyStatistics.bootstrapMedianChange(a, b, settings.bootstrapResamples(), key.hashCode());
+
+        Verdict verdict = Verdict.UNCHANGED;
+        boolean shifted = mw.pValue() < settings.alpha();
+        if (shifted && medianChange > settings.threshold()
+                || ks.pValue() < settings.alpha() && p99Change > settings.tailThreshold()) {
+            verdict = Verdict.REGRESSION;
+        } else if (shifted && medianChange < -settings.threshold()) {
+            verdict = Verdict.IMPROVEMENT;
+        }
+        return new ScenarioComparison(key, a.length, b.length, baseP50 / 1e6, candP50 / 1e6, baseP99 / 1e6, candP99 / 1e6,
+                LatencyStatistics.mean(a) / 1e6, LatencyStatistics.mean(b) / 1e6, medianChange, ci, p99Change, mw, ks, verdict);
+    }
+
+    // ------------------ Markdown ------------------
+
+    public String toMarkdown() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Benchmark comparison: ").append(baseline.run().get("plan")).append("\n\n");
+        sb.append("Baseline `").append(baseline.runId()).append("` vs candidate `").append(candidate.runId()).append("`  \n");
+        sb.append(String.format(Locale.ROOT, "alpha = %s, median threshold = %s, p99 threshold = %s, bootstrap = %d%n%n",
+                settings.alpha(), percent(settings.threshold()), percent(settings.tailThreshold()), settings.bootstrapResamples()));
+        sb.append(String.format(Locale.ROOT, "**%d regression(s), %d improvement(s), %d unchanged, %d missing**%n%n",
+                count(Verdict.REGRESSION), count(Verdict.IMPROVEMENT), count(Verdict.UNCHANGED), count(Verdict.MISSING)));
+
+        sb.append("## Environment\n\n| | baseline | candidate |\n|---|---|---|\n");
+        for (String[] row : metadataRows()) {
+            sb.append("| ").append(row[0]).append(differs(row) ? " ⚠" : "").append(" | ")
+                    .append(row[1]).append(" | ").append(row[2]).append(" |\n");
+        }
+
+        sb.append("\n## Scenarios\n\n");
+        sb.append("| scenario | n | p50 ms | Δ p50 | 95% CI Δ p50 | p99 ms | Δ p99 | mean ms | MW p | A | KS D | KS p | verdict |\n");
+        sb.append("|---|---|---|---|---|---|---|---|---|---|---|---|---|\n");
+        for (ScenarioComparison s : scenarios) {
+            String[] cells = cells(s);
+            sb.append("| ").append(String.join(" | ", cells)).append(" |\n");
+        }
+        return sb.toString();
+    }
+
+    // ------------------ HTML ------------------
+
+    public String toHtml() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<!DOCTYPE html>\n<html><head><meta charset=\"UTF-8\"><title>Benchmark comparison: ")
+                .append(html(baseline.run().get("plan"))).append("</title>\n<style>")
+                .append("body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}td:first-child,th:first-child{text-align:left}")
+                .append(".REGRESSION{background:#f8d7da}.IMPROVEMENT{background:#d4edda}.MISSING{background:#eee}.diff{background:#fff3cd}")
+                .append("</style></head><body>\n");
+        sb.append("<h1>Benchmark comparison: ").append(html(baseline.run().get("plan"))).append("</h1>\n");
+        sb.append("<p>Baseline <code>").append(html(baseline.runId())).append("</code> vs candidate <code>")
+                .append(html(candidate.runId())).append("</code><br>");
+        sb.append(String.format(Locale.ROOT, "alpha = %s, median threshold = %s, p99 threshold = %s, bootstrap = %d</p>%n",
+                settings.alpha(), percent(settings.threshold()), percent(settings.tailThreshold()), settings.bootstrapResamples()));
+        sb.append(String.format(Locale.ROOT, "<p><b>%d regression(s), %d improvement(s), %d unchanged, %d missing</b></p>%n",
+                count(Verdict.REGRESSION), count(Verdict.IMPROVEMENT), count(Verdict.UNCHANGED), count(Verdict.MISSING)));
+
+        sb.append("<h2>Environment</h2>\n<table><tr><th></th><th>baseline</th><th>candidate</th></tr>\n");
+        for (String[] row : metadataRows()) {
+            sb.append(differs(row) ? "<tr class=\"diff\">" : "<tr>");
+            sb.append("<td>").append(html(row[0])).append("</td><td>").append(html(row[1])).append("</td><td>")
+                    .append(html(row[2])).append("</td></tr>\n");
+        }
+        sb.append("</table>\n");
+
+        sb.append("<h2>Scenarios</h2>\n<table><tr><th>scenario</th><th>n</th><th>p50 ms</th><th>Δ p50</th><th>95% CI Δ p50</th>")
+                .append("<th>p99 ms</th><th>Δ p99</th><th>mean ms</th><th>MW p</th><th>A</th><th>KS D</th><th>KS p</th><th>verdict</th></tr>\n");
+        for (ScenarioComparison s : scenarios) {
+            sb.append("<tr class=\"").append(s.verdict()).append("\">");
+            for (String cell : cells(s)) {
+                sb.append("<td>").append(html(cell)).append("</td>");
+            }
+            sb.append("</tr>\n");
+        }
+        sb.append("</table>\n</body></html>\n");
+        return sb.toString();
+    }
+
+    // ------------------ chung ------------------
+
+    private String[] cells(ScenarioComparison s) {
+        if (s.verdict() == Verdict.MISSING) {
+            return new String[]{s.key(), s.baselineCount() + " → " + s.candidateCount(), "", "", "", "", "", "", "", "", "", "", "MISSING"};
+        }
+        return new String[]{
+                s.key(),
+                s.baselineCount() + " → " + s.candidateCount(),
+                String.format(Locale.ROOT, "%.3f → %.3f", s.baselineP50Ms(), s.candidateP50Ms()),
+                signedPercent(s.medianChange()),
+                signedPercent(s.medianChangeCi()[0]) + " … " + signedPercent(s.medianChangeCi()[1]),
+                String.format(Locale.ROOT, "%.3f → %.3f", s.baselineP99Ms(), s.candidateP99Ms()),
+                signedPercent(s.p99Change()),
+                String.format(Locale.ROOT, "%.3f → %.3f", s.baselineMeanMs(), s.candidateMeanMs()),
+                pValue(s.mannWhitney().pValue()),
+                String.format(Locale.ROOT, "%.3f", s.mannWhitney().superiority()),
+                String.format(Locale.ROOT, "%.3f", s.ks().d()),
+                pValue(s.ks().pValue()),
+                s.verdict().name()};
+    }
+
+    private static final String[] METADATA_KEYS = {"timestamp", "gitCommit", "gitBranch", "gitDirty", "javaVersion", "javaVm",
+            "heapMaxMb", "jvmArgs", "gc", "availableProcessors", "os", "activeProfiles", "database",
+            "datasetScaleFactor", "datasetRows", "scenarioSettings"};
+
+    private List<String[]> metadataRows() {
+        Map<String, Object> a = baseline.metadata();
+        Map<String, Object> b = candidate.metadata();
+        List<String[]> rows = new ArrayList<>();
+        for (String key : METADATA_KEYS) {
+            rows.add(new String[]{key, String.valueOf(a.get(key)), String.valueOf(b.get(key))});
+        }
+        return rows;
+    }
+
+    // Thời điểm chạy luôn khác nhau, không cần đánh dấu
+    private static boolean differs(String[] row) {
+        return !"timestamp".equals(row[0]) && !Objects.equals(row[1], row[2]);
+    }
+
+    private static String percent(double value) {
+        return String.format(Locale.ROOT, "%.1f%%", value * 100);
+    }
+
+    private static String signedPercent(double value) {
+        return String.format(Locale.ROOT, "%+.1f%%", value * 100);
+    }
+
+    private static String pValue(double p) {
+        return p < 1e-4 ? "<0.0001" : String.format(Locale.ROOT, "%.4f", p);
+    }
+
+    private static String html(Object value) {
+        return String.valueOf(value).replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
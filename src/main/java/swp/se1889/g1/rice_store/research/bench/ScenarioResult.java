@@ -0,0 +1,49 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import org.HdrHistogram.Histogram;
+
+// Kết quả đo một kịch bản; samplesNs giữ từng mẫu để ghi file raw một lần ở cuối
+// rowCounts: số entity Hibernate insert/update/delete mỗi lần gọi (ghi qua JdbcTemplate không được tính)
+public record ScenarioResult(String scenario, String type, Histogram histogram, long[] samplesNs,
+                             long[] queryCounts, long[] prepareCounts, long[] rowCounts, long wallTimeNs, int errors) {
+
+    public long count() {
+        return histogram.getTotalCount();
+    }
+
+    public double percentileMs(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    public double meanMs() {
+        return histogram.getMean() / 1_000_000.0;
+    }
+
+    public double maxMs() {
+        return histogram.getMaxValue() / 1_000_000.0;
+    }
+
+    // Thông lượng của cả pha đo (kể cả thời gian sinh tham số), thao tác / giây
+    public double throughput() {
+        return wallTimeNs == 0 ? 0 : count() * 1_000_000_000.0 / wallTimeNs;
+    }
+
+    public double avgQueries() {
+        return average(queryCounts);
+    }
+
+    public double avgPreparedStatements() {
+        return average(prepareCounts);
+    }
+
+    public double avgRowsWritten() {
+        return average(rowCounts);
+    }
+
+    private static double average(long[] values) {
+        if (values.length == 0 || values[0] < 0) return -1; // -1: không đọc được Hibernate Statistics
+        long sum = 0;
+        for (long v : values) sum += v;
+        return (double) sum / values.length;
+    }
+}
@@ -0,0 +1,132 @@
+package swp.se1889.g1.rice_store.research.fakedata;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ Ghi dữ liệu ra CSV (UTF-8, mỗi partition một file cho mỗi bảng: <out>/<table>/<partition>.csv)
+ và sinh <out>/load.sql để nạp bằng BULK INSERT trên SQL Server 2017+.
+ BULK INSERT ánh xạ cột theo vị trí, nên load.sql tạo view fakedata_<table> chỉ gồm các cột có trong CSV.
+ Đường dẫn trong load.sql là đường dẫn tuyệt đối lúc sinh: SQL Server phải đọc được thư mục này.
+*/
+public class CsvOutput implements DataOutput {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final Path outDir;
+    private final Map<String, List<Path>> filesByTable = new LinkedHashMap<>();
+
+    public CsvOutput(FakeDataConfig config) {
+        this.outDir = config.outDir().toAbsolutePath();
+        for (TableSpec t : TableSpec.ALL) {
+            filesByTable.put(t.name(), new ArrayList<>());
+        }
+    }
+
+    @Override
+    public void prepare() throws IOException {
+        for (TableSpec t : TableSpec.ALL) {
+            Files.createDirectories(outDir.resolve(t.name()));
+        }
+    }
+
+    @Override
+    public Partition open(String partitionName) {
+        return new CsvPartition(partitionName);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        try (PrintWriter sql = new PrintWriter(Files.newBufferedWriter(outDir.resolve("load.sql"), StandardCharsets.UTF_8))) {
+            sql.println("-- Sinh bởi FakeData --mode=csv: nạp vào database rỗng theo thứ tự khóa ngoại");
+            for (TableSpec t : TableSpec.ALL) {
+                String view = "fakedata_" + t.name();
+                sql.println("GO");
+                sql.println("CREATE OR ALTER VIEW " + view + " AS SELECT " + t.columnList() + " FROM " + t.name() + ";");
+                sql.println("GO");
+                List<Path> files;
+                synchronized (filesByTable) {
+                    files = new ArrayList<>(filesByTable.get(t.name()));
+                }
+                files.sort(null);
+                for (Path file : files) {
+                    sql.println("BULK INSERT " + view + " FROM '" + file + "' WITH (FORMAT = 'CSV', CODEPAGE = '65001', "
+                            + "FIELDTERMINATOR = ',', ROWTERMINATOR = '0x0a', KEEPNULLS"
+                            + (t.explicitId() ? ", KEEPIDENTITY" : "") + ", TABLOCK);");
+                }
+                sql.println("DROP VIEW " + view + ";");
+                if (t.explicitId()) {
+                    sql.println("DBCC CHECKIDENT ('" + t.name() + "', RESEED);");
+                }
+            }
+            sql.println("GO");
+            for (TableSpec t : TableSpec.ALL) {
+                sql.println("ALTER TABLE " + t.name() + " WITH CHECK CHECK CONSTRAINT ALL;");
+            }
+            for (String statement : DatabaseOutput.REBUILD_SUMMARIES) {
+                sql.println(statement + ";");
+            }
+            sql.println("GO");
+        }
+        System.out.println("CSV written to " + outDir + " (load with " + outDir.resolve("load.sql") + ")");
+    }
+
+    private class CsvPartition implements Partition {
+        private final String name;
+        private final Map<TableSpec, Writer> writers = new LinkedHashMap<>();
+
+        CsvPartition(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void add(TableSpec table, Object... row) throws IOException {
+            Writer writer = writers.get(table);
+            if (writer == null) {
+                Path file = outDir.resolve(table.name()).resolve(name + ".csv");
+                writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16);
+                writers.put(table, writer);
+                synchronized (filesByTable) {
+                    filesByTable.get(table.name()).add(file);
+                }
+            }
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(format(row[i]));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Writer writer : writers.values()) {
+                writer.close();
+            }
+        }
+    }
+
+    // null -> ô trống (KEEPNULLS), chuỗi có dấu phẩy / nháy được đặt trong nháy kép
+    private static String format(Object value) {
+        if (value == null) return "";
+        if (value instanceof LocalDateTime dt) return dt.format(TIMESTAMP);
+        if (value instanceof Boolean b) return b ? "1" : "0";
+        if (value instanceof BigDecimal d) return d.toPlainString();
+        String s = value.toString();
+        if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0) {
+            return '"' + s.replace("\"", "\"\"") + '"';
+        }
+        return s;
+    }
+}
@@ -0,0 +1,29 @@
+package swp.se1889.g1.rice_store.research.fakedata;
+
+/*
+ Nơi nhận dòng dữ liệu của FakeData. Mỗi partition mở một Partition riêng (một kết nối hoặc một bộ file),
+ nên các partition ghi song song mà không tranh chấp.
+*/
+public interface DataOutput extends AutoCloseable {
+
+    // Kiểm tra / làm sạch bảng đích trước khi sinh dữ liệu
+    void prepare() throws Exception;
+
+    Partition open(String partitionName) throws Exception;
+
+    // Sau khi mọi partition xong: reseed identity, kiểm tra lại ràng buộc, dựng bảng tổng hợp...
+    void finish() throws Exception;
+
+    @Override
+    default void close() throws Exception {
+    }
+
+    interface Partition extends AutoCloseable {
+
+        // Giá trị theo đúng thứ tự TableSpec.columns(); LocalDateTime / BigDecimal / Long / Integer / String / Boolean / null
+        void add(TableSpec table, Object... row) throws Exception;
+
+        // Ghi toàn bộ dòng đang đệm (bảng cha trước bảng con) và commit
+        void close() throws Exception;
+    }
+}
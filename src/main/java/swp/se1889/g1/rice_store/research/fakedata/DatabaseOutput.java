@@ -0,0 +1,224 @@
+package swp.se1889.g1.rice_store.research.fakedata;
+
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerException;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ Ghi thẳng vào DB, mỗi partition một kết nối riêng.
+ - bulk = false: INSERT theo batch (IDENTITY_INSERT cho bảng có id do generator chọn nếu là SQL Server)
+ - bulk = true : SQLServerBulkCopy (KEEPIDENTITY), sau đó kiểm tra lại FK để ràng buộc vẫn "trusted"
+ Dòng được đệm theo bảng; khi một bảng đầy batch thì xả tất cả các bảng theo thứ tự TableSpec.ALL
+ (bảng cha trước) rồi commit, nên khóa ngoại luôn thỏa trong cùng kết nối.
+*/
+public class DatabaseOutput implements DataOutput {
+
+    // Dựng lại các bảng tổng hợp sau khi nạp (cùng câu lệnh backfill trong database/sqlswp1.sql)
+    static final List<String> REBUILD_SUMMARIES = List.of(
+            "DELETE FROM debt_monthly_summary",
+            """
+            INSERT INTO debt_monthly_summary (customer_id, [year], [month], total_amount, record_count)
+            SELECT customer_id, YEAR(create_on), MONTH(create_on), SUM(amount), COUNT(*)
+            FROM debt_records
+            WHERE is_deleted = 0 AND create_on IS NOT NULL
+            GROUP BY customer_id, YEAR(create_on), MONTH(create_on)""",
+            "DELETE FROM product_sales_daily",
+            """
+            INSERT INTO product_sales_daily (store_id, sale_date, product_id, quantity, revenue)
+            SELECT i.store_id, CAST(i.created_at AS DATE), d.product_id, SUM(d.quantity), SUM(d.total_price)
+            FROM invoice_details d
+            JOIN invoices i ON i.id = d.invoice_id
+            WHERE i.type = 'Sale' AND i.is_deleted = 0
+            GROUP BY i.store_id, CAST(i.created_at AS DATE), d.product_id""");
+
+    private final FakeDataConfig config;
+    private final boolean bulk;
+    private boolean sqlServer;
+
+    public DatabaseOutput(FakeDataConfig config, boolean bulk) {
+        this.config = config;
+        this.bulk = bulk;
+    }
+
+    private Connection connect() throws SQLException {
+        Connection conn = DriverManager.getConnection(config.url(), config.user(), config.password());
+        conn.setAutoCommit(false);
+        return conn;
+    }
+
+    @Override
+    public void prepare() throws SQLException {
+        try (Connection conn = connect(); Statement s = conn.createStatement()) {
+            sqlServer = conn.getMetaData().getDatabaseProductName().toLowerCase().contains("microsoft");
+            if (bulk && !sqlServer) {
+                throw new IllegalStateException("--mode=bulk chỉ dùng được với SQL Server");
+            }
+            if (config.truncate()) {
+                // Bảng con trước bảng cha
+                List<String> tables = new ArrayList<>(List.of("debt_monthly_summary", "product_sales_daily"));
+                for (int i = TableSpec.ALL.size() - 1; i >= 0; i--) {
+                    tables.add(TableSpec.ALL.get(i).name());
+                }
+                for (String table : tables) {
+                    s.executeUpdate("DELETE FROM " + table);
+                }
+                if (sqlServer) {
+                    for (TableSpec t : TableSpec.ALL) {
+                        s.execute("DBCC CHECKIDENT ('" + t.name() + "', RESEED, 0)");
+                    }
+                }
+                conn.commit();
+                System.out.println("Cleared existing data");
+            }
+            // id do generator chọn bắt đầu từ 1: bảng đích phải trống
+            for (TableSpec t : TableSpec.ALL) {
+                try (ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM " + t.name())) {
+                    rs.next();
+                    if (rs.getLong(1) > 0) {
+                        throw new IllegalStateException("Bảng " + t.name() + " đã có dữ liệu, chạy lại với --truncate");
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public Partition open(String partitionName) throws SQLException {
+        return new DbPartition(connect());
+    }
+
+    @Override
+    public void finish() throws SQLException {
+        try (Connection conn = connect(); Statement s = conn.createStatement()) {
+            if (sqlServer) {
+                for (TableSpec t : TableSpec.ALL) {
+                    if (t.explicitId()) s.execute("DBCC CHECKIDENT ('" + t.name() + "', RESEED)");
+                }
+                if (bulk) {
+                    // Bulk copy không kiểm tra FK: kiểm tra lại để optimizer vẫn tin các ràng buộc
+                    for (TableSpec t : TableSpec.ALL) {
+                        s.execute("ALTER TABLE " + t.name() + " WITH CHECK CHECK CONSTRAINT ALL");
+                    }
+                }
+            } else {
+                // DB nhúng (H2): cột IDENTITY không tự nhảy khi chèn id tường minh, đặt lại giá trị kế tiếp
+                for (TableSpec t : TableSpec.ALL) {
+                    if (!t.explicitId()) continue;
+                    long next;
+                    try (ResultSet rs = s.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + t.name())) {
+                        rs.next();
+                        next = rs.getLong(1);
+                    }
+                    s.execute("ALTER TABLE " + t.name() + " ALTER COLUMN id RESTART WITH " + next);
+                }
+            }
+            for (String sql : REBUILD_SUMMARIES) {
+                s.execute(sql);
+            }
+            conn.commit();
+        }
+    }
+
+    private class DbPartition implements Partition {
+        private final Connection conn;
+        private final Map<TableSpec, List<Object[]>> buffers = new LinkedHashMap<>();
+        private final Map<TableSpec, PreparedStatement> statements = new LinkedHashMap<>();
+        private String identityInsertTable;
+
+        DbPartition(Connection conn) {
+            this.conn = conn;
+            for (TableSpec t : TableSpec.ALL) {
+                buffers.put(t, new ArrayList<>());
+            }
+        }
+
+        @Override
+        public void add(TableSpec table, Object... row) throws SQLException {
+            List<Object[]> buffer = buffers.get(table);
+            buffer.add(row);
+            if (buffer.size() >= config.batchSize()) {
+                flushAll();
+            }
+        }
+
+        private void flushAll() throws SQLException {
+            for (Map.Entry<TableSpec, List<Object[]>> e : buffers.entrySet()) {
+                if (e.getValue().isEmpty()) continue;
+                if (bulk) {
+                    bulkCopy(e.getKey(), e.getValue());
+                } else {
+                    insertBatch(e.getKey(), e.getValue());
+                }
+                e.getValue().clear();
+            }
+            conn.commit();
+        }
+
+        private void insertBatch(TableSpec table, List<Object[]> rows) throws SQLException {
+            if (table.explicitId() && sqlServer && !table.name().equals(identityInsertTable)) {
+                // Mỗi session chỉ bật IDENTITY_INSERT cho một bảng tại một thời điểm
+                try (Statement s = conn.createStatement()) {
+                    if (identityInsertTable != null) s.execute("SET IDENTITY_INSERT " + identityInsertTable + " OFF");
+                    s.execute("SET IDENTITY_INSERT " + table.name() + " ON");
+                }
+                identityInsertTable = table.name();
+            }
+            PreparedStatement ps = statements.get(table);
+            if (ps == null) {
+                String placeholders = String.join(",", Collections.nCopies(table.columns().size(), "?"));
+                ps = conn.prepareStatement("INSERT INTO " + table.name() + " (" + table.columnList() + ") VALUES (" + placeholders + ")");
+                statements.put(table, ps);
+            }
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    Object value = row[i] instanceof LocalDateTime dt ? Timestamp.valueOf(dt) : row[i];
+                    ps.setObject(i + 1, value, table.columns().get(i).sqlType());
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        private void bulkCopy(TableSpec table, List<Object[]> rows) throws SQLServerException {
+            try (SQLServerBulkCopy copy = new SQLServerBulkCopy(conn)) {
+                SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+                options.setKeepIdentity(table.explicitId());
+                options.setKeepNulls(true);
+                options.setBatchSize(rows.size());
+                options.setBulkCopyTimeout(0);
+                copy.setBulkCopyOptions(options);
+                copy.setDestinationTableName(table.name());
+                for (TableSpec.Column c : table.columns()) {
+                    copy.addColumnMapping(c.name(), c.name());
+                }
+                copy.writeToServer(new ListBulkData(table, rows));
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flushAll();
+                for (PreparedStatement ps : statements.values()) {
+                    ps.close();
+                }
+            } finally {
+                conn.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package swp.se1889.g1.rice_store.research.fakedata;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ Tham số dòng lệnh của FakeData (dạng --key=value), ví dụ:
+   --sf=0.1 --threads=8 --mode=bulk --truncate
+   --sf=1 --mode=csv --out=fakedata-csv
+ Kết nối lấy từ --url/--user/--password, nếu không có thì từ biến môi trường FAKEDATA_URL / FAKEDATA_USER / FAKEDATA_PASSWORD.
+ Ngày mốc --as-of (yyyy-MM-dd) mặc định là DEFAULT_AS_OF cố định, không phải hôm nay: cùng --seed/--sf thì ngày tạo,
+ nhóm tuổi nợ và bảng tổng hợp giống hệt nhau dù chạy vào ngày nào.
+*/
+public record FakeDataConfig(String url, String user, String password, double scaleFactor, int threads, Mode mode,
+                             Path outDir, long seed, LocalDate asOf, boolean truncate, int batchSize) {
+
+    public static final LocalDate DEFAULT_AS_OF = LocalDate.of(2025, 1, 1);
+
+    public enum Mode {
+        JDBC,  // INSERT theo batch (chạy được trên mọi DB có JDBC)
+        BULK,  // SQLServerBulkCopy
+        CSV    // ghi file CSV + load.sql (BULK INSERT) để nạp sau
+    }
+
+    public static FakeDataConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Tham số không hợp lệ: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return new FakeDataConfig(
+                option(options, "url", "FAKEDATA_URL", "jdbc:sqlserver://localhost:1433;databaseName=rice_store;encrypt=false"),
+                option(options, "user", "FAKEDATA_USER", "sa"),
+                option(options, "password", "FAKEDATA_PASSWORD", "123"),
+                Double.parseDouble(options.getOrDefault("sf", "1")),
+                Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Mode.valueOf(options.getOrDefault("mode", "jdbc").toUpperCase(Locale.ROOT)),
+                Path.of(options.getOrDefault("out", "fakedata-csv")),
+                Long.parseLong(options.getOrDefault("seed", "12345")),
+                options.containsKey("as-of") ? LocalDate.parse(options.get("as-of")) : DEFAULT_AS_OF,
+                Boolean.parseBoolean(options.getOrDefault("truncate", "false")),
+                Integer.parseInt(options.getOrDefault("batch", "5000")));
+    }
+
+    private static String option(Map<String, String> options, String key, String env, String defaultValue) {
+        String value = options.get(key);
+        if (value == null) value = System.getenv(env);
+        return value != null ? value : defaultValue;
+    }
+}
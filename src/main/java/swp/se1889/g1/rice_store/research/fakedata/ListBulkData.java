@@ -0,0 +1,66 @@
+package swp.se1889.g1.rice_store.research.fakedata;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Nguồn cho SQLServerBulkCopy đọc từ danh sách dòng đang đệm trong bộ nhớ
+class ListBulkData implements ISQLServerBulkData {
+
+    private final TableSpec table;
+    private final transient List<Object[]> rows;
+    private int index = -1;
+
+    ListBulkData(TableSpec table, List<Object[]> rows) {
+        this.table = table;
+        this.rows = rows;
+    }
+
+    @Override
+    public Set<Integer> getColumnOrdinals() {
+        Set<Integer> ordinals = new LinkedHashSet<>();
+        for (int i = 1; i <= table.columns().size(); i++) {
+            ordinals.add(i);
+        }
+        return ordinals;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return table.columns().get(column - 1).name();
+    }
+
+    @Override
+    public int getColumnType(int column) {
+        return table.columns().get(column - 1).sqlType();
+    }
+
+    @Override
+    public int getPrecision(int column) {
+        return table.columns().get(column - 1).precision();
+    }
+
+    @Override
+    public int getScale(int column) {
+        return table.columns().get(column - 1).scale();
+    }
+
+    @Override
+    public Object[] getRowData() {
+        Object[] row = rows.get(index);
+        Object[] converted = new Object[row.length];
+        for (int i = 0; i < row.length; i++) {
+            converted[i] = row[i] instanceof LocalDateTime dt ? Timestamp.valueOf(dt) : row[i];
+        }
+        return converted;
+    }
+
+    @Override
+    public boolean next() {
+        return ++index < rows.size();
+    }
+}
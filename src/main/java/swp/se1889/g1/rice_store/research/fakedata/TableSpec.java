@@ -0,0 +1,86 @@
+package swp.se1889.g1.rice_store.research.fakedata;
+
+import java.sql.Types;
+import java.util.List;
+
+/*
+ Bảng đích và thứ tự cột của các dòng FakeData sinh ra.
+ explicitId = true: cột đầu tiên là id do generator chọn (IDENTITY_INSERT / KEEPIDENTITY),
+ để các partition chạy song song biết trước khóa của nhau mà không cần đọc lại generated keys.
+*/
+public record TableSpec(String name, boolean explicitId, List<Column> columns) {
+
+    public record Column(String name, int sqlType, int precision, int scale) {
+    }
+
+    public static Column bigint(String name) {
+        return new Column(name, Types.BIGINT, 19, 0);
+    }
+
+    public static Column integer(String name) {
+        return new Column(name, Types.INTEGER, 10, 0);
+    }
+
+    public static Column text(String name, int length) {
+        return new Column(name, Types.NVARCHAR, length, 0);
+    }
+
+    public static Column money(String name) {
+        return new Column(name, Types.DECIMAL, 15, 2);
+    }
+
+    public static Column timestamp(String name) {
+        return new Column(name, Types.TIMESTAMP, 23, 3);
+    }
+
+    public static Column bit(String name) {
+        return new Column(name, Types.BIT, 1, 0);
+    }
+
+    public static final TableSpec USERS = new TableSpec("users", true, List.of(
+            bigint("id"), text("username", 50), text("password", 255), text("email", 100), text("role", 20),
+            text("name", 100), text("address", 255), text("phone", 20), text("note", 255),
+            timestamp("created_at"), timestamp("updated_at"), bigint("created_by"), bigint("updated_by"), bit("is_deleted")));
+
+    public static final TableSpec PRODUCTS = new TableSpec("products", true, List.of(
+            bigint("id"), text("name", 100), text("description", 255), money("price"),
+            timestamp("created_at"), timestamp("updated_at"), bigint("created_by"), bit("is_deleted")));
+
+    public static final TableSpec STORES = new TableSpec("stores", true, List.of(
+            bigint("id"), text("name", 50), text("address", 255), text("phone", 20), text("email", 100), text("note", 255),
+            timestamp("created_at"), timestamp("updated_at"), text("created_by", 50), bit("is_deleted")));
+
+    public static final TableSpec CUSTOMERS = new TableSpec("customers", true, List.of(
+            bigint("id"), text("name", 100), text("phone", 20), text("address", 255), text("email", 255), money("debt_balance"),
+            timestamp("created_at"), timestamp("updated_at"), bigint("created_by"), bit("is_deleted")));
+
+    public static final TableSpec ZONES = new TableSpec("zones", true, List.of(
+            bigint("id"), text("name", 100), bigint("store_id"), text("address", 255), bigint("product_id"), integer("quantity"),
+            timestamp("created_at"), timestamp("updated_at"), bigint("created_by"), bit("is_deleted")));
+
+    public static final TableSpec INVOICES = new TableSpec("invoices", true, List.of(
+            bigint("id"), bigint("store_id"), bigint("customer_id"), money("total_price"), money("discount"), integer("quantity"),
+            money("final_amount"), text("payment_status", 20), text("note", 255), text("type", 20),
+            timestamp("created_at"), timestamp("updated_at"), bigint("created_by"), bit("is_deleted")));
+
+    public static final TableSpec INVOICE_DETAILS = new TableSpec("invoice_details", false, List.of(
+            bigint("invoice_id"), bigint("product_id"), integer("quantity"), money("unit_price"), money("total_price"),
+            bigint("zone_id"), bigint("customer_id"), timestamp("created_at"), timestamp("updated_at"),
+            bigint("created_by"), bigint("updated_by"), bit("is_deleted")));
+
+    public static final TableSpec DEBT_RECORDS = new TableSpec("debt_records", false, List.of(
+            bigint("customer_id"), text("type", 50), money("amount"), text("note", 255), timestamp("create_on"),
+            timestamp("created_at"), timestamp("updated_at"), bigint("created_by"), bit("is_deleted")));
+
+    // Thứ tự khóa ngoại: bảng cha trước bảng con
+    public static final List<TableSpec> ALL = List.of(USERS, PRODUCTS, STORES, CUSTOMERS, ZONES, INVOICES, INVOICE_DETAILS, DEBT_RECORDS);
+
+    public String columnList() {
+        StringBuilder sb = new StringBuilder();
+        for (Column c : columns) {
+            if (!sb.isEmpty()) sb.append(", ");
+            sb.append(c.name());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package swp.se1889.g1.rice_store.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import swp.se1889.g1.rice_store.dto.CustomerChangeEvent;
+import swp.se1889.g1.rice_store.repository.CustomerChangeAuditRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Writer nền cho lịch sử thay đổi khách hàng.
+ - Request chỉ ghi outbox (một JDBC batch trong transaction cập nhật khách hàng), sau commit đẩy event vào hàng đợi có giới hạn.
+ - Thread nền gom event thành batch, chuyển từ outbox sang customer_change_histories.
+ - Event bị rơi (hàng đợi đầy, lỗi ghi, app restart) vẫn nằm trong outbox và được lượt quét định kỳ xử lý lại.
+*/
+@Service
+public class CustomerChangeAuditWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerChangeAuditWriter.class);
+
+    @Autowired
+    private CustomerChangeAuditRepository auditRepository;
+
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<CustomerChangeEvent> queue;
+    private final int batchSize;
+    private final long sweepDelaySeconds;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public CustomerChangeAuditWriter(PlatformTransactionManager transactionManager,
+                                     @Value("${audit.customer.queue-capacity:10000}") int queueCapacity,
+                                     @Value("${audit.customer.batch-size:200}") int batchSize,
+                                     @Value("${audit.customer.sweep-delay-seconds:60}") long sweepDelaySeconds) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.sweepDelaySeconds = sweepDelaySeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "customer-audit-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public void enqueue(List<CustomerChangeEvent> events) {
+        for (CustomerChangeEvent event : events) {
+            if (!queue.offer(event)) {
+                // Không chặn request: event vẫn còn trong outbox, lượt quét sẽ ghi sau
+                log.warn("Customer audit queue is full, event {} left for the outbox sweep", event.eventId());
+            }
+        }
+    }
+
+    // Quét các event đã nằm trong outbox quá lâu (bị rơi khỏi hàng đợi hoặc còn lại từ lần chạy trước)
+    @Scheduled(fixedDelayString = "${audit.customer.sweep-interval-ms:60000}")
+    public void sweepOutbox() {
+        LocalDateTime olderThan = LocalDateTime.now().minusSeconds(sweepDelaySeconds);
+        List<CustomerChangeEvent> pending;
+        do {
+            pending = auditRepository.findPending(olderThan, batchSize);
+            if (!pending.isEmpty()) {
+                flush(pending);
+            }
+        } while (pending.size() == batchSize);
+    }
+
+    private void drainLoop() {
+        List<CustomerChangeEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                CustomerChangeEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} customer audit events, they stay in the outbox", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<CustomerChangeEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> auditRepository.moveToHistory(events));
+    }
+}
@@ -3,24 +3,29 @@ package swp.se1889.g1.rice_store.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import swp.se1889.g1.rice_store.dto.CustomerChangeEvent;
 import swp.se1889.g1.rice_store.dto.CustomerChangeHistoryDTO;
 import swp.se1889.g1.rice_store.entity.Customer;
 import swp.se1889.g1.rice_store.entity.CustomerChangeHistory;
 import swp.se1889.g1.rice_store.entity.Store;
 import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.repository.CustomerChangeAuditRepository;
 import swp.se1889.g1.rice_store.repository.CustomerChangeHistoryRepository;
 import swp.se1889.g1.rice_store.repository.StoreRepository;
 import swp.se1889.g1.rice_store.repository.UserRepository;
+import swp.se1889.g1.rice_store.specification.CustomerChangeHistorySpecifications;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class CustomerChangeHistoryService {
@@ -32,80 +37,85 @@ public class CustomerChangeHistoryService {
     @Autowired
     private StoreRepository storeRepository;
 
+    @Autowired
+    private CustomerChangeAuditRepository auditRepository;
+
+    @Autowired
+    private CustomerChangeAuditWriter auditWriter;
+
     @Autowired
     public CustomerChangeHistoryService(CustomerChangeHistoryRepository changeHistoryRepository, CustomerService customerService) {
         this.changeHistoryRepository = changeHistoryRepository;
     }
 
 
-    private String getAdditionalInfo() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof UserDetails) {
-            String username = ((UserDetails) principal).getUsername();
-            User user = userRepository.findByUsername(username);
-            if (user.getRole().equals("ROLE_OWNER")) {
-                return user.getUsername();
-            } else {
-                Optional<Store> store = storeRepository.findById(user.getCreatedBy());
-                User user2 = userRepository.findByUsername(store.get().getCreatedBy());
-                return user2.getUsername();
-            }
+    // Xác định owner một lần cho cả lần cập nhật, thay vì 2-3 truy vấn cho mỗi trường thay đổi
+    private User resolveOwner(User changedBy) {
+        if (changedBy == null) {
+            return null;
         }
-        return null;
+        if (changedBy.getRole().equals("ROLE_OWNER")) {
+            return changedBy;
+        }
+        Optional<Store> store = storeRepository.findById(changedBy.getCreatedBy());
+        return store.map(s -> userRepository.findByUsername(s.getCreatedBy())).orElse(null);
     }
 
     @Transactional
     public void trackCustomerChanges(Customer originalCustomer, Customer updatedCustomer, User changedBy) {
-        List<CustomerChangeHistory> changeHistories = new ArrayList<>();
-
-        if (!compareValues(originalCustomer.getName(), updatedCustomer.getName())) {
-            CustomerChangeHistory change = createChangeHistory(
-                    originalCustomer, "Họ và Tên",
-                    updatedCustomer.getName(),
-                    originalCustomer.getName(), changedBy);
-            change.setAdditionalInfo(getAdditionalInfo());
-            changeHistories.add(change);
+        List<CustomerChangeEvent> events = new ArrayList<>();
+        User owner = null;
+        boolean ownerResolved = false;
+
+        String[][] fields = {
+                {CustomerChangeHistory.FIELD_NAME, updatedCustomer.getName(), originalCustomer.getName()},
+                {CustomerChangeHistory.FIELD_PHONE, updatedCustomer.getPhone(), originalCustomer.getPhone()},
+                {CustomerChangeHistory.FIELD_ADDRESS, updatedCustomer.getAddress(), originalCustomer.getAddress()},
+                {CustomerChangeHistory.FIELD_EMAIL, updatedCustomer.getEmail(), originalCustomer.getEmail()}
+        };
+        LocalDateTime changedAt = LocalDateTime.now();
+        for (String[] field : fields) {
+            if (compareValues(field[2], field[1])) {
+                continue;
+            }
+            if (!ownerResolved) {
+                owner = resolveOwner(changedBy);
+                ownerResolved = true;
+            }
+            events.add(createChangeEvent(originalCustomer, field[0], field[1], field[2], owner, changedBy, changedAt));
         }
-
-        if (!compareValues(originalCustomer.getPhone(), updatedCustomer.getPhone())) {
-            CustomerChangeHistory change = createChangeHistory(
-                    originalCustomer, "Số điện thoại",
-                    updatedCustomer.getPhone(),
-                    originalCustomer.getPhone(), changedBy);
-            change.setAdditionalInfo(getAdditionalInfo());
-            changeHistories.add(change);
+        if (events.isEmpty()) {
+            return;
         }
 
-        if (!compareValues(originalCustomer.getAddress(), updatedCustomer.getAddress())) {
-            CustomerChangeHistory change = createChangeHistory(
-                    originalCustomer, "Địa Chỉ",
-                    updatedCustomer.getAddress(),
-                    originalCustomer.getAddress(), changedBy);
-            change.setAdditionalInfo(getAdditionalInfo());
-            changeHistories.add(change);
+        // Outbox được ghi cùng transaction với khách hàng; bảng lịch sử do writer nền ghi sau khi commit
+        auditRepository.insertOutbox(events);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditWriter.enqueue(events);
+                }
+            });
+        } else {
+            auditWriter.enqueue(events);
         }
-
-        if (!compareValues(originalCustomer.getEmail(), updatedCustomer.getEmail())) {
-            CustomerChangeHistory change = createChangeHistory(
-                    originalCustomer, "email",
-                    updatedCustomer.getEmail(),
-                    originalCustomer.getEmail(), changedBy);
-            change.setAdditionalInfo(getAdditionalInfo());
-            changeHistories.add(change);
-        }
-
-        changeHistoryRepository.saveAll(changeHistories);
     }
 
-    private CustomerChangeHistory createChangeHistory(Customer customer, String field,
-                                                      String oldValue, String newValue,
-                                                      User changedBy) {
-        return new CustomerChangeHistory(
-                customer,
+    private CustomerChangeEvent createChangeEvent(Customer customer, String field,
+                                                  String oldValue, String newValue,
+                                                  User owner, User changedBy,
+                                                  LocalDateTime changedAt) {
+        return new CustomerChangeEvent(
+                UUID.randomUUID(),
+                customer.getId(),
                 field,
                 oldValue != null ? oldValue : "N/A",
                 newValue != null ? newValue : "N/A",
-                changedBy
+                owner != null ? owner.getUsername() : null,
+                owner != null ? owner.getId() : null,
+                changedBy != null ? changedBy.getId() : null,
+                changedAt
         );
     }
 
@@ -128,6 +138,7 @@ public class CustomerChangeHistoryService {
         );
     }
 
+    @Transactional(readOnly = true)
     public Page<CustomerChangeHistoryDTO> searchCustomerChanges(
             String customerName,
             String changedField,
@@ -139,19 +150,27 @@ public class CustomerChangeHistoryService {
             Pageable pageable
     ) {
 
-        Page<CustomerChangeHistory> changePage = changeHistoryRepository.advancedSearchCustomerChangeHistory(
-                customerName, changedField, oldValue, changedBy, startDate, endDate, addInfo.getUsername(), pageable
-        );
+        Long ownerId = addInfo.getId();
+        Specification<CustomerChangeHistory> spec = Specification.where(CustomerChangeHistorySpecifications.ownerEquals(ownerId));
+
+        if (startDate != null)
+            spec = spec.and(CustomerChangeHistorySpecifications.changedAtFrom(startDate));
+
+        if (endDate != null)
+            spec = spec.and(CustomerChangeHistorySpecifications.changedAtTo(endDate));
+
+        if (changedField != null && !changedField.isBlank())
+            spec = spec.and(CustomerChangeHistorySpecifications.changedFieldEquals(changedField));
+
+        if (oldValue != null && !oldValue.isBlank())
+            spec = spec.and(CustomerChangeHistorySpecifications.valueMatchesTokens(ownerId, oldValue));
+
+        if (customerName != null && !customerName.isBlank())
+            spec = spec.and(CustomerChangeHistorySpecifications.customerNameContains(customerName));
+
+        if (changedBy != null && !changedBy.isBlank())
+            spec = spec.and(CustomerChangeHistorySpecifications.changedByNameContains(changedBy));
 
-        return changePage.map(change -> new CustomerChangeHistoryDTO(
-                change.getId(),
-                change.getCustomer().getId(),
-                change.getCustomer().getName(),
-                change.getChangedField(),
-                change.getOldValue(),
-                change.getNewValue(),
-                change.getChangedBy().getUsername(),
-                change.getChangedAt()
-        ));
+        return changeHistoryRepository.searchHistories(spec, pageable);
     }
 }
\ No newline at end of file
@@ -0,0 +1,337 @@
+package swp.se1889.g1.rice_store.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import swp.se1889.g1.rice_store.dto.CustomerDTO;
+import swp.se1889.g1.rice_store.dto.CustomerImportReportDTO;
+import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.repository.CustomerBulkRepository;
+import swp.se1889.g1.rice_store.repository.CustomerRepository;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/*
+ Nhập khách hàng hàng loạt từ CSV/XLSX.
+ File được đọc tuần tự từng dòng (CSV tự parse, XLSX qua SAX của POI), gom thành chunk:
+ - trùng trong file: HashSet số điện thoại / email đã gặp
+ - trùng trong DB: mỗi chunk một truy vấn IN cho phone và một cho email
+ - dòng hợp lệ được INSERT bằng JDBC batch, mỗi chunk một transaction; batch vi phạm ràng buộc
+   (ví dụ khách hàng được thêm đồng thời) thì chunk đó được chèn lại từng dòng để chỉ báo lỗi đúng dòng
+ - báo cáo liệt kê các chunk đã commit; lỗi làm dừng giữa chừng vẫn trả báo cáo kèm abortedMessage
+ Cột theo thứ tự: Tên, Số điện thoại, Địa chỉ, Email, Dư nợ (tuỳ chọn); dòng đầu tiên có dữ liệu là tiêu đề.
+ Số dòng trong báo cáo: CSV là thứ tự bản ghi (ô có xuống dòng vẫn tính một dòng), XLSX là số hàng trong sheet.
+*/
+@Service
+public class CustomerImportService {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerBulkRepository customerBulkRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CustomerImportService(PlatformTransactionManager transactionManager,
+                                 @Value("${customer.import.chunk-size:500}") int chunkSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public CustomerImportReportDTO importCustomers(MultipartFile file) throws IOException {
+        User currentUser = customerService.getCurrentUser();
+        if (currentUser == null) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại.");
+        }
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+
+        if (!filename.endsWith(".xlsx") && !filename.endsWith(".csv")) {
+            throw new RuntimeException("Chỉ hỗ trợ file .csv hoặc .xlsx");
+        }
+
+        ImportSession session = new ImportSession(currentUser.getId());
+        try {
+            if (filename.endsWith(".xlsx")) {
+                readXlsx(file, session);
+            } else {
+                try (InputStream in = file.getInputStream()) {
+                    readCsv(in, session);
+                }
+            }
+            session.flush();
+        } catch (IOException | RuntimeException e) {
+            if (session.report.getCommittedChunks().isEmpty()) {
+                throw e;
+            }
+            session.report.setAbortedMessage(e.getMessage());
+        }
+        return session.report;
+    }
+
+    // ------------------ xử lý theo chunk ------------------
+
+    private class ImportSession {
+        private final Long createdBy;
+        private final CustomerImportReportDTO report = new CustomerImportReportDTO();
+        private final Set<String> seenPhones = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<ImportRow> chunk = new ArrayList<>();
+        private boolean headerSkipped;
+
+        ImportSession(Long createdBy) {
+            this.createdBy = createdBy;
+        }
+
+        void accept(int rowNumber, List<String> cells) {
+            if (cells.stream().allMatch(c -> c == null || c.isBlank())) {
+                return; // dòng trống
+            }
+            if (!headerSkipped) {
+                headerSkipped = true;
+                return; // dòng tiêu đề
+            }
+            report.setTotalRows(report.getTotalRows() + 1);
+
+            CustomerDTO dto = new CustomerDTO();
+            dto.setName(cell(cells, 0));
+            dto.setPhone(cell(cells, 1));
+            dto.setAddress(cell(cells, 2));
+            dto.setEmail(cell(cells, 3));
+            String debt = cell(cells, 4);
+            if (debt != null && !debt.isEmpty()) {
+                try {
+                    dto.setDebtBalance(new BigDecimal(debt));
+                } catch (NumberFormatException e) {
+                    report.addError(rowNumber, "Dư nợ không hợp lệ: " + debt);
+                    return;
+                }
+            }
+
+            Set<ConstraintViolation<CustomerDTO>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                report.addError(rowNumber, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (!seenPhones.add(dto.getPhone())) {
+                report.addError(rowNumber, "Số điện thoại bị trùng trong file: " + dto.getPhone());
+                return;
+            }
+            if (!seenEmails.add(dto.getEmail().toLowerCase(Locale.ROOT))) {
+                report.addError(rowNumber, "Email bị trùng trong file: " + dto.getEmail());
+                return;
+            }
+
+            chunk.add(new ImportRow(rowNumber, dto));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) return;
+
+            Set<String> phones = chunk.stream().map(r -> r.customer.getPhone()).collect(Collectors.toSet());
+            Set<String> emails = chunk.stream().map(r -> r.customer.getEmail()).collect(Collectors.toSet());
+            Set<String> existingPhones = new HashSet<>(customerRepository.findExistingPhones(phones));
+            Set<String> existingEmails = customerRepository.findExistingEmails(emails).stream()
+                    .filter(e -> e != null)
+                    .map(e -> e.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+
+            List<ImportRow> valid = new ArrayList<>(chunk.size());
+            for (ImportRow row : chunk) {
+                if (existingPhones.contains(row.customer.getPhone())) {
+                    report.addError(row.rowNumber, "Số điện thoại đã tồn tại: " + row.customer.getPhone());
+                } else if (existingEmails.contains(row.customer.getEmail().toLowerCase(Locale.ROOT))) {
+                    report.addError(row.rowNumber, "Email đã tồn tại: " + row.customer.getEmail());
+                } else {
+                    valid.add(row);
+                }
+            }
+            if (!valid.isEmpty()) {
+                int inserted = insertChunk(valid);
+                report.setImportedRows(report.getImportedRows() + inserted);
+                if (inserted > 0) {
+                    report.addCommittedChunk(valid.get(0).rowNumber, valid.get(valid.size() - 1).rowNumber, inserted);
+                }
+            }
+            chunk.clear();
+        }
+
+        // Cả chunk trong một batch; nếu vi phạm ràng buộc thì transaction đã rollback, chèn lại từng dòng
+        private int insertChunk(List<ImportRow> rows) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> customerBulkRepository.insertAll(
+                        rows.stream().map(ImportRow::customer).collect(Collectors.toList()), createdBy));
+                return rows.size();
+            } catch (DataIntegrityViolationException batchFailure) {
+                int inserted = 0;
+                for (ImportRow row : rows) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                                customerBulkRepository.insertAll(List.of(row.customer), createdBy));
+                        inserted++;
+                    } catch (DataIntegrityViolationException e) {
+                        report.addError(row.rowNumber, "Số điện thoại hoặc email đã tồn tại: "
+                                + row.customer.getPhone() + " / " + row.customer.getEmail());
+                    }
+                }
+                return inserted;
+            }
+        }
+
+        private String cell(List<String> cells, int index) {
+            if (index >= cells.size() || cells.get(index) == null) return null;
+            String value = cells.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private record ImportRow(int rowNumber, CustomerDTO customer) {
+    }
+
+    // ------------------ đọc file ------------------
+
+    // Parser CSV tối giản: hỗ trợ dấu phẩy trong ngoặc kép, "" để thoát dấu ngoặc kép và xuống dòng trong ô
+    private void readCsv(InputStream in, ImportSession session) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean inQuotes = false;
+        boolean rowHasData = false;
+        int recordNumber = 0;
+        int ch = reader.read();
+        if (ch == '\uFEFF') ch = reader.read(); // BOM của Excel
+
+        while (ch != -1) {
+            int next = reader.read();
+            if (inQuotes) {
+                if (ch == '"' && next == '"') {
+                    cell.append('"');
+                    next = reader.read();
+                } else if (ch == '"') {
+                    inQuotes = false;
+                } else {
+                    cell.append((char) ch);
+                }
+            } else if (ch == '"') {
+                inQuotes = true;
+                rowHasData = true;
+            } else if (ch == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                rowHasData = true;
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r' && next == '\n') next = reader.read();
+                if (rowHasData || cell.length() > 0) {
+                    cells.add(cell.toString());
+                    session.accept(++recordNumber, cells);
+                }
+                cells = new ArrayList<>();
+                cell.setLength(0);
+                rowHasData = false;
+            } else {
+                cell.append((char) ch);
+                rowHasData = true;
+            }
+            ch = next;
+        }
+        if (rowHasData || cell.length() > 0) {
+            cells.add(cell.toString());
+            session.accept(++recordNumber, cells);
+        }
+    }
+
+    // XLSX đọc theo SAX (không dựng workbook trong bộ nhớ), chỉ sheet đầu tiên
+    private void readXlsx(MultipartFile file, ImportSession session) throws IOException {
+        File temp = File.createTempFile("customer-import-", ".xlsx");
+        try {
+            file.transferTo(temp);
+            try (OPCPackage pkg = OPCPackage.open(temp, PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                if (!sheets.hasNext()) return;
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            reader.getStylesTable(), null, strings, new RowCollector(session), new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Không đọc được file Excel: " + e.getMessage(), e);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final ImportSession session;
+        private final List<String> cells = new ArrayList<>();
+
+        RowCollector(ImportSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            session.accept(rowNum + 1, new ArrayList<>(cells));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            while (cells.size() < column) cells.add(null);
+            cells.add(formattedValue);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import swp.se1889.g1.rice_store.dto.CustomerDTO;
 import swp.se1889.g1.rice_store.dto.CustomerInvoiceDTO;
@@ -62,6 +63,7 @@ public class CustomerService {
     }
 
 
+    @Transactional
     public void updateCustomer(CustomerDTO customerDTO) {
         Optional<Customer> customerOpt = customerRepository.findById(customerDTO.getId());
         if (customerOpt.isPresent()) {
@@ -147,6 +149,17 @@ public class CustomerService {
         return null;
     }
 
+    // Khách hàng thuộc owner của người dùng hiện tại: do chính owner hoặc nhân viên của owner đó tạo
+    public boolean isCustomerOfCurrentOwner(Long customerId) {
+        User currentUser = getCurrentUser();
+        if (currentUser == null || customerId == null) return false;
+        long ownerId = currentUser.getRole().equals("ROLE_OWNER") ? currentUser.getId() : currentUser.getCreatedBy();
+        return customerRepository.findById(customerId)
+                .map(Customer::getCreatedBy)
+                .filter(creator -> creator.getId() == ownerId || creator.getCreatedBy() == ownerId)
+                .isPresent();
+    }
+
     public Page<CustomerDTO> filterCustomersWithSpec(
             String name, String phone,
             String address, String email, String debt,
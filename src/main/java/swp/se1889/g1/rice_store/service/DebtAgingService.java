@@ -0,0 +1,160 @@
+package swp.se1889.g1.rice_store.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import swp.se1889.g1.rice_store.dto.DebtAgingDTO;
+import swp.se1889.g1.rice_store.entity.DebtRecords;
+import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.repository.DebtAgingRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/*
+ Báo cáo tuổi nợ (0–30, 31–60, 61–90, trên 90 ngày) tính trong một lượt đọc debt_records.
+ Bản ghi đến theo create_on tăng dần nên nhóm tuổi của mỗi khoản nợ đã cố định ngay khi đọc,
+ và FIFO luôn trừ vào nhóm cũ nhất trước: chỉ cần 4 bộ cộng cho mỗi chiều nợ, bộ nhớ không đổi theo số bản ghi.
+*/
+@Service
+public class DebtAgingService {
+
+    public static final String[] SORT_PROPERTIES = {"total", "current", "days31To60", "days61To90", "over90", "customerName"};
+
+    @Autowired
+    private DebtAgingRepository debtAgingRepository;
+
+    @Autowired
+    private UserServiceIpml userService;
+
+    public Long currentOwnerId() {
+        User currentUser = userService.getCurrentUser();
+        if (currentUser == null) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại.");
+        }
+        return currentUser.getRole().equals("ROLE_OWNER") ? currentUser.getId() : currentUser.getCreatedBy();
+    }
+
+    // Đẩy lần lượt tuổi nợ của từng khách (dư nợ khác 0) vào consumer, theo thứ tự customer_id
+    public void forEachCustomer(Long ownerId, LocalDate asOf, Consumer<DebtAgingDTO> consumer) {
+        AgingAccumulator acc = new AgingAccumulator(asOf, consumer);
+        debtAgingRepository.forEachDebtRecord(ownerId, rs -> acc.accept(
+                rs.getLong(1), rs.getString(2), rs.getString(3),
+                DebtRecords.DebtType.valueOf(rs.getString(4)), rs.getBigDecimal(5),
+                rs.getTimestamp(6).toLocalDateTime().toLocalDate()));
+        acc.finish();
+    }
+
+    // Phân trang + sắp xếp không cần giữ cả danh sách: heap giới hạn offset + size phần tử
+    public Page<DebtAgingDTO> getAgingPage(Long ownerId, LocalDate asOf, Pageable pageable) {
+        Comparator<DebtAgingDTO> order = comparator(pageable.getSort());
+        int keep = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+        // Đầu heap là phần tử "tệ nhất" trong số đang giữ, bị loại khi có phần tử tốt hơn
+        PriorityQueue<DebtAgingDTO> heap = new PriorityQueue<>(Math.max(1, keep), order.reversed());
+        long[] total = {0};
+
+        forEachCustomer(ownerId, asOf, row -> {
+            total[0]++;
+            if (heap.size() < keep) {
+                heap.add(row);
+            } else if (keep > 0 && order.compare(row, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(row);
+            }
+        });
+
+        List<DebtAgingDTO> rows = new ArrayList<>(heap);
+        rows.sort(order);
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        return new PageImpl<>(rows.subList(from, rows.size()), pageable, total[0]);
+    }
+
+    private Comparator<DebtAgingDTO> comparator(Sort sort) {
+        Sort.Order o = sort.isSorted() ? sort.iterator().next() : Sort.Order.desc("total");
+        Comparator<DebtAgingDTO> c = switch (o.getProperty()) {
+            case "current" -> Comparator.comparing(DebtAgingDTO::getCurrent);
+            case "days31To60" -> Comparator.comparing(DebtAgingDTO::getDays31To60);
+            case "days61To90" -> Comparator.comparing(DebtAgingDTO::getDays61To90);
+            case "over90" -> Comparator.comparing(DebtAgingDTO::getOver90);
+            case "customerName" -> Comparator.comparing(DebtAgingDTO::getCustomerName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            default -> Comparator.comparing(DebtAgingDTO::getTotal);
+        };
+        if (o.isDescending()) c = c.reversed();
+        return c.thenComparing(DebtAgingDTO::getCustomerId);
+    }
+
+    static int bucketOf(LocalDate createOn, LocalDate asOf) {
+        long days = ChronoUnit.DAYS.between(createOn, asOf);
+        if (days <= 30) return 0;
+        if (days <= 60) return 1;
+        if (days <= 90) return 2;
+        return 3;
+    }
+
+    // Trạng thái của khách đang xử lý; reset khi sang customer_id mới
+    private static class AgingAccumulator {
+        private final LocalDate asOf;
+        private final Consumer<DebtAgingDTO> consumer;
+        private Long customerId;
+        private String name;
+        private String phone;
+        // [0..3] = 0–30, 31–60, 61–90, >90 ngày; positive: dư nợ làm tăng balance, negative: làm giảm balance
+        private final BigDecimal[] positive = new BigDecimal[4];
+        private final BigDecimal[] negative = new BigDecimal[4];
+
+        AgingAccumulator(LocalDate asOf, Consumer<DebtAgingDTO> consumer) {
+            this.asOf = asOf;
+            this.consumer = consumer;
+        }
+
+        void accept(long id, String customerName, String customerPhone, DebtRecords.DebtType type, BigDecimal amount, LocalDate createOn) {
+            if (customerId == null || customerId != id) {
+                finish();
+                customerId = id;
+                name = customerName;
+                phone = customerPhone;
+                for (int i = 0; i < 4; i++) {
+                    positive[i] = BigDecimal.ZERO;
+                    negative[i] = BigDecimal.ZERO;
+                }
+            }
+            if (amount == null || amount.signum() == 0) return;
+            // Cùng quy ước với DebtRecordService.updateDebtBalances
+            boolean increases = type == DebtRecords.DebtType.Shop_debt_customer || type == DebtRecords.DebtType.Customer_return_shop;
+            BigDecimal[] same = increases ? positive : negative;
+            BigDecimal[] opposite = increases ? negative : positive;
+
+            BigDecimal remaining = amount.abs();
+            for (int i = 3; i >= 0 && remaining.signum() > 0; i--) {
+                BigDecimal matched = remaining.min(opposite[i]);
+                opposite[i] = opposite[i].subtract(matched);
+                remaining = remaining.subtract(matched);
+            }
+            if (remaining.signum() > 0) {
+                int bucket = bucketOf(createOn, asOf);
+                same[bucket] = same[bucket].add(remaining);
+            }
+        }
+
+        void finish() {
+            if (customerId == null) return;
+            BigDecimal pos = positive[0].add(positive[1]).add(positive[2]).add(positive[3]);
+            BigDecimal neg = negative[0].add(negative[1]).add(negative[2]).add(negative[3]);
+            BigDecimal balance = pos.subtract(neg);
+            if (balance.signum() != 0) {
+                BigDecimal[] open = balance.signum() > 0 ? positive : negative;
+                consumer.accept(new DebtAgingDTO(customerId, name, phone, balance, open[0], open[1], open[2], open[3]));
+            }
+            customerId = null;
+        }
+    }
+}
@@ -12,12 +12,14 @@ import swp.se1889.g1.rice_store.entity.Customer;
 import swp.se1889.g1.rice_store.entity.DebtRecords;
 import swp.se1889.g1.rice_store.entity.User;
 import swp.se1889.g1.rice_store.repository.CustomerRepository;
+import swp.se1889.g1.rice_store.repository.DebtMonthlySummaryRepository;
 import swp.se1889.g1.rice_store.repository.DebtRecordRepository;
 import swp.se1889.g1.rice_store.repository.UserRepository;
 import swp.se1889.g1.rice_store.specification.DebtRecordsSpecifications;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
 
 @Service
@@ -31,6 +33,8 @@ public class DebtRecordService {
     private CustomerRepository customerRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private DebtMonthlySummaryRepository debtMonthlySummaryRepository;
     private CustomerService customerService;
     private final CustomerChangeHistoryService changeHistoryService;
 
@@ -42,6 +46,7 @@ public class DebtRecordService {
     //public Page<DebtRecords> getPage(Long customerId, int page, int size){
 //        return debtRecordRepository.findDebtRecordsByPage(customerId , page, size);
 //}
+    @Transactional
     public DebtRecords addDebt(DebtRecords debtRecord, boolean skipUpdate) {
         User currentUser = getCurrentUser();
         if (currentUser == null) {
@@ -53,7 +58,7 @@ public class DebtRecordService {
         debtRecord.setCreateOn(debtRecord.getCreateOn());
         debtRecord.setCreatedAt(LocalDateTime.now());
         debtRecord.setUpdatedAt(LocalDateTime.now());
-        debtRecordRepository.save(debtRecord);
+        saveRecord(debtRecord);
 
         // Nếu không skipUpdate, cập nhật số dư nợ dựa trên toàn bộ lịch sử record
         if (!skipUpdate) {
@@ -68,13 +73,48 @@ public class DebtRecordService {
         return debtRecord;
     }
 
+    // Mọi chỗ ghi mới debt_records đi qua đây để debt_monthly_summary được cộng trong cùng transaction
+    @Transactional
+    public DebtRecords saveRecord(DebtRecords debtRecord) {
+        if (debtRecord.getCreateOn() == null) {
+            debtRecord.setCreateOn(LocalDateTime.now());
+        }
+        DebtRecords saved = debtRecordRepository.save(debtRecord);
+        debtMonthlySummaryRepository.applyDelta(saved.getCustomerId(), YearMonth.from(saved.getCreateOn()), saved.getAmount(), 1);
+        return saved;
+    }
+
+    // Tổng nợ theo tháng của khách, đọc từ debt_monthly_summary: {year, month, total_debt}
+    @Transactional(readOnly = true)
+    public List<Object[]> getMonthlyDebt(Long customerId) {
+        return debtMonthlySummaryRepository.findByCustomer(customerId);
+    }
+
+    // Dựng lại debt_monthly_summary từ debt_records (customerId = null: toàn bộ)
+    @Transactional
+    public int rebuildMonthlySummary(Long customerId) {
+        return customerId == null
+                ? debtMonthlySummaryRepository.rebuildAll()
+                : debtMonthlySummaryRepository.rebuildCustomer(customerId);
+    }
+
     // Overload method để giữ tương thích nếu không sử dụng flag
 //    public DebtRecords addDebt(DebtRecords debtRecord) {
 //        return addDebt(debtRecord, false);
 //    }
+    @Transactional(readOnly = true)
     public Page<DebtRecords> getFilteredDebtRecords(Long customerId, Pageable pageable, Long idMin, Long idMax,
                                                     String note, String type, BigDecimal amountMin, BigDecimal amountMax,
                                                     Date dateMin, Date dateMax, Date dateMin2, Date dateMax2) {
+        Specification<DebtRecords> spec = buildFilterSpec(customerId, idMin, idMax, note, type, amountMin, amountMax,
+                dateMin, dateMax, dateMin2, dateMax2);
+        return debtRecordRepository.findAll(spec, pageable);
+    }
+
+    // Dùng chung cho trang chi tiết nợ và xuất file
+    public Specification<DebtRecords> buildFilterSpec(Long customerId, Long idMin, Long idMax,
+                                                      String note, String type, BigDecimal amountMin, BigDecimal amountMax,
+                                                      Date dateMin, Date dateMax, Date dateMin2, Date dateMax2) {
         Specification<DebtRecords> spec = Specification.where(DebtRecordsSpecifications.hasCustomerId(customerId));
         if (idMin != null) {
             spec = spec.and(DebtRecordsSpecifications.idGreaterThanOrEqual(idMin));
@@ -106,10 +146,11 @@ public class DebtRecordService {
         if (dateMax2 != null) {
             spec = spec.and(DebtRecordsSpecifications.hasCreateOn2(dateMax2));
         }
-        return debtRecordRepository.findAll(spec, pageable);
+        return spec;
     }
 
     // Phương thức lấy danh sách chi tiết nợ theo customer id
+    @Transactional(readOnly = true)
     public List<DebtRecords> getDebtDetailsByCustomerId(Long customerId) {
         return debtRecordRepository.findByCustomerId(customerId);
     }
@@ -123,6 +164,16 @@ public class DebtRecordService {
         // Lấy tất cả các bản ghi nợ của khách hàng, không nhất thiết đã được sắp xếp
         List<DebtRecords> debtRecords = debtRecordRepository.findByCustomerId(customer.getId());
 
+        BigDecimal debtBalance = replayBalance(debtRecords);
+
+        // Cập nhật số dư nợ cho khách hàng và lưu lại vào cơ sở dữ liệu
+        customer.setDebtBalance(debtBalance);
+        customerRepository.save(customer);
+
+    }
+
+    // Cộng dồn dư nợ theo thứ tự thời gian tạo; tách riêng để đo bằng JMH (src/jmh/java)
+    public static BigDecimal replayBalance(Collection<DebtRecords> debtRecords) {
         // Sử dụng PriorityQueue để sắp xếp các bản ghi theo thời gian tạo (createdAt)
         PriorityQueue<DebtRecords> queue = new PriorityQueue<>(
                 Comparator.comparing(DebtRecords::getCreatedAt)
@@ -150,11 +201,7 @@ public class DebtRecordService {
                     break;
             }
         }
-
-        // Cập nhật số dư nợ cho khách hàng và lưu lại vào cơ sở dữ liệu
-        customer.setDebtBalance(debtBalance);
-        customerRepository.save(customer);
-
+        return debtBalance;
     }
 
     private User getCurrentUser() {
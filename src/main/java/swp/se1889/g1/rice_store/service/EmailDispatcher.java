@@ -0,0 +1,203 @@
+package swp.se1889.g1.rice_store.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import swp.se1889.g1.rice_store.repository.EmailOutboxRepository;
+import swp.se1889.g1.rice_store.repository.EmailOutboxRepository.OutboxEmail;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Dispatcher nền gửi email từ bảng email_outbox.
+ - email.outbox.workers thread cố định: số kết nối SMTP đồng thời không bao giờ vượt quá con số này.
+ - Mỗi worker nhận một lô (tối đa email.outbox.batch-size) và gửi cả lô qua một kết nối SMTP duy nhất
+   (JavaMailSender.send(varargs) mở transport một lần cho cả lô).
+ - Email lỗi được thử lại với backoff lũy thừa; quá email.outbox.max-attempts thì chuyển FAILED.
+ - Worker được đánh thức ngay khi có email mới, ngoài ra tự quét lại mỗi email.outbox.poll-interval-ms.
+*/
+@Service
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private final JavaMailSender javaMailSender;
+    private final String from;
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffSeconds;
+    private final long pollIntervalMillis;
+    private final long leaseSeconds;
+    private final long retentionDays;
+
+    private final Object monitor = new Object();
+    private boolean signalled;
+    private volatile boolean running;
+    private final List<Thread> threads = new ArrayList<>();
+
+    public EmailDispatcher(JavaMailSender javaMailSender,
+                           @Value("${email.from:huybqhe180599@fpt.edu.vn}") String from,
+                           @Value("${email.outbox.workers:2}") int workers,
+                           @Value("${email.outbox.batch-size:20}") int batchSize,
+                           @Value("${email.outbox.max-attempts:5}") int maxAttempts,
+                           @Value("${email.outbox.backoff-seconds:30}") long backoffSeconds,
+                           @Value("${email.outbox.poll-interval-ms:5000}") long pollIntervalMillis,
+                           @Value("${email.outbox.lease-seconds:120}") long leaseSeconds,
+                           @Value("${email.outbox.retention-days:7}") long retentionDays) {
+        this.javaMailSender = javaMailSender;
+        this.from = from;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffSeconds = backoffSeconds;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.leaseSeconds = leaseSeconds;
+        this.retentionDays = retentionDays;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread t = new Thread(this::workLoop, "email-dispatcher-" + i);
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread t : threads) {
+            t.interrupt();
+        }
+        for (Thread t : threads) {
+            t.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    // Gọi sau khi email đã nằm trong outbox (sau commit nếu có transaction)
+    public void wake() {
+        synchronized (monitor) {
+            signalled = true;
+            monitor.notifyAll();
+        }
+    }
+
+    // Xóa email đã gửi quá email.outbox.retention-days để bảng không phình mãi
+    @Scheduled(fixedDelayString = "${email.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        LocalDateTime olderThan = LocalDateTime.now().minusDays(retentionDays);
+        int deleted;
+        do {
+            deleted = emailOutboxRepository.purgeSent(olderThan, 1000);
+        } while (deleted == 1000);
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                List<OutboxEmail> batch = claim();
+                if (batch.isEmpty()) {
+                    awaitSignal();
+                } else {
+                    deliver(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // Lỗi DB: các dòng đã nhận sẽ quay lại hàng đợi khi hết hạn thuê
+                log.error("Email dispatcher iteration failed", e);
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private List<OutboxEmail> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        return emailOutboxRepository.claimBatch(batchSize, now, now.plusSeconds(leaseSeconds));
+    }
+
+    private void awaitSignal() throws InterruptedException {
+        synchronized (monitor) {
+            if (!signalled) {
+                monitor.wait(pollIntervalMillis);
+            }
+            signalled = false;
+        }
+    }
+
+    private void deliver(List<OutboxEmail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEmail email = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(email.to());
+            message.setFrom(from);
+            message.setSubject(email.subject());
+            message.setText(email.body());
+            messages[i] = message;
+        }
+
+        Map<Object, Exception> failed = Map.of();
+        MailException batchError = null;
+        try {
+            javaMailSender.send(messages);
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            if (failed.isEmpty()) batchError = e;
+        } catch (MailException e) {
+            batchError = e; // ví dụ lỗi xác thực: cả lô coi như thất bại
+        }
+
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEmail email = batch.get(i);
+            Exception error = batchError != null ? batchError : failed.get(messages[i]);
+            if (error == null) {
+                sent.add(email.id());
+            } else {
+                scheduleRetry(email, error);
+            }
+        }
+        emailOutboxRepository.markSent(sent, LocalDateTime.now());
+    }
+
+    private void scheduleRetry(OutboxEmail email, Exception error) {
+        if (email.attempts() >= maxAttempts) {
+            log.error("Giving up on email {} to {} after {} attempts", email.id(), email.to(), email.attempts(), error);
+            emailOutboxRepository.markRetry(email.id(), EmailOutboxRepository.STATUS_FAILED, LocalDateTime.now(), error.getMessage());
+            return;
+        }
+        long delay = Math.min(MAX_BACKOFF_SECONDS, backoffSeconds << Math.min(email.attempts() - 1, 20));
+        log.warn("Email {} to {} failed (attempt {}), retrying in {}s: {}",
+                email.id(), email.to(), email.attempts(), delay, error.getMessage());
+        emailOutboxRepository.markRetry(email.id(), EmailOutboxRepository.STATUS_PENDING,
+                LocalDateTime.now().plusSeconds(delay), error.getMessage());
+    }
+}
@@ -1,25 +1,35 @@
 package swp.se1889.g1.rice_store.service;
 
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import swp.se1889.g1.rice_store.dto.MailBodyDTO;
+import swp.se1889.g1.rice_store.repository.EmailOutboxRepository;
+
+import java.time.LocalDateTime;
 
 @Service
 public class EmailService {
-    private final JavaMailSender javaMailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailDispatcher emailDispatcher;
 
-    public EmailService(JavaMailSender javaMailSender) {
-        this.javaMailSender = javaMailSender;
+    public EmailService(EmailOutboxRepository emailOutboxRepository, EmailDispatcher emailDispatcher) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailDispatcher = emailDispatcher;
     }
 
+    // Không gửi trực tiếp: chỉ ghi vào email_outbox, EmailDispatcher gửi ở nền (request không chờ SMTP)
     public void sendSimpleMessage(MailBodyDTO mailBodyDTO) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(mailBodyDTO.getTo());
-        message.setFrom("huybqhe180599@fpt.edu.vn");
-        message.setSubject(mailBodyDTO.getSubject());
-        message.setText(mailBodyDTO.getText());
-
-        javaMailSender.send(message);
+        emailOutboxRepository.insert(mailBodyDTO, LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emailDispatcher.wake();
+                }
+            });
+        } else {
+            emailDispatcher.wake();
+        }
     }
 }
@@ -0,0 +1,210 @@
+package swp.se1889.g1.rice_store.service;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import swp.se1889.g1.rice_store.entity.DebtRecords;
+import swp.se1889.g1.rice_store.entity.Invoices;
+import swp.se1889.g1.rice_store.repository.DebtRecordRepository;
+import swp.se1889.g1.rice_store.repository.InvoicesRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/*
+ Xuất hóa đơn / lịch sử nợ ra CSV hoặc XLSX.
+ Dữ liệu đi theo con trỏ forward-only (Stream + fetch size) và được ghi thẳng ra response từng dòng,
+ nên bộ nhớ không phụ thuộc số dòng: CSV không đệm gì ngoài buffer ghi,
+ XLSX dùng SXSSF chỉ giữ ROW_WINDOW dòng trong heap, phần còn lại xả ra file tạm.
+*/
+@Service
+public class ExportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_XLSX = "xlsx";
+
+    private static final int ROW_WINDOW = 200;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static final String[] INVOICE_HEADERS = {
+            "Mã hóa đơn", "Khách hàng", "Số điện thoại", "Tổng tiền", "Thành tiền",
+            "Trạng thái", "Ghi chú", "Ngày tạo", "Ngày cập nhật", "Loại"};
+    private static final String[] DEBT_HEADERS = {
+            "Mã phiếu", "Loại", "Số tiền", "Ghi chú", "Ngày ghi nợ", "Ngày tạo", "Người tạo"};
+    private static final String[] DEBT_AGING_HEADERS = {
+            "Mã KH", "Khách hàng", "Số điện thoại", "Chiều nợ", "Tổng nợ",
+            "0-30 ngày", "31-60 ngày", "61-90 ngày", "Trên 90 ngày"};
+
+    @Autowired
+    private InvoicesRepository invoicesRepository;
+
+    @Autowired
+    private DebtRecordRepository debtRecordRepository;
+
+    @Autowired
+    private DebtAgingService debtAgingService;
+
+    public static String normalizeFormat(String format) {
+        return FORMAT_XLSX.equalsIgnoreCase(format) ? FORMAT_XLSX : FORMAT_CSV;
+    }
+
+    public static String contentType(String format) {
+        return FORMAT_XLSX.equals(format)
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv; charset=UTF-8";
+    }
+
+    @Transactional(readOnly = true)
+    public void exportInvoices(Specification<Invoices> spec, String format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = invoicesRepository.streamExportRows(spec)) {
+            write(format, "Hóa đơn", INVOICE_HEADERS, fromIterator(rows.iterator()), out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportDebtRecords(Specification<DebtRecords> spec, String format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = debtRecordRepository.streamExportRows(spec)) {
+            write(format, "Lịch sử nợ", DEBT_HEADERS, fromIterator(rows.iterator()), out);
+        }
+    }
+
+    // Báo cáo tuổi nợ: dòng được đẩy ra ngay khi tính xong từng khách, theo thứ tự mã khách hàng
+    @Transactional(readOnly = true)
+    public void exportDebtAging(Long ownerId, LocalDate asOf, String format, OutputStream out) throws IOException {
+        write(format, "Tuổi nợ", DEBT_AGING_HEADERS, sink -> {
+            try {
+                debtAgingService.forEachCustomer(ownerId, asOf, row -> {
+                    try {
+                        sink.accept(new Object[]{row.getCustomerId(), row.getCustomerName(), row.getCustomerPhone(),
+                                row.isCustomerOwesShop() ? "Khách nợ cửa hàng" : "Cửa hàng nợ khách", row.getTotal(),
+                                row.getCurrent(), row.getDays31To60(), row.getDays61To90(), row.getOver90()});
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }, out);
+    }
+
+    // Nguồn dòng kiểu "đẩy": nguồn tự gọi sink cho từng dòng (Stream của JPA hoặc callback của JDBC)
+    @FunctionalInterface
+    private interface RowSource {
+        void forEach(RowSink sink) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowSink {
+        void accept(Object[] row) throws IOException;
+    }
+
+    private static RowSource fromIterator(Iterator<Object[]> rows) {
+        return sink -> {
+            while (rows.hasNext()) {
+                sink.accept(rows.next());
+            }
+        };
+    }
+
+    private void write(String format, String sheetName, String[] headers, RowSource rows, OutputStream out) throws IOException {
+        if (FORMAT_XLSX.equals(format)) {
+            writeXlsx(sheetName, headers, rows, out);
+        } else {
+            writeCsv(headers, rows, out);
+        }
+    }
+
+    // ------------------ CSV ------------------
+
+    private void writeCsv(String[] headers, RowSource rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF'); // BOM để Excel nhận đúng UTF-8 tiếng Việt
+        writeCsvLine(writer, headers);
+        rows.forEach(row -> writeCsvLine(writer, row));
+        writer.flush();
+    }
+
+    private void writeCsvLine(Writer writer, Object[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) writer.write(',');
+            String value = format(cells[i]);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // ------------------ XLSX ------------------
+
+    private void writeXlsx(String sheetName, String[] headers, RowSource rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet(sheetName);
+            CellStyle moneyStyle = workbook.createCellStyle();
+            moneyStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0"));
+
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+            }
+            int[] rowIndex = {1};
+            rows.forEach(values -> {
+                Row row = sheet.createRow(rowIndex[0]++);
+                for (int i = 0; i < values.length; i++) {
+                    Cell cell = row.createCell(i);
+                    Object value = values[i];
+                    if (value instanceof BigDecimal amount) {
+                        cell.setCellValue(amount.doubleValue());
+                        cell.setCellStyle(moneyStyle);
+                    } else if (value instanceof Number number) {
+                        cell.setCellValue(number.doubleValue());
+                    } else {
+                        cell.setCellValue(format(value));
+                    }
+                }
+            });
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private String format(Object value) {
+        if (value == null) return "";
+        if (value instanceof LocalDateTime dateTime) return dateTime.format(DATE_FORMAT);
+        if (value instanceof BigDecimal amount) return amount.toPlainString();
+        if (value instanceof Enum<?> e) return e.name();
+        return value.toString();
+    }
+
+    public static String fileName(String prefix, String format) {
+        return prefix + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss", Locale.ROOT)) + "." + format;
+    }
+}
@@ -1,27 +1,74 @@
 package swp.se1889.g1.rice_store.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import swp.se1889.g1.rice_store.dto.TopProductDTO;
 import swp.se1889.g1.rice_store.entity.InvoiceDetail;
-import swp.se1889.g1.rice_store.repository.InvoiceDetailRepository;
-import swp.se1889.g1.rice_store.repository.InvoiceSaleRepository;
+import swp.se1889.g1.rice_store.repository.ProductSalesCounterRepository;
+import swp.se1889.g1.rice_store.repository.ProductSalesCounterRepository.Delta;
 
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class InvoiceDetailService {
 
+    public static final int MAX_TOP_PRODUCTS = 50;
+
     @Autowired
-    private InvoiceDetailRepository invoiceDetailRepository;
+    private ProductSalesCounterRepository productSalesCounterRepository;
 
     //    public InvoiceDetail findInvoiceDetailByInvoiceId(Long invoiceId) {
 //        return invoiceDetailRepository.findByInvoiceId(invoiceId);
 //    }
-    public List<Object[]> getTop5ProductsSold() {
-        // Lấy top 5 sản phẩm bán chạy nhất (sắp xếp theo số lượng giảm dần)
-        return invoiceDetailRepository.findTop5ProductsSold(PageRequest.of(0, 5));
+
+    // Sản phẩm bán chạy của một cửa hàng trong khoảng thời gian, đọc từ bộ đếm theo ngày (không quét invoice_details)
+    // window: today | week | month | custom (custom dùng from/to)
+    public List<TopProductDTO> getTopProductsSold(Long storeId, String window, LocalDate from, LocalDate to, int limit) {
+        if (storeId == null) {
+            throw new IllegalArgumentException("Store ID cannot be null");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate start;
+        LocalDate end = today;
+        switch (window == null ? "today" : window) {
+            case "week" -> start = today.with(DayOfWeek.MONDAY);
+            case "month" -> start = today.withDayOfMonth(1);
+            case "custom" -> {
+                if (from == null || to == null || from.isAfter(to)) {
+                    throw new IllegalArgumentException("Khoảng thời gian không hợp lệ");
+                }
+                start = from;
+                end = to;
+            }
+            default -> start = today;
+        }
+        int k = Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS));
+        return productSalesCounterRepository.findTop(storeId, start, end, k);
+    }
+
+    // Gọi sau khi đã lưu các dòng chi tiết của một hóa đơn bán
+    public void recordSale(Long storeId, LocalDateTime soldAt, List<InvoiceDetail> details) {
+        productSalesCounterRepository.addAll(storeId, soldAt.toLocalDate(), aggregate(details, false));
     }
 
+    // Hoàn tác khi hóa đơn bán bị xóa mềm: trừ vào đúng ngày đã cộng
+    public void revertSale(Long storeId, LocalDateTime soldAt, List<InvoiceDetail> details) {
+        productSalesCounterRepository.addAll(storeId, soldAt.toLocalDate(), aggregate(details, true));
+    }
+
+    private Map<Long, Delta> aggregate(List<InvoiceDetail> details, boolean negate) {
+        Map<Long, Delta> deltas = new HashMap<>();
+        for (InvoiceDetail detail : details) {
+            BigDecimal revenue = detail.getTotalPrice() != null ? detail.getTotalPrice() : BigDecimal.ZERO;
+            Delta delta = new Delta(detail.getQuantity(), revenue);
+            deltas.merge(detail.getProductId(), negate ? delta.negate() : delta, Delta::plus);
+        }
+        return deltas;
+    }
 }
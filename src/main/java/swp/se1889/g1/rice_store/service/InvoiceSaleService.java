@@ -5,10 +5,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import swp.se1889.g1.rice_store.entity.Invoice;
-import swp.se1889.g1.rice_store.entity.Store;
+import org.springframework.transaction.annotation.Transactional;
+import swp.se1889.g1.rice_store.dto.InvoiceSaleDetailDTO;
+import swp.se1889.g1.rice_store.entity.*;
+import swp.se1889.g1.rice_store.repository.InvoiceSaleDetailRepository;
 import swp.se1889.g1.rice_store.repository.InvoiceSaleRepository;
+import swp.se1889.g1.rice_store.repository.ZoneRepository;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,16 +23,92 @@ public class InvoiceSaleService {
     @Autowired
     private InvoiceSaleRepository invoiceSaleRepository;
 
+    @Autowired
+    private InvoiceSaleDetailRepository invoiceSaleDetailRepository;
+
+    @Autowired
+    private InvoiceDetailService invoiceDetailService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private DebtRecordService debtRecordService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ZoneService zoneService;
+
+    @Autowired
+    private ZoneRepository zoneRepository;
+
+    // Tạo hóa đơn bán: ghi nợ (nếu bán nợ), trừ kho theo khu vực, lưu chi tiết và cộng bộ đếm bán chạy
+    @Transactional
+    public Invoice createOrder(Long storeId, User user, Long customerId, BigDecimal totalAmount,
+                               String paymentOption, List<InvoiceSaleDetailDTO> productOrders) {
+        Invoice invoice = new Invoice();
+        invoice.setStoreId(storeId);
+        invoice.setCustomerId(customerId);
+        invoice.setFinalAmount(totalAmount);
+
+        invoice.setPaymentStatus(paymentOption);
+        Customer customer = customerService.findCustomerById(invoice.getCustomerId());
+        if (paymentOption.equals("In_debt")) {
+            DebtRecords debtRecords = new DebtRecords();
+            debtRecords.setCustomerId(customer.getId());
+            debtRecords.setType(DebtRecords.DebtType.valueOf("Customer_debt_shop"));
+            debtRecords.setAmount(totalAmount);
+            debtRecords.setCreatedBy(user);
+            debtRecordService.saveRecord(debtRecords);
+            debtRecordService.updateDebtBalances(customer, user);
+        }
+
+        invoice.setType("Sale");
+        invoice.setCreatedBy(user.getId());
+        invoiceSaleRepository.save(invoice);
+
+        List<InvoiceDetail> savedDetails = new ArrayList<>(productOrders.size());
+        for (InvoiceSaleDetailDTO product : productOrders) {
+            InvoiceDetail invoiceDetail = new InvoiceDetail();
+            invoiceDetail.setInvoiceId(invoice.getId());
+            invoiceDetail.setProductId(product.getProductId());
+            invoiceDetail.setQuantity(product.getQuantity());
+
+            Zone zone = zoneService.getZoneById(product.getZoneId());
+            zone.setQuantity(zone.getQuantity() - product.getQuantity());
+            zoneRepository.save(zone);
+
+            Product selectProduct = productService.findProductById(product.getProductId());
+            invoiceDetail.setUnitPrice(selectProduct.getPrice());
+            BigDecimal totalPrice = selectProduct.getPrice().multiply(BigDecimal.valueOf(product.getQuantity()));
+            invoiceDetail.setTotalPrice(totalPrice);
+
+            invoiceDetail.setZoneId(product.getZoneId());
+            invoiceDetail.setCustomerId(customerId);
+
+            savedDetails.add(invoiceSaleDetailRepository.save(invoiceDetail));
+        }
+        // Cộng vào bộ đếm sản phẩm bán chạy của cửa hàng (một batch cho cả hóa đơn)
+        invoiceDetailService.recordSale(storeId, invoice.getCreatedAt(), savedDetails);
+        return invoice;
+    }
+
     public Page<Invoice> findInvoicesByStoreId(Long storeId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return invoiceSaleRepository.findByStoreIdAndTypeAndIsDeletedFalse(storeId, "Sale", pageable);
     }
 
+    // Hai request xóa cùng lúc chỉ có một UPDATE đổi được dòng, nên số liệu tổng hợp chỉ bị trừ một lần
+    @Transactional
     public void deleteInvoice(Long invoiceId) {
         Invoice invoice = invoiceSaleRepository.findById(invoiceId).orElse(null);
-        if (invoice != null) {
-            invoice.setDeleted(true);
-            invoiceSaleRepository.save(invoice);
+        if (invoice != null && invoiceSaleRepository.markDeleted(invoiceId) == 1) {
+            if ("Sale".equals(invoice.getType())) {
+                invoiceDetailService.revertSale(invoice.getStoreId(), invoice.getCreatedAt(),
+                        invoiceSaleDetailRepository.findInvoiceDetailByInvoiceId(invoice.getId()));
+            }
         }
     }
 
@@ -1,6 +1,5 @@
 package swp.se1889.g1.rice_store.service;
 
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +10,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import swp.se1889.g1.rice_store.dto.InvoiceDetailDTO;
 import swp.se1889.g1.rice_store.dto.InvoicesDTO;
 import swp.se1889.g1.rice_store.entity.*;
@@ -219,7 +219,8 @@ public class InvoicesService {
     }
 
 
-    private BigDecimal calculateTotalPrice(List<InvoiceDetailDTO> details) {
+    // public static để đo bằng JMH (src/jmh/java)
+    public static BigDecimal calculateTotalPrice(List<InvoiceDetailDTO> details) {
         return details.stream()
                 .map(d -> d.getUnitPrice().multiply(BigDecimal.valueOf(d.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -255,6 +256,14 @@ public class InvoicesService {
 
     public Page<Invoices> getFilter(Store store, Long idMin, Long idMax, String note, String status, Date dateMin, Date dateMax, Pageable pageable,
                                     Date dateMin1, Date dateMax1, BigDecimal amountMin, BigDecimal amountMax, Invoices.InvoiceType type) {
+        Specification<Invoices> spec = buildFilterSpec(store, idMin, idMax, note, status, dateMin, dateMax,
+                dateMin1, dateMax1, amountMin, amountMax, type);
+        return invoiceRepository.findAll(spec, pageable);
+    }
+
+    // Dùng chung cho trang danh sách và xuất file để hai nơi luôn lọc giống nhau
+    public Specification<Invoices> buildFilterSpec(Store store, Long idMin, Long idMax, String note, String status, Date dateMin, Date dateMax,
+                                                   Date dateMin1, Date dateMax1, BigDecimal amountMin, BigDecimal amountMax, Invoices.InvoiceType type) {
         Specification<Invoices> spec = Specification.where(null);
         if (store != null) {
             spec = spec.and(InvoiceSpecifications.hasStore(store));
@@ -292,7 +301,7 @@ public class InvoicesService {
         if (dateMax1 != null) {
             spec = spec.and(InvoiceSpecifications.updatedAtBefore(dateMax1));
         }
-        return invoiceRepository.findAll(spec, pageable);
+        return spec;
     }
 
     // --- A. Tổng hóa đơn hôm nay ---
@@ -312,6 +321,7 @@ public class InvoicesService {
 
 
     // --- C. Doanh thu theo thứ trong tuần hiện tại ---
+    @Transactional(readOnly = true)
     public Map<String, BigDecimal> getWeeklyRevenue(Long storeId) {
         LocalDate today = LocalDate.now();
         LocalDate startOfWeek = today.with(DayOfWeek.MONDAY);
@@ -336,6 +346,7 @@ public class InvoicesService {
 
 
     // --- D. Doanh thu theo các tháng trong năm hiện tại ---
+    @Transactional(readOnly = true)
     public Map<String, BigDecimal> getMonthlyRevenue(Long storeId) {
         int year = LocalDate.now().getYear();
         List<Object[]> results = invoiceRepository.getRevenueByMonth(storeId, year);
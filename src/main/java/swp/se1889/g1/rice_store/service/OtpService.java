@@ -0,0 +1,188 @@
+package swp.se1889.g1.rice_store.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import swp.se1889.g1.rice_store.entity.ForgotPassword;
+import swp.se1889.g1.rice_store.repository.ForgotPasswordRepository;
+
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ Kho OTP quên mật khẩu.
+ - OTP hiện hành của mỗi user nằm trong ConcurrentHashMap theo userId: xác thực là một lần tra cứu O(1).
+ - Hạn dùng được xếp trong DelayQueue; lượt dọn định kỳ chỉ lấy các mục đã hết hạn ra khỏi hàng đợi.
+ - Bảng forgotPassword vẫn được ghi (mỗi user tối đa một dòng) để OTP còn hạn sống sót qua restart,
+   và được dọn các dòng hết hạn cùng lượt dọn.
+ - Giới hạn số lần gửi OTP theo email trong một cửa sổ trượt, và số lần nhập sai cho mỗi OTP.
+*/
+@Service
+public class OtpService {
+
+    public enum VerifyResult {VALID, INVALID, EXPIRED}
+
+    @Autowired
+    private ForgotPasswordRepository forgotPasswordRepository;
+
+    private final long ttlMillis;
+    private final int maxRequestsPerWindow;
+    private final long windowMillis;
+    private final long minIntervalMillis;
+    private final int maxFailedAttempts;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<Long, OtpEntry> otps = new ConcurrentHashMap<>();
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    private final Map<String, Deque<Long>> requestsByEmail = new ConcurrentHashMap<>();
+
+    public OtpService(@Value("${otp.ttl-seconds:60}") long ttlSeconds,
+                      @Value("${otp.rate-limit.max-requests:5}") int maxRequestsPerWindow,
+                      @Value("${otp.rate-limit.window-seconds:900}") long windowSeconds,
+                      @Value("${otp.rate-limit.min-interval-seconds:30}") long minIntervalSeconds,
+                      @Value("${otp.max-failed-attempts:5}") int maxFailedAttempts) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxRequestsPerWindow = maxRequestsPerWindow;
+        this.windowMillis = windowSeconds * 1000;
+        this.minIntervalMillis = minIntervalSeconds * 1000;
+        this.maxFailedAttempts = maxFailedAttempts;
+    }
+
+    // Nạp lại các OTP còn hạn từ bảng sau khi khởi động
+    @PostConstruct
+    public void loadFromTable() {
+        for (ForgotPassword fp : forgotPasswordRepository.findByExpirationTimeAfter(new Date())) {
+            put(fp.getUserId(), new OtpEntry(fp.getOtp(), fp.getExpirationTime().getTime()));
+        }
+    }
+
+    // Tạo OTP mới cho user (thay OTP cũ nếu có); ném IllegalStateException khi vượt giới hạn gửi
+    @Transactional
+    public int issue(Long userId, String email) {
+        checkRateLimit(email.toLowerCase(Locale.ROOT), System.currentTimeMillis());
+
+        int otp = random.nextInt(100_000, 1_000_000);
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        forgotPasswordRepository.deleteByUserId(userId);
+        forgotPasswordRepository.save(new ForgotPassword(otp, new Date(expiresAt), userId));
+        putAfterCommit(userId, new OtpEntry(otp, expiresAt));
+        return otp;
+    }
+
+    public VerifyResult verify(Long userId, int otp) {
+        OtpEntry entry = otps.get(userId);
+        if (entry == null) {
+            return VerifyResult.INVALID;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            invalidate(userId);
+            return VerifyResult.EXPIRED;
+        }
+        if (entry.otp != otp) {
+            if (entry.failedAttempts.incrementAndGet() >= maxFailedAttempts) {
+                invalidate(userId); // chống dò OTP: sai quá nhiều lần thì phải xin OTP mới
+            }
+            return VerifyResult.INVALID;
+        }
+        return VerifyResult.VALID;
+    }
+
+    // Gọi khi mật khẩu đã đổi xong hoặc OTP không còn dùng được
+    @Transactional
+    public void invalidate(Long userId) {
+        otps.remove(userId);
+        forgotPasswordRepository.deleteByUserId(userId);
+    }
+
+    // Dọn OTP hết hạn (trong bộ nhớ và trong bảng) và các bộ đếm rate limit đã cũ
+    @Scheduled(fixedDelayString = "${otp.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        Expiry expiry;
+        while ((expiry = expiries.poll()) != null) {
+            otps.remove(expiry.userId, expiry.entry); // chỉ xóa nếu chưa bị OTP mới thay thế
+        }
+        forgotPasswordRepository.deleteExpired(new Date());
+
+        long windowStart = System.currentTimeMillis() - windowMillis;
+        requestsByEmail.entrySet().removeIf(e -> {
+            synchronized (e.getValue()) {
+                Long last = e.getValue().peekLast();
+                return last == null || last < windowStart;
+            }
+        });
+    }
+
+    // Chỉ nhận OTP mới vào bộ nhớ khi dòng forgotPassword đã commit: nếu rollback, OTP cũ (còn trong bảng) vẫn là OTP hiện hành
+    private void putAfterCommit(Long userId, OtpEntry entry) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(userId, entry);
+                }
+            });
+        } else {
+            put(userId, entry);
+        }
+    }
+
+    private void put(Long userId, OtpEntry entry) {
+        otps.put(userId, entry);
+        expiries.add(new Expiry(userId, entry));
+    }
+
+    private void checkRateLimit(String email, long now) {
+        Deque<Long> requests = requestsByEmail.computeIfAbsent(email, k -> new ArrayDeque<>());
+        synchronized (requests) {
+            while (!requests.isEmpty() && requests.peekFirst() <= now - windowMillis) {
+                requests.pollFirst();
+            }
+            Long last = requests.peekLast();
+            if (last != null && now - last < minIntervalMillis) {
+                throw new IllegalStateException("Vui lòng đợi " + ((minIntervalMillis - (now - last)) / 1000 + 1)
+                        + " giây trước khi yêu cầu OTP mới");
+            }
+            if (requests.size() >= maxRequestsPerWindow) {
+                throw new IllegalStateException("Bạn đã yêu cầu OTP quá nhiều lần, vui lòng thử lại sau");
+            }
+            requests.addLast(now);
+        }
+    }
+
+    private static final class OtpEntry {
+        private final int otp;
+        private final long expiresAt;
+        private final AtomicInteger failedAttempts = new AtomicInteger();
+
+        OtpEntry(int otp, long expiresAt) {
+            this.otp = otp;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record Expiry(Long userId, OtpEntry entry) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(entry.expiresAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(entry.expiresAt, ((Expiry) other).entry.expiresAt);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package swp.se1889.g1.rice_store.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import swp.se1889.g1.rice_store.config.VirtualThreads;
+import swp.se1889.g1.rice_store.config.monitoring.RequestSqlStats;
+import swp.se1889.g1.rice_store.dto.OwnerReportDTO;
+import swp.se1889.g1.rice_store.dto.StoreReportDTO;
+import swp.se1889.g1.rice_store.entity.Store;
+import swp.se1889.g1.rice_store.repository.OwnerReportRepository;
+import swp.se1889.g1.rice_store.repository.StoreRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ Báo cáo tổng hợp nhiều cửa hàng cho chủ cửa hàng.
+ Mỗi chỉ số (doanh thu + số hóa đơn, công nợ chưa thu, giá trị tồn kho) là một truy vấn GROUP BY store_id
+ cho tất cả cửa hàng của owner; ba truy vấn chạy song song rồi ghép theo storeId.
+ Kết quả được cache theo (owner, kỳ báo cáo) trong report.owner.cache-ttl-seconds.
+*/
+@Service
+public class OwnerReportService {
+
+    @Autowired
+    private OwnerReportRepository ownerReportRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    private final long cacheTtlMillis;
+    private final ExecutorService executor;
+    // Giữ ngữ cảnh RequestSqlStats của request để SQL chạy trên pool vẫn được tính vào /actuator/sqlhotspots
+    private final Executor queryExecutor;
+    private final Map<String, CachedReport> cache = new ConcurrentHashMap<>();
+
+    public OwnerReportService(@Value("${report.owner.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                              @Value("${report.owner.parallelism:3}") int parallelism,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.cacheTtlMillis = cacheTtlSeconds * 1000;
+        // số truy vấn song song vẫn giới hạn bởi parallelism, chỉ loại thread thay đổi
+        this.executor = Executors.newFixedThreadPool(parallelism, VirtualThreads.factory("owner-report-", virtualThreads));
+        this.queryExecutor = RequestSqlStats.propagating(executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public OwnerReportDTO getReport(String owner, LocalDate from, LocalDate to) {
+        if (owner == null) {
+            throw new IllegalArgumentException("Owner cannot be null");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfMonth(1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Khoảng thời gian không hợp lệ");
+        }
+
+        String key = owner + "|" + start + "|" + end;
+        long now = System.currentTimeMillis();
+        CachedReport cached = cache.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.report;
+        }
+        OwnerReportDTO report = build(owner, start, end);
+        cache.values().removeIf(c -> c.expiresAt <= now);
+        cache.put(key, new CachedReport(report, now + cacheTtlMillis));
+        return report;
+    }
+
+    // Xóa cache của owner (ví dụ sau khi thêm / xóa cửa hàng)
+    public void evict(String owner) {
+        cache.keySet().removeIf(k -> k.startsWith(owner + "|"));
+    }
+
+    private OwnerReportDTO build(String owner, LocalDate start, LocalDate end) {
+        CompletableFuture<Map<Long, Object[]>> sales = CompletableFuture.supplyAsync(
+                () -> ownerReportRepository.salesByStore(owner, start.atStartOfDay(), end.plusDays(1).atStartOfDay()), queryExecutor);
+        CompletableFuture<Map<Long, BigDecimal>> outstanding = CompletableFuture.supplyAsync(
+                () -> ownerReportRepository.outstandingByStore(owner), queryExecutor);
+        CompletableFuture<Map<Long, BigDecimal>> stock = CompletableFuture.supplyAsync(
+                () -> ownerReportRepository.stockValueByStore(owner), queryExecutor);
+
+        List<Store> stores = storeRepository.findByCreatedBy(owner);
+        try {
+            CompletableFuture.allOf(sales, outstanding, stock).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Không thể lập báo cáo tổng hợp: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        List<StoreReportDTO> rows = new ArrayList<>();
+        StoreReportDTO total = new StoreReportDTO(null, "Tổng cộng");
+        for (Store store : stores) {
+            if (store.isDeleted()) continue;
+            StoreReportDTO row = new StoreReportDTO(store.getId(), store.getName());
+            Object[] s = sales.join().get(store.getId());
+            if (s != null) {
+                row.setInvoiceCount((Long) s[0]);
+                row.setRevenue((BigDecimal) s[1]);
+            }
+            row.setDebtOutstanding(outstanding.join().getOrDefault(store.getId(), BigDecimal.ZERO));
+            row.setStockValue(stock.join().getOrDefault(store.getId(), BigDecimal.ZERO));
+            total.add(row);
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparing(StoreReportDTO::getRevenue).reversed());
+        return new OwnerReportDTO(start, end, rows, total, LocalDateTime.now());
+    }
+
+    private record CachedReport(OwnerReportDTO report, long expiresAt) {
+    }
+}
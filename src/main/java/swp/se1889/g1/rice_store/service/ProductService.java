@@ -5,12 +5,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import swp.se1889.g1.rice_store.dto.ProductDTO;
+import swp.se1889.g1.rice_store.dto.ProductOptionDTO;
 import swp.se1889.g1.rice_store.dto.ProductZoneDTO;
 import swp.se1889.g1.rice_store.entity.Product;
 import swp.se1889.g1.rice_store.entity.Store;
@@ -43,6 +45,8 @@ public class ProductService {
     @Autowired
     private UserRepository userRepository;
 
+    private static final int PRODUCT_OPTION_MAX_PAGE_SIZE = 50;
+
 
     public Product getProductToDelete(Long id) {
         return productRepository.findById(id).orElse(null);
@@ -141,6 +145,16 @@ public class ProductService {
         return zoneRepository.searchProductZoneDetails(query);
     }
 
+    public Slice<ProductOptionDTO> searchProductOptions(String prefix, int page, int size) {
+        User currentUser = getCurrentUser();
+        if (currentUser == null) {
+            throw new RuntimeException("Không thể xác định người dùng hiện tại.");
+        }
+        String keyword = prefix == null ? "" : prefix.trim();
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), PRODUCT_OPTION_MAX_PAGE_SIZE));
+        return productRepository.searchOptionsByOwner(currentUser.getId(), keyword, pageable);
+    }
+
     public Product findProductById(Long id) {
         return productRepository.findById(id).get();
     }
@@ -215,20 +229,7 @@ public class ProductService {
             spec = spec.and(ZoneSpecificationsForProduct.quantityLessThan(maxQuantity));
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Zone> zonePage = zoneRepository.findAll(spec, pageable);
-
-        return zonePage.map(zone -> {
-            var product = zone.getProduct();
-            return new ProductZoneDTO(
-                    product.getId(),
-                    product.getName(),
-                    product.getDescription(),
-                    zone.getId(),
-                    zone.getName(),
-                    product.getPrice(),
-                    zone.getQuantity()
-            );
-        });
+        return zoneRepository.findProductZones(spec, pageable);
     }
 
 
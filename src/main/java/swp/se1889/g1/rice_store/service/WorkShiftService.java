@@ -2,34 +2,69 @@ package swp.se1889.g1.rice_store.service;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import swp.se1889.g1.rice_store.dto.RosterReportDTO;
+import swp.se1889.g1.rice_store.dto.WorkShiftAssignmentDTO;
 import swp.se1889.g1.rice_store.entity.Shift;
 import swp.se1889.g1.rice_store.entity.User;
 import swp.se1889.g1.rice_store.entity.WorkShift;
 import swp.se1889.g1.rice_store.repository.EmployeeRepository;
 import swp.se1889.g1.rice_store.repository.ShiftRepository;
 import swp.se1889.g1.rice_store.repository.UserRepository;
+import swp.se1889.g1.rice_store.repository.WorkShiftBulkRepository;
 import swp.se1889.g1.rice_store.repository.WorkShiftRepository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class WorkShiftService {
 
+    public static final int MAX_ROSTER_SIZE = 5000;
+
     private final WorkShiftRepository workShiftRepository;
     private final ShiftRepository shiftRepository;
     private final UserRepository userRepository;
+    private final EmployeeRepository employeeRepository;
+    private final WorkShiftBulkRepository workShiftBulkRepository;
+
+    // Chỉ mục phân công theo (cửa hàng, ngày đầu tuần): shiftId -> ngày -> danh sách employeeId.
+    // Bị xóa khi phân công / hủy phân công trong cửa hàng; TTL chỉ để phòng dữ liệu sửa ngoài ứng dụng.
+    private final Map<String, CachedWeek> weekCache = new ConcurrentHashMap<>();
+    // Thế hệ lịch của mỗi cửa hàng, tăng mỗi lần xóa cache. Lượt đọc ghi kèm thế hệ lúc bắt đầu truy vấn:
+    // nếu việc xóa chen vào giữa truy vấn và put thì mục vừa put mang thế hệ cũ và không bao giờ được dùng.
+    private final Map<Long, AtomicLong> scheduleGenerations = new ConcurrentHashMap<>();
+    private final long weekCacheTtlMillis;
 
     @Autowired
     public WorkShiftService(WorkShiftRepository workShiftRepository,
                             ShiftRepository shiftRepository,
-                            UserRepository userRepository) {
+                            UserRepository userRepository,
+                            EmployeeRepository employeeRepository,
+                            WorkShiftBulkRepository workShiftBulkRepository,
+                            @Value("${schedule.week-cache-ttl-seconds:300}") long weekCacheTtlSeconds) {
         this.workShiftRepository = workShiftRepository;
         this.shiftRepository = shiftRepository;
         this.userRepository = userRepository;
+        this.employeeRepository = employeeRepository;
+        this.workShiftBulkRepository = workShiftBulkRepository;
+        this.weekCacheTtlMillis = weekCacheTtlSeconds * 1000;
     }
 
 
@@ -37,6 +72,85 @@ public class WorkShiftService {
         return workShiftRepository.findByWorkDateBetween(startDate, endDate);
     }
 
+    public List<WorkShift> getStoreWorkShifts(Long storeId, LocalDate startDate, LocalDate endDate) {
+        return workShiftRepository.findByCreatedByAndWorkDateBetween(storeId.toString(), startDate, endDate);
+    }
+
+    // Lưới lịch tuần cho trang weeklySchedule: shiftCode -> ngày (yyyy-MM-dd) -> nhân viên
+    // Chi phí chỉ phụ thuộc số ca, số nhân viên và số phân công của cửa hàng trong tuần
+    public Map<String, Map<String, List<User>>> getWeekScheduleGrid(Long storeId, LocalDate weekStart,
+                                                                  List<Shift> shifts, List<User> users) {
+        Map<Long, Map<LocalDate, List<Long>>> assignments = getWeekAssignments(storeId, weekStart);
+        Map<Long, User> userById = users.stream().collect(Collectors.toMap(User::getId, Function.identity(), (a, b) -> a));
+
+        Map<String, Map<String, List<User>>> grid = new HashMap<>();
+        for (Shift shift : shifts) {
+            Map<LocalDate, List<Long>> byDay = assignments.getOrDefault(shift.getId(), Map.of());
+            Map<String, List<User>> shiftData = new HashMap<>();
+            for (int i = 0; i < 7; i++) {
+                LocalDate date = weekStart.plusDays(i);
+                List<User> employees = new ArrayList<>();
+                for (Long employeeId : byDay.getOrDefault(date, List.of())) {
+                    User employee = userById.get(employeeId);
+                    if (employee != null) {
+                        employees.add(employee);
+                    }
+                }
+                shiftData.put(date.toString(), employees);
+            }
+            grid.put(shift.getShiftCode(), shiftData);
+        }
+        return grid;
+    }
+
+    private Map<Long, Map<LocalDate, List<Long>>> getWeekAssignments(Long storeId, LocalDate weekStart) {
+        String key = storeId + "|" + weekStart;
+        long now = System.currentTimeMillis();
+        AtomicLong generation = scheduleGenerations.computeIfAbsent(storeId, k -> new AtomicLong());
+        long loadedGeneration = generation.get();
+        CachedWeek cached = weekCache.get(key);
+        if (cached != null && cached.expiresAt > now && cached.generation == loadedGeneration) {
+            return cached.assignments;
+        }
+
+        // Một lượt qua các phân công của tuần, gom theo ca rồi theo ngày
+        Map<Long, Map<LocalDate, List<Long>>> assignments = new HashMap<>();
+        for (WorkShift ws : getStoreWorkShifts(storeId, weekStart, weekStart.plusDays(6))) {
+            assignments.computeIfAbsent(ws.getShift(), k -> new HashMap<>())
+                    .computeIfAbsent(ws.getWorkDate(), k -> new ArrayList<>())
+                    .add(ws.getEmployee());
+        }
+        assignments.replaceAll((shiftId, byDay) -> {
+            byDay.replaceAll((day, ids) -> Collections.unmodifiableList(ids));
+            return Collections.unmodifiableMap(byDay);
+        });
+
+        weekCache.values().removeIf(c -> c.expiresAt <= now);
+        if (generation.get() == loadedGeneration) {
+            weekCache.put(key, new CachedWeek(Collections.unmodifiableMap(assignments), now + weekCacheTtlMillis, loadedGeneration));
+        }
+        return assignments;
+    }
+
+    public void evictSchedule(Long storeId) {
+        scheduleGenerations.computeIfAbsent(storeId, k -> new AtomicLong()).incrementAndGet();
+        weekCache.keySet().removeIf(k -> k.startsWith(storeId + "|"));
+    }
+
+    // Xoá cache sau khi commit: nếu xoá ngay, request đọc chen giữa có thể nạp lại lịch cũ chưa commit vào cache
+    private void evictScheduleAfterCommit(Long storeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictSchedule(storeId);
+                }
+            });
+        } else {
+            evictSchedule(storeId);
+        }
+    }
+
     @Transactional
     public void assignEmployeeToShift(Long employeeId, Long shiftId, LocalDate workDate, Long storeId) {
         // Check if employee and shift exist
@@ -61,33 +175,172 @@ public class WorkShiftService {
         workShift.setWorkDate(workDate);
 
         // Set scheduled times
-        LocalDateTime scheduledStart = LocalDateTime.of(workDate, shift.getStartTime());
-        LocalDateTime scheduledEnd = LocalDateTime.of(workDate, shift.getEndTime());
-
-        // Handle shifts that span midnight
-        if (shift.getEndTime().isBefore(shift.getStartTime())) {
-            scheduledEnd = scheduledEnd.plusDays(1);
-        }
-
-        workShift.setScheduledStartTime(scheduledStart);
-        workShift.setScheduledEndTime(scheduledEnd);
+        workShift.setScheduledStartTime(scheduledStart(shift, workDate));
+        workShift.setScheduledEndTime(scheduledEnd(shift, workDate));
         workShift.setCreatedAt(LocalDateTime.now());
         workShift.setUpdatedAt(LocalDateTime.now());
         workShift.setCreatedBy(storeId.toString());
         workShift.setUpdatedBy(storeId.toString());
         workShiftRepository.save(workShift);
+        evictScheduleAfterCommit(storeId);
     }
 
     @Transactional
-    public void removeEmployeeFromShift(Long employeeId, Long shiftId, LocalDate workDate) {
+    public void removeEmployeeFromShift(Long employeeId, Long shiftId, LocalDate workDate, Long storeId) {
         WorkShift workShift = workShiftRepository
                 .findByEmployeeAndShiftAndWorkDate(employeeId, shiftId, workDate);
 
         if (workShift != null) {
             workShiftRepository.delete(workShift);
+            evictScheduleAfterCommit(storeId);
         } else {
             throw new RuntimeException("Assignment not found");
         }
     }
 
+    /*
+     Phân công hàng loạt cho cả tuần / tháng.
+     Phân công hiện có của các nhân viên trong kế hoạch được nạp một lần (lùi một ngày để bắt ca qua nửa đêm),
+     mỗi nhân viên giữ một TreeMap start -> end gồm các khoảng rời nhau; kiểm tra chồng lấn chỉ cần
+     xem khoảng liền trước và liền sau: O(log n) mỗi dòng. Dòng hợp lệ được INSERT bằng một JDBC batch,
+     dòng bị loại trả về trong báo cáo. dryRun = true: chỉ kiểm tra, không ghi.
+    */
+    @Transactional
+    public RosterReportDTO assignRoster(Long storeId, List<WorkShiftAssignmentDTO> plan, boolean dryRun) {
+        if (plan == null || plan.isEmpty()) {
+            throw new IllegalArgumentException("Danh sách phân công trống");
+        }
+        if (plan.size() > MAX_ROSTER_SIZE) {
+            throw new IllegalArgumentException("Tối đa " + MAX_ROSTER_SIZE + " phân công mỗi lần");
+        }
+        RosterReportDTO report = new RosterReportDTO();
+        report.setRequested(plan.size());
+        report.setDryRun(dryRun);
+
+        Map<Long, Shift> shifts = shiftRepository.findByCreatedBy(storeId.toString()).stream()
+                .filter(sh -> !sh.isDeleted())
+                .collect(Collectors.toMap(Shift::getId, Function.identity()));
+        Set<Long> employees = employeeRepository.findByCreatedByAndRole(storeId, "ROLE_EMPLOYEE").stream()
+                .filter(u -> !u.isDeleted())
+                .map(User::getId)
+                .collect(Collectors.toSet());
+
+        LocalDate from = null;
+        LocalDate to = null;
+        Set<Long> plannedEmployees = new HashSet<>();
+        for (WorkShiftAssignmentDTO item : plan) {
+            if (item.getWorkDate() == null || item.getUserId() == null) continue;
+            plannedEmployees.add(item.getUserId());
+            if (from == null || item.getWorkDate().isBefore(from)) from = item.getWorkDate();
+            if (to == null || item.getWorkDate().isAfter(to)) to = item.getWorkDate();
+        }
+
+        Map<Long, EmployeeTimeline> timelines = new HashMap<>();
+        if (from != null && !plannedEmployees.isEmpty()) {
+            for (WorkShift ws : workShiftRepository.findByEmployeeInAndWorkDateBetween(plannedEmployees, from.minusDays(1), to.plusDays(1))) {
+                timelines.computeIfAbsent(ws.getEmployee(), k -> new EmployeeTimeline())
+                        .addExisting(ws.getShift(), ws.getWorkDate(), ws.getScheduledStartTime(), ws.getScheduledEndTime());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<WorkShift> toInsert = new ArrayList<>();
+        for (int i = 0; i < plan.size(); i++) {
+            WorkShiftAssignmentDTO item = plan.get(i);
+            if (item.getUserId() == null || item.getShiftId() == null || item.getWorkDate() == null) {
+                report.addConflict(i, item, "Thiếu nhân viên, ca hoặc ngày làm");
+                continue;
+            }
+            Shift shift = shifts.get(item.getShiftId());
+            if (shift == null) {
+                report.addConflict(i, item, "Ca làm việc không thuộc cửa hàng");
+                continue;
+            }
+            if (!employees.contains(item.getUserId())) {
+                report.addConflict(i, item, "Nhân viên không thuộc cửa hàng");
+                continue;
+            }
+            LocalDateTime start = scheduledStart(shift, item.getWorkDate());
+            LocalDateTime end = scheduledEnd(shift, item.getWorkDate());
+            String conflict = timelines.computeIfAbsent(item.getUserId(), k -> new EmployeeTimeline())
+                    .tryAdd(shift.getId(), item.getWorkDate(), start, end);
+            if (conflict != null) {
+                report.addConflict(i, item, conflict);
+                continue;
+            }
+
+            WorkShift workShift = new WorkShift();
+            workShift.setEmployee(item.getUserId());
+            workShift.setShift(shift.getId());
+            workShift.setWorkDate(item.getWorkDate());
+            workShift.setScheduledStartTime(start);
+            workShift.setScheduledEndTime(end);
+            workShift.setCreatedAt(now);
+            workShift.setUpdatedAt(now);
+            workShift.setCreatedBy(storeId.toString());
+            workShift.setUpdatedBy(storeId.toString());
+            toInsert.add(workShift);
+        }
+
+        if (!dryRun && !toInsert.isEmpty()) {
+            workShiftBulkRepository.insertAll(toInsert);
+            evictScheduleAfterCommit(storeId);
+        }
+        report.setAssigned(toInsert.size());
+        return report;
+    }
+
+    private static LocalDateTime scheduledStart(Shift shift, LocalDate workDate) {
+        return LocalDateTime.of(workDate, shift.getStartTime());
+    }
+
+    // Ca qua nửa đêm (giờ kết thúc trước giờ bắt đầu) kết thúc vào ngày hôm sau
+    private static LocalDateTime scheduledEnd(Shift shift, LocalDate workDate) {
+        LocalDateTime end = LocalDateTime.of(workDate, shift.getEndTime());
+        return shift.getEndTime().isBefore(shift.getStartTime()) ? end.plusDays(1) : end;
+    }
+
+    // Các khoảng làm việc của một nhân viên, luôn rời nhau (phân công cũ chồng nhau được gộp khi nạp)
+    private static class EmployeeTimeline {
+        private final TreeMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+        private final Set<String> assigned = new HashSet<>();
+
+        void addExisting(Long shiftId, LocalDate workDate, LocalDateTime start, LocalDateTime end) {
+            assigned.add(shiftId + "|" + workDate);
+            Map.Entry<LocalDateTime, LocalDateTime> before = intervals.floorEntry(start);
+            if (before != null && before.getValue().isAfter(start)) {
+                start = before.getKey();
+                if (before.getValue().isAfter(end)) end = before.getValue();
+                intervals.remove(before.getKey());
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> after;
+            while ((after = intervals.ceilingEntry(start)) != null && after.getKey().isBefore(end)) {
+                if (after.getValue().isAfter(end)) end = after.getValue();
+                intervals.remove(after.getKey());
+            }
+            intervals.put(start, end);
+        }
+
+        // Trả về lý do xung đột, hoặc null nếu đã nhận khoảng mới
+        String tryAdd(Long shiftId, LocalDate workDate, LocalDateTime start, LocalDateTime end) {
+            if (assigned.contains(shiftId + "|" + workDate)) {
+                return "Nhân viên đã được phân công ca này trong ngày";
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> before = intervals.floorEntry(start);
+            if (before != null && before.getValue().isAfter(start)) {
+                return "Trùng giờ với ca " + before.getKey() + " - " + before.getValue();
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> after = intervals.higherEntry(start);
+            if (after != null && after.getKey().isBefore(end)) {
+                return "Trùng giờ với ca " + after.getKey() + " - " + after.getValue();
+            }
+            assigned.add(shiftId + "|" + workDate);
+            intervals.put(start, end);
+            return null;
+        }
+    }
+
+    private record CachedWeek(Map<Long, Map<LocalDate, List<Long>>> assignments, long expiresAt, long generation) {
+    }
+
 }
@@ -0,0 +1,72 @@
+package swp.se1889.g1.rice_store.specification;
+
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+import swp.se1889.g1.rice_store.entity.CustomerChangeHistory;
+import swp.se1889.g1.rice_store.entity.CustomerChangeHistoryToken;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public class CustomerChangeHistorySpecifications {
+
+    public static Specification<CustomerChangeHistory> ownerEquals(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("ownerId"), ownerId);
+    }
+
+    public static Specification<CustomerChangeHistory> changedAtFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("changedAt"), from);
+    }
+
+    public static Specification<CustomerChangeHistory> changedAtTo(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("changedAt"), to);
+    }
+
+    // So khớp không phân biệt hoa thường: dữ liệu cũ lưu "email", "Địa Chỉ" trước khi có CustomerChangeHistory.FIELD_*
+    public static Specification<CustomerChangeHistory> changedFieldEquals(String changedField) {
+        return (root, query, cb) -> cb.equal(cb.lower(root.get("changedField")), changedField.toLowerCase(Locale.ROOT));
+    }
+
+    public static Specification<CustomerChangeHistory> customerNameContains(String customerName) {
+        return (root, query, cb) -> cb.like(joinOnce(root, "customer").get("name"), "%" + customerName + "%");
+    }
+
+    public static Specification<CustomerChangeHistory> changedByNameContains(String changedBy) {
+        return (root, query, cb) -> cb.like(joinOnce(root, "changedBy").get("name"), "%" + changedBy + "%");
+    }
+
+    // Mỗi từ tìm kiếm phải khớp tiền tố một token của old_value/new_value (tra trên chỉ mục đảo, không quét bảng lịch sử)
+    public static Specification<CustomerChangeHistory> valueMatchesTokens(Long ownerId, String text) {
+        return (root, query, cb) -> {
+            Set<String> words = CustomerChangeHistoryToken.tokenize(text);
+            List<Predicate> predicates = new ArrayList<>();
+            for (String word : words) {
+                Subquery<Long> subquery = query.subquery(Long.class);
+                Root<CustomerChangeHistoryToken> token = subquery.from(CustomerChangeHistoryToken.class);
+                subquery.select(token.get("historyId"))
+                        .where(cb.equal(token.get("ownerId"), ownerId),
+                                cb.like(token.get("token"), word + "%"));
+                predicates.add(root.get("id").in(subquery));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Dùng lại JOIN đã có trên root để trang kết quả và điều kiện lọc chỉ JOIN mỗi bảng một lần
+    @SuppressWarnings("unchecked")
+    public static <Y> Join<CustomerChangeHistory, Y> joinOnce(Root<CustomerChangeHistory> root, String attribute) {
+        for (Join<CustomerChangeHistory, ?> join : root.getJoins()) {
+            if (attribute.equals(join.getAttribute().getName()) && join.getJoinType() == JoinType.INNER) {
+                return (Join<CustomerChangeHistory, Y>) join;
+            }
+        }
+        return root.join(attribute);
+    }
+}
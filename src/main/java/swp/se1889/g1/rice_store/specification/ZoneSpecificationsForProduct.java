@@ -1,6 +1,10 @@
 package swp.se1889.g1.rice_store.specification;
 
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
 import org.springframework.data.jpa.domain.Specification;
+import swp.se1889.g1.rice_store.entity.Product;
 import swp.se1889.g1.rice_store.entity.Zone;
 
 import java.math.BigDecimal;
@@ -25,39 +29,51 @@ public class ZoneSpecificationsForProduct {
 
     public static Specification<Zone> joinProductName(String productName) {
         return (root, query, cb) -> {
-            var join = root.join("product");
+            var join = productJoin(root);
             return cb.like(cb.lower(join.get("name")), "%" + productName.toLowerCase() + "%");
         };
     }
 
     public static Specification<Zone> joinProductDescription(String description) {
         return (root, query, cb) -> {
-            var join = root.join("product");
+            var join = productJoin(root);
             return cb.like(cb.lower(join.get("description")), "%" + description.toLowerCase() + "%");
         };
     }
 
     public static Specification<Zone> joinProductPriceFrom(BigDecimal priceFrom) {
         return (root, query, cb) -> {
-            var join = root.join("product");
+            var join = productJoin(root);
             return cb.greaterThanOrEqualTo(join.get("price"), priceFrom);
         };
     }
 
     public static Specification<Zone> joinProductPriceTo(BigDecimal priceTo) {
         return (root, query, cb) -> {
-            var join = root.join("product");
+            var join = productJoin(root);
             return cb.lessThanOrEqualTo(join.get("price"), priceTo);
         };
     }
 
     public static Specification<Zone> notDeletedZoneAndProduct() {
         return (root, query, cb) -> {
-            var productJoin = root.join("product");
+            var productJoin = productJoin(root);
             return cb.and(
                     cb.isFalse(root.get("isDeleted")),
                     cb.isFalse(productJoin.get("isDeleted"))
             );
         };
     }
+
+    // Dùng chung một JOIN products cho mọi điều kiện trên cùng một root,
+    // tránh việc mỗi Specification tự tạo thêm một JOIN mới
+    @SuppressWarnings("unchecked")
+    public static Join<Zone, Product> productJoin(Root<Zone> root) {
+        for (Join<Zone, ?> join : root.getJoins()) {
+            if ("product".equals(join.getAttribute().getName()) && join.getJoinType() == JoinType.INNER) {
+                return (Join<Zone, Product>) join;
+            }
+        }
+        return root.join("product");
+    }
 }
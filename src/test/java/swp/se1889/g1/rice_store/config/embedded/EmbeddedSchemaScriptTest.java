@@ -0,0 +1,86 @@
+package swp.se1889.g1.rice_store.config.embedded;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ Dịch database/sqlswp1.sql thật: không còn cú pháp chỉ SQL Server có, không mất bảng nào.
+ Chạy schema trên H2 thật được kiểm ở SqlDialectEmbeddedTest (mvn -Pembedded-db test).
+*/
+class EmbeddedSchemaScriptTest {
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE\\s+TABLE\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    @Test
+    void translatesProjectSchemaWithoutSqlServerOnlySyntax() throws IOException {
+        String source = Files.readString(Path.of("database", "sqlswp1.sql"));
+        String h2 = EmbeddedSchemaScript.toH2(source);
+
+        assertThat(h2).doesNotContainPattern("(?im)^\\s*GO\\s*$")
+                .doesNotContainPattern("(?i)IDENTITY\\s*\\(")
+                .doesNotContainPattern("(?i)GETDATE|DATETIME|COLLATE|INCLUDE\\s*\\(|NVARCHAR\\s*\\(\\s*MAX")
+                .doesNotContainPattern("(?i)CREATE\\s+DATABASE|UPDATE\\s+STATISTICS|\\bUSE\\s+rice_store")
+                .doesNotContainPattern(",\\s*\\)\\s*;")
+                .doesNotContainPattern("(?i)NOT\\s+NULL\\s+DEFAULT");
+        assertThat(tables(h2)).isEqualTo(tables(source));
+    }
+
+    @Test
+    void keepsSeedRowsAndDropsBackfills() {
+        List<String> statements = EmbeddedSchemaScript.translate("""
+                INSERT INTO shifts (shift_code, shift_name) VALUES ('SHIFT001', 'Morning Shift');
+                INSERT INTO debt_monthly_summary (customer_id, total_amount)
+                SELECT customer_id, SUM(amount) FROM debt_records GROUP BY customer_id;
+                UPDATE h SET h.owner_id = u.id FROM customer_change_histories h JOIN users u ON u.username = h.additional_info;
+                DELETE FROM forgotPassword WHERE expiration_time < GETDATE();
+                """);
+
+        assertThat(statements).containsExactly("INSERT INTO shifts (shift_code, shift_name) VALUES ('SHIFT001', 'Morning Shift')");
+    }
+
+    @Test
+    void rewritesColumnDefinitionsAndIndexes() {
+        List<String> statements = EmbeddedSchemaScript.translate("""
+                CREATE TABLE forgotPassword (
+                    fpid BIGINT IDENTITY(1,1) PRIMARY KEY, -- khóa
+                    expiration_time DATETIME NOT NULL,
+                    [user_id] BIGINT NOT NULL,
+                );
+                GO
+                alter table invoice_details add created_at DATETIME NOT NULL DEFAULT GETDATE(),
+                    is_deleted BIT DEFAULT 0
+                go
+                CREATE UNIQUE INDEX idx_event ON customer_change_histories(event_id) WHERE event_id IS NOT NULL;
+                CREATE INDEX idx_zones_store ON zones(store_id) INCLUDE (product_id, quantity);
+                """);
+
+        assertThat(statements).hasSize(4);
+        assertThat(statements.get(0)).contains("fpid BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY")
+                .contains("expiration_time TIMESTAMP NOT NULL")
+                .doesNotContain("--")
+                .endsWith("[user_id] BIGINT NOT NULL\n)");
+        assertThat(statements.get(1)).startsWith("ALTER TABLE invoice_details ADD (created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,")
+                .endsWith("is_deleted BIT DEFAULT 0)");
+        assertThat(statements.get(2)).isEqualTo("CREATE UNIQUE INDEX idx_event ON customer_change_histories(event_id)");
+        assertThat(statements.get(3)).isEqualTo("CREATE INDEX idx_zones_store ON zones(store_id)");
+    }
+
+    private static Set<String> tables(String script) {
+        Set<String> tables = new TreeSet<>();
+        Matcher matcher = CREATE_TABLE.matcher(script);
+        while (matcher.find()) {
+            tables.add(matcher.group(1).toLowerCase());
+        }
+        return tables;
+    }
+}
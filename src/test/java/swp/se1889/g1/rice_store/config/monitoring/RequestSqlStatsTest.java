@@ -0,0 +1,79 @@
+package swp.se1889.g1.rice_store.config.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RequestSqlStatsTest {
+
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        RequestSqlStats.end();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void propagatingExecutorAttributesPoolSqlToTheRequest() {
+        RequestSqlStats stats = RequestSqlStats.begin("Test#report");
+        Executor executor = RequestSqlStats.propagating(pool);
+
+        stats.recordStatement(1_000);
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> RequestSqlStats.current().recordStatement(2_000), executor),
+                CompletableFuture.runAsync(() -> RequestSqlStats.current().recordHibernateSql("select 1"), executor)
+        ).join();
+
+        assertThat(stats.getStatements()).isEqualTo(2);
+        assertThat(stats.getDbNanos()).isEqualTo(3_000);
+        assertThat(stats.mostRepeated()).isEqualTo(Map.entry("select 1", 1));
+        // Thread của pool không giữ lại ngữ cảnh sau khi task xong
+        assertThat(CompletableFuture.supplyAsync(RequestSqlStats::current, pool).join()).isNull();
+    }
+
+    @Test
+    void propagatingExecutorOutsideRequestRunsTaskUnchanged() {
+        Executor executor = RequestSqlStats.propagating(pool);
+
+        assertThat(CompletableFuture.supplyAsync(RequestSqlStats::current, executor).join()).isNull();
+    }
+
+    @Test
+    void onlyTheOutermostDataSourceIsWrapped() throws Exception {
+        BeanPostProcessor postProcessor = SqlInstrumentationConfig.timingDataSourcePostProcessor(new MockEnvironment());
+        DataSource physical = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(physical.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+
+        Object inner = postProcessor.postProcessAfterInitialization(physical, "primaryDataSource");
+        Object outer = postProcessor.postProcessAfterInitialization(new DelegatingDataSource((DataSource) inner), "dataSource");
+
+        assertThat(inner).isSameAs(physical);
+        assertThat(outer).isInstanceOf(TimingDataSource.class);
+        assertThat(postProcessor.postProcessAfterInitialization(outer, "dataSource")).isSameAs(outer);
+
+        RequestSqlStats stats = RequestSqlStats.begin("Test#query");
+        try (Connection c = ((DataSource) outer).getConnection()) {
+            c.prepareStatement("select 1").execute();
+        }
+        assertThat(stats.getStatements()).isEqualTo(1);
+    }
+}
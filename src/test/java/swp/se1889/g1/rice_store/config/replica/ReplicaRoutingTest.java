@@ -0,0 +1,111 @@
+package swp.se1889.g1.rice_store.config.replica;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import swp.se1889.g1.rice_store.repository.UserRepository;
+import swp.se1889.g1.rice_store.service.DebtRecordService;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ Primary = DB nhúng của profile embedded, replica = một DB H2 thứ hai chỉ có bảng debt_monthly_summary với một dòng đánh dấu.
+ Trong cùng một request (open-in-view): câu SQL đầu tiên đi primary, transaction readOnly sau đó phải đọc được dòng đánh dấu
+ trên replica, và transaction ghi sau nữa phải ghi vào primary (dòng đánh dấu trên replica còn nguyên).
+ Chạy với: mvn -Pembedded-db test
+*/
+@SpringBootTest(properties = {
+        "reporting.replica.enabled=true",
+        "reporting.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "reporting.replica.lag-check=none"
+})
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+@Import(ReplicaRoutingTest.ReplicaProbeController.class)
+@EnabledIf("h2Available")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:rice_store_replica;MODE=MSSQLServer;DATABASE_TO_LOWER=TRUE;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=YEAR,MONTH,VALUE;DB_CLOSE_DELAY=-1";
+    private static final BigDecimal MARKER = new BigDecimal("123456789.00");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ReplicaLagGuard replicaLagGuard;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private long customerId;
+
+    static boolean h2Available() {
+        return ClassUtils.isPresent("org.h2.Driver", null);
+    }
+
+    @BeforeEach
+    void prepareReplica() {
+        customerId = jdbcTemplate.queryForObject("SELECT TOP 1 customer_id FROM debt_monthly_summary WHERE record_count > 0", Long.class);
+        replica.execute("""
+                CREATE TABLE IF NOT EXISTS debt_monthly_summary (
+                    customer_id BIGINT NOT NULL, [year] INT NOT NULL, [month] INT NOT NULL,
+                    total_amount DECIMAL(18,2) NOT NULL, record_count INT NOT NULL,
+                    PRIMARY KEY (customer_id, [year], [month]))
+                """);
+        replica.update("DELETE FROM debt_monthly_summary");
+        replica.update("INSERT INTO debt_monthly_summary VALUES (?, 2000, 1, ?, 1)", customerId, MARKER);
+        replicaLagGuard.check();
+        assertThat(replicaLagGuard.isAvailable()).isTrue();
+    }
+
+    @Test
+    void readOnlyTransactionInWebRequestUsesReplicaAndLaterWriteUsesPrimary() throws Exception {
+        mockMvc.perform(get("/test/replica-probe").param("customerId", String.valueOf(customerId)).with(user("probe")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(MARKER.toPlainString()));
+
+        // rebuildMonthlySummary (xóa rồi dựng lại theo debt_records) không được chạm vào replica
+        assertThat(replica.queryForObject("SELECT total_amount FROM debt_monthly_summary WHERE customer_id = ?",
+                BigDecimal.class, customerId)).isEqualByComparingTo(MARKER);
+        List<BigDecimal> primaryTotals = jdbcTemplate.queryForList(
+                "SELECT total_amount FROM debt_monthly_summary WHERE customer_id = ?", BigDecimal.class, customerId);
+        assertThat(primaryTotals).isNotEmpty().noneMatch(total -> total.compareTo(MARKER) == 0);
+    }
+
+    @RestController
+    static class ReplicaProbeController {
+
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private DebtRecordService debtRecordService;
+
+        @GetMapping("/test/replica-probe")
+        String probe(@RequestParam Long customerId) {
+            // giống getCurrentUser(): câu SQL đầu tiên của request, ngoài transaction -> primary
+            userRepository.findByUsername("user5");
+            List<Object[]> months = debtRecordService.getMonthlyDebt(customerId);
+            debtRecordService.rebuildMonthlySummary(customerId);
+            return ((BigDecimal) months.get(0)[2]).toPlainString();
+        }
+    }
+}
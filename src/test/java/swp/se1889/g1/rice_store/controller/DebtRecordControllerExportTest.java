@@ -0,0 +1,73 @@
+package swp.se1889.g1.rice_store.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import swp.se1889.g1.rice_store.service.CustomerService;
+import swp.se1889.g1.rice_store.service.DebtAgingService;
+import swp.se1889.g1.rice_store.service.DebtRecordService;
+import swp.se1889.g1.rice_store.service.ExportService;
+import swp.se1889.g1.rice_store.service.UserServiceIpml;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// /debt/export chỉ xuất lịch sử nợ của khách thuộc owner hiện tại; khách của owner khác trả 404 trước khi ghi gì ra response
+@ExtendWith(MockitoExtension.class)
+class DebtRecordControllerExportTest {
+
+    @Mock
+    private DebtRecordService debtRecordService;
+    @Mock
+    private CustomerService customerService;
+    @Mock
+    private UserServiceIpml userService;
+    @Mock
+    private ExportService exportService;
+    @Mock
+    private DebtAgingService debtAgingService;
+    @InjectMocks
+    private DebtRecordController debtRecordController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(debtRecordController).build();
+    }
+
+    @Test
+    void otherOwnersCustomerIsNotFound() throws Exception {
+        when(customerService.isCustomerOfCurrentOwner(99L)).thenReturn(false);
+
+        mockMvc.perform(get("/debt/export").param("customerId", "99").param("format", "csv"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION));
+
+        verifyNoInteractions(debtRecordService, exportService);
+    }
+
+    @Test
+    void ownCustomerIsExported() throws Exception {
+        when(customerService.isCustomerOfCurrentOwner(7L)).thenReturn(true);
+
+        mockMvc.perform(get("/debt/export").param("customerId", "7").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("lich-su-no-7")));
+
+        verify(exportService).exportDebtRecords(any(), eq(ExportService.FORMAT_CSV), any());
+    }
+}
@@ -0,0 +1,118 @@
+package swp.se1889.g1.rice_store.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+import swp.se1889.g1.rice_store.dto.MailBodyDTO;
+import swp.se1889.g1.rice_store.dto.TopProductDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ Khởi động profile embedded (schema dịch từ database/sqlswp1.sql + FakeData) và chạy các nhánh không phải SQL Server
+ của SqlDialect: MERGE không HOLDLOCK, nhận email bằng UPDATE có điều kiện thay cho READPAST/OUTPUT, DELETE TOP qua IN.
+ DB H2 riêng để không đụng schema của các test embedded khác trong cùng JVM.
+ Chạy với: mvn -Pembedded-db test
+*/
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rice_store_dialect;MODE=MSSQLServer;DATABASE_TO_LOWER=TRUE;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;NON_KEYWORDS=YEAR,MONTH,VALUE;DB_CLOSE_DELAY=-1",
+        "embedded.seed.scale-factor=0.001"
+})
+@ActiveProfiles("embedded")
+@Transactional
+@EnabledIf("h2Available")
+class SqlDialectEmbeddedTest {
+
+    // Xa trong tương lai để EmailDispatcher chạy nền không nhận mất email của test
+    private static final LocalDateTime LATER = LocalDateTime.now().plusYears(10);
+
+    @Autowired
+    private SqlDialect sqlDialect;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DebtMonthlySummaryRepository debtMonthlySummaryRepository;
+    @Autowired
+    private ProductSalesCounterRepository productSalesCounterRepository;
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    static boolean h2Available() {
+        return ClassUtils.isPresent("org.h2.Driver", null);
+    }
+
+    @Test
+    void embeddedDatabaseIsNotSqlServer() {
+        assertThat(sqlDialect.isSqlServer()).isFalse();
+        assertThat(sqlDialect.mergeTarget("debt_monthly_summary")).isEqualTo("debt_monthly_summary");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shifts", Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void debtSummaryMergeInsertsThenAccumulates() {
+        long customerId = jdbcTemplate.queryForObject("SELECT TOP 1 id FROM customers ORDER BY id", Long.class);
+        YearMonth month = YearMonth.of(1999, 1);
+
+        debtMonthlySummaryRepository.applyDelta(customerId, month, new BigDecimal("100.00"), 1);
+        debtMonthlySummaryRepository.applyDelta(customerId, month, new BigDecimal("50.50"), 1);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT total_amount, record_count FROM debt_monthly_summary WHERE customer_id = ? AND [year] = 1999 AND [month] = 1",
+                customerId);
+        assertThat((BigDecimal) row.get("total_amount")).isEqualByComparingTo("150.50");
+        assertThat(((Number) row.get("record_count")).intValue()).isEqualTo(2);
+    }
+
+    @Test
+    void productCounterMergeInsertsThenAccumulates() {
+        long storeId = jdbcTemplate.queryForObject("SELECT TOP 1 id FROM stores ORDER BY id", Long.class);
+        long productId = jdbcTemplate.queryForObject("SELECT TOP 1 id FROM products ORDER BY id", Long.class);
+        LocalDate day = LocalDate.of(1999, 1, 15);
+
+        productSalesCounterRepository.addAll(storeId, day, Map.of(productId, new ProductSalesCounterRepository.Delta(3, new BigDecimal("30"))));
+        productSalesCounterRepository.addAll(storeId, day, Map.of(productId, new ProductSalesCounterRepository.Delta(2, new BigDecimal("20"))));
+
+        List<TopProductDTO> top = productSalesCounterRepository.findTop(storeId, day, day, 5);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getProductId()).isEqualTo(productId);
+        assertThat(top.get(0).getQuantitySold()).isEqualTo(5);
+        assertThat(top.get(0).getRevenue()).isEqualByComparingTo("50");
+    }
+
+    @Test
+    void outboxClaimsEachEmailOnceAndPurgesSent() {
+        emailOutboxRepository.insert(new MailBodyDTO("dialect-a@test.local", "a", "body"), LATER);
+        emailOutboxRepository.insert(new MailBodyDTO("dialect-b@test.local", "b", "body"), LATER);
+
+        List<EmailOutboxRepository.OutboxEmail> claimed = ours(emailOutboxRepository.claimBatch(100, LATER, LATER.plusMinutes(2)));
+        assertThat(claimed).extracting(EmailOutboxRepository.OutboxEmail::to)
+                .containsExactlyInAnyOrder("dialect-a@test.local", "dialect-b@test.local");
+        assertThat(claimed).allMatch(email -> email.attempts() == 1);
+
+        // Đang trong hạn thuê: lượt nhận thứ hai không được lấy lại
+        assertThat(ours(emailOutboxRepository.claimBatch(100, LATER.plusMinutes(1), LATER.plusMinutes(3)))).isEmpty();
+
+        emailOutboxRepository.markSent(claimed.stream().map(EmailOutboxRepository.OutboxEmail::id).toList(), LATER);
+        assertThat(emailOutboxRepository.purgeSent(LATER.plusMinutes(1), 1)).isEqualTo(1);
+        emailOutboxRepository.purgeSent(LATER.plusMinutes(1), 100);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox WHERE recipient LIKE 'dialect-%'", Integer.class))
+                .isZero();
+    }
+
+    private static List<EmailOutboxRepository.OutboxEmail> ours(List<EmailOutboxRepository.OutboxEmail> emails) {
+        return emails.stream().filter(email -> email.to().startsWith("dialect-")).toList();
+    }
+}
@@ -0,0 +1,129 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import org.junit.jupiter.api.Test;
+import swp.se1889.g1.rice_store.research.bench.LatencyStatistics.KolmogorovSmirnov;
+import swp.se1889.g1.rice_store.research.bench.LatencyStatistics.MannWhitney;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/*
+ Giá trị kỳ vọng tính độc lập theo công thức chuẩn (Mann–Whitney xấp xỉ chuẩn, có hiệu chỉnh liên tục và hiệu chỉnh hạng bằng nhau,
+ cùng cách tính với scipy.stats.mannwhitneyu method="asymptotic").
+*/
+class LatencyStatisticsTest {
+
+    @Test
+    void identicalSamplesAreIndistinguishable() {
+        long[] samples = latencies(200, 1);
+
+        MannWhitney mw = LatencyStatistics.mannWhitney(samples, samples.clone());
+        KolmogorovSmirnov ks = LatencyStatistics.kolmogorovSmirnov(samples, samples.clone());
+
+        assertThat(mw.u()).isEqualTo(200 * 200 / 2.0);
+        assertThat(mw.z()).isZero();
+        assertThat(mw.pValue()).isCloseTo(1.0, within(1e-6));
+        assertThat(mw.superiority()).isEqualTo(0.5);
+        assertThat(ks.d()).isZero();
+        assertThat(ks.pValue()).isEqualTo(1.0);
+
+        double[] ci = LatencyStatistics.bootstrapMedianChange(samples, samples.clone(), 500, 42);
+        assertThat(ci[0]).isLessThanOrEqualTo(0);
+        assertThat(ci[1]).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void fullySeparatedSamplesMatchTextbookValues() {
+        long[] baseline = {1, 2, 3, 4, 5};
+        long[] candidate = {6, 7, 8, 9, 10};
+
+        MannWhitney mw = LatencyStatistics.mannWhitney(baseline, candidate);
+
+        assertThat(mw.u()).isEqualTo(25);
+        assertThat(mw.superiority()).isEqualTo(1.0);
+        assertThat(mw.z()).isCloseTo(2.5067182, within(1e-6));
+        assertThat(mw.pValue()).isCloseTo(0.0121858, within(1e-6));
+        assertThat(LatencyStatistics.kolmogorovSmirnov(baseline, candidate).d()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shiftedDistributionIsSignificant() {
+        long[] baseline = latencies(300, 1);
+        long[] candidate = Arrays.stream(latencies(300, 2)).map(v -> v * 13 / 10).toArray();
+
+        MannWhitney mw = LatencyStatistics.mannWhitney(baseline, candidate);
+        KolmogorovSmirnov ks = LatencyStatistics.kolmogorovSmirnov(baseline, candidate);
+        double[] ci = LatencyStatistics.bootstrapMedianChange(baseline, candidate, 1000, 42);
+
+        assertThat(mw.pValue()).isLessThan(1e-6);
+        assertThat(mw.superiority()).isGreaterThan(0.75);
+        assertThat(ks.pValue()).isLessThan(1e-6);
+        assertThat(ci[0]).isGreaterThan(0.15);
+        assertThat(ci[1]).isLessThan(0.45);
+
+        // Đổi vai trò: candidate nhanh hơn thì z âm, superiority < 0.5, p không đổi
+        MannWhitney reversed = LatencyStatistics.mannWhitney(candidate, baseline);
+        assertThat(reversed.z()).isCloseTo(-mw.z(), within(1e-9));
+        assertThat(reversed.superiority()).isCloseTo(1 - mw.superiority(), within(1e-12));
+        assertThat(reversed.pValue()).isCloseTo(mw.pValue(), within(1e-12));
+    }
+
+    @Test
+    void tieHeavySamplesUseAverageRanksAndTieCorrection() {
+        long[] baseline = repeat(new long[]{1, 2, 3}, new int[]{10, 10, 10});
+        long[] candidate = repeat(new long[]{1, 2, 3}, new int[]{5, 10, 15});
+
+        MannWhitney mw = LatencyStatistics.mannWhitney(baseline, candidate);
+
+        // U = #(candidate > baseline) + 0.5 #(bằng nhau) = 550 trên 900 cặp
+        assertThat(mw.u()).isEqualTo(550);
+        assertThat(mw.superiority()).isCloseTo(550 / 900.0, within(1e-12));
+        assertThat(mw.z()).isCloseTo(1.5724005, within(1e-6));
+        assertThat(mw.pValue()).isCloseTo(0.1158577, within(1e-6));
+    }
+
+    @Test
+    void allTiedSamplesDoNotProduceNaN() {
+        long[] baseline = repeat(new long[]{7}, new int[]{25});
+        long[] candidate = repeat(new long[]{7}, new int[]{40});
+
+        MannWhitney mw = LatencyStatistics.mannWhitney(baseline, candidate);
+
+        assertThat(mw.z()).isZero();
+        assertThat(mw.pValue()).isCloseTo(1.0, within(1e-6));
+        assertThat(mw.superiority()).isEqualTo(0.5);
+        assertThat(LatencyStatistics.kolmogorovSmirnov(baseline, candidate).d()).isZero();
+    }
+
+    @Test
+    void percentileUsesNearestRank() {
+        long[] sorted = {10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+
+        assertThat(LatencyStatistics.percentile(sorted, 50)).isEqualTo(50);
+        assertThat(LatencyStatistics.percentile(sorted, 99)).isEqualTo(100);
+        assertThat(LatencyStatistics.percentile(sorted, 0)).isEqualTo(10);
+        assertThat(LatencyStatistics.percentile(new long[0], 50)).isZero();
+        assertThat(LatencyStatistics.erfc(1.0)).isCloseTo(0.1572992, within(1e-6));
+    }
+
+    // Độ trễ giả lập quanh 1 ms, lệch phải, xác định theo seed
+    static long[] latencies(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = 1_000_000 + (long) (-Math.log(1 - random.nextDouble()) * 200_000);
+        }
+        return values;
+    }
+
+    private static long[] repeat(long[] values, int[] counts) {
+        return IntStream.range(0, values.length).boxed()
+                .flatMapToLong(i -> LongStream.generate(() -> values[i]).limit(counts[i]))
+                .toArray();
+    }
+}
@@ -0,0 +1,96 @@
+package swp.se1889.g1.rice_store.research.bench;
+
+import org.junit.jupiter.api.Test;
+import swp.se1889.g1.rice_store.research.bench.BenchmarkRunStore.StoredRun;
+import swp.se1889.g1.rice_store.research.bench.RunComparison.ScenarioComparison;
+import swp.se1889.g1.rice_store.research.bench.RunComparison.Settings;
+import swp.se1889.g1.rice_store.research.bench.RunComparison.Verdict;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static swp.se1889.g1.rice_store.research.bench.LatencyStatisticsTest.latencies;
+
+class RunComparisonTest {
+
+    private static final Settings SETTINGS = new Settings(0.05, 0.05, 0.10, 200);
+
+    @Test
+    void identicalRunsAreUnchanged() {
+        long[] samples = latencies(300, 1);
+
+        RunComparison comparison = compare(Map.of("read/list", samples), Map.of("read/list", samples.clone()));
+
+        ScenarioComparison scenario = comparison.getScenarios().get(0);
+        assertThat(scenario.verdict()).isEqualTo(Verdict.UNCHANGED);
+        assertThat(scenario.medianChange()).isZero();
+        assertThat(scenario.mannWhitney().pValue()).isCloseTo(1.0, within(1e-6));
+    }
+
+    @Test
+    void shiftedMedianIsRegressionOrImprovement() {
+        long[] baseline = latencies(300, 1);
+        long[] slower = scale(latencies(300, 2), 1.3);
+        long[] faster = scale(latencies(300, 3), 0.7);
+
+        RunComparison comparison = compare(Map.of("read/list", baseline, "write/save", baseline),
+                Map.of("read/list", slower, "write/save", faster));
+
+        assertThat(verdict(comparison, "read/list")).isEqualTo(Verdict.REGRESSION);
+        assertThat(verdict(comparison, "write/save")).isEqualTo(Verdict.IMPROVEMENT);
+    }
+
+    @Test
+    void tailOnlySlowdownIsRegressionViaKolmogorovSmirnov() {
+        long[] baseline = latencies(400, 1);
+        long[] candidate = latencies(400, 2);
+        long median = LatencyStatistics.percentile(LatencyStatistics.sorted(candidate), 50);
+        // Giữ nguyên nửa dưới, kéo giãn nửa trên gấp 3: trung vị gần như không đổi, đuôi chậm hẳn
+        long[] stretched = Arrays.stream(candidate).map(v -> v <= median ? v : median + 3 * (v - median)).toArray();
+
+        ScenarioComparison scenario = compare(Map.of("report/debt", baseline), Map.of("report/debt", stretched))
+                .getScenarios().get(0);
+
+        assertThat(Math.abs(scenario.medianChange())).isLessThan(SETTINGS.threshold());
+        assertThat(scenario.p99Change()).isGreaterThan(SETTINGS.tailThreshold());
+        assertThat(scenario.ks().pValue()).isLessThan(SETTINGS.alpha());
+        assertThat(scenario.verdict()).isEqualTo(Verdict.REGRESSION);
+    }
+
+    @Test
+    void tooFewOrAbsentSamplesAreMissing() {
+        long[] samples = latencies(300, 1);
+
+        RunComparison comparison = compare(
+                Map.of("read/list", samples, "read/detail", Arrays.copyOf(samples, 19)),
+                Map.of("read/list", samples, "read/detail", Arrays.copyOf(samples, 19), "write/new", samples));
+
+        assertThat(verdict(comparison, "read/detail")).isEqualTo(Verdict.MISSING);
+        assertThat(verdict(comparison, "write/new")).isEqualTo(Verdict.MISSING);
+        assertThat(comparison.count(Verdict.UNCHANGED)).isEqualTo(1);
+        assertThat(comparison.count(Verdict.MISSING)).isEqualTo(2);
+        assertThat(comparison.toMarkdown()).contains("**0 regression(s), 0 improvement(s), 1 unchanged, 2 missing**");
+        assertThat(comparison.toHtml()).contains("<b>0 regression(s), 0 improvement(s), 1 unchanged, 2 missing</b>");
+    }
+
+    private static RunComparison compare(Map<String, long[]> baseline, Map<String, long[]> candidate) {
+        return new RunComparison(run("baseline", baseline), run("candidate", candidate), SETTINGS);
+    }
+
+    private static StoredRun run(String runId, Map<String, long[]> samples) {
+        Map<String, Object> run = Map.of("runId", runId, "plan", "test", "metadata", Map.of("gitCommit", runId));
+        return new StoredRun(Path.of(runId), run, new LinkedHashMap<>(samples));
+    }
+
+    private static Verdict verdict(RunComparison comparison, String key) {
+        return comparison.getScenarios().stream().filter(s -> s.key().equals(key)).findFirst().orElseThrow().verdict();
+    }
+
+    private static long[] scale(long[] samples, double factor) {
+        return Arrays.stream(samples).map(v -> Math.round(v * factor)).toArray();
+    }
+}
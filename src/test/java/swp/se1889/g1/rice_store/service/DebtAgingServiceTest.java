@@ -0,0 +1,151 @@
+package swp.se1889.g1.rice_store.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import swp.se1889.g1.rice_store.dto.DebtAgingDTO;
+import swp.se1889.g1.rice_store.entity.DebtRecords.DebtType;
+import swp.se1889.g1.rice_store.repository.DebtAgingRepository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ Phân bổ FIFO vào nhóm tuổi nợ: khoản trả luôn trừ vào nhóm cũ nhất trước, phần trả dư thành dư nợ chiều ngược lại.
+ Khách nợ cửa hàng = Customer_debt_shop, khách trả nợ = Customer_return_shop.
+*/
+@ExtendWith(MockitoExtension.class)
+class DebtAgingServiceTest {
+
+    private static final long OWNER_ID = 1L;
+    private static final LocalDate AS_OF = LocalDate.of(2024, 6, 30);
+
+    @Mock
+    private DebtAgingRepository debtAgingRepository;
+    @Mock
+    private UserServiceIpml userService;
+    @InjectMocks
+    private DebtAgingService debtAgingService;
+
+    @Test
+    void bucketBoundariesAreInclusiveUpperBounds() {
+        assertThat(DebtAgingService.bucketOf(AS_OF, AS_OF)).isZero();
+        assertThat(DebtAgingService.bucketOf(daysAgo(30), AS_OF)).isZero();
+        assertThat(DebtAgingService.bucketOf(daysAgo(31), AS_OF)).isEqualTo(1);
+        assertThat(DebtAgingService.bucketOf(daysAgo(60), AS_OF)).isEqualTo(1);
+        assertThat(DebtAgingService.bucketOf(daysAgo(61), AS_OF)).isEqualTo(2);
+        assertThat(DebtAgingService.bucketOf(daysAgo(90), AS_OF)).isEqualTo(2);
+        assertThat(DebtAgingService.bucketOf(daysAgo(91), AS_OF)).isEqualTo(3);
+    }
+
+    @Test
+    void debtsOnExactBoundariesLandInTheYoungerBucket() throws SQLException {
+        List<DebtAgingDTO> rows = age(
+                debt(10, DebtType.Customer_debt_shop, 91, "32"),
+                debt(10, DebtType.Customer_debt_shop, 90, "16"),
+                debt(10, DebtType.Customer_debt_shop, 61, "8"),
+                debt(10, DebtType.Customer_debt_shop, 60, "4"),
+                debt(10, DebtType.Customer_debt_shop, 31, "2"),
+                debt(10, DebtType.Customer_debt_shop, 30, "1"));
+
+        assertThat(rows).hasSize(1);
+        assertBuckets(rows.get(0), "63", "1", "6", "24", "32");
+        assertThat(rows.get(0).isCustomerOwesShop()).isTrue();
+    }
+
+    @Test
+    void partialRepaymentClearsOldestBucketsFirst() throws SQLException {
+        List<DebtAgingDTO> rows = age(
+                debt(10, DebtType.Customer_debt_shop, 120, "100"),
+                debt(10, DebtType.Customer_debt_shop, 75, "200"),
+                debt(10, DebtType.Customer_debt_shop, 45, "300"),
+                debt(10, DebtType.Customer_debt_shop, 10, "400"),
+                debt(10, DebtType.Customer_return_shop, 5, "350"));
+
+        // 350 = 100 (trên 90) + 200 (61–90) + 50 (31–60)
+        assertThat(rows).hasSize(1);
+        assertBuckets(rows.get(0), "650", "400", "250", "0", "0");
+        assertThat(rows.get(0).getBalance()).isEqualByComparingTo("-650");
+    }
+
+    @Test
+    void overpaymentFlipsToShopOwingCustomerInPaymentBucket() throws SQLException {
+        List<DebtAgingDTO> rows = age(
+                debt(10, DebtType.Customer_debt_shop, 100, "70"),
+                debt(10, DebtType.Customer_debt_shop, 40, "30"),
+                debt(10, DebtType.Customer_return_shop, 35, "150"));
+
+        // Trả dư 50 tính tuổi từ ngày trả (35 ngày), không phải từ ngày của khoản nợ cũ
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).isCustomerOwesShop()).isFalse();
+        assertBuckets(rows.get(0), "50", "0", "50", "0", "0");
+    }
+
+    @Test
+    void settledCustomersAreSkippedAndStateResetsPerCustomer() throws SQLException {
+        List<DebtAgingDTO> rows = age(
+                debt(10, DebtType.Customer_debt_shop, 100, "80"),
+                debt(10, DebtType.Customer_return_shop, 50, "80"),
+                debt(11, DebtType.Customer_debt_shop, 95, "0"),
+                debt(11, DebtType.Customer_debt_shop, 20, "40"),
+                debt(12, DebtType.Shop_debt_customer, 70, "15"));
+
+        assertThat(rows).extracting(DebtAgingDTO::getCustomerId).containsExactly(11L, 12L);
+        assertBuckets(rows.get(0), "40", "40", "0", "0", "0");
+        assertBuckets(rows.get(1), "15", "0", "0", "15", "0");
+        assertThat(rows.get(1).isCustomerOwesShop()).isFalse();
+    }
+
+    private List<DebtAgingDTO> age(ResultSet... records) throws SQLException {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : records) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(debtAgingRepository).forEachDebtRecord(eq(OWNER_ID), any());
+        List<DebtAgingDTO> rows = new ArrayList<>();
+        debtAgingService.forEachCustomer(OWNER_ID, AS_OF, rows::add);
+        return rows;
+    }
+
+    // Một dòng của DebtAgingRepository: customer_id, name, phone, type, amount, create_on
+    private static ResultSet debt(long customerId, DebtType type, int daysAgo, String amount) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(customerId);
+        when(rs.getString(2)).thenReturn("Khách " + customerId);
+        when(rs.getString(3)).thenReturn("09000000" + customerId);
+        when(rs.getString(4)).thenReturn(type.name());
+        when(rs.getBigDecimal(5)).thenReturn(new BigDecimal(amount));
+        when(rs.getTimestamp(6)).thenReturn(Timestamp.valueOf(daysAgo(daysAgo).atTime(9, 0)));
+        return rs;
+    }
+
+    private static void assertBuckets(DebtAgingDTO row, String total, String current, String days31To60,
+                                      String days61To90, String over90) {
+        assertThat(row.getTotal()).isEqualByComparingTo(total);
+        assertThat(row.getCurrent()).isEqualByComparingTo(current);
+        assertThat(row.getDays31To60()).isEqualByComparingTo(days31To60);
+        assertThat(row.getDays61To90()).isEqualByComparingTo(days61To90);
+        assertThat(row.getOver90()).isEqualByComparingTo(over90);
+    }
+
+    private static LocalDate daysAgo(int days) {
+        return AS_OF.minusDays(days);
+    }
+}
@@ -0,0 +1,141 @@
+package swp.se1889.g1.rice_store.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import swp.se1889.g1.rice_store.repository.ForgotPasswordRepository;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OtpServiceTest {
+
+    private static final long USER_ID = 42L;
+    private static final String EMAIL = "user@test.local";
+
+    private final ForgotPasswordRepository forgotPasswordRepository = mock(ForgotPasswordRepository.class);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void issuedOtpVerifiesAndWrongOtpDoesNot() {
+        OtpService otpService = otpService(60, 5, 0, 5);
+
+        int otp = otpService.issue(USER_ID, EMAIL);
+
+        assertThat(otp).isBetween(100_000, 999_999);
+        assertThat(otpService.verify(USER_ID, wrong(otp))).isEqualTo(OtpService.VerifyResult.INVALID);
+        assertThat(otpService.verify(USER_ID, otp)).isEqualTo(OtpService.VerifyResult.VALID);
+        assertThat(otpService.verify(USER_ID + 1, otp)).isEqualTo(OtpService.VerifyResult.INVALID);
+    }
+
+    @Test
+    void expiredOtpIsRejectedAndRemoved() {
+        OtpService otpService = otpService(0, 5, 0, 5);
+
+        int otp = otpService.issue(USER_ID, EMAIL);
+
+        assertThat(otpService.verify(USER_ID, otp)).isEqualTo(OtpService.VerifyResult.EXPIRED);
+        assertThat(otpService.verify(USER_ID, otp)).isEqualTo(OtpService.VerifyResult.INVALID);
+        verify(forgotPasswordRepository, atLeastOnce()).deleteByUserId(USER_ID);
+    }
+
+    @Test
+    void tooManyWrongAttemptsInvalidateTheOtp() {
+        OtpService otpService = otpService(60, 5, 0, 3);
+
+        int otp = otpService.issue(USER_ID, EMAIL);
+        assertThat(otpService.verify(USER_ID, wrong(otp))).isEqualTo(OtpService.VerifyResult.INVALID);
+        assertThat(otpService.verify(USER_ID, wrong(otp))).isEqualTo(OtpService.VerifyResult.INVALID);
+        assertThat(otpService.verify(USER_ID, otp)).isEqualTo(OtpService.VerifyResult.VALID);
+
+        // Lần sai thứ 3 chạm giới hạn: OTP đúng cũng không dùng được nữa
+        assertThat(otpService.verify(USER_ID, wrong(otp))).isEqualTo(OtpService.VerifyResult.INVALID);
+        assertThat(otpService.verify(USER_ID, otp)).isEqualTo(OtpService.VerifyResult.INVALID);
+    }
+
+    @Test
+    void newOtpReplacesPreviousOne() {
+        OtpService otpService = otpService(60, 5, 0, 5);
+
+        int first = otpService.issue(USER_ID, EMAIL);
+        int second = otpService.issue(USER_ID, EMAIL);
+
+        if (first != second) {
+            assertThat(otpService.verify(USER_ID, first)).isEqualTo(OtpService.VerifyResult.INVALID);
+        }
+        assertThat(otpService.verify(USER_ID, second)).isEqualTo(OtpService.VerifyResult.VALID);
+    }
+
+    @Test
+    void requestsAreLimitedPerEmailIgnoringCase() {
+        OtpService limited = otpService(60, 2, 0, 5);
+        limited.issue(USER_ID, EMAIL);
+        limited.issue(USER_ID, EMAIL.toUpperCase());
+        assertThatThrownBy(() -> limited.issue(USER_ID, EMAIL))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("quá nhiều lần");
+
+        OtpService throttled = otpService(60, 5, 30, 5);
+        throttled.issue(USER_ID, EMAIL);
+        assertThatThrownBy(() -> throttled.issue(USER_ID, EMAIL))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Vui lòng đợi");
+    }
+
+    @Test
+    void otpIsUsableOnlyAfterCommit() {
+        OtpService otpService = otpService(60, 5, 0, 5);
+        int previous = otpService.issue(USER_ID, EMAIL);
+
+        TransactionSynchronizationManager.initSynchronization();
+        int rolledBack = otpService.issue(USER_ID, EMAIL);
+        // Rollback: không gọi afterCommit, OTP cũ vẫn là OTP hiện hành
+        TransactionSynchronizationManager.clearSynchronization();
+        if (rolledBack != previous) {
+            assertThat(otpService.verify(USER_ID, rolledBack)).isEqualTo(OtpService.VerifyResult.INVALID);
+        }
+        assertThat(otpService.verify(USER_ID, previous)).isEqualTo(OtpService.VerifyResult.VALID);
+
+        TransactionSynchronizationManager.initSynchronization();
+        int committed = otpService.issue(USER_ID, EMAIL);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertThat(otpService.verify(USER_ID, committed)).isEqualTo(OtpService.VerifyResult.VALID);
+    }
+
+    @Test
+    void purgeRemovesExpiredOtpsAndTableRows() {
+        OtpService otpService = otpService(0, 5, 0, 5);
+        int otp = otpService.issue(USER_ID, EMAIL);
+
+        otpService.purgeExpired();
+
+        assertThat(otpService.verify(USER_ID, otp)).isEqualTo(OtpService.VerifyResult.INVALID);
+        verify(forgotPasswordRepository).deleteExpired(any(Date.class));
+    }
+
+    private OtpService otpService(long ttlSeconds, int maxRequests, long minIntervalSeconds, int maxFailedAttempts) {
+        OtpService otpService = new OtpService(ttlSeconds, maxRequests, 900, minIntervalSeconds, maxFailedAttempts);
+        ReflectionTestUtils.setField(otpService, "forgotPasswordRepository", forgotPasswordRepository);
+        return otpService;
+    }
+
+    private static int wrong(int otp) {
+        return otp == 123_456 ? 654_321 : 123_456;
+    }
+}
@@ -0,0 +1,164 @@
+package swp.se1889.g1.rice_store.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import swp.se1889.g1.rice_store.dto.RosterReportDTO;
+import swp.se1889.g1.rice_store.dto.WorkShiftAssignmentDTO;
+import swp.se1889.g1.rice_store.entity.Shift;
+import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.entity.WorkShift;
+import swp.se1889.g1.rice_store.repository.EmployeeRepository;
+import swp.se1889.g1.rice_store.repository.ShiftRepository;
+import swp.se1889.g1.rice_store.repository.UserRepository;
+import swp.se1889.g1.rice_store.repository.WorkShiftBulkRepository;
+import swp.se1889.g1.rice_store.repository.WorkShiftRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/*
+ Phát hiện trùng giờ của EmployeeTimeline qua assignRoster (dry run): ca nối tiếp nhau (kết thúc = bắt đầu) hợp lệ,
+ ca chồng lên nhau dù chỉ một phần bị từ chối, kể cả ca qua nửa đêm và phân công cũ đã có trong DB.
+*/
+@ExtendWith(MockitoExtension.class)
+class WorkShiftServiceRosterTest {
+
+    private static final long STORE_ID = 7L;
+    private static final long EMPLOYEE_ID = 100L;
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 10);
+
+    private static final Shift MORNING = shift(1L, "06:00", "14:00");
+    private static final Shift AFTERNOON = shift(2L, "14:00", "22:00");
+    private static final Shift NIGHT = shift(3L, "22:00", "06:00");
+    private static final Shift MIDDAY = shift(4L, "12:00", "18:00");
+    private static final Shift EARLY = shift(5L, "05:00", "13:00");
+
+    @Mock
+    private WorkShiftRepository workShiftRepository;
+    @Mock
+    private ShiftRepository shiftRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private WorkShiftBulkRepository workShiftBulkRepository;
+
+    private WorkShiftService workShiftService;
+
+    @BeforeEach
+    void setUp() {
+        workShiftService = new WorkShiftService(workShiftRepository, shiftRepository, userRepository,
+                employeeRepository, workShiftBulkRepository, 300);
+        when(shiftRepository.findByCreatedBy(String.valueOf(STORE_ID)))
+                .thenReturn(List.of(MORNING, AFTERNOON, NIGHT, MIDDAY, EARLY));
+        User employee = new User();
+        employee.setId(EMPLOYEE_ID);
+        when(employeeRepository.findByCreatedByAndRole(STORE_ID, "ROLE_EMPLOYEE")).thenReturn(List.of(employee));
+    }
+
+    @Test
+    void adjacentShiftsAreAccepted() {
+        existing();
+
+        RosterReportDTO report = plan(
+                assignment(MORNING, DAY),
+                assignment(AFTERNOON, DAY),
+                assignment(NIGHT, DAY),
+                assignment(MORNING, DAY.plusDays(1)));
+
+        assertThat(report.getConflicts()).isEmpty();
+        assertThat(report.getAssigned()).isEqualTo(4);
+        verifyNoInteractions(workShiftBulkRepository);
+    }
+
+    @Test
+    void partialOverlapOnEitherSideIsRejected() {
+        existing();
+
+        RosterReportDTO report = plan(
+                assignment(MORNING, DAY),
+                assignment(MIDDAY, DAY),
+                assignment(AFTERNOON, DAY.plusDays(1)),
+                assignment(MIDDAY, DAY.plusDays(1)));
+
+        // MIDDAY ngày đầu chồng đuôi ca sáng, MIDDAY ngày sau chồng đầu ca chiều
+        assertThat(report.getConflicts()).extracting(RosterReportDTO.Conflict::index).containsExactly(1, 3);
+        assertThat(report.getConflicts()).allSatisfy(c -> assertThat(c.reason()).startsWith("Trùng giờ với ca"));
+        assertThat(report.getAssigned()).isEqualTo(2);
+    }
+
+    @Test
+    void overnightShiftBlocksEarlyStartNextDayButNotAdjacentOne() {
+        existing(workShift(NIGHT, DAY));
+
+        RosterReportDTO report = plan(
+                assignment(EARLY, DAY.plusDays(1)),
+                assignment(MORNING, DAY.plusDays(1)),
+                assignment(NIGHT, DAY));
+
+        assertThat(report.getConflicts()).extracting(RosterReportDTO.Conflict::index).containsExactly(0, 2);
+        assertThat(report.getConflicts().get(0).reason()).contains(DAY + "T22:00").contains(DAY.plusDays(1) + "T06:00");
+        assertThat(report.getConflicts().get(1).reason()).isEqualTo("Nhân viên đã được phân công ca này trong ngày");
+        assertThat(report.getAssigned()).isEqualTo(1);
+    }
+
+    @Test
+    void overlappingExistingAssignmentsAreMergedBeforeChecking() {
+        // Dữ liệu cũ đã chồng nhau (06–14 và 12–18) được gộp thành một khoảng 06–18
+        existing(workShift(MORNING, DAY), workShift(MIDDAY, DAY));
+
+        RosterReportDTO report = plan(assignment(AFTERNOON, DAY));
+
+        assertThat(report.getConflicts()).singleElement()
+                .satisfies(c -> assertThat(c.reason()).contains(DAY + "T06:00").contains(DAY + "T18:00"));
+        assertThat(report.getAssigned()).isZero();
+    }
+
+    private void existing(WorkShift... workShifts) {
+        when(workShiftRepository.findByEmployeeInAndWorkDateBetween(any(), any(), any())).thenReturn(Arrays.asList(workShifts));
+    }
+
+    private RosterReportDTO plan(WorkShiftAssignmentDTO... items) {
+        return workShiftService.assignRoster(STORE_ID, List.of(items), true);
+    }
+
+    private static WorkShiftAssignmentDTO assignment(Shift shift, LocalDate workDate) {
+        WorkShiftAssignmentDTO item = new WorkShiftAssignmentDTO();
+        item.setUserId(EMPLOYEE_ID);
+        item.setShiftId(shift.getId());
+        item.setWorkDate(workDate);
+        return item;
+    }
+
+    private static WorkShift workShift(Shift shift, LocalDate workDate) {
+        LocalDateTime start = LocalDateTime.of(workDate, shift.getStartTime());
+        LocalDateTime end = LocalDateTime.of(workDate, shift.getEndTime());
+        WorkShift workShift = new WorkShift();
+        workShift.setEmployee(EMPLOYEE_ID);
+        workShift.setShift(shift.getId());
+        workShift.setWorkDate(workDate);
+        workShift.setScheduledStartTime(start);
+        workShift.setScheduledEndTime(end.isBefore(start) ? end.plusDays(1) : end);
+        return workShift;
+    }
+
+    private static Shift shift(Long id, String start, String end) {
+        Shift shift = new Shift();
+        shift.setId(id);
+        shift.setStartTime(LocalTime.parse(start));
+        shift.setEndTime(LocalTime.parse(end));
+        return shift;
+    }
+}
@@ -0,0 +1,98 @@
+package swp.se1889.g1.rice_store.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import swp.se1889.g1.rice_store.entity.Shift;
+import swp.se1889.g1.rice_store.entity.User;
+import swp.se1889.g1.rice_store.entity.WorkShift;
+import swp.se1889.g1.rice_store.repository.EmployeeRepository;
+import swp.se1889.g1.rice_store.repository.ShiftRepository;
+import swp.se1889.g1.rice_store.repository.UserRepository;
+import swp.se1889.g1.rice_store.repository.WorkShiftBulkRepository;
+import swp.se1889.g1.rice_store.repository.WorkShiftRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/*
+ Cache lưới lịch tuần: lượt đọc đã truy vấn xong trước khi một phân công mới commit không được để lại lịch cũ trong cache.
+*/
+@ExtendWith(MockitoExtension.class)
+class WorkShiftServiceWeekCacheTest {
+
+    private static final long STORE_ID = 7L;
+    private static final LocalDate WEEK = LocalDate.of(2024, 6, 10);
+
+    @Mock
+    private WorkShiftRepository workShiftRepository;
+    @Mock
+    private ShiftRepository shiftRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private WorkShiftBulkRepository workShiftBulkRepository;
+
+    private WorkShiftService workShiftService;
+    private final Shift morning = new Shift();
+    private final User employee = new User();
+
+    @BeforeEach
+    void setUp() {
+        workShiftService = new WorkShiftService(workShiftRepository, shiftRepository, userRepository,
+                employeeRepository, workShiftBulkRepository, 300);
+        morning.setId(1L);
+        morning.setShiftCode("SHIFT001");
+        employee.setId(100L);
+    }
+
+    @Test
+    void weekIsServedFromCacheUntilEvicted() {
+        when(workShiftRepository.findByCreatedByAndWorkDateBetween(String.valueOf(STORE_ID), WEEK, WEEK.plusDays(6)))
+                .thenReturn(List.of(assignment()));
+
+        grid();
+        grid();
+        verify(workShiftRepository, times(1)).findByCreatedByAndWorkDateBetween(String.valueOf(STORE_ID), WEEK, WEEK.plusDays(6));
+
+        workShiftService.evictSchedule(STORE_ID);
+        grid();
+        verify(workShiftRepository, times(2)).findByCreatedByAndWorkDateBetween(String.valueOf(STORE_ID), WEEK, WEEK.plusDays(6));
+    }
+
+    @Test
+    void evictionDuringLoadDiscardsTheStaleWeek() {
+        // Lượt đọc đầu thấy lịch trống; phân công mới commit (xóa cache) ngay sau truy vấn, trước khi lượt đọc put vào cache
+        when(workShiftRepository.findByCreatedByAndWorkDateBetween(String.valueOf(STORE_ID), WEEK, WEEK.plusDays(6)))
+                .thenAnswer(invocation -> {
+                    workShiftService.evictSchedule(STORE_ID);
+                    return List.of();
+                })
+                .thenReturn(List.of(assignment()));
+
+        assertThat(grid().get("SHIFT001").get(WEEK.toString())).isEmpty();
+        assertThat(grid().get("SHIFT001").get(WEEK.toString())).containsExactly(employee);
+    }
+
+    private Map<String, Map<String, List<User>>> grid() {
+        return workShiftService.getWeekScheduleGrid(STORE_ID, WEEK, List.of(morning), List.of(employee));
+    }
+
+    private WorkShift assignment() {
+        WorkShift workShift = new WorkShift();
+        workShift.setShift(morning.getId());
+        workShift.setEmployee(employee.getId());
+        workShift.setWorkDate(WEEK);
+        return workShift;
+    }
+}